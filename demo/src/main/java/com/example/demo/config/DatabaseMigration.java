@@ -1,8 +1,11 @@
 package com.example.demo.config;
 
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +20,9 @@ public class DatabaseMigration {
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseMigration.class);
 
+    /** Ids a node takes from a sequence at a time; must match the allocationSize of the entities. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -34,6 +40,36 @@ public class DatabaseMigration {
         addColumnIfNotExists("courses", "pdf_filename", "VARCHAR(255)");
         addColumnIfNotExists("courses", "pdf_original_name", "VARCHAR(255)");
         
+        // RAG chunk metadata
+        addColumnIfNotExists("course_chunks", "token_count", "INTEGER");
+        addColumnIfNotExists("course_chunks", "content_hash", "VARCHAR(64)");
+
+        // Background quiz generation (existing quizzes are complete)
+        addColumnIfNotExists("quizzes", "status", "VARCHAR(20) NOT NULL DEFAULT 'READY'");
+        addColumnIfNotExists("quizzes", "generation_error", "VARCHAR(1000)");
+
+        // Question bank origin of quiz questions
+        addColumnIfNotExists("questions", "bank_question_id", "BIGINT");
+
+        // Deferred quiz feedback
+        addColumnIfNotExists("quiz_results", "feedback_pending", "BOOLEAN NOT NULL DEFAULT FALSE");
+
+        // Per-course LLM provider (null = default provider)
+        addColumnIfNotExists("courses", "llm_provider", "VARCHAR(50)");
+        
+        // Pooled id sequences of the tables that used identity columns, so inserts can be batched
+        if (isPostgreSql()) {
+            createIdSequenceIfNotExists("quizzes", "quizzes_seq");
+            createIdSequenceIfNotExists("questions", "questions_seq");
+            createIdSequenceIfNotExists("answer_options", "answer_options_seq");
+            createIdSequenceIfNotExists("quiz_results", "quiz_results_seq");
+            createIdSequenceIfNotExists("course_chunks", "course_chunks_seq");
+            createIdSequenceIfNotExists("bank_questions", "bank_questions_seq");
+        } else {
+            // The sequence state query is PostgreSQL's; other databases get their sequences from the schema
+            log.info("Skipping id sequence migration: not a PostgreSQL database");
+        }
+        
         // Create modules table if it doesn't exist
         createModulesTableIfNotExists();
         
@@ -59,6 +95,50 @@ public class DatabaseMigration {
         }
     }
 
+    private boolean isPostgreSql() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            log.warn("Could not read the database product name: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Create the id sequence of a PostgreSQL table whose ids came from an identity column,
+     * and move it past the existing ids. The sequence is only moved while its
+     * next block of ids would overlap existing rows, so a restart never hands
+     * out ids another node has already taken.
+     */
+    private void createIdSequenceIfNotExists(String tableName, String sequenceName) {
+        try {
+            jdbcTemplate.execute(String.format("CREATE SEQUENCE IF NOT EXISTS %s START WITH 1 INCREMENT BY %d",
+                    sequenceName, ID_ALLOCATION_SIZE));
+
+            Long maxId = jdbcTemplate.queryForObject(String.format("SELECT MAX(id) FROM %s", tableName), Long.class);
+            if (maxId == null) {
+                return;
+            }
+
+            // The next nextval() hands out the block of ids ending at its value
+            Map<String, Object> sequence = jdbcTemplate.queryForMap(
+                    String.format("SELECT last_value, is_called FROM %s", sequenceName));
+            long lastValue = ((Number) sequence.get("last_value")).longValue();
+            boolean called = Boolean.TRUE.equals(sequence.get("is_called"));
+            long nextBlockStart = called ? lastValue + 1 : lastValue - ID_ALLOCATION_SIZE + 1;
+
+            if (nextBlockStart <= maxId) {
+                jdbcTemplate.queryForObject(String.format("SELECT setval('%s', %d, false)",
+                        sequenceName, maxId + ID_ALLOCATION_SIZE), Long.class);
+                log.info("Moved sequence {} past the existing ids of {} (max id {})", sequenceName, tableName, maxId);
+            }
+        } catch (Exception e) {
+            log.warn("Could not create id sequence {} for {}: {}", sequenceName, tableName, e.getMessage());
+        }
+    }
+
     private void createModulesTableIfNotExists() {
         try {
             String checkSql = """
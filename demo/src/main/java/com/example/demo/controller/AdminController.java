@@ -20,11 +20,14 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.demo.dto.CourseDTO;
+import com.example.demo.dto.CourseSummaryDTO;
 import com.example.demo.dto.DashboardStatsDTO;
+import com.example.demo.dto.EnrollmentRowDTO;
 import com.example.demo.dto.ModuleDTO;
+import com.example.demo.dto.ModuleSummaryDTO;
 import com.example.demo.dto.UserDTO;
 import com.example.demo.entity.Course;
-import com.example.demo.entity.Enrollment;
+import com.example.demo.entity.CourseStatus;
 import com.example.demo.entity.Module;
 import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
@@ -32,7 +35,9 @@ import com.example.demo.service.CourseService;
 import com.example.demo.service.DashboardService;
 import com.example.demo.service.EnrollmentService;
 import com.example.demo.service.FileStorageService;
+import com.example.demo.service.LLMService;
 import com.example.demo.service.ModuleService;
+import com.example.demo.service.QuizService;
 import com.example.demo.service.RAGService;
 import com.example.demo.service.UserService;
 
@@ -54,6 +59,8 @@ public class AdminController {
     private final ModuleService moduleService;
     private final FileStorageService fileStorageService;
     private final RAGService ragService;
+    private final LLMService llmService;
+    private final QuizService quizService;
 
     public AdminController(UserService userService,
                            CourseService courseService,
@@ -61,7 +68,9 @@ public class AdminController {
                            DashboardService dashboardService,
                            ModuleService moduleService,
                            FileStorageService fileStorageService,
-                           RAGService ragService) {
+                           RAGService ragService,
+                           LLMService llmService,
+                           QuizService quizService) {
         this.userService = userService;
         this.courseService = courseService;
         this.enrollmentService = enrollmentService;
@@ -69,6 +78,8 @@ public class AdminController {
         this.moduleService = moduleService;
         this.fileStorageService = fileStorageService;
         this.ragService = ragService;
+        this.llmService = llmService;
+        this.quizService = quizService;
     }
 
     // ========== Dashboard ==========
@@ -77,8 +88,8 @@ public class AdminController {
     public String dashboard(Model model) {
         DashboardStatsDTO stats = dashboardService.getAdminDashboardStats();
         model.addAttribute("stats", stats);
-        model.addAttribute("recentCourses", courseService.findAllCourses().stream().limit(5).toList());
-        model.addAttribute("recentStudents", userService.findAllStudents().stream().limit(5).toList());
+        model.addAttribute("recentCourses", dashboardService.getRecentCourses(null));
+        model.addAttribute("recentStudents", dashboardService.getRecentUsers(Role.STUDENT));
         return "admin/dashboard";
     }
 
@@ -162,10 +173,8 @@ public class AdminController {
 
     @GetMapping("/courses")
     public String listCourses(Model model) {
-        List<Course> courses = courseService.findAllCoursesOrdered();
-        List<Module> modules = moduleService.findAllModules();
+        List<CourseSummaryDTO> courses = courseService.findAllSummaries();
         model.addAttribute("courses", courses);
-        model.addAttribute("modules", modules);
         return "admin/courses/list";
     }
 
@@ -173,6 +182,7 @@ public class AdminController {
     public String newCourseForm(Model model) {
         model.addAttribute("course", new CourseDTO());
         model.addAttribute("modules", moduleService.findActiveModules());
+        model.addAttribute("llmProviders", llmService.getProviderNames());
         return "admin/courses/form";
     }
 
@@ -192,6 +202,7 @@ public class AdminController {
         
         if (result.hasErrors()) {
             model.addAttribute("modules", moduleService.findActiveModules());
+            model.addAttribute("llmProviders", llmService.getProviderNames());
             return "admin/courses/form";
         }
 
@@ -210,10 +221,11 @@ public class AdminController {
     public String viewCourse(@PathVariable Long id, Model model) {
         Course course = courseService.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found"));
-        List<Enrollment> enrollments = enrollmentService.findByCourse(id);
+        List<EnrollmentRowDTO> enrollments = enrollmentService.findRowsByCourse(id);
         List<User> availableStudents = userService.findStudentsNotEnrolledInCourse(id);
 
         model.addAttribute("course", course);
+        model.addAttribute("quizCount", quizService.countQuizzesByCourse(id));
         model.addAttribute("enrollments", enrollments);
         model.addAttribute("availableStudents", availableStudents);
         return "admin/courses/view";
@@ -221,10 +233,11 @@ public class AdminController {
 
     @GetMapping("/courses/{id}/edit")
     public String editCourseForm(@PathVariable Long id, Model model) {
-        Course course = courseService.findById(id)
+        Course course = courseService.findByIdWithDetails(id)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found"));
         model.addAttribute("course", courseService.toDTO(course));
         model.addAttribute("modules", moduleService.findActiveModules());
+        model.addAttribute("llmProviders", llmService.getProviderNames());
         return "admin/courses/form";
     }
 
@@ -253,6 +266,7 @@ public class AdminController {
         
         if (result.hasErrors()) {
             model.addAttribute("modules", moduleService.findActiveModules());
+            model.addAttribute("llmProviders", llmService.getProviderNames());
             return "admin/courses/form";
         }
 
@@ -311,7 +325,7 @@ public class AdminController {
     public String indexCourse(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
             courseService.indexCourseForRAG(id);
-            redirectAttributes.addFlashAttribute("success", "Course indexed for AI quiz generation!");
+            redirectAttributes.addFlashAttribute("success", "Indexing started. The course will be ready for AI quiz generation shortly.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
@@ -369,7 +383,7 @@ public class AdminController {
 
     @GetMapping("/modules")
     public String listModules(Model model) {
-        List<Module> modules = moduleService.findAllModules();
+        List<ModuleSummaryDTO> modules = moduleService.findAllSummaries();
         model.addAttribute("modules", modules);
         return "admin/modules/list";
     }
@@ -403,15 +417,20 @@ public class AdminController {
 
     @GetMapping("/modules/{id}")
     public String viewModule(@PathVariable Long id, Model model) {
-        Module module = moduleService.findByIdWithCourses(id)
+        Module module = moduleService.findByIdWithCreator(id)
                 .orElseThrow(() -> new IllegalArgumentException("Module not found"));
+        List<CourseSummaryDTO> courses = courseService.findSummariesByModule(id);
         model.addAttribute("module", module);
+        model.addAttribute("courses", courses);
+        model.addAttribute("publishedCourseCount", courses.stream()
+                .filter(course -> course.getStatus() == CourseStatus.PUBLISHED)
+                .count());
         return "admin/modules/view";
     }
 
     @GetMapping("/modules/{id}/edit")
     public String editModuleForm(@PathVariable Long id, Model model) {
-        Module module = moduleService.findById(id)
+        Module module = moduleService.findByIdWithCourses(id)
                 .orElseThrow(() -> new IllegalArgumentException("Module not found"));
         model.addAttribute("module", moduleService.toDTO(module));
         return "admin/modules/form";
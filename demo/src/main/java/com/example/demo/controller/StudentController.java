@@ -19,12 +19,17 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.demo.dto.DashboardStatsDTO;
+import com.example.demo.dto.EnrollmentRowDTO;
+import com.example.demo.dto.ModuleSummaryDTO;
+import com.example.demo.dto.QuizFeedbackDTO;
+import com.example.demo.dto.QuizQuestionsDTO;
 import com.example.demo.dto.QuizRequestDTO;
+import com.example.demo.dto.QuizResultRowDTO;
+import com.example.demo.dto.QuizStatusDTO;
 import com.example.demo.dto.QuizSubmissionDTO;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.DifficultyLevel;
 import com.example.demo.entity.Enrollment;
-import com.example.demo.entity.Module;
 import com.example.demo.entity.Question;
 import com.example.demo.entity.Quiz;
 import com.example.demo.entity.QuizResult;
@@ -79,8 +84,8 @@ public class StudentController {
     public String dashboard(Model model) {
         Long studentId = securityUtils.getCurrentUserId();
         DashboardStatsDTO stats = dashboardService.getStudentDashboardStats(studentId);
-        List<Enrollment> enrollments = enrollmentService.findByStudent(studentId);
-        List<QuizResult> recentResults = quizService.findResultsByStudent(studentId).stream().limit(5).toList();
+        List<EnrollmentRowDTO> enrollments = enrollmentService.findRowsByStudent(studentId);
+        List<QuizResultRowDTO> recentResults = dashboardService.getRecentResults(studentId);
 
         model.addAttribute("stats", stats);
         model.addAttribute("enrollments", enrollments);
@@ -94,8 +99,8 @@ public class StudentController {
     @GetMapping("/courses")
     public String listCourses(Model model) {
         Long studentId = securityUtils.getCurrentUserId();
-        List<Enrollment> enrollments = enrollmentService.findByStudent(studentId);
-        List<Module> modules = moduleService.findActiveModulesWithCourses();
+        List<EnrollmentRowDTO> enrollments = enrollmentService.findRowsByStudent(studentId);
+        List<ModuleSummaryDTO> modules = moduleService.findActiveSummaries();
         model.addAttribute("enrollments", enrollments);
         model.addAttribute("modules", modules);
         return "student/courses/list";
@@ -111,7 +116,7 @@ public class StudentController {
             return "redirect:/student/courses";
         }
 
-        Course course = courseService.findById(id)
+        Course course = courseService.findByIdWithDetails(id)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found"));
         Enrollment enrollment = enrollmentService.findByStudentAndCourse(studentId, id)
                 .orElseThrow(() -> new IllegalArgumentException("Enrollment not found"));
@@ -219,7 +224,7 @@ public class StudentController {
     public String viewQuiz(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         Long studentId = securityUtils.getCurrentUserId();
 
-        Quiz quiz = quizService.findByIdWithQuestions(id);
+        Quiz quiz = quizService.findByIdWithCourse(id).orElse(null);
         if (quiz == null) {
             redirectAttributes.addFlashAttribute("error", "Quiz not found.");
             return "redirect:/student/quizzes";
@@ -237,11 +242,80 @@ public class StudentController {
         }
 
         List<Question> questions = quizService.findQuestionsByQuizId(id);
+
+        // Questions are still being generated in the background; once the
+        // first ones have arrived, the quiz page shows them and polls for the rest
+        if (quiz.isPending() && questions.isEmpty()) {
+            model.addAttribute("quiz", quiz);
+            return "student/quizzes/pending";
+        }
+
+        if (!quiz.isReady() && !quiz.isPending()) {
+            redirectAttributes.addFlashAttribute("error", "Failed to generate quiz: " + quiz.getGenerationError());
+            return "redirect:/student/courses/" + quiz.getCourse().getId();
+        }
+
         model.addAttribute("quiz", quiz);
         model.addAttribute("questions", questions);
         return "student/quizzes/take";
     }
 
+    /**
+     * Generation status of a quiz, polled by the pending quiz page.
+     */
+    @GetMapping("/quizzes/{id}/status")
+    public ResponseEntity<QuizStatusDTO> quizStatus(@PathVariable Long id) {
+        Long studentId = securityUtils.getCurrentUserId();
+
+        Quiz quiz = quizService.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
+
+        if (!quiz.getStudent().getId().equals(studentId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(new QuizStatusDTO(quiz, quizService.countQuestions(id)));
+    }
+
+    /**
+     * Questions of a quiz from the given index on, polled by the quiz page
+     * while the rest of the questions are generated.
+     */
+    @GetMapping("/quizzes/{id}/questions")
+    public ResponseEntity<QuizQuestionsDTO> quizQuestions(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "0") int from) {
+        Long studentId = securityUtils.getCurrentUserId();
+
+        Quiz quiz = quizService.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found"));
+
+        if (!quiz.getStudent().getId().equals(studentId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        List<Question> questions = quizService.findQuestionsByQuizId(id).stream()
+                .filter(question -> question.getQuestionIndex() >= from)
+                .toList();
+        return ResponseEntity.ok(new QuizQuestionsDTO(quiz, questions));
+    }
+
+    /**
+     * Feedback of a submitted quiz, polled by the result page while the LLM feedback is written.
+     */
+    @GetMapping("/quizzes/{id}/feedback")
+    public ResponseEntity<QuizFeedbackDTO> quizFeedback(@PathVariable Long id) {
+        Long studentId = securityUtils.getCurrentUserId();
+
+        QuizResult result = quizService.findResultByQuizId(id)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz result not found"));
+
+        if (!result.getStudent().getId().equals(studentId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(new QuizFeedbackDTO(result));
+    }
+
     @PostMapping("/quizzes/{id}/submit")
     public String submitQuiz(@PathVariable Long id,
                              @RequestParam Map<String, String> formParams,
@@ -274,7 +348,7 @@ public class StudentController {
     public String viewQuizResult(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         Long studentId = securityUtils.getCurrentUserId();
 
-        Quiz quiz = quizService.findByIdWithQuestions(id);
+        Quiz quiz = quizService.findByIdWithCourse(id).orElse(null);
         if (quiz == null) {
             redirectAttributes.addFlashAttribute("error", "Quiz not found.");
             return "redirect:/student/quizzes";
@@ -286,7 +360,7 @@ public class StudentController {
             return "redirect:/student/quizzes";
         }
 
-        QuizResult result = quizService.findResultByQuizId(id)
+        QuizResult result = quizService.findResultWithAnswersByQuizId(id)
                 .orElse(null);
 
         if (result == null) {
@@ -307,7 +381,7 @@ public class StudentController {
     @GetMapping("/history")
     public String quizHistory(Model model) {
         Long studentId = securityUtils.getCurrentUserId();
-        List<QuizResult> results = quizService.findResultsByStudent(studentId);
+        List<QuizResultRowDTO> results = quizService.findResultRowsByStudent(studentId);
         Double averageScore = quizService.getAverageScoreByStudent(studentId);
         long passedCount = quizService.countPassedByStudent(studentId);
 
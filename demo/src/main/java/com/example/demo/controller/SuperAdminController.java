@@ -20,6 +20,7 @@ import com.example.demo.repository.CourseRepository;
 import com.example.demo.repository.EnrollmentRepository;
 import com.example.demo.repository.QuizRepository;
 import com.example.demo.repository.QuizResultRepository;
+import com.example.demo.service.DashboardService;
 import com.example.demo.service.UserService;
 
 import jakarta.validation.Valid;
@@ -44,17 +45,20 @@ public class SuperAdminController {
     private final EnrollmentRepository enrollmentRepository;
     private final QuizRepository quizRepository;
     private final QuizResultRepository quizResultRepository;
+    private final DashboardService dashboardService;
 
     public SuperAdminController(UserService userService,
                                 CourseRepository courseRepository,
                                 EnrollmentRepository enrollmentRepository,
                                 QuizRepository quizRepository,
-                                QuizResultRepository quizResultRepository) {
+                                QuizResultRepository quizResultRepository,
+                                DashboardService dashboardService) {
         this.userService = userService;
         this.courseRepository = courseRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.quizRepository = quizRepository;
         this.quizResultRepository = quizResultRepository;
+        this.dashboardService = dashboardService;
     }
 
     // ========== Dashboard ==========
@@ -77,8 +81,8 @@ public class SuperAdminController {
         model.addAttribute("totalQuizResults", totalQuizResults);
         
         // Recent activity
-        model.addAttribute("recentTeachers", userService.findAllTeachers().stream().limit(5).toList());
-        model.addAttribute("recentStudents", userService.findAllStudents().stream().limit(5).toList());
+        model.addAttribute("recentTeachers", dashboardService.getRecentUsers(Role.TEACHER));
+        model.addAttribute("recentStudents", dashboardService.getRecentUsers(Role.STUDENT));
         
         return "superadmin/dashboard";
     }
@@ -201,7 +205,7 @@ public class SuperAdminController {
     public String viewActivity(Model model) {
         // Summary of platform activity
         model.addAttribute("totalQuizzesTaken", quizResultRepository.count());
-        model.addAttribute("recentQuizResults", quizResultRepository.findAll().stream().limit(10).toList());
+        model.addAttribute("recentQuizResults", dashboardService.getRecentQuizActivity());
         
         return "superadmin/activity";
     }
@@ -20,11 +20,16 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.demo.dto.CourseDTO;
+import com.example.demo.dto.CourseSummaryDTO;
 import com.example.demo.dto.DashboardStatsDTO;
+import com.example.demo.dto.EnrollmentRowDTO;
+import com.example.demo.dto.IndexingStatusDTO;
 import com.example.demo.dto.ModuleDTO;
+import com.example.demo.dto.ModuleSummaryDTO;
 import com.example.demo.dto.UserDTO;
 import com.example.demo.entity.Course;
-import com.example.demo.entity.Enrollment;
+import com.example.demo.entity.CourseStatus;
+import com.example.demo.entity.IndexingJob;
 import com.example.demo.entity.Module;
 import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
@@ -32,7 +37,9 @@ import com.example.demo.service.CourseService;
 import com.example.demo.service.DashboardService;
 import com.example.demo.service.EnrollmentService;
 import com.example.demo.service.FileStorageService;
+import com.example.demo.service.IndexingJobService;
 import com.example.demo.service.ModuleService;
+import com.example.demo.service.QuizService;
 import com.example.demo.service.RAGService;
 import com.example.demo.service.UserService;
 
@@ -55,6 +62,8 @@ public class TeacherController {
     private final ModuleService moduleService;
     private final FileStorageService fileStorageService;
     private final RAGService ragService;
+    private final IndexingJobService indexingJobService;
+    private final QuizService quizService;
     private final com.example.demo.security.SecurityUtils securityUtils;
 
     public TeacherController(UserService userService,
@@ -64,6 +73,8 @@ public class TeacherController {
                            ModuleService moduleService,
                            FileStorageService fileStorageService,
                            RAGService ragService,
+                           IndexingJobService indexingJobService,
+                           QuizService quizService,
                            com.example.demo.security.SecurityUtils securityUtils) {
         this.userService = userService;
         this.courseService = courseService;
@@ -72,6 +83,8 @@ public class TeacherController {
         this.moduleService = moduleService;
         this.fileStorageService = fileStorageService;
         this.ragService = ragService;
+        this.indexingJobService = indexingJobService;
+        this.quizService = quizService;
         this.securityUtils = securityUtils;
     }
 
@@ -84,8 +97,8 @@ public class TeacherController {
         // Show only teacher's courses
         Long teacherId = securityUtils.getCurrentUserId();
         model.addAttribute("stats", stats);
-        model.addAttribute("recentCourses", courseService.findByTeacher(teacherId).stream().limit(5).toList());
-        model.addAttribute("recentStudents", userService.findAllStudents().stream().limit(5).toList());
+        model.addAttribute("recentCourses", dashboardService.getRecentCourses(teacherId));
+        model.addAttribute("recentStudents", dashboardService.getRecentUsers(Role.STUDENT));
         return "teacher/dashboard";
     }
 
@@ -171,10 +184,8 @@ public class TeacherController {
     @GetMapping("/courses")
     public String listCourses(Model model) {
         Long teacherId = securityUtils.getCurrentUserId();
-        List<Course> courses = courseService.findByTeacher(teacherId);
-        List<Module> modules = moduleService.findByTeacher(teacherId);
+        List<CourseSummaryDTO> courses = courseService.findSummariesByTeacher(teacherId);
         model.addAttribute("courses", courses);
-        model.addAttribute("modules", modules);
         return "teacher/courses/list";
     }
 
@@ -227,19 +238,22 @@ public class TeacherController {
             throw new org.springframework.security.access.AccessDeniedException("You do not own this course");
         }
 
-        List<Enrollment> enrollments = enrollmentService.findByCourse(id);
+        List<EnrollmentRowDTO> enrollments = enrollmentService.findRowsByCourse(id);
         List<User> availableStudents = userService.findStudentsNotEnrolledInCourse(id);
 
         model.addAttribute("course", course);
+        model.addAttribute("quizCount", quizService.countQuizzesByCourse(id));
         model.addAttribute("enrollments", enrollments);
         model.addAttribute("availableStudents", availableStudents);
+        model.addAttribute("indexingJob", indexingJobService.findLatestByCourse(id)
+                .filter(IndexingJob::isActive).orElse(null));
         return "teacher/courses/view";
     }
 
     @GetMapping("/courses/{id}/edit")
     public String editCourseForm(@PathVariable Long id, Model model) {
         Long teacherId = securityUtils.getCurrentUserId();
-        Course course = courseService.findById(id)
+        Course course = courseService.findByIdWithDetails(id)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found"));
         
         if (!course.getCreatedBy().getId().equals(teacherId)) {
@@ -368,13 +382,27 @@ public class TeacherController {
 
         try {
             courseService.indexCourseForRAG(id);
-            redirectAttributes.addFlashAttribute("success", "Course indexed for AI quiz generation!");
+            redirectAttributes.addFlashAttribute("success", "Indexing started. The course will be ready for AI quiz generation shortly.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
         return "redirect:/teacher/courses/" + id;
     }
 
+    @GetMapping("/courses/{id}/index/status")
+    public ResponseEntity<IndexingStatusDTO> indexingStatus(@PathVariable Long id) {
+        Long teacherId = securityUtils.getCurrentUserId();
+        Course course = courseService.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+
+        if (!course.getCreatedBy().getId().equals(teacherId)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        IndexingJob job = indexingJobService.findLatestByCourse(id).orElse(null);
+        return ResponseEntity.ok(new IndexingStatusDTO(job, course.isIndexed()));
+    }
+
     @GetMapping("/courses/{id}/rag")
     public String viewRAGOutput(@PathVariable Long id, Model model) {
         Long teacherId = securityUtils.getCurrentUserId();
@@ -450,7 +478,7 @@ public class TeacherController {
     @GetMapping("/modules")
     public String listModules(Model model) {
         Long teacherId = securityUtils.getCurrentUserId();
-        List<Module> modules = moduleService.findByTeacher(teacherId);
+        List<ModuleSummaryDTO> modules = moduleService.findSummariesByTeacher(teacherId);
         model.addAttribute("modules", modules);
         return "teacher/modules/list";
     }
@@ -485,21 +513,26 @@ public class TeacherController {
     @GetMapping("/modules/{id}")
     public String viewModule(@PathVariable Long id, Model model) {
         Long teacherId = securityUtils.getCurrentUserId();
-        Module module = moduleService.findByIdWithCourses(id)
+        Module module = moduleService.findByIdWithCreator(id)
                 .orElseThrow(() -> new IllegalArgumentException("Module not found"));
         
         if (!module.getCreatedBy().getId().equals(teacherId)) {
              throw new org.springframework.security.access.AccessDeniedException("You do not own this module");
         }
 
+        List<CourseSummaryDTO> courses = courseService.findSummariesByModule(id);
         model.addAttribute("module", module);
+        model.addAttribute("courses", courses);
+        model.addAttribute("publishedCourseCount", courses.stream()
+                .filter(course -> course.getStatus() == CourseStatus.PUBLISHED)
+                .count());
         return "teacher/modules/view";
     }
 
     @GetMapping("/modules/{id}/edit")
     public String editModuleForm(@PathVariable Long id, Model model) {
         Long teacherId = securityUtils.getCurrentUserId();
-        Module module = moduleService.findById(id)
+        Module module = moduleService.findByIdWithCourses(id)
                 .orElseThrow(() -> new IllegalArgumentException("Module not found"));
         
         if (!module.getCreatedBy().getId().equals(teacherId)) {
@@ -0,0 +1,56 @@
+package com.example.demo.dto;
+
+/**
+ * Read model of a course chunk for assembling prompt contexts: its text and
+ * position, without the embedding.
+ */
+public class ChunkTextDTO {
+
+    private Long id;
+    private int chunkIndex;
+    private Integer tokenCount;
+    private String content;
+
+    // Constructors
+    public ChunkTextDTO() {}
+
+    public ChunkTextDTO(Long id, Integer chunkIndex, Integer tokenCount, String content) {
+        this.id = id;
+        this.chunkIndex = chunkIndex;
+        this.tokenCount = tokenCount;
+        this.content = content;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(int chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Integer getTokenCount() {
+        return tokenCount;
+    }
+
+    public void setTokenCount(Integer tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
@@ -35,6 +35,9 @@ public class CourseDTO {
     private String pdfOriginalName;
     private boolean removePdf = false;
 
+    // LLM provider name; blank for the default provider, null to leave it unchanged
+    private String llmProvider;
+
     // Constructors
     public CourseDTO() {}
 
@@ -165,4 +168,12 @@ public class CourseDTO {
     public void setRemovePdf(boolean removePdf) {
         this.removePdf = removePdf;
     }
+
+    public String getLlmProvider() {
+        return llmProvider;
+    }
+
+    public void setLlmProvider(String llmProvider) {
+        this.llmProvider = llmProvider;
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entity.CourseStatus;
+
+/**
+ * Read model of a course in the course lists and dashboards: the columns
+ * shown there and the number of enrollments, without the course content.
+ */
+public class CourseSummaryDTO {
+
+    private Long id;
+    private String title;
+    private String description;
+    private CourseStatus status;
+    private boolean indexed;
+    private Integer displayOrder;
+    private LocalDateTime createdAt;
+    private Long moduleId;
+    private String moduleName;
+    private long enrollmentCount;
+
+    // Constructors
+    public CourseSummaryDTO() {}
+
+    public CourseSummaryDTO(Long id, String title, String description, CourseStatus status, Boolean indexed,
+                            Integer displayOrder, LocalDateTime createdAt, Long moduleId, String moduleName,
+                            Long enrollmentCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.indexed = indexed;
+        this.displayOrder = displayOrder;
+        this.createdAt = createdAt;
+        this.moduleId = moduleId;
+        this.moduleName = moduleName;
+        this.enrollmentCount = enrollmentCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public CourseStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CourseStatus status) {
+        this.status = status;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
+
+    public Integer getDisplayOrder() {
+        return displayOrder;
+    }
+
+    public void setDisplayOrder(Integer displayOrder) {
+        this.displayOrder = displayOrder;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getModuleId() {
+        return moduleId;
+    }
+
+    public void setModuleId(Long moduleId) {
+        this.moduleId = moduleId;
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public void setModuleName(String moduleName) {
+        this.moduleName = moduleName;
+    }
+
+    public long getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    public void setEnrollmentCount(long enrollmentCount) {
+        this.enrollmentCount = enrollmentCount;
+    }
+}
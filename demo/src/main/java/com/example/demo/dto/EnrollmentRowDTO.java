@@ -0,0 +1,142 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entity.EnrollmentStatus;
+
+/**
+ * Read model of an enrollment in the enrollment tables: the enrollment's
+ * progress with the title of its course and the name of its student.
+ */
+public class EnrollmentRowDTO {
+
+    private Long id;
+    private Long studentId;
+    private String studentName;
+    private Long courseId;
+    private String courseTitle;
+    private String courseDescription;
+    private boolean courseIndexed;
+    private Long moduleId;
+    private EnrollmentStatus status;
+    private int progressPercentage;
+    private boolean courseCompleted;
+    private LocalDateTime enrolledAt;
+
+    // Constructors
+    public EnrollmentRowDTO() {}
+
+    public EnrollmentRowDTO(Long id, Long studentId, String studentName, Long courseId, String courseTitle,
+                            String courseDescription, Boolean courseIndexed, Long moduleId, EnrollmentStatus status,
+                            Integer progressPercentage, Boolean courseCompleted, LocalDateTime enrolledAt) {
+        this.id = id;
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.courseId = courseId;
+        this.courseTitle = courseTitle;
+        this.courseDescription = courseDescription;
+        this.courseIndexed = courseIndexed;
+        this.moduleId = moduleId;
+        this.status = status;
+        this.progressPercentage = progressPercentage != null ? progressPercentage : 0;
+        this.courseCompleted = courseCompleted;
+        this.enrolledAt = enrolledAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public void setStudentName(String studentName) {
+        this.studentName = studentName;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getCourseTitle() {
+        return courseTitle;
+    }
+
+    public void setCourseTitle(String courseTitle) {
+        this.courseTitle = courseTitle;
+    }
+
+    public String getCourseDescription() {
+        return courseDescription;
+    }
+
+    public void setCourseDescription(String courseDescription) {
+        this.courseDescription = courseDescription;
+    }
+
+    public boolean isCourseIndexed() {
+        return courseIndexed;
+    }
+
+    public void setCourseIndexed(boolean courseIndexed) {
+        this.courseIndexed = courseIndexed;
+    }
+
+    public Long getModuleId() {
+        return moduleId;
+    }
+
+    public void setModuleId(Long moduleId) {
+        this.moduleId = moduleId;
+    }
+
+    public EnrollmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EnrollmentStatus status) {
+        this.status = status;
+    }
+
+    public int getProgressPercentage() {
+        return progressPercentage;
+    }
+
+    public void setProgressPercentage(int progressPercentage) {
+        this.progressPercentage = progressPercentage;
+    }
+
+    public boolean isCourseCompleted() {
+        return courseCompleted;
+    }
+
+    public void setCourseCompleted(boolean courseCompleted) {
+        this.courseCompleted = courseCompleted;
+    }
+
+    public LocalDateTime getEnrolledAt() {
+        return enrolledAt;
+    }
+
+    public void setEnrolledAt(LocalDateTime enrolledAt) {
+        this.enrolledAt = enrolledAt;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.IndexingJob;
+
+/**
+ * DTO for the indexing status of a course, polled by the course view.
+ */
+public class IndexingStatusDTO {
+
+    private Long jobId;
+    private String status;
+    private String stage;
+    private int progress;
+    private String message;
+    private boolean indexed;
+
+    // Constructors
+    public IndexingStatusDTO() {}
+
+    public IndexingStatusDTO(IndexingJob job, boolean indexed) {
+        if (job != null) {
+            this.jobId = job.getId();
+            this.status = job.getStatus().name();
+            this.stage = job.getStage() != null ? job.getStage().name() : null;
+            this.progress = job.getProgress();
+            this.message = job.getMessage();
+        }
+        this.indexed = indexed;
+    }
+
+    // Getters and Setters
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
+}
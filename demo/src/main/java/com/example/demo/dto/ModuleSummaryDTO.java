@@ -0,0 +1,99 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a module in the module lists: its own columns, the name of
+ * its author and the number of its courses.
+ */
+public class ModuleSummaryDTO {
+
+    private Long id;
+    private String name;
+    private String description;
+    private Integer displayOrder;
+    private boolean active;
+    private LocalDateTime createdAt;
+    private String createdByName;
+    private long courseCount;
+
+    // Constructors
+    public ModuleSummaryDTO() {}
+
+    public ModuleSummaryDTO(Long id, String name, String description, Integer displayOrder, Boolean active,
+                            LocalDateTime createdAt, String createdByName, Long courseCount) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.displayOrder = displayOrder;
+        this.active = active;
+        this.createdAt = createdAt;
+        this.createdByName = createdByName;
+        this.courseCount = courseCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getDisplayOrder() {
+        return displayOrder;
+    }
+
+    public void setDisplayOrder(Integer displayOrder) {
+        this.displayOrder = displayOrder;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCreatedByName() {
+        return createdByName;
+    }
+
+    public void setCreatedByName(String createdByName) {
+        this.createdByName = createdByName;
+    }
+
+    public long getCourseCount() {
+        return courseCount;
+    }
+
+    public void setCourseCount(long courseCount) {
+        this.courseCount = courseCount;
+    }
+}
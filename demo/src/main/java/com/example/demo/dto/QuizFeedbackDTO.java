@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.QuizResult;
+
+/**
+ * DTO for the feedback of a quiz result, polled while the LLM feedback is written.
+ */
+public class QuizFeedbackDTO {
+
+    private boolean pending;
+    private String feedback;
+
+    // Constructors
+    public QuizFeedbackDTO() {}
+
+    public QuizFeedbackDTO(QuizResult result) {
+        this.pending = result.isFeedbackPending();
+        this.feedback = result.getAgentFeedback();
+    }
+
+    // Getters and Setters
+    public boolean isPending() {
+        return pending;
+    }
+
+    public void setPending(boolean pending) {
+        this.pending = pending;
+    }
+
+    public String getFeedback() {
+        return feedback;
+    }
+
+    public void setFeedback(String feedback) {
+        this.feedback = feedback;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entity.AnswerOption;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Quiz;
+
+/**
+ * DTO for the questions of a quiz that is still being generated, polled by the
+ * quiz page to show questions as they arrive. Correct answers and explanations
+ * are deliberately left out.
+ */
+public class QuizQuestionsDTO {
+
+    private String status;
+    private String error;
+    private List<QuestionItem> questions = new ArrayList<>();
+
+    // Constructors
+    public QuizQuestionsDTO() {}
+
+    public QuizQuestionsDTO(Quiz quiz, List<Question> questions) {
+        this.status = quiz.getStatus().name();
+        this.error = quiz.getGenerationError();
+        for (Question question : questions) {
+            this.questions.add(new QuestionItem(question));
+        }
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<QuestionItem> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<QuestionItem> questions) {
+        this.questions = questions;
+    }
+
+    /**
+     * A question as shown to the student: its text and the text of its options.
+     */
+    public static class QuestionItem {
+
+        private Long id;
+        private int questionIndex;
+        private String questionText;
+        private List<String> options = new ArrayList<>();
+
+        // Constructors
+        public QuestionItem() {}
+
+        public QuestionItem(Question question) {
+            this.id = question.getId();
+            this.questionIndex = question.getQuestionIndex();
+            this.questionText = question.getQuestionText();
+            for (AnswerOption option : question.getOptions()) {
+                this.options.add(option.getOptionText());
+            }
+        }
+
+        // Getters and Setters
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public int getQuestionIndex() {
+            return questionIndex;
+        }
+
+        public void setQuestionIndex(int questionIndex) {
+            this.questionIndex = questionIndex;
+        }
+
+        public String getQuestionText() {
+            return questionText;
+        }
+
+        public void setQuestionText(String questionText) {
+            this.questionText = questionText;
+        }
+
+        public List<String> getOptions() {
+            return options;
+        }
+
+        public void setOptions(List<String> options) {
+            this.options = options;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Read model of a quiz result in the result histories: the score with the
+ * quiz's course and difficulty and the student's name, without the answers
+ * or feedback.
+ */
+public class QuizResultRowDTO {
+
+    private Long quizId;
+    private Long courseId;
+    private String courseTitle;
+    private DifficultyLevel difficulty;
+    private String studentName;
+    private int totalQuestions;
+    private int correctAnswers;
+    private double scorePercentage;
+    private boolean passed;
+    private int timeTakenSeconds;
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public QuizResultRowDTO() {}
+
+    public QuizResultRowDTO(Long quizId, Long courseId, String courseTitle, DifficultyLevel difficulty,
+                            String studentName, Integer totalQuestions, Integer correctAnswers,
+                            Double scorePercentage, Boolean passed, Integer timeTakenSeconds,
+                            LocalDateTime completedAt) {
+        this.quizId = quizId;
+        this.courseId = courseId;
+        this.courseTitle = courseTitle;
+        this.difficulty = difficulty;
+        this.studentName = studentName;
+        this.totalQuestions = totalQuestions;
+        this.correctAnswers = correctAnswers;
+        this.scorePercentage = scorePercentage;
+        this.passed = passed;
+        this.timeTakenSeconds = timeTakenSeconds;
+        this.completedAt = completedAt;
+    }
+
+    // Getters and Setters
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Long quizId) {
+        this.quizId = quizId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getCourseTitle() {
+        return courseTitle;
+    }
+
+    public void setCourseTitle(String courseTitle) {
+        this.courseTitle = courseTitle;
+    }
+
+    public DifficultyLevel getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(DifficultyLevel difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public void setStudentName(String studentName) {
+        this.studentName = studentName;
+    }
+
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public void setTotalQuestions(int totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+
+    public int getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public void setCorrectAnswers(int correctAnswers) {
+        this.correctAnswers = correctAnswers;
+    }
+
+    public double getScorePercentage() {
+        return scorePercentage;
+    }
+
+    public void setScorePercentage(double scorePercentage) {
+        this.scorePercentage = scorePercentage;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public void setPassed(boolean passed) {
+        this.passed = passed;
+    }
+
+    public int getTimeTakenSeconds() {
+        return timeTakenSeconds;
+    }
+
+    public void setTimeTakenSeconds(int timeTakenSeconds) {
+        this.timeTakenSeconds = timeTakenSeconds;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Quiz;
+
+/**
+ * DTO for the generation status of a quiz, polled while it is generated.
+ */
+public class QuizStatusDTO {
+
+    private Long quizId;
+    private String status;
+    private String error;
+    private long questionCount;
+
+    // Constructors
+    public QuizStatusDTO() {}
+
+    public QuizStatusDTO(Quiz quiz, long questionCount) {
+        this.quizId = quiz.getId();
+        this.status = quiz.getStatus().name();
+        this.error = quiz.getGenerationError();
+        this.questionCount = questionCount;
+    }
+
+    // Getters and Setters
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Long quizId) {
+        this.quizId = quizId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getQuestionCount() {
+        return questionCount;
+    }
+
+    public void setQuestionCount(long questionCount) {
+        this.questionCount = questionCount;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+/**
+ * Read model of a user in the dashboard user lists.
+ */
+public class UserSummaryDTO {
+
+    private Long id;
+    private String fullName;
+    private String email;
+    private boolean enabled;
+
+    // Constructors
+    public UserSummaryDTO() {}
+
+    public UserSummaryDTO(Long id, String fullName, String email, Boolean enabled) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.enabled = enabled;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
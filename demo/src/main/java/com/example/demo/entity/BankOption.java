@@ -0,0 +1,42 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Embeddable class representing an answer option of a question bank entry.
+ */
+@Embeddable
+public class BankOption {
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String optionText;
+
+    @Column(columnDefinition = "TEXT")
+    private String explanation;
+
+    // Constructors
+    public BankOption() {}
+
+    public BankOption(String optionText, String explanation) {
+        this.optionText = optionText;
+        this.explanation = explanation;
+    }
+
+    // Getters and Setters
+    public String getOptionText() {
+        return optionText;
+    }
+
+    public void setOptionText(String optionText) {
+        this.optionText = optionText;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+}
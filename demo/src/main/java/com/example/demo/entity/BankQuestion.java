@@ -0,0 +1,205 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * BankQuestion entity representing a pre-generated question in a course's question bank.
+ *
+ * The bank holds questions per course and difficulty, generated ahead of time
+ * in large batches. Quizzes are assembled from questions the student has not
+ * seen yet; each drawn question is copied into a {@link Question} that keeps
+ * the id of its bank entry.
+ */
+@Entity
+@Table(name = "bank_questions", indexes = {
+        @Index(name = "idx_bank_questions_bucket", columnList = "course_id, difficulty, times_served")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_bank_questions_content", columnNames = {"course_id", "difficulty", "content_hash"})
+})
+public class BankQuestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_questions_seq")
+    @SequenceGenerator(name = "bank_questions_seq", sequenceName = "bank_questions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DifficultyLevel difficulty;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String questionText;
+
+    @Column(columnDefinition = "TEXT")
+    private String sourceContext;
+
+    @ElementCollection
+    @CollectionTable(name = "bank_question_options", joinColumns = @JoinColumn(name = "bank_question_id"))
+    @OrderColumn(name = "option_index")
+    private List<BankOption> options = new ArrayList<>();
+
+    @Column(nullable = false)
+    private int correctOptionIndex;
+
+    @Column(columnDefinition = "TEXT")
+    private String explanation;
+
+    /** SHA-256 of the question text, to keep duplicates out of a bucket. */
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(length = 100)
+    private String modelUsed;
+
+    @Column(name = "times_served", nullable = false)
+    private int timesServed = 0;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public BankQuestion() {}
+
+    public BankQuestion(Course course, DifficultyLevel difficulty, String questionText, String contentHash) {
+        this.course = course;
+        this.difficulty = difficulty;
+        this.questionText = questionText;
+        this.contentHash = contentHash;
+    }
+
+    // Business methods
+    /**
+     * Copy this entry into a new quiz question.
+     */
+    public Question toQuestion() {
+        Question question = new Question(questionText, sourceContext, correctOptionIndex, explanation);
+        question.setBankQuestionId(id);
+        for (BankOption option : options) {
+            question.addOption(new AnswerOption(option.getOptionText(), option.getExplanation()));
+        }
+        return question;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public void setCourse(Course course) {
+        this.course = course;
+    }
+
+    public DifficultyLevel getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(DifficultyLevel difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public String getQuestionText() {
+        return questionText;
+    }
+
+    public void setQuestionText(String questionText) {
+        this.questionText = questionText;
+    }
+
+    public String getSourceContext() {
+        return sourceContext;
+    }
+
+    public void setSourceContext(String sourceContext) {
+        this.sourceContext = sourceContext;
+    }
+
+    public List<BankOption> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<BankOption> options) {
+        this.options = options;
+    }
+
+    public int getCorrectOptionIndex() {
+        return correctOptionIndex;
+    }
+
+    public void setCorrectOptionIndex(int correctOptionIndex) {
+        this.correctOptionIndex = correctOptionIndex;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getModelUsed() {
+        return modelUsed;
+    }
+
+    public void setModelUsed(String modelUsed) {
+        this.modelUsed = modelUsed;
+    }
+
+    public int getTimesServed() {
+        return timesServed;
+    }
+
+    public void setTimesServed(int timesServed) {
+        this.timesServed = timesServed;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -88,6 +88,10 @@ public class Course {
     @Column(name = "display_order")
     private Integer displayOrder = 0;
 
+    // LLM provider generating this course's quizzes; null for the default provider
+    @Column(name = "llm_provider", length = 50)
+    private String llmProvider;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Enrollment> enrollments = new HashSet<>();
 
@@ -97,6 +101,12 @@ public class Course {
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Quiz> quizzes = new HashSet<>();
 
+    @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<IndexingJob> indexingJobs = new ArrayList<>();
+
+    @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<BankQuestion> bankQuestions = new ArrayList<>();
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -259,6 +269,22 @@ public class Course {
         this.quizzes = quizzes;
     }
 
+    public List<IndexingJob> getIndexingJobs() {
+        return indexingJobs;
+    }
+
+    public void setIndexingJobs(List<IndexingJob> indexingJobs) {
+        this.indexingJobs = indexingJobs;
+    }
+
+    public List<BankQuestion> getBankQuestions() {
+        return bankQuestions;
+    }
+
+    public void setBankQuestions(List<BankQuestion> bankQuestions) {
+        this.bankQuestions = bankQuestions;
+    }
+
     public Module getModule() {
         return module;
     }
@@ -275,6 +301,14 @@ public class Course {
         this.displayOrder = displayOrder;
     }
 
+    public String getLlmProvider() {
+        return llmProvider;
+    }
+
+    public void setLlmProvider(String llmProvider) {
+        this.llmProvider = llmProvider;
+    }
+
     public boolean isPublished() {
         return status == CourseStatus.PUBLISHED;
     }
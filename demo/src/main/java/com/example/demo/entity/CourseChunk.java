@@ -11,6 +11,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
@@ -27,7 +28,8 @@ import jakarta.persistence.Table;
 public class CourseChunk {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_chunks_seq")
+    @SequenceGenerator(name = "course_chunks_seq", sequenceName = "course_chunks_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -49,6 +51,12 @@ public class CourseChunk {
     @Column(columnDefinition = "TEXT")
     private String embedding;
 
+    @Column(name = "token_count")
+    private Integer tokenCount;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -125,6 +133,22 @@ public class CourseChunk {
         this.embedding = embedding;
     }
 
+    public Integer getTokenCount() {
+        return tokenCount;
+    }
+
+    public void setTokenCount(Integer tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
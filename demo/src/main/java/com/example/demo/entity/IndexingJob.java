@@ -0,0 +1,233 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * IndexingJob entity representing a queued request to (re-)index a course for RAG.
+ *
+ * Jobs are persisted so any application node can pick them up: a worker claims
+ * the oldest QUEUED row with {@code SELECT ... FOR UPDATE SKIP LOCKED}, marks it
+ * RUNNING, and reports its stage and progress while the pipeline runs.
+ * A failed job is queued again with {@code availableAt} in the future, so it is
+ * retried after a backoff rather than by the next poll.
+ */
+@Entity
+@Table(name = "indexing_jobs", indexes = {
+        @Index(name = "idx_indexing_jobs_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_indexing_jobs_course", columnList = "course_id")
+})
+public class IndexingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IndexingJobStatus status = IndexingJobStatus.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private IndexingStage stage;
+
+    @Column(nullable = false)
+    private int progress = 0;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(name = "worker_id", length = 100)
+    private String workerId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime finishedAt;
+
+    /** Earliest time a queued job may be claimed (null: immediately). */
+    private LocalDateTime availableAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public IndexingJob() {}
+
+    public IndexingJob(Course course) {
+        this.course = course;
+    }
+
+    // Business methods
+    public boolean isActive() {
+        return status == IndexingJobStatus.QUEUED || status == IndexingJobStatus.RUNNING;
+    }
+
+    public void start(String workerId) {
+        this.status = IndexingJobStatus.RUNNING;
+        this.workerId = workerId;
+        this.attempts++;
+        this.stage = null;
+        this.progress = 0;
+        this.message = null;
+        this.startedAt = LocalDateTime.now();
+        this.heartbeatAt = this.startedAt;
+    }
+
+    public void advance(IndexingStage stage, int progress) {
+        this.stage = stage;
+        this.progress = progress;
+        this.heartbeatAt = LocalDateTime.now();
+    }
+
+    public void complete(String message) {
+        this.status = IndexingJobStatus.COMPLETED;
+        this.progress = 100;
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void retryAt(LocalDateTime availableAt, String message) {
+        this.status = IndexingJobStatus.QUEUED;
+        this.workerId = null;
+        this.message = message;
+        this.availableAt = availableAt;
+    }
+
+    public void fail(String message) {
+        this.status = IndexingJobStatus.FAILED;
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public void setCourse(Course course) {
+        this.course = course;
+    }
+
+    public IndexingJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(IndexingJobStatus status) {
+        this.status = status;
+    }
+
+    public IndexingStage getStage() {
+        return stage;
+    }
+
+    public void setStage(IndexingStage stage) {
+        this.stage = stage;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(String workerId) {
+        this.workerId = workerId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+}
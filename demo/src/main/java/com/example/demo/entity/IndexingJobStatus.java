@@ -0,0 +1,11 @@
+package com.example.demo.entity;
+
+/**
+ * Enumeration representing the lifecycle of a RAG indexing job.
+ */
+public enum IndexingJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
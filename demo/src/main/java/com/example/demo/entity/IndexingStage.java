@@ -0,0 +1,11 @@
+package com.example.demo.entity;
+
+/**
+ * Enumeration representing the pipeline stages of a RAG indexing job, in execution order.
+ */
+public enum IndexingStage {
+    EXTRACTING,
+    CHUNKING,
+    EMBEDDING,
+    PERSISTING
+}
@@ -10,11 +10,14 @@ import java.util.List;
  * and explanations for each answer option.
  */
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_bank_question", columnList = "bank_question_id")
+})
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = "questions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +43,10 @@ public class Question {
     @Column(columnDefinition = "TEXT")
     private String explanation;
 
+    /** Question bank entry this question was copied from, if any. */
+    @Column(name = "bank_question_id")
+    private Long bankQuestionId;
+
     // Constructors
     public Question() {}
 
@@ -132,4 +139,12 @@ public class Question {
     public void setExplanation(String explanation) {
         this.explanation = explanation;
     }
+
+    public Long getBankQuestionId() {
+        return bankQuestionId;
+    }
+
+    public void setBankQuestionId(Long bankQuestionId) {
+        this.bankQuestionId = bankQuestionId;
+    }
 }
@@ -19,6 +19,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
@@ -30,7 +31,8 @@ import jakarta.persistence.Table;
 public class Quiz {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quizzes_seq")
+    @SequenceGenerator(name = "quizzes_seq", sequenceName = "quizzes_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -60,6 +62,13 @@ public class Quiz {
     @Column(name = "llm_model_used")
     private String llmModelUsed;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private QuizStatus status = QuizStatus.READY;
+
+    @Column(name = "generation_error", length = 1000)
+    private String generationError;
+
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("questionIndex ASC")
     private List<Question> questions = new ArrayList<>();
@@ -94,6 +103,24 @@ public class Quiz {
         return result != null;
     }
 
+    public boolean isReady() {
+        return status == QuizStatus.READY;
+    }
+
+    public boolean isPending() {
+        return status == QuizStatus.PENDING;
+    }
+
+    public void markReady() {
+        this.status = QuizStatus.READY;
+        this.generationError = null;
+    }
+
+    public void markFailed(String error) {
+        this.status = QuizStatus.FAILED;
+        this.generationError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -167,6 +194,22 @@ public class Quiz {
         this.llmModelUsed = llmModelUsed;
     }
 
+    public QuizStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(QuizStatus status) {
+        this.status = status;
+    }
+
+    public String getGenerationError() {
+        return generationError;
+    }
+
+    public void setGenerationError(String generationError) {
+        this.generationError = generationError;
+    }
+
     public List<Question> getQuestions() {
         return questions;
     }
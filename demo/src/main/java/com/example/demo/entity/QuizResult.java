@@ -18,6 +18,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
@@ -29,7 +30,8 @@ import jakarta.persistence.Table;
 public class QuizResult {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_results_seq")
+    @SequenceGenerator(name = "quiz_results_seq", sequenceName = "quiz_results_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -64,6 +66,10 @@ public class QuizResult {
     @Column(columnDefinition = "TEXT")
     private String agentFeedback;
 
+    /** True while the LLM feedback is being generated after the result was saved. */
+    @Column(name = "feedback_pending", nullable = false)
+    private boolean feedbackPending = false;
+
     @Enumerated(EnumType.STRING)
     private DifficultyLevel recommendedNextDifficulty;
 
@@ -192,6 +198,14 @@ public class QuizResult {
         this.agentFeedback = agentFeedback;
     }
 
+    public boolean isFeedbackPending() {
+        return feedbackPending;
+    }
+
+    public void setFeedbackPending(boolean feedbackPending) {
+        this.feedbackPending = feedbackPending;
+    }
+
     public DifficultyLevel getRecommendedNextDifficulty() {
         return recommendedNextDifficulty;
     }
@@ -0,0 +1,11 @@
+package com.example.demo.entity;
+
+/**
+ * Enumeration representing the generation status of a quiz.
+ * Quizzes are created PENDING and filled with questions in the background.
+ */
+public enum QuizStatus {
+    PENDING,
+    READY,
+    FAILED
+}
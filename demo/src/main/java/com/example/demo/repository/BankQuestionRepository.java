@@ -0,0 +1,58 @@
+package com.example.demo.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.BankQuestion;
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Repository for BankQuestion entity operations.
+ * Backs the per-course, per-difficulty question bank.
+ */
+@Repository
+public interface BankQuestionRepository extends JpaRepository<BankQuestion, Long> {
+
+    /**
+     * Find the bank questions of a bucket the student has never been served,
+     * with their options, least served first. Retired questions (served
+     * {@code maxServes} times or more) are left out.
+     */
+    @EntityGraph(attributePaths = "options")
+    @Query("SELECT b FROM BankQuestion b WHERE b.course.id = :courseId AND b.difficulty = :difficulty " +
+           "AND b.timesServed < :maxServes AND NOT EXISTS (" +
+           "SELECT q.id FROM Question q WHERE q.bankQuestionId = b.id AND q.quiz.student.id = :studentId) " +
+           "ORDER BY b.timesServed, b.id")
+    List<BankQuestion> findUnseen(@Param("courseId") Long courseId,
+                                  @Param("difficulty") DifficultyLevel difficulty,
+                                  @Param("studentId") Long studentId,
+                                  @Param("maxServes") int maxServes);
+
+    /**
+     * Count one more serve of each question, in the database, so concurrent
+     * draws of the same questions never lose a serve.
+     */
+    @Modifying
+    @Query("UPDATE BankQuestion b SET b.timesServed = b.timesServed + 1 WHERE b.id IN :ids")
+    int incrementTimesServed(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(b) FROM BankQuestion b WHERE b.course.id = :courseId AND b.difficulty = :difficulty " +
+           "AND b.timesServed < :maxServes")
+    long countAvailable(@Param("courseId") Long courseId,
+                        @Param("difficulty") DifficultyLevel difficulty,
+                        @Param("maxServes") int maxServes);
+
+    @Query("SELECT b.contentHash FROM BankQuestion b WHERE b.course.id = :courseId AND b.difficulty = :difficulty")
+    List<String> findContentHashes(@Param("courseId") Long courseId, @Param("difficulty") DifficultyLevel difficulty);
+
+    List<BankQuestion> findByTimesServedGreaterThanEqual(int timesServed);
+
+    void deleteByCourseId(Long courseId);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.ChunkTextDTO;
 import com.example.demo.entity.CourseChunk;
 
 /**
@@ -21,6 +22,13 @@ public interface CourseChunkRepository extends JpaRepository<CourseChunk, Long>
     
     @Query("SELECT cc FROM CourseChunk cc WHERE cc.course.id = :courseId ORDER BY cc.chunkIndex")
     List<CourseChunk> findAllChunksByCourseId(@Param("courseId") Long courseId);
+
+    /**
+     * Text of the chunks of a course in document order, without loading their embeddings.
+     */
+    @Query("SELECT new com.example.demo.dto.ChunkTextDTO(cc.id, cc.chunkIndex, cc.tokenCount, cc.content) " +
+           "FROM CourseChunk cc WHERE cc.course.id = :courseId ORDER BY cc.chunkIndex")
+    List<ChunkTextDTO> findTextsByCourseId(@Param("courseId") Long courseId);
     
     @Modifying
     @Query("DELETE FROM CourseChunk cc WHERE cc.course.id = :courseId")
@@ -28,8 +36,4 @@ public interface CourseChunkRepository extends JpaRepository<CourseChunk, Long>
     
     @Query("SELECT COUNT(cc) FROM CourseChunk cc WHERE cc.course.id = :courseId")
     long countByCourseId(@Param("courseId") Long courseId);
-    
-    @Query("SELECT cc FROM CourseChunk cc WHERE cc.course.id = :courseId AND " +
-           "LOWER(cc.content) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<CourseChunk> findByKeyword(@Param("courseId") Long courseId, @Param("keyword") String keyword);
 }
@@ -1,12 +1,16 @@
 package com.example.demo.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.CourseSummaryDTO;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.CourseStatus;
 
@@ -21,6 +25,36 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByCreatedById(Long createdById);
 
     List<Course> findByCreatedByIdOrderByModuleIdAscDisplayOrderAscTitleAsc(Long createdById);
+
+    /**
+     * A course with its author and module, for the course pages and forms.
+     */
+    @EntityGraph(attributePaths = {"createdBy", "module"})
+    Optional<Course> findWithDetailsById(Long id);
+
+    /**
+     * Select clause of the course summaries: the listed columns of a course,
+     * its module and its number of enrollments, without the content.
+     */
+    String SUMMARY_QUERY = "SELECT new com.example.demo.dto.CourseSummaryDTO(c.id, c.title, c.description, " +
+            "c.status, c.indexed, c.displayOrder, c.createdAt, m.id, m.name, " +
+            "(SELECT COUNT(e) FROM Enrollment e WHERE e.course = c)) " +
+            "FROM Course c LEFT JOIN c.module m ";
+
+    @Query(SUMMARY_QUERY + "ORDER BY m.id ASC, c.displayOrder ASC, c.title ASC")
+    List<CourseSummaryDTO> findAllSummaries();
+
+    @Query(SUMMARY_QUERY + "WHERE c.createdBy.id = :teacherId ORDER BY m.id ASC, c.displayOrder ASC, c.title ASC")
+    List<CourseSummaryDTO> findSummariesByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query(SUMMARY_QUERY + "WHERE m.id = :moduleId ORDER BY c.displayOrder ASC, c.title ASC")
+    List<CourseSummaryDTO> findSummariesByModuleId(@Param("moduleId") Long moduleId);
+
+    @Query(SUMMARY_QUERY + "ORDER BY c.createdAt DESC")
+    List<CourseSummaryDTO> findRecentSummaries(Pageable pageable);
+
+    @Query(SUMMARY_QUERY + "WHERE c.createdBy.id = :teacherId ORDER BY c.createdAt DESC")
+    List<CourseSummaryDTO> findRecentSummariesByTeacherId(@Param("teacherId") Long teacherId, Pageable pageable);
     
     List<Course> findByStatusAndIndexed(CourseStatus status, boolean indexed);
     
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.EnrollmentRowDTO;
 import com.example.demo.entity.Enrollment;
 import com.example.demo.entity.EnrollmentStatus;
 
@@ -17,9 +18,25 @@ import com.example.demo.entity.EnrollmentStatus;
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     
+    /**
+     * Select clause of the enrollment rows: the enrollment's progress with
+     * the listed columns of its course and student.
+     */
+    String ROW_QUERY = "SELECT new com.example.demo.dto.EnrollmentRowDTO(e.id, s.id, s.fullName, c.id, c.title, " +
+            "c.description, c.indexed, c.module.id, e.status, e.progressPercentage, e.courseCompleted, e.enrolledAt) " +
+            "FROM Enrollment e JOIN e.student s JOIN e.course c ";
+
     List<Enrollment> findByStudentId(Long studentId);
     
     List<Enrollment> findByCourseId(Long courseId);
+
+    @Query(ROW_QUERY + "WHERE s.id = :studentId ORDER BY c.displayOrder ASC, c.title ASC")
+    List<EnrollmentRowDTO> findRowsByStudentId(@Param("studentId") Long studentId);
+
+    @Query(ROW_QUERY + "WHERE c.id = :courseId ORDER BY e.enrolledAt ASC")
+    List<EnrollmentRowDTO> findRowsByCourseId(@Param("courseId") Long courseId);
+
+    long countByStudentId(Long studentId);
     
     Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
     
@@ -0,0 +1,64 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.IndexingJob;
+import com.example.demo.entity.IndexingJobStatus;
+
+/**
+ * Repository for IndexingJob entity operations.
+ * Backs the persisted RAG indexing queue shared by all application nodes.
+ */
+@Repository
+public interface IndexingJobRepository extends JpaRepository<IndexingJob, Long> {
+
+    /**
+     * Lock the oldest queued job that is due, skipping rows already locked by another
+     * worker, so concurrent workers (on this node or others) never claim the same job.
+     * Jobs of a course that already has a RUNNING job wait for it to finish, so one
+     * course is never indexed by two workers at once.
+     * Must run inside a transaction; the lock is held until it commits.
+     */
+    @Query(value = """
+            SELECT * FROM indexing_jobs j
+            WHERE j.status = 'QUEUED'
+            AND (j.available_at IS NULL OR j.available_at <= :now)
+            AND NOT EXISTS (SELECT 1 FROM indexing_jobs r
+                            WHERE r.course_id = j.course_id AND r.status = 'RUNNING')
+            ORDER BY j.created_at, j.id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<IndexingJob> lockNextQueued(@Param("now") LocalDateTime now);
+
+    Optional<IndexingJob> findFirstByCourseIdOrderByCreatedAtDesc(Long courseId);
+
+    Optional<IndexingJob> findFirstByCourseIdAndStatus(Long courseId, IndexingJobStatus status);
+
+    boolean existsByCourseIdAndStatus(Long courseId, IndexingJobStatus status);
+
+    /**
+     * Refresh the heartbeat of RUNNING jobs whose worker is still busy in a long stage.
+     */
+    @Modifying
+    @Query("UPDATE IndexingJob j SET j.heartbeatAt = :now WHERE j.id IN :ids " +
+           "AND j.status = com.example.demo.entity.IndexingJobStatus.RUNNING")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Put back RUNNING jobs whose worker stopped reporting (e.g. the node crashed).
+     */
+    @Modifying
+    @Query("UPDATE IndexingJob j SET j.status = com.example.demo.entity.IndexingJobStatus.QUEUED, " +
+           "j.workerId = NULL WHERE j.status = com.example.demo.entity.IndexingJobStatus.RUNNING " +
+           "AND j.heartbeatAt < :cutoff")
+    int requeueStale(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -3,11 +3,13 @@ package com.example.demo.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.ModuleSummaryDTO;
 import com.example.demo.entity.Module;
 
 /**
@@ -28,11 +30,32 @@ public interface ModuleRepository extends JpaRepository<Module, Long> {
 
     boolean existsByName(String name);
 
-    @Query("SELECT m FROM Module m LEFT JOIN FETCH m.courses WHERE m.id = :id")
+    @Query("SELECT m FROM Module m LEFT JOIN FETCH m.courses JOIN FETCH m.createdBy WHERE m.id = :id")
     Optional<Module> findByIdWithCourses(@Param("id") Long id);
 
-    @Query("SELECT m FROM Module m LEFT JOIN FETCH m.courses c WHERE m.active = true ORDER BY m.displayOrder ASC, m.name ASC")
-    List<Module> findActiveModulesWithCourses();
+    /**
+     * A module with its author, for the module pages.
+     */
+    @EntityGraph(attributePaths = "createdBy")
+    Optional<Module> findWithCreatorById(Long id);
+
+    /**
+     * Select clause of the module summaries: the listed columns of a module,
+     * its author's name and its number of courses.
+     */
+    String SUMMARY_QUERY = "SELECT new com.example.demo.dto.ModuleSummaryDTO(m.id, m.name, m.description, " +
+            "m.displayOrder, m.active, m.createdAt, u.fullName, " +
+            "(SELECT COUNT(c) FROM Course c WHERE c.module = m)) " +
+            "FROM Module m JOIN m.createdBy u ";
+
+    @Query(SUMMARY_QUERY + "ORDER BY m.displayOrder ASC, m.name ASC")
+    List<ModuleSummaryDTO> findAllSummaries();
+
+    @Query(SUMMARY_QUERY + "WHERE u.id = :teacherId ORDER BY m.displayOrder ASC, m.name ASC")
+    List<ModuleSummaryDTO> findSummariesByCreatedById(@Param("teacherId") Long teacherId);
+
+    @Query(SUMMARY_QUERY + "WHERE m.active = true ORDER BY m.displayOrder ASC, m.name ASC")
+    List<ModuleSummaryDTO> findActiveSummaries();
 
     @Query("SELECT COUNT(c) FROM Course c WHERE c.module.id = :moduleId")
     long countCoursesByModuleId(@Param("moduleId") Long moduleId);
@@ -1,8 +1,12 @@
 package com.example.demo.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,17 +23,38 @@ public interface QuizRepository extends JpaRepository<Quiz, Long> {
     
     List<Quiz> findByCourseId(Long courseId);
     
+    /**
+     * Quizzes of a student in a course with their result, which would
+     * otherwise be loaded one query per quiz.
+     */
+    @EntityGraph(attributePaths = "result")
     List<Quiz> findByStudentIdAndCourseId(Long studentId, Long courseId);
     
+    @EntityGraph(attributePaths = {"course", "result"})
     @Query("SELECT q FROM Quiz q WHERE q.student.id = :studentId ORDER BY q.createdAt DESC")
     List<Quiz> findByStudentIdOrderByCreatedAtDesc(@Param("studentId") Long studentId);
     
     @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.questions WHERE q.id = :quizId")
     Quiz findByIdWithQuestions(@Param("quizId") Long quizId);
+
+    /**
+     * A quiz with its course and result, for the quiz and result pages.
+     */
+    @EntityGraph(attributePaths = {"course", "result"})
+    Optional<Quiz> findWithCourseAndResultById(Long id);
     
     @Query("SELECT COUNT(q) FROM Quiz q WHERE q.student.id = :studentId")
     long countByStudentId(@Param("studentId") Long studentId);
     
     @Query("SELECT COUNT(q) FROM Quiz q WHERE q.course.id = :courseId")
     long countByCourseId(@Param("courseId") Long courseId);
+    
+    /**
+     * Fail PENDING quizzes whose generation never finished (e.g. the node restarted).
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.status = com.example.demo.entity.QuizStatus.FAILED, " +
+           "q.generationError = :error WHERE q.status = com.example.demo.entity.QuizStatus.PENDING " +
+           "AND q.createdAt < :cutoff")
+    int failStalePending(@Param("cutoff") LocalDateTime cutoff, @Param("error") String error);
 }
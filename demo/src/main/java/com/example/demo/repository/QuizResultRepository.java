@@ -1,13 +1,18 @@
 package com.example.demo.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.QuizResultRowDTO;
 import com.example.demo.entity.QuizResult;
 
 /**
@@ -17,11 +22,35 @@ import com.example.demo.entity.QuizResult;
 public interface QuizResultRepository extends JpaRepository<QuizResult, Long> {
     
     Optional<QuizResult> findByQuizId(Long quizId);
+
+    /**
+     * Result of a quiz with the student's answers, for the result page.
+     */
+    @EntityGraph(attributePaths = "studentAnswers")
+    Optional<QuizResult> findWithAnswersByQuizId(Long quizId);
     
     List<QuizResult> findByStudentId(Long studentId);
     
     @Query("SELECT qr FROM QuizResult qr WHERE qr.student.id = :studentId ORDER BY qr.completedAt DESC")
     List<QuizResult> findByStudentIdOrderByCompletedAtDesc(@Param("studentId") Long studentId);
+
+    /**
+     * Select clause of the result rows: the score with the quiz's course and
+     * difficulty and the student's name.
+     */
+    String ROW_QUERY = "SELECT new com.example.demo.dto.QuizResultRowDTO(q.id, c.id, c.title, q.difficulty, " +
+            "s.fullName, qr.totalQuestions, qr.correctAnswers, qr.scorePercentage, qr.passed, " +
+            "qr.timeTakenSeconds, qr.completedAt) " +
+            "FROM QuizResult qr JOIN qr.quiz q JOIN q.course c JOIN qr.student s ";
+
+    @Query(ROW_QUERY + "WHERE s.id = :studentId ORDER BY qr.completedAt DESC")
+    List<QuizResultRowDTO> findRowsByStudentId(@Param("studentId") Long studentId);
+
+    @Query(ROW_QUERY + "WHERE s.id = :studentId ORDER BY qr.completedAt DESC")
+    List<QuizResultRowDTO> findRecentRowsByStudentId(@Param("studentId") Long studentId, Pageable pageable);
+
+    @Query(ROW_QUERY + "ORDER BY qr.completedAt DESC")
+    List<QuizResultRowDTO> findRecentRows(Pageable pageable);
     
     @Query("SELECT qr FROM QuizResult qr WHERE qr.quiz.course.id = :courseId AND qr.student.id = :studentId ORDER BY qr.completedAt DESC")
     List<QuizResult> findByCourseIdAndStudentId(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
@@ -37,4 +66,12 @@ public interface QuizResultRepository extends JpaRepository<QuizResult, Long> {
     
     @Query("SELECT COUNT(qr) FROM QuizResult qr WHERE qr.quiz.course.id = :courseId AND qr.student.id = :studentId AND qr.passed = true")
     long countPassedByCourseIdAndStudentId(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    /**
+     * Give up on LLM feedback that never arrived (e.g. the node restarted),
+     * keeping the score-based feedback.
+     */
+    @Modifying
+    @Query("UPDATE QuizResult r SET r.feedbackPending = false WHERE r.feedbackPending = true AND r.completedAt < :cutoff")
+    int clearStaleFeedbackPending(@Param("cutoff") LocalDateTime cutoff);
 }
@@ -3,11 +3,13 @@ package com.example.demo.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.UserSummaryDTO;
 import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
 
@@ -33,6 +35,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "(SELECT e.student.id FROM Enrollment e WHERE e.course.id = :courseId)")
     List<User> findStudentsNotEnrolledInCourse(@Param("role") Role role, @Param("courseId") Long courseId);
     
+    @Query("SELECT new com.example.demo.dto.UserSummaryDTO(u.id, u.fullName, u.email, u.enabled) " +
+           "FROM User u WHERE u.role = :role ORDER BY u.createdAt DESC")
+    List<UserSummaryDTO> findRecentSummariesByRole(@Param("role") Role role, Pageable pageable);
+    
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(@Param("role") Role role);
 }
@@ -1,21 +1,26 @@
 package com.example.demo.service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.dto.QuizRequestDTO;
 import com.example.demo.dto.QuizSubmissionDTO;
 import com.example.demo.entity.AnswerOption;
+import com.example.demo.entity.BankQuestion;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.DifficultyLevel;
 import com.example.demo.entity.Question;
 import com.example.demo.entity.Quiz;
 import com.example.demo.entity.QuizResult;
+import com.example.demo.entity.QuizStatus;
 import com.example.demo.entity.StudentAnswer;
 import com.example.demo.entity.User;
 import com.example.demo.repository.EnrollmentRepository;
@@ -52,36 +57,68 @@ public class AgentService {
     private static final double VALIDATION_THRESHOLD = 70.0;
     private static final int MIN_QUESTIONS = 3;
     private static final int MAX_QUESTIONS = 20;
+    private static final int TOKENS_PER_QUESTION = 400;
+
+    /**
+     * When the LLM feedback of a quiz submission is produced.
+     */
+    public enum EvaluationMode {
+        /** Before the result is saved; submission waits for the LLM. */
+        INLINE,
+        /** After the result is saved from the score alone; feedback is attached when ready. */
+        DEFERRED
+    }
 
     private final RAGService ragService;
     private final LLMService llmService;
     private final QuizRepository quizRepository;
     private final QuizResultRepository quizResultRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final QuestionBankService questionBankService;
+
+    @Value("${app.rag.quiz-context-tokens:3000}")
+    private int quizContextTokens;
+
+    @Value("${app.rag.evaluation-context-tokens:1000}")
+    private int evaluationContextTokens;
+
+    @Value("${app.quiz.evaluation-mode:DEFERRED}")
+    private EvaluationMode evaluationMode;
 
     public AgentService(RAGService ragService,
                         LLMService llmService,
                         QuizRepository quizRepository,
                         QuizResultRepository quizResultRepository,
-                        EnrollmentRepository enrollmentRepository) {
+                        EnrollmentRepository enrollmentRepository,
+                        QuestionBankService questionBankService) {
         this.ragService = ragService;
         this.llmService = llmService;
         this.quizRepository = quizRepository;
         this.quizResultRepository = quizResultRepository;
         this.enrollmentRepository = enrollmentRepository;
+        this.questionBankService = questionBankService;
     }
 
     /**
-     * Generate a quiz using the agentic AI pipeline.
+     * Everything the LLM needs to generate the questions of a pending quiz.
+     */
+    public record QuizGenerationInput(Long quizId, Long studentId, String context, int numberOfQuestions,
+                                      DifficultyLevel difficulty, String courseTitle, String llmProvider) {}
+
+    /**
+     * Start a quiz using the agentic AI pipeline.
      * 
-     * The agent performs the following steps:
      * 1. Analyze student's history to determine optimal difficulty
-     * 2. Retrieve relevant content using RAG
-     * 3. Generate quiz using LLM
-     * 4. Validate generated content against course material
-     * 5. Return the complete quiz
+     * 2. Draw the questions from the course's question bank when it holds
+     *    enough questions the student has not seen: the quiz is READY at once
+     * 3. Otherwise persist the quiz as PENDING; its questions are generated
+     *    without holding a transaction or the request thread
+     *    (see {@link QuizGenerationService}):
+     *    a. Retrieve relevant content using RAG ({@link #prepareGeneration})
+     *    b. Generate quiz using LLM
+     *    c. Validate generated content and attach the questions ({@link #attachQuestions})
      */
-    public Quiz generateQuiz(User student, Course course, QuizRequestDTO request) {
+    public Quiz createQuiz(User student, Course course, QuizRequestDTO request) {
         logger.info("Agent: Starting quiz generation for student {} on course {}", 
                     student.getId(), course.getId());
 
@@ -91,45 +128,112 @@ public class AgentService {
 
         logger.info("Agent: Determined difficulty={}, questions={}", difficulty, numberOfQuestions);
 
-        // Step 2: Retrieve relevant content via RAG
-        String context = ragService.getQuizContext(course.getId());
+        Quiz quiz = new Quiz(course, student, 
+                "Quiz: " + course.getTitle(), 
+                difficulty, numberOfQuestions);
+
+        // Step 2: Serve from the question bank if possible
+        List<BankQuestion> banked = questionBankService.draw(course.getId(), difficulty, student.getId(), numberOfQuestions);
+        if (!banked.isEmpty()) {
+            banked.forEach(bankQuestion -> quiz.addQuestion(bankQuestion.toQuestion()));
+            quiz.setGeneratedByGemini(true);
+            quiz.setLlmModelUsed(banked.get(0).getModelUsed());
+            quiz.markReady();
+            return quizRepository.save(quiz);
+        }
+
+        // Step 3: Generate in the background
+        quiz.setStatus(QuizStatus.PENDING);
+        return quizRepository.save(quiz);
+    }
+
+    /**
+     * Step 2: retrieve the course context of a pending quiz.
+     */
+    @Transactional(readOnly = true)
+    public QuizGenerationInput prepareGeneration(Long quizId) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found: " + quizId));
+        Course course = quiz.getCourse();
+
+        String context = ragService.getQuizContext(course.getId(), buildCourseQuery(course),
+                quiz.getNumberOfQuestions(), quizContextTokens(quiz.getNumberOfQuestions()));
         
         if (context == null || context.isBlank()) {
             throw new IllegalStateException("No indexed content available for this course");
         }
 
         logger.info("Agent: Retrieved {} characters of context", context.length());
+        return new QuizGenerationInput(quizId, quiz.getStudent().getId(), context, quiz.getNumberOfQuestions(),
+                quiz.getDifficulty(), course.getTitle(), course.getLlmProvider());
+    }
 
-        // Step 3: Generate quiz using LLM
-        LLMModels.QuizResponse llmResponse = llmService.generateQuiz(
-                context, numberOfQuestions, difficulty, course.getTitle());
-
-        // Step 4: Create and persist the quiz
-        Quiz quiz = new Quiz(course, student, 
-                "Quiz: " + course.getTitle(), 
-                difficulty, numberOfQuestions);
-        
-        // Set AI generation metadata
-        quiz.setGeneratedByGemini(llmResponse.isGeneratedByGemini());
-        quiz.setLlmModelUsed(llmResponse.getModelUsed());
+    /**
+     * Step 4: convert the LLM response into the questions of a pending quiz and mark it ready.
+     */
+    public Quiz attachQuestions(Long quizId, LLMModels.QuizResponse llmResponse) {
+        Quiz quiz = findPendingQuiz(quizId);
 
-        // Step 5: Convert LLM response to quiz questions
+        // Convert LLM response to quiz questions
         for (LLMModels.QuestionData questionData : llmResponse.getQuestions()) {
-            Question question = new Question();
-            question.setQuestionText(questionData.getQuestionText());
-            question.setSourceContext(questionData.getSourceContext());
-            question.setCorrectOptionIndex(questionData.getCorrectOptionIndex());
-            question.setExplanation(questionData.getExplanation());
-
-            for (LLMModels.OptionData optionData : questionData.getOptions()) {
-                AnswerOption option = new AnswerOption();
-                option.setOptionText(optionData.getText());
-                option.setExplanation(optionData.getExplanation());
-                question.addOption(option);
-            }
+            quiz.addQuestion(toQuestion(questionData));
+        }
+        return markGenerated(quiz, llmResponse);
+    }
 
-            quiz.addQuestion(question);
+    /**
+     * Step 4, streamed: add one generated question to a pending quiz.
+     * The quiz stays PENDING, but the student can already answer the question.
+     */
+    public void appendQuestion(Long quizId, LLMModels.QuestionData questionData) {
+        Quiz quiz = findPendingQuiz(quizId);
+        if (quiz.getQuestions().size() >= quiz.getNumberOfQuestions()) {
+            throw new IllegalStateException("Quiz " + quizId + " already has all its questions");
         }
+        quiz.addQuestion(toQuestion(questionData));
+    }
+
+    /**
+     * Step 4, streamed: mark a pending quiz whose questions were appended one by one as ready.
+     */
+    public Quiz completeGeneration(Long quizId, LLMModels.QuizResponse llmResponse) {
+        Quiz quiz = findPendingQuiz(quizId);
+        if (quiz.getQuestions().isEmpty()) {
+            throw new IllegalStateException("No question could be generated for this quiz");
+        }
+        return markGenerated(quiz, llmResponse);
+    }
+
+    private Quiz findPendingQuiz(Long quizId) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz not found: " + quizId));
+        if (!quiz.isPending()) {
+            throw new IllegalStateException("Quiz " + quizId + " is not awaiting generation");
+        }
+        return quiz;
+    }
+
+    private Question toQuestion(LLMModels.QuestionData questionData) {
+        Question question = new Question();
+        question.setQuestionText(questionData.getQuestionText());
+        question.setSourceContext(questionData.getSourceContext());
+        question.setCorrectOptionIndex(questionData.getCorrectOptionIndex());
+        question.setExplanation(questionData.getExplanation());
+
+        for (LLMModels.OptionData optionData : questionData.getOptions()) {
+            AnswerOption option = new AnswerOption();
+            option.setOptionText(optionData.getText());
+            option.setExplanation(optionData.getExplanation());
+            question.addOption(option);
+        }
+        return question;
+    }
+
+    private Quiz markGenerated(Quiz quiz, LLMModels.QuizResponse llmResponse) {
+        // Set AI generation metadata
+        quiz.setGeneratedByGemini(llmResponse.isGeneratedByGemini());
+        quiz.setLlmModelUsed(llmResponse.getModelUsed());
+        quiz.markReady();
 
         Quiz savedQuiz = quizRepository.save(quiz);
         logger.info("Agent: Quiz generated successfully with {} questions", savedQuiz.getQuestions().size());
@@ -137,6 +241,24 @@ public class AgentService {
         return savedQuiz;
     }
 
+    /**
+     * Record that the questions of a pending quiz could not be generated.
+     */
+    public void markGenerationFailed(Long quizId, String error) {
+        quizRepository.findById(quizId).ifPresent(quiz -> {
+            if (quiz.isPending()) {
+                quiz.markFailed(error);
+            }
+        });
+    }
+
+    /**
+     * Everything the LLM needs to write the feedback of a saved quiz result.
+     */
+    public record FeedbackInput(Long resultId, String context, double scorePercentage, int correctAnswers,
+                                int totalQuestions, List<String> incorrectTopics, DifficultyLevel difficulty,
+                                String llmProvider) {}
+
     /**
      * Evaluate quiz submission using the agentic AI.
      * 
@@ -146,6 +268,10 @@ public class AgentService {
      * 3. Generates personalized feedback using LLM
      * 4. Determines next recommended difficulty
      * 5. Decides if course should be marked as validated
+     *
+     * In DEFERRED mode, steps 3 to 5 use the score alone so the result is
+     * saved at once, marked as awaiting feedback; the LLM feedback is then
+     * written in the background ({@link QuizFeedbackService}).
      */
     public QuizResult evaluateQuiz(Quiz quiz, QuizSubmissionDTO submission) {
         logger.info("Agent: Evaluating quiz {} for student {}", quiz.getId(), quiz.getStudent().getId());
@@ -161,7 +287,7 @@ public class AgentService {
                 boolean isCorrect = question.isCorrect(selectedIndex);
                 if (isCorrect) {
                     correctAnswers++;
-                } else {
+                } else if (question.getSourceContext() != null && !question.getSourceContext().isBlank()) {
                     incorrectTopics.add(question.getSourceContext());
                 }
                 
@@ -180,10 +306,21 @@ public class AgentService {
 
         logger.info("Agent: Score calculated - {}/{} ({}%)", correctAnswers, totalQuestions, scorePercentage);
 
-        // Step 2: Get LLM evaluation
-        String courseContext = ragService.getQuizContext(quiz.getCourse().getId());
-        LLMModels.EvaluationResponse evaluation = llmService.evaluateQuizResults(
-                courseContext, scorePercentage, correctAnswers, totalQuestions, incorrectTopics, quiz.getDifficulty());
+        // Step 2: Get LLM evaluation, with context limited to the missed topics,
+        // or a score-based one when the LLM feedback is deferred
+        String llmProvider = quiz.getCourse().getLlmProvider();
+        boolean deferFeedback = evaluationMode == EvaluationMode.DEFERRED && llmService.isLLMAvailable(llmProvider);
+        LLMModels.EvaluationResponse evaluation;
+        if (deferFeedback) {
+            evaluation = llmService.evaluateWithoutLLM(scorePercentage, correctAnswers, totalQuestions, quiz.getDifficulty());
+        } else {
+            String courseContext = incorrectTopics.isEmpty() ? "" :
+                    ragService.getRelevantContext(quiz.getCourse().getId(), String.join(" ", incorrectTopics),
+                            evaluationContextTokens);
+            evaluation = llmService.evaluateQuizResults(
+                    courseContext, scorePercentage, correctAnswers, totalQuestions, incorrectTopics, quiz.getDifficulty(),
+                    llmProvider);
+        }
 
         // Step 3: Create quiz result
         QuizResult result = new QuizResult(quiz, quiz.getStudent(), totalQuestions, submission.getTimeTakenSeconds());
@@ -191,6 +328,7 @@ public class AgentService {
         result.setScorePercentage(scorePercentage);
         result.setPassed(scorePercentage >= VALIDATION_THRESHOLD);
         result.setAgentFeedback(evaluation.getFeedback());
+        result.setFeedbackPending(deferFeedback);
         result.setRecommendedNextDifficulty(evaluation.getRecommendedDifficulty());
         result.setStudentAnswers(studentAnswers);
 
@@ -207,6 +345,56 @@ public class AgentService {
         return savedResult;
     }
 
+    /**
+     * Collect what the LLM needs to write the feedback of a saved result.
+     * The context is the course material retrieved for the source context of
+     * the questions answered wrongly, which is what the feedback is about.
+     */
+    @Transactional(readOnly = true)
+    public FeedbackInput prepareFeedback(Long resultId) {
+        QuizResult result = quizResultRepository.findById(resultId)
+                .orElseThrow(() -> new IllegalArgumentException("Quiz result not found: " + resultId));
+
+        Set<Long> incorrectQuestionIds = new HashSet<>();
+        for (StudentAnswer answer : result.getStudentAnswers()) {
+            if (!answer.isCorrect()) {
+                incorrectQuestionIds.add(answer.getQuestionId());
+            }
+        }
+
+        List<String> incorrectTopics = new ArrayList<>();
+        for (Question question : result.getQuiz().getQuestions()) {
+            if (incorrectQuestionIds.contains(question.getId())
+                    && question.getSourceContext() != null && !question.getSourceContext().isBlank()) {
+                incorrectTopics.add(question.getSourceContext());
+            }
+        }
+
+        Long courseId = result.getQuiz().getCourse().getId();
+        String context = incorrectTopics.isEmpty() ? "" :
+                ragService.getRelevantContext(courseId, String.join(" ", incorrectTopics), evaluationContextTokens);
+        return new FeedbackInput(resultId, context, result.getScorePercentage(),
+                result.getCorrectAnswers(), result.getTotalQuestions(), incorrectTopics,
+                result.getQuiz().getDifficulty(), result.getQuiz().getCourse().getLlmProvider());
+    }
+
+    /**
+     * Attach the LLM feedback to a saved result.
+     */
+    public void attachFeedback(Long resultId, LLMModels.EvaluationResponse evaluation) {
+        quizResultRepository.findById(resultId).ifPresent(result -> {
+            result.setAgentFeedback(evaluation.getFeedback());
+            result.setFeedbackPending(false);
+        });
+    }
+
+    /**
+     * Keep the score-based feedback of a result whose LLM feedback could not be generated.
+     */
+    public void abandonFeedback(Long resultId) {
+        quizResultRepository.findById(resultId).ifPresent(result -> result.setFeedbackPending(false));
+    }
+
     /**
      * Determine the optimal difficulty based on student's history.
      */
@@ -241,6 +429,23 @@ public class AgentService {
         }
     }
 
+    /**
+     * Token budget of the course context sent with a quiz generation prompt.
+     * Grows with the number of questions so each question has material to draw on.
+     */
+    private int quizContextTokens(int numberOfQuestions) {
+        return Math.max(quizContextTokens, numberOfQuestions * TOKENS_PER_QUESTION);
+    }
+
+    /**
+     * Build the retrieval query describing what a quiz on this course is about.
+     */
+    private String buildCourseQuery(Course course) {
+        return course.getDescription() != null
+                ? course.getTitle() + " " + course.getDescription()
+                : course.getTitle();
+    }
+
     /**
      * Validate and constrain the number of questions.
      */
@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.config.DatabaseMigration;
+import com.example.demo.entity.CourseChunk;
+
+/**
+ * Bulk insert path for the chunks of very large courses.
+ *
+ * Rows are written straight to {@code course_chunks}, bypassing the
+ * persistence context: on PostgreSQL they are streamed with
+ * {@code COPY ... FROM STDIN}, elsewhere (H2 in tests) they are sent as JDBC
+ * batches. Ids are drawn from {@code course_chunks_seq} in the same blocks
+ * Hibernate's pooled optimizer uses, so bulk-loaded and entity-saved chunks
+ * never collide. The chunks passed in get their id and creation time set,
+ * but stay detached; later reads through {@code CourseChunkRepository} see
+ * the rows as usual.
+ *
+ * Runs on the connection of the caller's transaction.
+ */
+@Service
+public class CourseChunkBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseChunkBulkLoader.class);
+
+    private static final String SEQUENCE = "course_chunks_seq";
+    private static final String COLUMNS = "id, course_id, content, chunk_index, start_position, end_position, "
+            + "embedding, token_count, content_hash, created_at";
+    private static final String COPY_SQL = "COPY course_chunks (" + COLUMNS + ") FROM STDIN";
+    private static final String INSERT_SQL = "INSERT INTO course_chunks (" + COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** Bytes of COPY data buffered before each write to the server. */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseChunkBulkLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert new chunks of one or more courses.
+     *
+     * @return the number of rows inserted
+     */
+    public int insert(List<CourseChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        long start = System.currentTimeMillis();
+        Boolean copied = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            long[] ids = allocateIds(postgres, chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                chunks.get(i).setId(ids[i]);
+                chunks.get(i).setCreatedAt(now);
+            }
+            if (postgres) {
+                copy(connection.unwrap(PGConnection.class), chunks);
+                return true;
+            }
+            return false;
+        });
+
+        if (!Boolean.TRUE.equals(copied)) {
+            batchInsert(chunks);
+        }
+        logger.info("Bulk inserted {} chunks with {} in {} ms", chunks.size(),
+                Boolean.TRUE.equals(copied) ? "COPY" : "JDBC batches", System.currentTimeMillis() - start);
+        return chunks.size();
+    }
+
+    /**
+     * Take ids from the sequence: each value {@code v} it returns reserves the
+     * block {@code v-49..v}, as for Hibernate's pooled optimizer. The first
+     * value of a new sequence is 1, whose block holds only 1.
+     */
+    private long[] allocateIds(boolean postgres, int count) {
+        long[] ids = new long[count];
+        int allocated = 0;
+        while (allocated < count) {
+            int blocks = (count - allocated + DatabaseMigration.ID_ALLOCATION_SIZE - 1)
+                    / DatabaseMigration.ID_ALLOCATION_SIZE;
+            for (Long hi : nextValues(postgres, blocks)) {
+                long id = Math.max(1, hi - DatabaseMigration.ID_ALLOCATION_SIZE + 1);
+                for (; id <= hi && allocated < count; id++) {
+                    ids[allocated++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> nextValues(boolean postgres, int count) {
+        String sql = postgres
+                ? "SELECT nextval('" + SEQUENCE + "') FROM generate_series(1, ?)"
+                : "SELECT NEXT VALUE FOR " + SEQUENCE + " FROM SYSTEM_RANGE(1, ?)";
+        return jdbcTemplate.queryForList(sql, Long.class, count);
+    }
+
+    /**
+     * Stream the rows in COPY text format, in buffers of
+     * {@link #COPY_BUFFER_SIZE} bytes.
+     */
+    private void copy(PGConnection connection, List<CourseChunk> chunks) throws SQLException {
+        CopyIn copyIn = connection.getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 4096);
+            for (CourseChunk chunk : chunks) {
+                appendRow(buffer, chunk);
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    write(copyIn, buffer);
+                }
+            }
+            write(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static void appendRow(StringBuilder row, CourseChunk chunk) {
+        row.append(chunk.getId()).append('\t');
+        row.append(chunk.getCourse().getId()).append('\t');
+        appendText(row, chunk.getContent());
+        row.append('\t').append(chunk.getChunkIndex());
+        row.append('\t').append(chunk.getStartPosition());
+        row.append('\t').append(chunk.getEndPosition()).append('\t');
+        appendText(row, chunk.getEmbedding());
+        row.append('\t');
+        appendText(row, chunk.getTokenCount() != null ? chunk.getTokenCount().toString() : null);
+        row.append('\t');
+        appendText(row, chunk.getContentHash());
+        row.append('\t').append(Timestamp.valueOf(chunk.getCreatedAt())).append('\n');
+    }
+
+    /**
+     * Append a value in COPY text format: \N for null, and backslash,
+     * newline, carriage return and tab escaped.
+     */
+    private static void appendText(StringBuilder row, String value) {
+        if (value == null) {
+            row.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                case '\t' -> row.append("\\t");
+                default -> row.append(c);
+            }
+        }
+    }
+
+    private void batchInsert(List<CourseChunk> chunks) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, chunks, JDBC_BATCH_SIZE, (ps, chunk) -> {
+            ps.setLong(1, chunk.getId());
+            ps.setLong(2, chunk.getCourse().getId());
+            ps.setString(3, chunk.getContent());
+            ps.setInt(4, chunk.getChunkIndex());
+            ps.setInt(5, chunk.getStartPosition());
+            ps.setInt(6, chunk.getEndPosition());
+            ps.setString(7, chunk.getEmbedding());
+            if (chunk.getTokenCount() != null) {
+                ps.setInt(8, chunk.getTokenCount());
+            } else {
+                ps.setNull(8, Types.INTEGER);
+            }
+            ps.setString(9, chunk.getContentHash());
+            ps.setTimestamp(10, Timestamp.valueOf(chunk.getCreatedAt()));
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
@@ -8,9 +9,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.demo.dto.CourseDTO;
+import com.example.demo.dto.CourseSummaryDTO;
 import com.example.demo.entity.ContentType;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.CourseStatus;
+import com.example.demo.entity.IndexingJob;
 import com.example.demo.entity.Module;
 import com.example.demo.entity.User;
 import com.example.demo.repository.CourseRepository;
@@ -31,20 +34,26 @@ public class CourseService {
     private final ModuleRepository moduleRepository;
     private final SecurityUtils securityUtils;
     private final RAGService ragService;
+    private final IndexingJobService indexingJobService;
     private final FileStorageService fileStorageService;
+    private final LLMService llmService;
 
     public CourseService(CourseRepository courseRepository, 
                          EnrollmentRepository enrollmentRepository,
                          ModuleRepository moduleRepository,
                          SecurityUtils securityUtils,
                          RAGService ragService,
-                         FileStorageService fileStorageService) {
+                         IndexingJobService indexingJobService,
+                         FileStorageService fileStorageService,
+                         LLMService llmService) {
         this.courseRepository = courseRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.moduleRepository = moduleRepository;
         this.securityUtils = securityUtils;
         this.ragService = ragService;
+        this.indexingJobService = indexingJobService;
         this.fileStorageService = fileStorageService;
+        this.llmService = llmService;
     }
 
     public Course createCourse(CourseDTO dto) {
@@ -63,6 +72,7 @@ public class CourseService {
         course.setCreatedBy(currentUser);
         course.setStatus(CourseStatus.DRAFT);
         course.setDisplayOrder(dto.getDisplayOrder() != null ? dto.getDisplayOrder() : 0);
+        applyLlmProvider(course, dto);
 
         // Handle content type
         if (pdfFile != null && !pdfFile.isEmpty()) {
@@ -100,6 +110,10 @@ public class CourseService {
         course.setTitle(dto.getTitle());
         course.setDescription(dto.getDescription());
         course.setDisplayOrder(dto.getDisplayOrder() != null ? dto.getDisplayOrder() : 0);
+        applyLlmProvider(course, dto);
+
+        String previousContent = course.getContent();
+        String previousPdf = course.getPdfFilename();
 
         // Handle PDF removal request
         if (dto.isRemovePdf() && course.hasPdf()) {
@@ -135,9 +149,23 @@ public class CourseService {
             course.setModule(null);
         }
 
-        // If content changed, mark as not indexed
-        if (course.isIndexed()) {
-            course.setIndexed(false);
+        // Only content changes affect the RAG index
+        boolean contentChanged = !Objects.equals(previousContent, course.getContent())
+                || !Objects.equals(previousPdf, course.getPdfFilename());
+
+        if (contentChanged && course.isIndexed()) {
+            if (course.isPublished()) {
+                if (course.getContentType() == ContentType.PDF) {
+                    // Old chunks no longer match the new PDF: hide them until the re-index completes
+                    course.setIndexed(false);
+                }
+                // Re-indexed in the background; only changed chunks are rewritten
+                indexingJobService.enqueue(course);
+            } else {
+                // Only published courses are indexed: the old chunks stay stale until the course
+                // is published and indexed again (which reuses the unchanged ones)
+                course.setIndexed(false);
+            }
         }
 
         return courseRepository.save(course);
@@ -153,6 +181,7 @@ public class CourseService {
         }
         
         courseRepository.delete(course);
+        ragService.evictCourse(id);
     }
 
     public Course publishCourse(Long id) {
@@ -167,7 +196,7 @@ public class CourseService {
         return courseRepository.save(course);
     }
 
-    public Course indexCourseForRAG(Long id) {
+    public IndexingJob indexCourseForRAG(Long id) {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found: " + id));
 
@@ -175,11 +204,8 @@ public class CourseService {
             throw new IllegalStateException("Only published courses can be indexed for RAG.");
         }
 
-        // Perform RAG indexing
-        ragService.indexCourse(course);
-        course.markAsIndexed();
-
-        return courseRepository.save(course);
+        // Indexing runs in the background; the course is marked indexed when the job completes
+        return indexingJobService.enqueue(course);
     }
 
     @Transactional(readOnly = true)
@@ -187,6 +213,14 @@ public class CourseService {
         return courseRepository.findById(id);
     }
 
+    /**
+     * A course with its author and module, as shown on the course pages and forms.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Course> findByIdWithDetails(Long id) {
+        return courseRepository.findWithDetailsById(id);
+    }
+
     @Transactional(readOnly = true)
     public List<Course> findAllCourses() {
         return courseRepository.findAll();
@@ -227,6 +261,24 @@ public class CourseService {
         return courseRepository.findByCreatedByIdOrderByModuleIdAscDisplayOrderAscTitleAsc(teacherId);
     }
 
+    /**
+     * Summaries of a teacher's courses, as listed on the courses page.
+     */
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> findSummariesByTeacher(Long teacherId) {
+        return courseRepository.findSummariesByTeacherId(teacherId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> findAllSummaries() {
+        return courseRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> findSummariesByModule(Long moduleId) {
+        return courseRepository.findSummariesByModuleId(moduleId);
+    }
+
     @Transactional(readOnly = true)
     public boolean isStudentEnrolled(Long studentId, Long courseId) {
         return enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId);
@@ -242,6 +294,28 @@ public class CourseService {
         return courseRepository.countByStatus(CourseStatus.PUBLISHED);
     }
 
+    /**
+     * Route the course's LLM calls to the provider chosen in the form.
+     * Only administrators choose providers, since they differ in cost.
+     */
+    private void applyLlmProvider(Course course, CourseDTO dto) {
+        String provider = dto.getLlmProvider();
+        if (provider == null) {
+            return;
+        }
+        User currentUser = securityUtils.getCurrentUser();
+        if (currentUser == null || !currentUser.isAdmin()) {
+            throw new SecurityException("Only administrators can choose the LLM provider of a course");
+        }
+        if (provider.isBlank()) {
+            course.setLlmProvider(null);
+        } else if (llmService.getProviderNames().contains(provider)) {
+            course.setLlmProvider(provider);
+        } else {
+            throw new IllegalArgumentException("Unknown LLM provider: " + provider);
+        }
+    }
+
     public CourseDTO toDTO(Course course) {
         CourseDTO dto = new CourseDTO(
                 course.getId(),
@@ -257,6 +331,7 @@ public class CourseService {
         dto.setContentType(course.getContentType().name());
         dto.setPdfFilename(course.getPdfFilename());
         dto.setPdfOriginalName(course.getPdfOriginalName());
+        dto.setLlmProvider(course.getLlmProvider() != null ? course.getLlmProvider() : "");
         return dto;
     }
 }
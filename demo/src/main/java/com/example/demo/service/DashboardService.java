@@ -1,9 +1,16 @@
 package com.example.demo.service;
 
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.dto.CourseSummaryDTO;
 import com.example.demo.dto.DashboardStatsDTO;
+import com.example.demo.dto.QuizResultRowDTO;
+import com.example.demo.dto.UserSummaryDTO;
 import com.example.demo.entity.CourseStatus;
 import com.example.demo.entity.Role;
 import com.example.demo.repository.CourseRepository;
@@ -14,11 +21,17 @@ import com.example.demo.repository.UserRepository;
 
 /**
  * Service class for generating dashboard statistics.
+ * The dashboard lists are read as DTO projections, so only their columns are
+ * selected and no entities are loaded.
  */
 @Service
 @Transactional(readOnly = true)
 public class DashboardService {
 
+    /** Rows in each "recent" list of a dashboard. */
+    private static final Pageable RECENT = PageRequest.of(0, 5);
+    private static final Pageable RECENT_ACTIVITY = PageRequest.of(0, 10);
+
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
@@ -61,7 +74,7 @@ public class DashboardService {
      * Get statistics for a student's dashboard.
      */
     public DashboardStatsDTO getStudentDashboardStats(Long studentId) {
-        long enrolledCourses = enrollmentRepository.findByStudentId(studentId).size();
+        long enrolledCourses = enrollmentRepository.countByStudentId(studentId);
         long completedCourses = enrollmentRepository.countByStudentIdAndStatus(studentId, 
                 com.example.demo.entity.EnrollmentStatus.COMPLETED);
         long totalQuizzes = quizRepository.countByStudentId(studentId);
@@ -77,4 +90,35 @@ public class DashboardService {
                 averageScore != null ? averageScore : 0.0
         );
     }
+
+    /**
+     * Most recently created courses, optionally of one teacher.
+     */
+    public List<CourseSummaryDTO> getRecentCourses(Long teacherId) {
+        if (teacherId == null) {
+            return courseRepository.findRecentSummaries(RECENT);
+        }
+        return courseRepository.findRecentSummariesByTeacherId(teacherId, RECENT);
+    }
+
+    /**
+     * Most recently registered users of a role.
+     */
+    public List<UserSummaryDTO> getRecentUsers(Role role) {
+        return userRepository.findRecentSummariesByRole(role, RECENT);
+    }
+
+    /**
+     * Latest quiz results of a student.
+     */
+    public List<QuizResultRowDTO> getRecentResults(Long studentId) {
+        return quizResultRepository.findRecentRowsByStudentId(studentId, RECENT);
+    }
+
+    /**
+     * Latest quiz results on the platform, for activity monitoring.
+     */
+    public List<QuizResultRowDTO> getRecentQuizActivity() {
+        return quizResultRepository.findRecentRows(RECENT_ACTIVITY);
+    }
 }
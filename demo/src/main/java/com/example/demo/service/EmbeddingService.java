@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+/**
+ * Embedding step of the RAG pipeline.
+ * Turns a piece of text into a fixed-size, L2-normalized vector so that
+ * course chunks can be compared by cosine similarity (a plain dot product).
+ *
+ * Architecture Note: Implementations are pluggable. The default
+ * {@link HashingEmbeddingService} is deterministic and fully local, which keeps
+ * indexing and tests independent of any external embedding API.
+ */
+public interface EmbeddingService {
+
+    /**
+     * Name of the embedding model, stored alongside vectors for traceability.
+     */
+    String getModelName();
+
+    /**
+     * Dimension of the vectors produced by {@link #embed(String)}.
+     */
+    int getDimension();
+
+    /**
+     * Embed a piece of text into an L2-normalized vector.
+     * Blank text yields a zero vector.
+     */
+    float[] embed(String text);
+}
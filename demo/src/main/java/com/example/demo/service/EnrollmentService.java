@@ -6,6 +6,7 @@ import java.util.Optional;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.dto.EnrollmentRowDTO;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.Enrollment;
 import com.example.demo.entity.EnrollmentStatus;
@@ -87,13 +88,13 @@ public class EnrollmentService {
     }
 
     @Transactional(readOnly = true)
-    public List<Enrollment> findByStudent(Long studentId) {
-        return enrollmentRepository.findByStudentId(studentId);
+    public List<EnrollmentRowDTO> findRowsByStudent(Long studentId) {
+        return enrollmentRepository.findRowsByStudentId(studentId);
     }
 
     @Transactional(readOnly = true)
-    public List<Enrollment> findByCourse(Long courseId) {
-        return enrollmentRepository.findByCourseId(courseId);
+    public List<EnrollmentRowDTO> findRowsByCourse(Long courseId) {
+        return enrollmentRepository.findRowsByCourseId(courseId);
     }
 
     @Transactional(readOnly = true)
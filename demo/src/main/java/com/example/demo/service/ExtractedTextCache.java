@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed cache of text extracted from PDF files.
+ *
+ * Entries are gzip files named after the SHA-256 of the PDF bytes, stored
+ * under {@code <upload-dir>/.text-cache} so every node sharing the upload
+ * directory shares the cache. The key also carries {@link #EXTRACTION_VERSION},
+ * to be bumped whenever extraction or post-processing changes its output.
+ *
+ * The cache is bounded in size: a hit refreshes the entry's modification
+ * time, and after each write the least recently used entries are deleted
+ * until the total size fits in {@code app.pdf.text-cache-max-mb}.
+ */
+@Service
+public class ExtractedTextCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractedTextCache.class);
+
+    /** Version of the extraction pipeline whose output is cached. */
+    private static final int EXTRACTION_VERSION = 1;
+    private static final String CACHE_DIR = ".text-cache";
+    private static final String SUFFIX = ".txt.gz";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${file.upload-dir:./uploads}")
+    private String uploadDir;
+
+    @Value("${app.pdf.text-cache-enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.pdf.text-cache-max-mb:512}")
+    private long maxSizeMb;
+
+    private Path cacheLocation;
+
+    @PostConstruct
+    public void init() {
+        this.cacheLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(CACHE_DIR);
+        try {
+            Files.createDirectories(cacheLocation);
+        } catch (IOException ex) {
+            logger.warn("Could not create text cache directory {}; caching disabled", cacheLocation);
+            enabled = false;
+        }
+    }
+
+    /**
+     * Compute the cache key of a PDF: the hex SHA-256 of its bytes.
+     */
+    public String keyOf(Path pdfPath) throws IOException {
+        MessageDigest digest = Hashing.sha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(pdfPath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return Hashing.toHex(digest);
+    }
+
+    /**
+     * Look up the extracted text of a PDF.
+     *
+     * @param key the key returned by {@link #keyOf(Path)}
+     * @return the cached text, or empty on a miss or an unreadable entry
+     */
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Path entry = entryPath(key);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(text);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable text cache entry {}: {}", key, e.getMessage());
+            deleteQuietly(entry);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store the extracted text of a PDF, then evict entries over the size limit.
+     * Failures are logged and ignored: the cache is only an optimization.
+     */
+    public void put(String key, String text) {
+        if (!enabled) {
+            return;
+        }
+
+        Path entry = entryPath(key);
+        Path temp = null;
+        try {
+            // Write aside and move into place, so readers never see a partial entry
+            temp = Files.createTempFile(cacheLocation, key, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            evictOverLimit();
+        } catch (IOException e) {
+            logger.warn("Could not cache extracted text {}: {}", key, e.getMessage());
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Delete least recently used entries until the cache fits its size limit.
+     */
+    private synchronized void evictOverLimit() throws IOException {
+        long limit = maxSizeMb * 1024 * 1024;
+        List<CacheEntry> entries = new ArrayList<>();
+        long total = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheLocation, "*" + SUFFIX)) {
+            for (Path path : stream) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    entries.add(new CacheEntry(path, attributes.size(), attributes.lastModifiedTime()));
+                    total += attributes.size();
+                } catch (NoSuchFileException e) {
+                    // Evicted concurrently by another node
+                }
+            }
+        }
+        if (total <= limit) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(CacheEntry::lastUsed));
+        int evicted = 0;
+        for (CacheEntry entry : entries) {
+            if (total <= limit) {
+                break;
+            }
+            deleteQuietly(entry.path());
+            total -= entry.size();
+            evicted++;
+        }
+        logger.info("Evicted {} extracted-text cache entries ({} bytes left)", evicted, total);
+    }
+
+    private Path entryPath(String key) {
+        return cacheLocation.resolve(key + "-v" + EXTRACTION_VERSION + SUFFIX);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record CacheEntry(Path path, long size, FileTime lastUsed) {}
+}
@@ -7,7 +7,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -22,6 +31,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * Service for handling file uploads and storage.
@@ -35,8 +45,25 @@ public class FileStorageService {
     @Value("${file.upload-dir:./uploads}")
     private String uploadDir;
 
+    @Value("${app.pdf.extraction-threads:0}")
+    private int extractionThreads;
+
+    @Value("${app.pdf.pages-per-batch:25}")
+    private int pagesPerBatch;
+
     private Path fileStorageLocation;
 
+    private ExecutorService extractionExecutor;
+    private int extractionThreadCount;
+
+    private final ExtractedTextCache textCache;
+    private final TextNormalizer textNormalizer;
+
+    public FileStorageService(ExtractedTextCache textCache, TextNormalizer textNormalizer) {
+        this.textCache = textCache;
+        this.textNormalizer = textNormalizer;
+    }
+
     @PostConstruct
     public void init() {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
@@ -45,6 +72,20 @@ public class FileStorageService {
         } catch (IOException ex) {
             throw new RuntimeException("Could not create upload directory: " + uploadDir, ex);
         }
+
+        // Shared by all extractions, so concurrent indexing jobs cannot oversubscribe the CPU
+        this.extractionThreadCount = extractionThreads > 0 ? extractionThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.extractionExecutor = Executors.newFixedThreadPool(extractionThreadCount, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-extraction-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractionExecutor.shutdownNow();
     }
 
     /**
@@ -151,6 +192,14 @@ public class FileStorageService {
      * Extract text content from a PDF file.
      * Uses enhanced extraction settings for better handling of layouts and formulas.
      *
+     * Large documents are split into page batches extracted concurrently by up
+     * to {@code app.pdf.extraction-threads} threads. Neither {@link PDDocument}
+     * nor {@link PDFTextStripper} is thread-safe, so each thread loads its own
+     * copy of the document once and extracts any number of batches from it;
+     * the results are stitched in page order.
+     * The post-processed text is cached by PDF content hash, so a PDF already
+     * extracted (by any node sharing the upload directory) is never parsed again.
+     *
      * @param filename the PDF filename to extract text from
      * @return the extracted text content, or empty string if extraction fails
      */
@@ -166,29 +215,75 @@ public class FileStorageService {
             return "";
         }
 
+        String cacheKey = null;
+        try {
+            cacheKey = textCache.keyOf(filePath);
+            Optional<String> cached = textCache.get(cacheKey);
+            if (cached.isPresent()) {
+                logger.info("Using cached text of PDF ({} characters): {}", cached.get().length(), filename);
+                return cached.get();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not hash PDF {} for the text cache: {}", filename, e.getMessage());
+        }
+
+        long startTime = System.currentTimeMillis();
         try (PDDocument document = Loader.loadPDF(filePath.toFile())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            
-            // Configure stripper for better text extraction
-            stripper.setSortByPosition(true);
-            stripper.setAddMoreFormatting(true);
-            
-            // Add paragraph breaks between sections
-            stripper.setParagraphStart("\n");
-            stripper.setParagraphEnd("\n\n");
-            stripper.setPageStart("\n");
-            stripper.setPageEnd("\n\n");
-            stripper.setLineSeparator("\n");
-            
-            // Extract text from all pages
-            String text = stripper.getText(document);
+            int pageCount = document.getNumberOfPages();
+            int batchSize = Math.max(1, pagesPerBatch);
+            String[] batchTexts = new String[Math.max(1, (pageCount + batchSize - 1) / batchSize)];
+            AtomicInteger nextBatch = new AtomicInteger();
+
+            // Helpers load the document once each and take batches until none are
+            // left; this thread does the same on the document already loaded
+            int helperCount = Math.min(extractionThreadCount, batchTexts.length - 1);
+            List<Future<?>> helpers = new ArrayList<>();
+            List<AtomicBoolean> helperClaims = new ArrayList<>();
+            for (int i = 0; i < helperCount; i++) {
+                AtomicBoolean claimed = new AtomicBoolean();
+                helperClaims.add(claimed);
+                helpers.add(extractionExecutor.submit(() -> {
+                    // A helper that starts late may find no batch left to load the document for
+                    if (claimed.compareAndSet(false, true) && nextBatch.get() < batchTexts.length) {
+                        try (PDDocument copy = Loader.loadPDF(filePath.toFile())) {
+                            extractBatches(copy, pageCount, batchSize, nextBatch, batchTexts);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            try {
+                extractBatches(document, pageCount, batchSize, nextBatch, batchTexts);
+                // Every batch is taken: helpers still queued behind other extractions are
+                // claimed and cancelled rather than waited for; started ones may hold a batch
+                for (int i = 0; i < helpers.size(); i++) {
+                    if (helperClaims.get(i).compareAndSet(false, true)) {
+                        helpers.get(i).cancel(false);
+                    } else {
+                        helpers.get(i).get();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while extracting " + filename, e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            } finally {
+                helpers.forEach(helper -> helper.cancel(true));
+            }
             
             // Post-process the text to improve readability
-            text = postProcessPdfText(text);
+            String result = textNormalizer.normalizePdfText(String.join("", batchTexts));
             
-            logger.info("Extracted {} characters from PDF ({} pages): {}", 
-                    text.length(), document.getNumberOfPages(), filename);
-            return text;
+            logger.info("Extracted {} characters from PDF ({} pages, {} batches, {} threads) in {} ms: {}",
+                    result.length(), pageCount, batchTexts.length, helperCount + 1,
+                    System.currentTimeMillis() - startTime, filename);
+
+            if (cacheKey != null && !result.isEmpty()) {
+                textCache.put(cacheKey, result);
+            }
+            return result;
         } catch (IOException e) {
             logger.error("Failed to extract text from PDF: {}", filename, e);
             return "";
@@ -196,38 +291,39 @@ public class FileStorageService {
     }
 
     /**
-     * Post-process extracted PDF text to improve readability.
-     * Handles common PDF extraction artifacts and improves chunking compatibility.
+     * Extract page batches from one document until the shared counter runs out.
+     * Batch {@code i} covers pages {@code i * batchSize + 1} onwards and its text
+     * is stored in {@code batchTexts[i]}.
      */
-    private String postProcessPdfText(String text) {
-        if (text == null || text.isEmpty()) {
-            return "";
+    private void extractBatches(PDDocument document, int pageCount, int batchSize,
+                                AtomicInteger nextBatch, String[] batchTexts) throws IOException {
+        int batch;
+        while ((batch = nextBatch.getAndIncrement()) < batchTexts.length) {
+            int firstPage = batch * batchSize + 1;
+            batchTexts[batch] = extractPages(document, firstPage, Math.min(firstPage + batchSize - 1, pageCount));
         }
+    }
+
+    /**
+     * Extract pages {@code firstPage..lastPage} (1-based, inclusive).
+     */
+    private String extractPages(PDDocument document, int firstPage, int lastPage) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
         
-        // Remove excessive whitespace while preserving paragraph structure
-        text = text.replaceAll("[ \\t]+", " ");  // Multiple spaces to single space
-        text = text.replaceAll("(?m)^[ \\t]+", "");  // Leading whitespace on lines
-        text = text.replaceAll("(?m)[ \\t]+$", "");  // Trailing whitespace on lines
-        
-        // Normalize line endings
-        text = text.replaceAll("\\r\\n", "\n");
-        text = text.replaceAll("\\r", "\n");
-        
-        // Convert 3+ newlines to double newlines (paragraph breaks)
-        text = text.replaceAll("\\n{3,}", "\n\n");
-        
-        // Try to fix broken sentences (line ending without punctuation)
-        // This helps with PDFs that have hard line breaks mid-sentence
-        text = text.replaceAll("(?<![.!?:;,\\-])\\n(?=[a-z])", " ");
-        
-        // Clean up common PDF artifacts
-        text = text.replaceAll("\\u0000", "");  // Null characters
-        text = text.replaceAll("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F]", "");  // Control characters
-        
-        // Improve formula readability - add spacing around common operators
-        text = text.replaceAll("([a-zA-Z])([=<>≤≥≠+−×÷])([a-zA-Z0-9])", "$1 $2 $3");
+        // Configure stripper for better text extraction
+        stripper.setSortByPosition(true);
+        stripper.setAddMoreFormatting(true);
         
-        return text.trim();
+        // Add paragraph breaks between sections
+        stripper.setParagraphStart("\n");
+        stripper.setParagraphEnd("\n\n");
+        stripper.setPageStart("\n");
+        stripper.setPageEnd("\n\n");
+        stripper.setLineSeparator("\n");
+
+        stripper.setStartPage(firstPage);
+        stripper.setEndPage(lastPage);
+        return stripper.getText(document);
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.genai.Client;
+import com.google.genai.ResponseStream;
+import com.google.genai.types.GenerateContentResponse;
+
+/**
+ * LLM provider using the Google Gemini API with the official SDK.
+ */
+@Service
+public class GeminiProvider implements LLMProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiProvider.class);
+
+    public static final String NAME = "gemini";
+
+    @Value("${app.gemini.api-key:}")
+    private String apiKey;
+
+    @Value("${app.gemini.model:gemini-2.5-flash-lite}")
+    private String model;
+
+    private volatile Client client;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    @Override
+    public String generate(String prompt) {
+        GenerateContentResponse response = getClient().models.generateContent(model, prompt, null);
+        return response.text();
+    }
+
+    @Override
+    public void stream(String prompt, Consumer<String> onText) {
+        try (ResponseStream<GenerateContentResponse> stream =
+                     getClient().models.generateContentStream(model, prompt, null)) {
+            for (GenerateContentResponse chunk : stream) {
+                String text = chunk.text();
+                if (text != null) {
+                    onText.accept(text);
+                }
+            }
+        }
+    }
+
+    /**
+     * Initialize the Gemini client lazily with API key.
+     */
+    private Client getClient() {
+        if (client == null) {
+            synchronized (this) {
+                if (client == null) {
+                    if (!isAvailable()) {
+                        throw new IllegalStateException("Gemini API key is not configured");
+                    }
+                    client = Client.builder().apiKey(apiKey).build();
+                    logger.info("Initialized Gemini client with model: {}", model);
+                }
+            }
+        }
+        return client;
+    }
+}
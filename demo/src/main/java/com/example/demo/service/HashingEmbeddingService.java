@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deterministic local embedder based on signed feature hashing.
+ *
+ * Each unigram and bigram of the text is hashed into one of the vector
+ * dimensions with a +1/-1 sign, term frequencies are dampened with
+ * 1 + log(tf) and the vector is L2-normalized. The same text always produces
+ * the same vector, on every node, without any network call.
+ */
+@Service
+public class HashingEmbeddingService implements EmbeddingService {
+
+    private static final String MODEL_NAME = "local-hashing-v1";
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private final int dimension;
+
+    public HashingEmbeddingService(@Value("${app.rag.embedding-dimension:256}") int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Embedding dimension must be positive: " + dimension);
+        }
+        this.dimension = dimension;
+    }
+
+    @Override
+    public String getModelName() {
+        return MODEL_NAME;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] counts = new float[dimension];
+        List<String> tokens = TextTokenizer.tokenize(text);
+
+        String previous = null;
+        for (String token : tokens) {
+            accumulate(counts, token, 1.0f);
+            if (previous != null) {
+                accumulate(counts, previous + ' ' + token, BIGRAM_WEIGHT);
+            }
+            previous = token;
+        }
+
+        // Sublinear term frequency, keeping the hashed sign
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            float c = counts[i];
+            if (c != 0) {
+                float damped = (float) (Math.signum(c) * (1 + Math.log(Math.abs(c))));
+                counts[i] = damped;
+                norm += damped * damped;
+            }
+        }
+
+        if (norm > 0) {
+            float inv = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                counts[i] *= inv;
+            }
+        }
+        return counts;
+    }
+
+    private void accumulate(float[] counts, String feature, float weight) {
+        int hash = murmurHash3(feature.getBytes(StandardCharsets.UTF_8));
+        int bucket = Math.floorMod(hash, dimension);
+        // Use an independent bit of the hash for the sign to reduce collision bias
+        float sign = ((hash >>> 31) == 0) ? 1.0f : -1.0f;
+        counts[bucket] += sign * weight;
+    }
+
+    /**
+     * 32-bit MurmurHash3 (x86 variant) with a fixed seed, so embeddings are stable
+     * across JVMs (unlike {@link String#hashCode()} mixing, which is weak on short strings).
+     */
+    private static int murmurHash3(byte[] data) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        int h1 = 0x9747b28c;
+        int length = data.length;
+        int roundedEnd = length & 0xfffffffc;
+
+        for (int i = 0; i < roundedEnd; i += 4) {
+            int k1 = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8)
+                    | ((data[i + 2] & 0xff) << 16) | (data[i + 3] << 24);
+            k1 *= c1;
+            k1 = Integer.rotateLeft(k1, 15);
+            k1 *= c2;
+            h1 ^= k1;
+            h1 = Integer.rotateLeft(h1, 13);
+            h1 = h1 * 5 + 0xe6546b64;
+        }
+
+        int k1 = 0;
+        switch (length & 0x03) {
+            case 3:
+                k1 = (data[roundedEnd + 2] & 0xff) << 16;
+                // fall through
+            case 2:
+                k1 |= (data[roundedEnd + 1] & 0xff) << 8;
+                // fall through
+            case 1:
+                k1 |= (data[roundedEnd] & 0xff);
+                k1 *= c1;
+                k1 = Integer.rotateLeft(k1, 15);
+                k1 *= c2;
+                h1 ^= k1;
+                break;
+            default:
+                break;
+        }
+
+        h1 ^= length;
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.IndexingJob;
+import com.example.demo.entity.IndexingJobStatus;
+import com.example.demo.entity.IndexingStage;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.IndexingJobRepository;
+
+/**
+ * Service for the persisted RAG indexing queue.
+ *
+ * Every state change is its own short transaction, so job rows are only
+ * locked while being claimed or updated, never for the duration of the
+ * indexing pipeline run by {@link IndexingWorker}.
+ */
+@Service
+@Transactional
+public class IndexingJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexingJobService.class);
+
+    private final IndexingJobRepository jobRepository;
+    private final CourseRepository courseRepository;
+    private final QuestionBankService questionBankService;
+
+    public IndexingJobService(IndexingJobRepository jobRepository, CourseRepository courseRepository,
+                              QuestionBankService questionBankService) {
+        this.jobRepository = jobRepository;
+        this.courseRepository = courseRepository;
+        this.questionBankService = questionBankService;
+    }
+
+    /**
+     * Queue a course for indexing. A course already waiting in the queue is
+     * not queued twice; a course being indexed is queued again so the running
+     * job's (possibly stale) content is superseded. The new job is only claimed
+     * once the running one finishes (see {@link IndexingJobRepository#lockNextQueued}).
+     */
+    public IndexingJob enqueue(Course course) {
+        Optional<IndexingJob> queued = jobRepository.findFirstByCourseIdAndStatus(course.getId(), IndexingJobStatus.QUEUED);
+        if (queued.isPresent()) {
+            return queued.get();
+        }
+
+        IndexingJob job = jobRepository.save(new IndexingJob(course));
+        logger.info("Queued indexing job {} for course {}", job.getId(), course.getId());
+        return job;
+    }
+
+    /**
+     * Claim the oldest due queued job for a worker and mark it RUNNING.
+     *
+     * @return the claimed job, or empty if no queued job is due, or every
+     *         due job is being claimed by another worker or belongs to a
+     *         course that is being indexed
+     */
+    public Optional<IndexingJob> claimNext(String workerId) {
+        Optional<IndexingJob> next = jobRepository.lockNextQueued(LocalDateTime.now());
+        next.ifPresent(job -> {
+            job.start(workerId);
+            logger.info("Worker {} claimed indexing job {} (attempt {})", workerId, job.getId(), job.getAttempts());
+        });
+        return next;
+    }
+
+    /**
+     * Record that a running job entered a pipeline stage (also acts as heartbeat).
+     */
+    public void advance(Long jobId, IndexingStage stage, int progress) {
+        jobRepository.findById(jobId).ifPresent(job -> job.advance(stage, progress));
+    }
+
+    /**
+     * Refresh the heartbeat of running jobs, so a stage taking longer than the
+     * stale cutoff (e.g. extracting a large PDF) does not get its job requeued.
+     */
+    public void heartbeat(Collection<Long> jobIds) {
+        if (!jobIds.isEmpty()) {
+            jobRepository.heartbeat(jobIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Mark a job completed and its course indexed, in one transaction.
+     * If the indexed text changed, the course's question bank was generated
+     * from the previous content and is emptied.
+     *
+     * @param contentChanged whether chunks were inserted or deleted
+     */
+    public void complete(Long jobId, Long courseId, int chunkCount, boolean contentChanged) {
+        courseRepository.findById(courseId).ifPresent(course -> {
+            course.markAsIndexed();
+            courseRepository.save(course);
+        });
+        if (contentChanged) {
+            questionBankService.clearCourse(courseId);
+        }
+        jobRepository.findById(jobId).ifPresent(job -> job.complete("Indexed " + chunkCount + " chunks"));
+    }
+
+    /**
+     * Mark a job failed, or put it back in the queue while attempts remain.
+     * The retry is delayed by {@code retryBackoff}, doubled on every attempt;
+     * a job is not retried if the course has been queued again meanwhile.
+     */
+    public void fail(Long jobId, String message, int maxAttempts, Duration retryBackoff) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            if (job.getAttempts() >= maxAttempts) {
+                job.fail(message);
+            } else if (jobRepository.existsByCourseIdAndStatus(job.getCourse().getId(), IndexingJobStatus.QUEUED)) {
+                job.fail("Superseded by a newer job: " + message);
+            } else {
+                Duration delay = retryBackoff.multipliedBy(1L << Math.max(0, Math.min(job.getAttempts() - 1, 10)));
+                job.retryAt(LocalDateTime.now().plus(delay), message);
+                logger.info("Indexing job {} will be retried in {} s", jobId, delay.toSeconds());
+            }
+        });
+    }
+
+    /**
+     * Requeue RUNNING jobs that have not reported progress since the cutoff.
+     */
+    public int requeueStale(LocalDateTime cutoff) {
+        int requeued = jobRepository.requeueStale(cutoff);
+        if (requeued > 0) {
+            logger.warn("Requeued {} stale indexing jobs", requeued);
+        }
+        return requeued;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<IndexingJob> findLatestByCourse(Long courseId) {
+        return jobRepository.findFirstByCourseIdOrderByCreatedAtDesc(courseId);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.CourseChunk;
+import com.example.demo.entity.IndexingJob;
+import com.example.demo.entity.IndexingStage;
+import com.example.demo.repository.CourseRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background worker pool draining the persisted indexing queue.
+ *
+ * A scheduled poller claims queued jobs while this node has free worker
+ * threads, and each worker runs the {@link RAGService} pipeline stages
+ * (extraction, chunking, embedding, persistence) for one course, reporting
+ * the current stage to the job row between stages. Jobs are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so several nodes can poll the same table
+ * and throughput grows with the total number of workers. The heartbeat of the
+ * jobs running on this node is refreshed periodically, independently of their
+ * stage, so only jobs of a dead node are requeued as stale.
+ */
+@Service
+public class IndexingWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexingWorker.class);
+
+    private final IndexingJobService jobService;
+    private final RAGService ragService;
+    private final CourseRepository courseRepository;
+
+    @Value("${app.indexing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.indexing.workers:2}")
+    private int workerCount;
+
+    @Value("${app.indexing.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.indexing.stale-after-minutes:15}")
+    private int staleAfterMinutes;
+
+    @Value("${app.indexing.retry-backoff-seconds:30}")
+    private int retryBackoffSeconds;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService workers;
+    private Semaphore freeWorkers;
+
+    public IndexingWorker(IndexingJobService jobService, RAGService ragService, CourseRepository courseRepository) {
+        this.jobService = jobService;
+        this.ragService = ragService;
+        this.courseRepository = courseRepository;
+    }
+
+    @PostConstruct
+    void start() {
+        int size = Math.max(1, workerCount);
+        freeWorkers = new Semaphore(size);
+        workers = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "indexing-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Claim as many queued jobs as there are idle workers on this node.
+     * Jobs are only claimed when a worker is free, leaving the rest to other nodes.
+     */
+    @Scheduled(fixedDelayString = "${app.indexing.poll-interval-ms:2000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jobService.requeueStale(LocalDateTime.now().minusMinutes(staleAfterMinutes));
+
+            while (freeWorkers.tryAcquire()) {
+                Optional<IndexingJob> claimed = jobService.claimNext(nodeId);
+                if (claimed.isEmpty()) {
+                    freeWorkers.release();
+                    return;
+                }
+                IndexingJob job = claimed.get();
+                Long courseId = job.getCourse().getId();
+                workers.execute(() -> {
+                    try {
+                        run(job.getId(), courseId);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.error("Indexing queue poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Report that the jobs running on this node are alive, even while a worker
+     * is stuck in one long stage.
+     */
+    @Scheduled(fixedDelayString = "${app.indexing.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        if (!enabled || runningJobs.isEmpty()) {
+            return;
+        }
+        try {
+            jobService.heartbeat(List.copyOf(runningJobs));
+        } catch (Exception e) {
+            logger.error("Indexing heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run the indexing pipeline for one claimed job.
+     */
+    private void run(Long jobId, Long courseId) {
+        long startTime = System.currentTimeMillis();
+        runningJobs.add(jobId);
+        try {
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new IllegalStateException("Course not found: " + courseId));
+
+            jobService.advance(jobId, IndexingStage.EXTRACTING, 5);
+            String content = ragService.extractContent(course);
+
+            jobService.advance(jobId, IndexingStage.CHUNKING, 40);
+            List<CourseChunk> chunks = ragService.chunk(course, content);
+
+            jobService.advance(jobId, IndexingStage.EMBEDDING, 55);
+            ragService.embedChunks(courseId, chunks);
+
+            jobService.advance(jobId, IndexingStage.PERSISTING, 85);
+            RAGService.PersistedChunks persisted = ragService.persistChunks(course, chunks);
+
+            jobService.complete(jobId, courseId, persisted.chunkCount(), persisted.changed());
+            logger.info("Indexing job {} for course {} completed in {} ms",
+                    jobId, courseId, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.error("Indexing job {} for course {} failed: {}", jobId, courseId, e.getMessage(), e);
+            jobService.fail(jobId, e.getMessage(), maxAttempts, Duration.ofSeconds(retryBackoffSeconds));
+        } finally {
+            runningJobs.remove(jobId);
+        }
+    }
+}
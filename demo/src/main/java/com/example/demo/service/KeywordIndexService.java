@@ -0,0 +1,295 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory inverted index over course chunk text with BM25 ranking.
+ *
+ * For each course the index keeps, per term, a postings list of
+ * (chunk, term frequency, positions) sorted by chunk, plus the per-chunk
+ * lengths and the average chunk length used by BM25 length normalization.
+ * A lookup only touches the postings of the query terms instead of scanning
+ * every chunk of the course.
+ *
+ * Query syntax: space-separated terms are ranked with BM25 (OR semantics);
+ * text between double quotes is a phrase that a chunk must contain as
+ * consecutive terms, e.g. {@code "gradient descent" learning rate}.
+ *
+ * Like {@link VectorIndexService} this is a cache over {@code course_chunks}:
+ * {@link RAGService} rebuilds a course entry when it indexes the course and
+ * lazily loads it on first query.
+ */
+@Service
+public class KeywordIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeywordIndexService.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<Long, CourseIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Replace the inverted index of a course.
+     *
+     * @param courseId the course
+     * @param chunkIds ids of the chunks, in the same order as {@code texts}
+     * @param texts chunk contents
+     */
+    public void index(Long courseId, List<Long> chunkIds, List<String> texts) {
+        if (chunkIds.size() != texts.size()) {
+            throw new IllegalArgumentException("Chunk ids and texts must have the same size");
+        }
+
+        int documentCount = texts.size();
+        long[] ids = new long[documentCount];
+        int[] lengths = new int[documentCount];
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        long totalLength = 0;
+
+        for (int doc = 0; doc < documentCount; doc++) {
+            ids[doc] = chunkIds.get(doc);
+            List<String> tokens = TextTokenizer.tokenize(texts.get(doc));
+            lengths[doc] = tokens.size();
+            totalLength += tokens.size();
+            for (int position = 0; position < tokens.size(); position++) {
+                builders.computeIfAbsent(tokens.get(position), t -> new PostingsBuilder())
+                        .add(doc, position);
+            }
+        }
+
+        Map<String, Postings> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, builder) -> postings.put(term, builder.build()));
+
+        double averageLength = documentCount > 0 ? (double) totalLength / documentCount : 0;
+        indexes.put(courseId, new CourseIndex(ids, lengths, averageLength, postings));
+        logger.debug("Keyword index updated for course {} ({} chunks, {} terms)",
+                courseId, documentCount, postings.size());
+    }
+
+    /**
+     * Check whether the inverted index of a course is loaded in memory.
+     */
+    public boolean isLoaded(Long courseId) {
+        return indexes.containsKey(courseId);
+    }
+
+    /**
+     * Drop the inverted index of a course.
+     */
+    public void evict(Long courseId) {
+        indexes.remove(courseId);
+    }
+
+    /**
+     * Rank the chunks of a course against a keyword query with BM25.
+     *
+     * @return at most {@code k} chunk ids, best match first; chunks matching
+     *         no query term (or missing a required phrase) are not returned
+     */
+    public List<ScoredChunk> search(Long courseId, String query, int k) {
+        CourseIndex index = indexes.get(courseId);
+        if (index == null || index.ids().length == 0 || query == null || k <= 0) {
+            return List.of();
+        }
+
+        ParsedQuery parsed = ParsedQuery.parse(query);
+        if (parsed.terms().isEmpty()) {
+            return List.of();
+        }
+
+        // Phrases are hard filters; a phrase with an unknown term matches nothing
+        boolean[] allowed = null;
+        for (List<String> phrase : parsed.phrases()) {
+            boolean[] matches = matchPhrase(index, phrase);
+            if (allowed == null) {
+                allowed = matches;
+            } else {
+                for (int doc = 0; doc < allowed.length; doc++) {
+                    allowed[doc] &= matches[doc];
+                }
+            }
+        }
+
+        int documentCount = index.ids().length;
+        double[] scores = new double[documentCount];
+        boolean any = false;
+
+        for (String term : parsed.terms()) {
+            Postings postings = index.postings().get(term);
+            if (postings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - postings.size() + 0.5) / (postings.size() + 0.5));
+            for (int i = 0; i < postings.size(); i++) {
+                int doc = postings.docs()[i];
+                if (allowed != null && !allowed[doc]) {
+                    continue;
+                }
+                int tf = postings.frequencies()[i];
+                double norm = K1 * (1 - B + B * index.lengths()[doc] / index.averageLength());
+                scores[doc] += idf * (tf * (K1 + 1)) / (tf + norm);
+                any = true;
+            }
+        }
+
+        if (!any) {
+            return List.of();
+        }
+
+        PriorityQueue<ScoredChunk> heap = new PriorityQueue<>(k, Comparator.comparingDouble(ScoredChunk::score));
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (scores[doc] <= 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new ScoredChunk(index.ids()[doc], scores[doc]));
+            } else if (scores[doc] > heap.peek().score()) {
+                heap.poll();
+                heap.add(new ScoredChunk(index.ids()[doc], scores[doc]));
+            }
+        }
+
+        List<ScoredChunk> results = new ArrayList<>(heap);
+        results.sort(Comparator.comparingDouble(ScoredChunk::score).reversed());
+        return results;
+    }
+
+    /**
+     * Find the chunks containing the phrase as consecutive terms,
+     * by intersecting the postings of its terms and checking positions.
+     */
+    private boolean[] matchPhrase(CourseIndex index, List<String> phrase) {
+        boolean[] matches = new boolean[index.ids().length];
+        Postings[] lists = new Postings[phrase.size()];
+        for (int i = 0; i < phrase.size(); i++) {
+            lists[i] = index.postings().get(phrase.get(i));
+            if (lists[i] == null) {
+                return matches;
+            }
+        }
+
+        // Walk the first postings list and advance a cursor in the others (all sorted by doc)
+        int[] cursors = new int[lists.length];
+        Postings first = lists[0];
+        for (int i = 0; i < first.size(); i++) {
+            int doc = first.docs()[i];
+            boolean inAll = true;
+            for (int t = 1; t < lists.length && inAll; t++) {
+                Postings other = lists[t];
+                while (cursors[t] < other.size() && other.docs()[cursors[t]] < doc) {
+                    cursors[t]++;
+                }
+                inAll = cursors[t] < other.size() && other.docs()[cursors[t]] == doc;
+            }
+            if (inAll && containsPhraseAt(lists, i, cursors)) {
+                matches[doc] = true;
+            }
+        }
+        return matches;
+    }
+
+    private boolean containsPhraseAt(Postings[] lists, int firstEntry, int[] cursors) {
+        Postings first = lists[0];
+        for (int p = first.positionOffsets()[firstEntry]; p < first.positionOffsets()[firstEntry + 1]; p++) {
+            int start = first.positions()[p];
+            boolean consecutive = true;
+            for (int t = 1; t < lists.length && consecutive; t++) {
+                Postings other = lists[t];
+                int entry = cursors[t];
+                consecutive = Arrays.binarySearch(other.positions(), other.positionOffsets()[entry],
+                        other.positionOffsets()[entry + 1], start + t) >= 0;
+            }
+            if (consecutive) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Query split into ranked terms and required phrases.
+     */
+    private record ParsedQuery(List<String> terms, List<List<String>> phrases) {
+
+        static ParsedQuery parse(String query) {
+            List<String> terms = new ArrayList<>();
+            List<List<String>> phrases = new ArrayList<>();
+            boolean inPhrase = false;
+            int segmentStart = 0;
+
+            for (int i = 0; i <= query.length(); i++) {
+                if (i == query.length() || query.charAt(i) == '"') {
+                    List<String> tokens = TextTokenizer.tokenize(query.substring(segmentStart, i));
+                    terms.addAll(tokens);
+                    if (inPhrase && tokens.size() > 1) {
+                        phrases.add(tokens);
+                    }
+                    inPhrase = !inPhrase;
+                    segmentStart = i + 1;
+                }
+            }
+            return new ParsedQuery(terms, phrases);
+        }
+    }
+
+    /**
+     * Postings of one term: parallel arrays sorted by doc, with the positions of
+     * entry {@code i} stored in {@code positions[positionOffsets[i] .. positionOffsets[i+1])}.
+     */
+    private record Postings(int[] docs, int[] frequencies, int[] positionOffsets, int[] positions) {
+        int size() {
+            return docs.length;
+        }
+    }
+
+    private record CourseIndex(long[] ids, int[] lengths, double averageLength, Map<String, Postings> postings) {}
+
+    /**
+     * Accumulates postings while documents are added in increasing doc order.
+     */
+    private static final class PostingsBuilder {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] positions = new int[4];
+        private int[] positionOffsets = new int[5];
+        private int size;
+        private int positionCount;
+
+        void add(int doc, int position) {
+            if (size == 0 || docs[size - 1] != doc) {
+                if (size == docs.length) {
+                    docs = Arrays.copyOf(docs, size * 2);
+                    frequencies = Arrays.copyOf(frequencies, size * 2);
+                    positionOffsets = Arrays.copyOf(positionOffsets, size * 2 + 1);
+                }
+                docs[size] = doc;
+                positionOffsets[size] = positionCount;
+                size++;
+            }
+            frequencies[size - 1]++;
+            if (positionCount == positions.length) {
+                positions = Arrays.copyOf(positions, positionCount * 2);
+            }
+            positions[positionCount++] = position;
+        }
+
+        Postings build() {
+            int[] offsets = Arrays.copyOf(positionOffsets, size + 1);
+            offsets[size] = positionCount;
+            return new Postings(Arrays.copyOf(docs, size), Arrays.copyOf(frequencies, size),
+                    offsets, Arrays.copyOf(positions, positionCount));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Circuit breaker for LLM providers, with one circuit per provider.
+ *
+ * Each circuit keeps the outcome and latency of the last
+ * {@code app.llm.circuit-breaker.window-size} calls. When the share of failed
+ * calls, or of calls slower than {@code slow-call-threshold-ms}, reaches its
+ * threshold, the circuit opens: calls are refused at once, so callers fall
+ * back immediately instead of waiting for a degraded provider. After
+ * {@code open-seconds} a few trial calls are let through (half-open); the
+ * circuit closes again if they succeed and reopens if they fail.
+ *
+ * The latency window also gives the percentile used to hedge slow calls.
+ */
+@Service
+public class LLMCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMCircuitBreaker.class);
+
+    /**
+     * State of a provider's circuit.
+     */
+    public enum State {
+        /** Calls go through; outcomes are recorded. */
+        CLOSED,
+        /** Calls are refused until the open period is over. */
+        OPEN,
+        /** A limited number of trial calls decide whether to close or reopen. */
+        HALF_OPEN
+    }
+
+    @Value("${app.llm.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.llm.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${app.llm.circuit-breaker.minimum-calls:5}")
+    private int minimumCalls;
+
+    @Value("${app.llm.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${app.llm.circuit-breaker.slow-call-threshold-ms:20000}")
+    private long slowCallThresholdMs;
+
+    @Value("${app.llm.circuit-breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${app.llm.circuit-breaker.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${app.llm.circuit-breaker.half-open-calls:1}")
+    private int halfOpenCalls;
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * Whether calls to the provider are currently refused. Does not change
+     * the state of the circuit.
+     */
+    public boolean isOpen(String provider) {
+        return enabled && circuit(provider).isOpen(System.nanoTime());
+    }
+
+    /**
+     * Ask for permission to call the provider. Every permitted call must be
+     * followed by {@link #recordSuccess} or {@link #recordFailure}.
+     */
+    public boolean allowRequest(String provider) {
+        return !enabled || circuit(provider).allowRequest(System.nanoTime());
+    }
+
+    /**
+     * Record a successful call.
+     *
+     * @param latencyMs duration of the call, or a negative value if it is not
+     *                  comparable with plain calls (e.g. a whole streamed answer)
+     */
+    public void recordSuccess(String provider, long latencyMs) {
+        circuit(provider).record(true, latencyMs);
+    }
+
+    /**
+     * Record a failed or timed-out call.
+     */
+    public void recordFailure(String provider) {
+        circuit(provider).record(false, -1);
+    }
+
+    /**
+     * The given percentile of the latency of recent successful calls.
+     *
+     * @return the latency in milliseconds, or -1 while fewer than
+     *         {@code minimum-calls} latencies have been recorded
+     */
+    public long latencyPercentileMs(String provider, int percentile) {
+        return circuit(provider).latencyPercentile(percentile);
+    }
+
+    public State getState(String provider) {
+        return circuit(provider).state;
+    }
+
+    private Circuit circuit(String provider) {
+        return circuits.computeIfAbsent(provider, Circuit::new);
+    }
+
+    /**
+     * Sliding window of the last calls to one provider, and its state.
+     */
+    private final class Circuit {
+        private final String provider;
+
+        // Ring buffers over the last windowSize calls
+        private final boolean[] failed = new boolean[windowSize];
+        private final boolean[] slow = new boolean[windowSize];
+        private int next;
+        private int calls;
+
+        // Ring buffer of the latency of the last windowSize measured successes
+        private final long[] latencies = new long[windowSize];
+        private int nextLatency;
+        private int latencyCount;
+
+        private volatile State state = State.CLOSED;
+        private long openUntil;
+        private long halfOpenSince;
+        private int trialsInFlight;
+
+        Circuit(String provider) {
+            this.provider = provider;
+        }
+
+        synchronized boolean isOpen(long now) {
+            return state == State.OPEN && openUntil - now > 0;
+        }
+
+        synchronized boolean allowRequest(long now) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (openUntil - now > 0) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    halfOpenSince = now;
+                    trialsInFlight = 0;
+                    logger.info("LLM circuit of {} half-open: trying {} call(s)", provider, halfOpenCalls);
+                    break;
+                case HALF_OPEN:
+                    // A trial that never reported back must not keep the circuit half-open forever
+                    if (now - halfOpenSince > TimeUnit.SECONDS.toNanos(openSeconds)) {
+                        halfOpenSince = now;
+                        trialsInFlight = 0;
+                    }
+                    break;
+            }
+            if (trialsInFlight >= halfOpenCalls) {
+                return false;
+            }
+            trialsInFlight++;
+            return true;
+        }
+
+        synchronized void record(boolean success, long latencyMs) {
+            if (success && latencyMs >= 0) {
+                latencies[nextLatency] = latencyMs;
+                nextLatency = (nextLatency + 1) % windowSize;
+                latencyCount = Math.min(latencyCount + 1, windowSize);
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (success) {
+                    close();
+                } else {
+                    open("trial call failed");
+                }
+                return;
+            }
+
+            failed[next] = !success;
+            slow[next] = latencyMs > slowCallThresholdMs;
+            next = (next + 1) % windowSize;
+            calls = Math.min(calls + 1, windowSize);
+
+            if (state == State.CLOSED && calls >= minimumCalls) {
+                int failures = count(failed);
+                int slowCalls = count(slow);
+                if (failures * 100 >= failureRateThreshold * calls) {
+                    open(failures + "/" + calls + " recent calls failed");
+                } else if (slowCalls * 100 >= slowCallRateThreshold * calls) {
+                    open(slowCalls + "/" + calls + " recent calls were slower than " + slowCallThresholdMs + " ms");
+                }
+            }
+        }
+
+        synchronized long latencyPercentile(int percentile) {
+            if (latencyCount < minimumCalls) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * latencyCount) - 1;
+            return sorted[Math.max(0, Math.min(index, latencyCount - 1))];
+        }
+
+        private void open(String reason) {
+            state = State.OPEN;
+            openUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(openSeconds);
+            logger.warn("LLM circuit of {} opened for {} s: {}", provider, openSeconds, reason);
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            Arrays.fill(failed, false);
+            Arrays.fill(slow, false);
+            next = 0;
+            calls = 0;
+            logger.info("LLM circuit of {} closed", provider);
+        }
+
+        private int count(boolean[] flags) {
+            int count = 0;
+            for (int i = 0; i < calls; i++) {
+                if (flags[i]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
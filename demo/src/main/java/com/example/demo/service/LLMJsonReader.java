@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import java.io.Reader;
+import java.util.Set;
+
+/**
+ * Reader over the JSON document of an LLM response, repaired on the fly for
+ * a JSON parser.
+ *
+ * Models wrap their JSON in markdown code fences or add a sentence around it,
+ * and often write LaTeX such as \alpha or \sqrt with a single backslash, which
+ * is an invalid escape in a JSON string. In one pass over the text, without
+ * copying it, the reader:
+ * - skips everything before the first '{' and after its matching '}'
+ * - doubles the backslash of invalid escapes inside strings, so the LaTeX
+ *   command reaches the question text intact
+ * - reads \b, \f, \r and \t followed by a letter as LaTeX (\beta, \frac,
+ *   \rho, \theta...) rather than control characters
+ * - reads \n as a newline, unless it starts a LaTeX command from
+ *   {@link #LATEX_N_COMMANDS} (\neq, \nabla, \nu...): a newline is often
+ *   followed by a word, so only whole known command names are taken as LaTeX
+ * - reads a backslash and u not followed by four hex digits (LaTeX's
+ *   underline command) as LaTeX rather than a unicode escape
+ */
+final class LLMJsonReader extends Reader {
+
+    /** LaTeX commands starting with n, whose backslash is not a newline escape. */
+    static final Set<String> LATEX_N_COMMANDS = Set.of(
+            "nabla", "natural", "ne", "nearrow", "neg", "neq", "newline", "nexists", "ngeq", "ngtr", "ni",
+            "nleq", "nless", "nmid", "noindent", "nolimits", "nonumber", "not", "notin", "nparallel", "nprec",
+            "nsim", "nsubseteq", "nsucc", "nsupseteq", "nu", "nwarrow");
+
+    private final CharSequence text;
+    private int position;
+    private int depth;
+    private boolean inString;
+    private boolean finished;
+    /** Character to return before reading on, after a backslash, or -1. */
+    private int pending = -1;
+
+    LLMJsonReader(CharSequence text) {
+        this.text = text;
+        this.position = indexOfDocument(text);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        int count = 0;
+        while (count < length) {
+            if (pending >= 0) {
+                buffer[offset + count++] = (char) pending;
+                pending = -1;
+                continue;
+            }
+            if (finished || position >= text.length()) {
+                break;
+            }
+
+            char c = text.charAt(position++);
+            if (inString) {
+                if (c == '\\') {
+                    if (position < text.length() && isValidEscape(position)) {
+                        // Keep the escape as is, including an escaped quote
+                        pending = text.charAt(position++);
+                    } else {
+                        // Escape the backslash itself; the next character is read as text
+                        pending = '\\';
+                    }
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else {
+                switch (c) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> finished = --depth == 0;
+                    default -> {
+                        // Values and separators need no tracking
+                    }
+                }
+            }
+            buffer[offset + count++] = c;
+        }
+        return count == 0 && length > 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+    }
+
+    /**
+     * Whether the character at {@code index}, after a backslash, makes a
+     * valid JSON escape that the model meant as one.
+     */
+    private boolean isValidEscape(int index) {
+        char c = text.charAt(index);
+        return switch (c) {
+            case '"', '\\', '/' -> true;
+            case 'b', 'f', 'r', 't' -> !isLetter(index + 1);
+            case 'n' -> !LATEX_N_COMMANDS.contains(wordAt(index));
+            case 'u' -> isHex(index + 1) && isHex(index + 2) && isHex(index + 3) && isHex(index + 4);
+            default -> false;
+        };
+    }
+
+    /**
+     * The run of letters starting at {@code index}.
+     */
+    private String wordAt(int index) {
+        int end = index;
+        while (isLetter(end)) {
+            end++;
+        }
+        return text.subSequence(index, end).toString();
+    }
+
+    private boolean isLetter(int index) {
+        if (index >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(index);
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private boolean isHex(int index) {
+        return index < text.length() && Character.digit(text.charAt(index), 16) >= 0;
+    }
+
+    private static int indexOfDocument(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '{') {
+                return i;
+            }
+        }
+        return text.length();
+    }
+}
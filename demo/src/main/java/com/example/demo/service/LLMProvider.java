@@ -0,0 +1,47 @@
+package com.example.demo.service;
+
+import java.util.function.Consumer;
+
+/**
+ * A backend able to answer LLM prompts.
+ *
+ * {@link LLMService} builds the prompts, parses the answers and handles rate
+ * limiting, caching and retries; a provider only sends a prompt to its model
+ * and returns the text. Providers are selected by name, globally with
+ * {@code app.llm.provider} and per course.
+ *
+ * Errors are thrown as runtime exceptions whose message carries the status
+ * reported by the backend, so that rate-limit responses (429) are recognized
+ * and retried the same way for every provider.
+ */
+public interface LLMProvider {
+
+    /**
+     * Name used to select this provider, e.g. {@code gemini}.
+     */
+    String getName();
+
+    /**
+     * Model answering the prompts, recorded on generated quizzes.
+     */
+    String getModel();
+
+    /**
+     * Whether the provider is configured and can be called.
+     */
+    boolean isAvailable();
+
+    /**
+     * Send a prompt and return the complete answer.
+     */
+    String generate(String prompt);
+
+    /**
+     * Send a prompt and hand the answer to {@code onText} piece by piece as it
+     * is produced. Providers without streaming support hand over the complete
+     * answer at once.
+     */
+    default void stream(String prompt, Consumer<String> onText) {
+        onText.accept(generate(prompt));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Process-wide rate limiter for LLM calls.
+ *
+ * Two token buckets budget requests per minute and tokens per minute; a call
+ * takes one request and its estimated token cost before it is sent, so calls
+ * that would be rejected by the provider wait here instead. Waiting calls are
+ * served by {@link Priority}, then in arrival order, so student-facing
+ * evaluations overtake quiz generation and background work.
+ *
+ * When the provider still answers with a rate-limit error, {@link #pause(Duration)}
+ * stops all callers until the Retry-After delay has passed, instead of every
+ * caller retrying on its own schedule.
+ *
+ * The budget is per process: with several nodes sharing one API key, set
+ * {@code app.llm.rate-limit.nodes} so that each node takes its share.
+ */
+@Service
+public class LLMRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMRateLimiter.class);
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Order in which waiting calls are served.
+     */
+    public enum Priority {
+        /** Feedback a student is waiting for after submitting a quiz. */
+        EVALUATION,
+        /** Quiz generation a student is waiting for. */
+        GENERATION,
+        /** Work nobody is waiting for, such as pre-generation. */
+        BACKGROUND
+    }
+
+    @Value("${app.llm.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.llm.rate-limit.requests-per-minute:15}")
+    private int requestsPerMinute;
+
+    @Value("${app.llm.rate-limit.tokens-per-minute:250000}")
+    private int tokensPerMinute;
+
+    @Value("${app.llm.rate-limit.nodes:1}")
+    private int nodes;
+
+    @Value("${app.llm.rate-limit.max-wait-seconds:120}")
+    private long maxWaitSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Bucket requests;
+    private Bucket tokens;
+    private long pausedUntil;
+
+    @PostConstruct
+    void init() {
+        int share = Math.max(1, nodes);
+        requests = new Bucket(Math.max(1, requestsPerMinute / share));
+        tokens = new Bucket(Math.max(1, tokensPerMinute / share));
+        pausedUntil = System.nanoTime();
+    }
+
+    /**
+     * Wait until a call of the given estimated token cost fits in the budget,
+     * and take it from the budget.
+     *
+     * @throws IllegalStateException if the call could not be scheduled within
+     *         {@code app.llm.rate-limit.max-wait-seconds}
+     */
+    public void acquire(Priority priority, int estimatedTokens) throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        // A single call larger than the whole budget would never fit; let it drain the bucket
+        int cost = (int) Math.min(Math.max(estimatedTokens, 1), tokens.capacity);
+        Waiter waiter = new Waiter(priority, sequence.incrementAndGet());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+
+        lock.lock();
+        try {
+            waiters.add(waiter);
+            while (true) {
+                long now = System.nanoTime();
+                requests.refill(now);
+                tokens.refill(now);
+
+                long waitNanos;
+                if (waiters.peek() != waiter) {
+                    waitNanos = deadline - now;
+                } else if (pausedUntil - now > 0) {
+                    waitNanos = pausedUntil - now;
+                } else if (requests.available >= 1 && tokens.available >= cost) {
+                    waiters.poll();
+                    requests.available -= 1;
+                    tokens.available -= cost;
+                    changed.signalAll();
+                    return;
+                } else {
+                    waitNanos = Math.max(requests.nanosUntil(1), tokens.nanosUntil(cost));
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    waiters.remove(waiter);
+                    changed.signalAll();
+                    throw new IllegalStateException("LLM call could not be scheduled within " + maxWaitSeconds + " seconds");
+                }
+                changed.awaitNanos(Math.min(waitNanos, remaining));
+            }
+        } catch (InterruptedException e) {
+            waiters.remove(waiter);
+            changed.signalAll();
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a call of the given estimated token cost from the budget only if
+     * it fits right now and nobody is waiting, e.g. for an optional extra call.
+     *
+     * @return whether the call may be sent
+     */
+    public boolean tryAcquire(int estimatedTokens) {
+        if (!enabled) {
+            return true;
+        }
+
+        int cost = (int) Math.min(Math.max(estimatedTokens, 1), tokens.capacity);
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            requests.refill(now);
+            tokens.refill(now);
+            if (!waiters.isEmpty() || pausedUntil - now > 0
+                    || requests.available < 1 || tokens.available < cost) {
+                return false;
+            }
+            requests.available -= 1;
+            tokens.available -= cost;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop serving calls for the given delay, typically the Retry-After of a
+     * rate-limit response. Overlapping pauses keep the later end.
+     */
+    public void pause(Duration delay) {
+        lock.lock();
+        try {
+            long until = System.nanoTime() + delay.toNanos();
+            if (until - pausedUntil > 0) {
+                pausedUntil = until;
+                logger.info("LLM calls paused for {} ms after a rate-limit response", delay.toMillis());
+            }
+            // Whatever the bucket said, the provider's budget is exhausted
+            requests.available = Math.min(requests.available, 0);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Budget refilled continuously at {@code capacity} units per minute.
+     */
+    private static final class Bucket {
+        private final double capacity;
+        private double available;
+        private long refilledAt = System.nanoTime();
+
+        Bucket(int perMinute) {
+            this.capacity = perMinute;
+            this.available = perMinute;
+        }
+
+        void refill(long now) {
+            available = Math.min(capacity, available + (now - refilledAt) * capacity / NANOS_PER_MINUTE);
+            refilledAt = now;
+        }
+
+        long nanosUntil(double amount) {
+            double missing = amount - available;
+            return missing <= 0 ? 0 : (long) Math.ceil(missing * NANOS_PER_MINUTE / capacity);
+        }
+    }
+
+    private record Waiter(Priority priority, long sequence) implements Comparable<Waiter> {
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Single-pass parser binding LLM responses to {@link LLMModels}.
+ *
+ * The response is read through {@link LLMJsonReader}, which drops what
+ * surrounds the JSON and repairs LaTeX escapes on the fly, by a Jackson
+ * streaming {@link JsonParser}; questions are bound field by field as the
+ * tokens arrive, without copying the response or building a tree of it, so
+ * large batched responses cost little more than the questions themselves.
+ *
+ * Binding is lenient, as model output needs: unknown fields and non-object
+ * questions are skipped, missing or null texts are empty, a missing correct
+ * option index is 0, and options given as plain strings are taken as their text.
+ */
+final class LLMResponseParser {
+
+    private final JsonFactory jsonFactory;
+
+    LLMResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Open a parser over the JSON document of a response, e.g. to read it as a tree.
+     */
+    JsonParser open(CharSequence text) throws IOException {
+        return jsonFactory.createParser(new LLMJsonReader(text));
+    }
+
+    /**
+     * Parse the questions of a quiz response: {@code {"questions": [...]}}.
+     *
+     * @return the questions, empty if the response has none
+     */
+    List<LLMModels.QuestionData> parseQuiz(CharSequence text) throws IOException {
+        List<LLMModels.QuestionData> questions = new ArrayList<>();
+        try (JsonParser parser = open(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return questions;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "questions".equals(field)) {
+                    readQuestions(parser, questions);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Parse a batched quiz response: {@code {"quizzes": [{"quiz": 1, "questions": [...]}, ...]}}.
+     * Quizzes are matched by their number, or by position when it is missing;
+     * a repeated quiz number keeps the first quiz.
+     *
+     * @return one list of questions per quiz, empty for quizzes missing from the response
+     */
+    List<List<LLMModels.QuestionData>> parseQuizBatch(CharSequence text, int quizCount) throws IOException {
+        List<List<LLMModels.QuestionData>> questionSets = new ArrayList<>();
+        for (int i = 0; i < quizCount; i++) {
+            questionSets.add(new ArrayList<>());
+        }
+
+        try (JsonParser parser = open(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return questionSets;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !"quizzes".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int position = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    position++;
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    int number = position;
+                    List<LLMModels.QuestionData> questions = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String quizField = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if ("quiz".equals(quizField) && value.isScalarValue()) {
+                            number = parser.getValueAsInt(position);
+                        } else if ("questions".equals(quizField) && value == JsonToken.START_ARRAY) {
+                            readQuestions(parser, questions);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (number >= 1 && number <= quizCount && questionSets.get(number - 1).isEmpty()) {
+                        questionSets.set(number - 1, questions);
+                    }
+                }
+            }
+        }
+        return questionSets;
+    }
+
+    /**
+     * Parse a single question object, such as one cut from a streamed response.
+     *
+     * @return the question, or null if the text holds no JSON object
+     */
+    LLMModels.QuestionData parseQuestion(CharSequence json) throws IOException {
+        try (JsonParser parser = open(json)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readQuestion(parser) : null;
+        }
+    }
+
+    /**
+     * Read the question objects of an array, from its START_ARRAY to its END_ARRAY.
+     */
+    private void readQuestions(JsonParser parser, List<LLMModels.QuestionData> questions) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                questions.add(readQuestion(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private LLMModels.QuestionData readQuestion(JsonParser parser) throws IOException {
+        LLMModels.QuestionData question = new LLMModels.QuestionData();
+        question.setQuestionText("");
+        question.setExplanation("");
+        question.setSourceContext("");
+        List<LLMModels.OptionData> options = new ArrayList<>();
+        question.setOptions(options);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "question_text" -> question.setQuestionText(text(parser));
+                case "correct_option_index" -> question.setCorrectOptionIndex(
+                        value.isScalarValue() ? parser.getValueAsInt(0) : skip(parser, 0));
+                case "explanation" -> question.setExplanation(text(parser));
+                case "source_context" -> question.setSourceContext(text(parser));
+                case "options" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        readOptions(parser, options);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return question;
+    }
+
+    private void readOptions(JsonParser parser, List<LLMModels.OptionData> options) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            LLMModels.OptionData option = new LLMModels.OptionData();
+            option.setText("");
+            option.setExplanation("");
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "text" -> option.setText(text(parser));
+                        case "explanation" -> option.setExplanation(text(parser));
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else {
+                option.setText(text(parser));
+            }
+            options.add(option);
+        }
+    }
+
+    /**
+     * Text of the current value: the value itself for scalars, empty for
+     * null, objects and arrays (which are skipped).
+     */
+    private static String text(JsonParser parser) throws IOException {
+        return parser.currentToken().isScalarValue() ? parser.getValueAsString("") : skip(parser, "");
+    }
+
+    private static <T> T skip(JsonParser parser, T fallback) throws IOException {
+        parser.skipChildren();
+        return fallback;
+    }
+}
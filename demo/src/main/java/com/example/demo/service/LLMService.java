@@ -1,7 +1,24 @@
 package com.example.demo.service;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,13 +26,30 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.entity.DifficultyLevel;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.genai.Client;
-import com.google.genai.types.GenerateContentResponse;
+
+import jakarta.annotation.PreDestroy;
 
 /**
- * LLM (Large Language Model) Service using Google Gemini API with official SDK.
+ * LLM (Large Language Model) Service: builds the prompts, parses the answers
+ * and handles rate limiting, caching and retries.
+ *
+ * Prompts are answered by an {@link LLMProvider}: the one named by
+ * {@code app.llm.provider} (Gemini by default), or the one chosen for a course.
+ * When the selected provider is not configured, quizzes and evaluations are
+ * generated locally in mock mode.
+ *
+ * Calls are guarded by {@link LLMCircuitBreaker}: while a provider's circuit
+ * is open, requests fall back at once (cache, then mock) instead of waiting
+ * for retries and timeouts. Each call is bounded by
+ * {@code app.llm.call-timeout-seconds}, and with {@code app.llm.hedging.enabled}
+ * a second, identical call is sent when the first one is slower than the
+ * provider's recent p95 latency; the first answer wins.
+ *
+ * {@link #generateQuizBatch} asks for several quizzes on the same course
+ * context in one call, so the context is sent, and paid for, only once.
  */
 @Service
 public class LLMService {
@@ -23,109 +57,675 @@ public class LLMService {
     private static final Logger logger = LoggerFactory.getLogger(LLMService.class);
 
     private final ObjectMapper objectMapper;
-    private Client geminiClient;
+    private final LLMRateLimiter rateLimiter;
+    private final QuizResponseCache quizResponseCache;
+    private final LLMCircuitBreaker circuitBreaker;
+    private final LLMResponseParser responseParser;
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, LLMProvider> providers = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<LLMModels.QuizResponse>> inFlightQuizzes = new ConcurrentHashMap<>();
+
+    @Value("${app.llm.provider:" + GeminiProvider.NAME + "}")
+    private String defaultProvider;
+
+    @Value("${app.llm.call-timeout-seconds:45}")
+    private long callTimeoutSeconds;
 
-    @Value("${app.gemini.api-key:}")
-    private String geminiApiKey;
+    @Value("${app.llm.hedging.enabled:false}")
+    private boolean hedgingEnabled;
 
-    private static final String GEMINI_MODEL = "gemini-2.5-flash-lite";
+    @Value("${app.llm.hedging.percentile:95}")
+    private int hedgingPercentile;
+
+    @Value("${app.llm.hedging.min-delay-ms:1000}")
+    private long hedgingMinDelayMs;
+
+    // Bump when buildQuizPrompt changes, so cached quizzes from the old prompt are not reused
+    private static final int QUIZ_PROMPT_VERSION = 1;
     private static final int MAX_RETRIES = 3;
     private static final long INITIAL_DELAY_MS = 5000; // 5 seconds
+    private static final int TOKENS_PER_GENERATED_QUESTION = 250;
+    private static final int EVALUATION_RESPONSE_TOKENS = 400;
 
-    public LLMService(ObjectMapper objectMapper) {
+    // Shared by the single and batched quiz prompts
+    private static final String QUIZ_REQUIREMENTS = """
+            REQUIREMENTS:
+            1. Each question must have exactly 4 answer options
+            2. Exactly ONE option must be correct
+            3. Questions must be derived ONLY from the provided content
+            4. Be dynamic and creative with question styles (conceptual, practical, analytical)
+            
+            MATHEMATICAL CONTENT GUIDELINES:
+            - When the content includes formulas, equations, or mathematical expressions, 
+              include them in your questions and options
+            - Use LaTeX notation for ALL mathematical expressions:
+              * Inline math: wrap with single dollar signs, e.g., $E = mc^2$
+              * Display math: wrap with double dollar signs, e.g., $$\\frac{a}{b}$$
+            - Common LaTeX examples:
+              * Fractions: $\\frac{numerator}{denominator}$
+              * Exponents: $x^2$, $e^{-x}$
+              * Subscripts: $x_1$, $a_{n+1}$
+              * Square roots: $\\sqrt{x}$, $\\sqrt[n]{x}$
+              * Greek letters: $\\alpha$, $\\beta$, $\\gamma$, $\\pi$, $\\theta$
+              * Summation: $\\sum_{i=1}^{n} x_i$
+              * Integrals: $\\int_{a}^{b} f(x) dx$
+              * Limits: $\\lim_{x \\to \\infty} f(x)$
+              * Vectors: $\\vec{v}$, $\\mathbf{F}$
+              * Matrices: $\\begin{pmatrix} a & b \\\\ c & d \\end{pmatrix}$
+            - For non-mathematical content, create clear conceptual questions
+            
+            QUESTION VARIETY:
+            - Include formula-based questions if the content has mathematical concepts
+            - Ask about the meaning and application of formulas, not just memorization
+            - Include "which formula applies" type questions when appropriate
+            - Ask students to identify correct transformations or simplifications
+            """;
+
+    private static final String QUESTION_EXAMPLE = """
+            {
+              "question_text": "Question text with $inline math$ or $$display math$$",
+              "options": [
+                {"text": "Option A with $formula$ if needed", "explanation": "Why correct/incorrect"},
+                {"text": "Option B", "explanation": "Why correct/incorrect"},
+                {"text": "Option C", "explanation": "Why correct/incorrect"},
+                {"text": "Option D", "explanation": "Why correct/incorrect"}
+              ],
+              "correct_option_index": 0,
+              "explanation": "Overall explanation with $formulas$ if relevant",
+              "source_context": "Source from content"
+            }""";
+
+    // Errors meaning the provider is throttling us: HTTP 429, Gemini's RESOURCE_EXHAUSTED,
+    // or a rate limit or quota message (not any word containing "rate", such as "generate")
+    private static final Pattern RATE_LIMIT = Pattern.compile(
+            "(?i)\\b429\\b|resource_exhausted|rate[ _-]?limit|quota");
+
+    // Retry delay as reported by the provider: "Retry-After: 37", "(retry after 37s)",
+    // "retryDelay": "37s" or "Please retry in 37.5s"; an HTTP-date Retry-After is not matched
+    private static final Pattern RETRY_DELAY = Pattern.compile(
+            "(?i)(?:retry[ -]after:?|\"?retryDelay\"?\\s*[:=]\\s*\"?|retry in)\\s*(\\d+(?:\\.\\d+)?)\\s*(ms|seconds?|sec|s)?\\b");
+
+    public LLMService(ObjectMapper objectMapper, LLMRateLimiter rateLimiter, QuizResponseCache quizResponseCache,
+                      LLMCircuitBreaker circuitBreaker, List<LLMProvider> providers) {
         this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.quizResponseCache = quizResponseCache;
+        this.circuitBreaker = circuitBreaker;
+        this.responseParser = new LLMResponseParser(objectMapper.getFactory());
+        for (LLMProvider provider : providers) {
+            this.providers.put(provider.getName(), provider);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * Names of the providers prompts can be routed to.
+     */
+    public List<String> getProviderNames() {
+        return List.copyOf(providers.keySet());
     }
 
     /**
-     * Initialize the Gemini client lazily with API key.
+     * Resolve a provider by name.
+     *
+     * @param name provider name, or null for the default provider
      */
-    private Client getGeminiClient() {
-        if (geminiClient == null && geminiApiKey != null && !geminiApiKey.isBlank()) {
-            geminiClient = Client.builder().apiKey(geminiApiKey).build();
-            logger.info("Initialized Gemini client with model: {}", GEMINI_MODEL);
+    public LLMProvider getProvider(String name) {
+        if (name != null && !name.isBlank()) {
+            LLMProvider provider = providers.get(name);
+            if (provider != null) {
+                return provider;
+            }
+            logger.warn("Unknown LLM provider '{}' - using the default provider '{}'", name, defaultProvider);
+        }
+        LLMProvider provider = providers.get(defaultProvider);
+        if (provider == null) {
+            throw new IllegalStateException("Unknown LLM provider configured in app.llm.provider: " + defaultProvider);
         }
-        return geminiClient;
+        return provider;
     }
 
     /**
-     * Generate quiz questions using Gemini LLM via official SDK with retry logic.
+     * Generate quiz questions with the default provider, with retry logic.
      */
     public LLMModels.QuizResponse generateQuiz(String context, int numberOfQuestions, 
                                                 DifficultyLevel difficulty, String courseTitle) {
-        logger.info("Starting quiz generation - API key present: {}", (geminiApiKey != null && !geminiApiKey.isBlank()));
+        return generateQuiz(context, numberOfQuestions, difficulty, courseTitle, LLMRateLimiter.Priority.GENERATION);
+    }
+
+    /**
+     * Generate quiz questions, scheduled with the given priority by the rate limiter.
+     */
+    public LLMModels.QuizResponse generateQuiz(String context, int numberOfQuestions, 
+                                                DifficultyLevel difficulty, String courseTitle,
+                                                LLMRateLimiter.Priority priority) {
+        return generateQuiz(context, numberOfQuestions, difficulty, courseTitle, priority, null);
+    }
+
+    /**
+     * Generate quiz questions with the given provider.
+     *
+     * @param provider provider name, or null for the default provider
+     */
+    public LLMModels.QuizResponse generateQuiz(String context, int numberOfQuestions, 
+                                                DifficultyLevel difficulty, String courseTitle,
+                                                LLMRateLimiter.Priority priority, String provider) {
+        return generateQuiz(context, numberOfQuestions, difficulty, courseTitle, priority, provider, null);
+    }
+
+    /**
+     * Generate quiz questions for a student with the given provider. A cached
+     * quiz is never served twice to the same student.
+     *
+     * @param provider provider name, or null for the default provider
+     * @param studentId the student the quiz is for, or null
+     */
+    public LLMModels.QuizResponse generateQuiz(String context, int numberOfQuestions, 
+                                                DifficultyLevel difficulty, String courseTitle,
+                                                LLMRateLimiter.Priority priority, String provider, Long studentId) {
+        return obtainQuiz(context, numberOfQuestions, difficulty, courseTitle, priority, getProvider(provider),
+                studentId, null);
+    }
+
+    /**
+     * Generate quiz questions with a streamed response, handing each
+     * question to {@code onQuestion} as soon as it has been received.
+     *
+     * Quizzes that are not streamed (mock, cached or shared with an identical
+     * in-flight request) are handed over all at once. Either way the callback
+     * sees exactly the questions of the returned quiz, in order.
+     *
+     * @param studentId the student the quiz is for, or null
+     */
+    public LLMModels.QuizResponse streamQuiz(String context, int numberOfQuestions,
+                                             DifficultyLevel difficulty, String courseTitle, String provider,
+                                             Long studentId, Consumer<LLMModels.QuestionData> onQuestion) {
+        return obtainQuiz(context, numberOfQuestions, difficulty, courseTitle,
+                LLMRateLimiter.Priority.GENERATION, getProvider(provider), studentId, onQuestion);
+    }
+
+    /**
+     * One quiz of a batch: its number of questions, difficulty and the
+     * student it is for (or null).
+     */
+    public record QuizSpec(int numberOfQuestions, DifficultyLevel difficulty, Long studentId) {}
+
+    /**
+     * Generate several independent quizzes on the same course context, asked
+     * of the provider in a single call.
+     *
+     * The course context makes up most of a quiz prompt, so a batch of N
+     * quizzes costs about one context's worth of input tokens instead of N.
+     * Quizzes found in the cache are not requested again, and quizzes missing
+     * from the batched answer are then requested on their own.
+     *
+     * @param provider provider name, or null for the default provider
+     * @return one quiz per spec, in the same order
+     */
+    public List<LLMModels.QuizResponse> generateQuizBatch(String context, String courseTitle, List<QuizSpec> specs,
+                                                          LLMRateLimiter.Priority priority, String provider) {
+        LLMProvider llmProvider = getProvider(provider);
+        List<LLMModels.QuizResponse> quizzes = new ArrayList<>(Collections.nCopies(specs.size(), null));
+
+        if (!llmProvider.isAvailable()) {
+            logger.warn("LLM provider {} not configured - using mock mode", llmProvider.getName());
+            for (int i = 0; i < specs.size(); i++) {
+                QuizSpec spec = specs.get(i);
+                quizzes.set(i, generateMockQuiz(context, spec.numberOfQuestions(), spec.difficulty(), courseTitle));
+            }
+            return quizzes;
+        }
+
+        boolean cacheable = priority != LLMRateLimiter.Priority.BACKGROUND;
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < specs.size(); i++) {
+            QuizSpec spec = specs.get(i);
+            Optional<LLMModels.QuizResponse> cached = cacheable
+                    ? quizResponseCache.get(quizCacheKey(llmProvider, courseTitle, context, spec.difficulty(),
+                            spec.numberOfQuestions()), spec.studentId())
+                    : Optional.empty();
+            if (cached.isPresent()) {
+                quizzes.set(i, cached.get());
+            } else {
+                missing.add(i);
+            }
+        }
+        logger.info("Quiz batch of {} on {}: {} served from cache", specs.size(), llmProvider.getName(),
+                specs.size() - missing.size());
+
+        if (missing.size() > 1 && !circuitBreaker.isOpen(llmProvider.getName())) {
+            requestQuizBatch(context, courseTitle, specs, missing, priority, llmProvider, cacheable, quizzes);
+        }
+
+        // A lone quiz, or one the batched answer left out, is obtained on its own
+        for (int i : missing) {
+            if (quizzes.get(i) == null) {
+                QuizSpec spec = specs.get(i);
+                quizzes.set(i, obtainQuiz(context, spec.numberOfQuestions(), spec.difficulty(), courseTitle,
+                        priority, llmProvider, spec.studentId(), null));
+            }
+        }
+        return quizzes;
+    }
+
+    /**
+     * Get a quiz from the mock generator, the cache, an identical in-flight
+     * request or the provider, in that order.
+     *
+     * @param studentId the student the quiz is for, who never gets the same cached quiz twice, or null
+     * @param onQuestion callback for streamed questions, or null for a plain request
+     */
+    private LLMModels.QuizResponse obtainQuiz(String context, int numberOfQuestions,
+                                              DifficultyLevel difficulty, String courseTitle,
+                                              LLMRateLimiter.Priority priority, LLMProvider provider,
+                                              Long studentId, Consumer<LLMModels.QuestionData> onQuestion) {
+        logger.info("Starting quiz generation - provider: {}, available: {}", provider.getName(), provider.isAvailable());
         
-        if (geminiApiKey == null || geminiApiKey.isBlank()) {
-            logger.warn("Gemini API key not configured - using mock mode");
-            return generateMockQuiz(context, numberOfQuestions, difficulty, courseTitle);
+        if (!provider.isAvailable()) {
+            logger.warn("LLM provider {} not configured - using mock mode", provider.getName());
+            return deliver(generateMockQuiz(context, numberOfQuestions, difficulty, courseTitle), onQuestion);
+        }
+
+        // Background generation fills the question bank, which needs new questions rather than cached ones
+        boolean cacheable = priority != LLMRateLimiter.Priority.BACKGROUND;
+        String cacheKey = quizCacheKey(provider, courseTitle, context, difficulty, numberOfQuestions);
+        Optional<LLMModels.QuizResponse> cached = cacheable
+                ? quizResponseCache.get(cacheKey, studentId)
+                : Optional.empty();
+        if (cached.isPresent()) {
+            logger.info("Quiz served from cache ({} questions)", cached.get().getQuestions().size());
+            return deliver(cached.get(), onQuestion);
         }
+        if (circuitBreaker.isOpen(provider.getName())) {
+            logger.warn("LLM circuit of {} is open - using mock mode", provider.getName());
+            return deliver(circuitOpenQuiz(context, numberOfQuestions, difficulty, courseTitle), onQuestion);
+        }
+        if (!cacheable) {
+            return request(context, numberOfQuestions, difficulty, courseTitle, priority, provider,
+                    null, null, onQuestion);
+        }
+
+        // Single flight: concurrent identical requests share one API call
+        CompletableFuture<LLMModels.QuizResponse> flight = new CompletableFuture<>();
+        CompletableFuture<LLMModels.QuizResponse> inFlight = inFlightQuizzes.putIfAbsent(cacheKey, flight);
+        if (inFlight != null) {
+            logger.info("Joining in-flight generation of an identical quiz");
+            LLMModels.QuizResponse shared;
+            try {
+                shared = inFlight.join();
+            } catch (CompletionException e) {
+                // The leader's failure may be its own (e.g. its callback threw): start over without it
+                logger.warn("In-flight generation of an identical quiz failed - requesting it again");
+                return obtainQuiz(context, numberOfQuestions, difficulty, courseTitle, priority, provider,
+                        studentId, onQuestion);
+            }
+            if (quizResponseCache.markServed(cacheKey, studentId)) {
+                return deliver(quizResponseCache.share(shared), onQuestion);
+            }
+            logger.info("Student {} already got the in-flight quiz - requesting another one", studentId);
+            return request(context, numberOfQuestions, difficulty, courseTitle, priority, provider,
+                    null, null, onQuestion);
+        }
+        LLMModels.QuizResponse quizResponse;
+        try {
+            quizResponse = request(context, numberOfQuestions, difficulty, courseTitle,
+                    priority, provider, cacheKey, studentId, onQuestion);
+        } catch (RuntimeException | Error e) {
+            // Leave the map before waking the waiters, so those starting over do not join this flight again
+            inFlightQuizzes.remove(cacheKey, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        inFlightQuizzes.remove(cacheKey, flight);
+        flight.complete(quizResponse);
+        return quizResponse;
+    }
 
+    private LLMModels.QuizResponse request(String context, int numberOfQuestions,
+                                           DifficultyLevel difficulty, String courseTitle,
+                                           LLMRateLimiter.Priority priority, LLMProvider provider, String cacheKey,
+                                           Long studentId, Consumer<LLMModels.QuestionData> onQuestion) {
+        if (onQuestion == null) {
+            return requestQuiz(context, numberOfQuestions, difficulty, courseTitle, priority, provider,
+                    cacheKey, studentId);
+        }
+        return requestQuizStream(context, numberOfQuestions, difficulty, courseTitle, priority, provider,
+                cacheKey, studentId, onQuestion);
+    }
+
+    /**
+     * Hand all questions of a quiz that was not streamed to the callback, if any.
+     */
+    private LLMModels.QuizResponse deliver(LLMModels.QuizResponse quizResponse,
+                                           Consumer<LLMModels.QuestionData> onQuestion) {
+        if (onQuestion != null && quizResponse.getQuestions() != null) {
+            quizResponse.getQuestions().forEach(onQuestion);
+        }
+        return quizResponse;
+    }
+
+    /**
+     * Call the provider for a quiz with a streamed response, handing each question
+     * to the callback as soon as its JSON object is complete.
+     *
+     * If the stream fails before the first question, the quiz is requested
+     * again without streaming (with its retries and mock fallback). If it
+     * fails later, the questions received so far make the quiz; such a
+     * partial quiz is not cached.
+     */
+    private LLMModels.QuizResponse requestQuizStream(String context, int numberOfQuestions,
+                                                     DifficultyLevel difficulty, String courseTitle,
+                                                     LLMRateLimiter.Priority priority, LLMProvider provider,
+                                                     String cacheKey, Long studentId,
+                                                     Consumer<LLMModels.QuestionData> onQuestion) {
         String prompt = buildQuizPrompt(context, numberOfQuestions, difficulty, courseTitle);
+        int estimatedTokens = TokenEstimator.estimate(prompt) + numberOfQuestions * TOKENS_PER_GENERATED_QUESTION;
+        List<LLMModels.QuestionData> questions = new ArrayList<>();
+
+        QuizStreamParser parser = new QuizStreamParser(json -> {
+            if (questions.size() >= numberOfQuestions) {
+                return;
+            }
+            LLMModels.QuestionData question = parseQuestion(json);
+            if (question != null) {
+                questions.add(question);
+                try {
+                    onQuestion.accept(question);
+                } catch (RuntimeException e) {
+                    throw new DeliveryException(e);
+                }
+            }
+        });
+
+        boolean permitted = false;
+        try {
+            rateLimiter.acquire(priority, estimatedTokens);
+            permitted = circuitBreaker.allowRequest(provider.getName());
+            if (!permitted) {
+                throw new IllegalStateException("LLM provider " + provider.getName() + " is unavailable (circuit open)");
+            }
+            logger.info("Streaming quiz from {} ({})", provider.getName(), provider.getModel());
+            provider.stream(prompt, parser::feed);
+            // A whole stream is not comparable with plain calls: no latency sample
+            circuitBreaker.recordSuccess(provider.getName(), -1);
+        } catch (DeliveryException e) {
+            // The consumer failed, not the provider: let the caller handle its own error
+            circuitBreaker.recordSuccess(provider.getName(), -1);
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            if (permitted) {
+                // Give the permit back, or a half-open trial slot stays taken
+                circuitBreaker.recordFailure(provider.getName());
+            }
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (permitted) {
+                circuitBreaker.recordFailure(provider.getName());
+            }
+            String errorMsg = e.getMessage() != null ? e.getMessage() : "";
+            logger.warn("{} stream failed after {} questions: {}", provider.getName(), questions.size(), errorMsg);
+            if (isRateLimit(errorMsg)) {
+                rateLimiter.pause(retryDelay(errorMsg, 1));
+            }
+        }
+
+        if (questions.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Quiz generation was interrupted");
+            }
+            logger.warn("No question received from the {} stream - requesting the quiz without streaming",
+                    provider.getName());
+            return deliver(requestQuiz(context, numberOfQuestions, difficulty, courseTitle, priority, provider,
+                    cacheKey, studentId), onQuestion);
+        }
+
+        LLMModels.QuizResponse quizResponse = new LLMModels.QuizResponse();
+        quizResponse.setQuestions(questions);
+        quizResponse.setGeneratedByGemini(true);
+        quizResponse.setModelUsed(provider.getModel());
+        if (cacheKey != null && questions.size() == numberOfQuestions) {
+            quizResponseCache.put(cacheKey, quizResponse, studentId);
+        }
+        logger.info("Streamed quiz with {}/{} questions from {}", questions.size(), numberOfQuestions, provider.getName());
+        return quizResponse;
+    }
+
+    /**
+     * Call the provider for a quiz, retrying on rate-limit errors, and cache the result.
+     *
+     * @param cacheKey key to cache the quiz under, or null to not cache it
+     * @param studentId the student the quiz is for, or null
+     */
+    private LLMModels.QuizResponse requestQuiz(String context, int numberOfQuestions, 
+                                               DifficultyLevel difficulty, String courseTitle,
+                                               LLMRateLimiter.Priority priority, LLMProvider provider,
+                                               String cacheKey, Long studentId) {
+        String prompt = buildQuizPrompt(context, numberOfQuestions, difficulty, courseTitle);
+        int estimatedTokens = TokenEstimator.estimate(prompt) + numberOfQuestions * TOKENS_PER_GENERATED_QUESTION;
         
-        // Retry logic with exponential backoff
+        String responseText = callWithRetries(provider, prompt, estimatedTokens, priority);
+        if (responseText == null) {
+            return fallbackQuiz(provider, context, numberOfQuestions, difficulty, courseTitle);
+        }
+        logger.info("Received {} response ({} chars)", provider.getName(), responseText.length());
+
+        LLMModels.QuizResponse quizResponse = parseQuizResponse(responseText, numberOfQuestions, difficulty, context);
+
+        // Only set model if successfully parsed from the LLM (flag is set in parseQuizResponse)
+        if (quizResponse.isGeneratedByGemini()) {
+            quizResponse.setModelUsed(provider.getModel());
+            if (cacheKey != null) {
+                quizResponseCache.put(cacheKey, quizResponse, studentId);
+            }
+            logger.info("Successfully generated quiz with {} questions from {}", 
+                       quizResponse.getQuestions() != null ? quizResponse.getQuestions().size() : 0,
+                       provider.getName());
+        } else {
+            logger.warn("{} returned response but parsing failed, using mock quiz", provider.getName());
+        }
+        return quizResponse;
+    }
+
+    /**
+     * Call the provider once for the missing quizzes of a batch, retrying on
+     * rate-limit errors, and fill in and cache the quizzes of its answer.
+     * When the call fails, the missing quizzes are filled in with mock
+     * quizzes, as for a single quiz.
+     *
+     * @param missing indexes of the quizzes to request
+     */
+    private void requestQuizBatch(String context, String courseTitle, List<QuizSpec> specs, List<Integer> missing,
+                                  LLMRateLimiter.Priority priority, LLMProvider provider, boolean cacheable,
+                                  List<LLMModels.QuizResponse> quizzes) {
+        List<QuizSpec> batch = missing.stream().map(specs::get).toList();
+        String prompt = buildBatchQuizPrompt(context, courseTitle, batch);
+        int totalQuestions = batch.stream().mapToInt(QuizSpec::numberOfQuestions).sum();
+        int estimatedTokens = TokenEstimator.estimate(prompt) + totalQuestions * TOKENS_PER_GENERATED_QUESTION;
+
+        String responseText = callWithRetries(provider, prompt, estimatedTokens, priority);
+        if (responseText == null) {
+            for (int i : missing) {
+                QuizSpec spec = specs.get(i);
+                quizzes.set(i, fallbackQuiz(provider, context, spec.numberOfQuestions(), spec.difficulty(), courseTitle));
+            }
+            return;
+        }
+
+        List<List<LLMModels.QuestionData>> questionSets = parseQuizBatch(responseText, batch.size());
+        int returned = 0;
+        for (int k = 0; k < batch.size(); k++) {
+            List<LLMModels.QuestionData> questions = questionSets.get(k);
+            if (questions.isEmpty()) {
+                continue;
+            }
+            QuizSpec spec = batch.get(k);
+            LLMModels.QuizResponse quizResponse = new LLMModels.QuizResponse();
+            quizResponse.setQuestions(new ArrayList<>(
+                    questions.subList(0, Math.min(questions.size(), spec.numberOfQuestions()))));
+            quizResponse.setGeneratedByGemini(true);
+            quizResponse.setModelUsed(provider.getModel());
+            if (cacheable) {
+                quizResponseCache.put(quizCacheKey(provider, courseTitle, context, spec.difficulty(),
+                        spec.numberOfQuestions()), quizResponse, spec.studentId());
+            }
+            quizzes.set(missing.get(k), quizResponse);
+            returned++;
+        }
+        logger.info("Generated {}/{} quizzes ({} questions asked) in one call to {}",
+                returned, batch.size(), totalQuestions, provider.getName());
+    }
+
+    /**
+     * Send a prompt to the provider, retrying on rate-limit errors.
+     *
+     * @return the answer, or null if the provider could not answer
+     *         (retries exhausted, other error or circuit open)
+     */
+    private String callWithRetries(LLMProvider provider, String prompt, int estimatedTokens,
+                                   LLMRateLimiter.Priority priority) {
+        // Retry logic: rate-limit errors pause all callers for the advertised delay
         for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+            if (circuitBreaker.isOpen(provider.getName())) {
+                // The provider is failing: don't wait for it any longer
+                return null;
+            }
             try {
-                logger.info("Calling Gemini API ({}) - attempt {}/{}", GEMINI_MODEL, attempt, MAX_RETRIES);
-                
-                Client client = getGeminiClient();
-                if (client == null) {
-                    throw new RuntimeException("Failed to initialize Gemini client");
-                }
-                
-                GenerateContentResponse response = client.models.generateContent(
-                    GEMINI_MODEL,
-                    prompt,
-                    null
-                );
-                
-                String responseText = response.text();
-                logger.info("Received Gemini response ({} chars)", responseText.length());
-                
-                LLMModels.QuizResponse quizResponse = parseQuizResponse(responseText, numberOfQuestions, difficulty, context);
-                
-                // Only set model if successfully parsed from Gemini (flag is set in parseQuizResponse)
-                if (quizResponse.isGeneratedByGemini()) {
-                    quizResponse.setModelUsed(GEMINI_MODEL);
-                    logger.info("Successfully generated quiz with {} questions from Gemini", 
-                               quizResponse.getQuestions() != null ? quizResponse.getQuestions().size() : 0);
-                } else {
-                    logger.warn("Gemini returned response but parsing failed, using mock quiz");
-                }
-                return quizResponse;
-                
+                rateLimiter.acquire(priority, estimatedTokens);
+                logger.info("Calling {} ({}) - attempt {}/{}", provider.getName(), provider.getModel(), attempt, MAX_RETRIES);
+                return callProvider(provider, prompt, estimatedTokens);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
             } catch (Exception e) {
                 String errorMsg = e.getMessage() != null ? e.getMessage() : "";
                 logger.warn("Attempt {}/{} failed: {}", attempt, MAX_RETRIES, errorMsg);
                 
-                boolean isRateLimit = errorMsg.contains("429") || 
-                                      errorMsg.toLowerCase().contains("rate") || 
-                                      errorMsg.toLowerCase().contains("quota") ||
-                                      errorMsg.toLowerCase().contains("resource_exhausted");
-                
-                if (isRateLimit && attempt < MAX_RETRIES) {
-                    long delay = INITIAL_DELAY_MS * (long) Math.pow(2, attempt - 1);
-                    logger.info("Rate limited - waiting {} seconds before retry...", delay / 1000);
-                    try {
-                        Thread.sleep(delay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                } else if (!isRateLimit) {
+                if (isRateLimit(errorMsg)) {
+                    // The next acquire waits until the pause is over
+                    rateLimiter.pause(retryDelay(errorMsg, attempt));
+                } else {
                     // Non-rate-limit error, don't retry
-                    logger.error("Non-recoverable error calling Gemini API", e);
-                    break;
+                    logger.error("Non-recoverable error calling {}", provider.getName(), e);
+                    return null;
                 }
             }
         }
-        
-        logger.warn("All retries exhausted - falling back to mock mode");
+        logger.warn("All retries exhausted");
+        return null;
+    }
+
+    /**
+     * Mock quiz for when the provider could not answer.
+     */
+    private LLMModels.QuizResponse fallbackQuiz(LLMProvider provider, String context, int numberOfQuestions,
+                                                DifficultyLevel difficulty, String courseTitle) {
+        if (circuitBreaker.isOpen(provider.getName())) {
+            return circuitOpenQuiz(context, numberOfQuestions, difficulty, courseTitle);
+        }
+        logger.warn("Falling back to mock mode");
         LLMModels.QuizResponse mockResponse = generateMockQuiz(context, numberOfQuestions, difficulty, courseTitle);
         mockResponse.setModelUsed("mock (rate-limited)");
         return mockResponse;
     }
 
+    private String quizCacheKey(LLMProvider provider, String courseTitle, String context,
+                                DifficultyLevel difficulty, int numberOfQuestions) {
+        return QuizResponseCache.keyOf(provider.getName() + '/' + provider.getModel(), QUIZ_PROMPT_VERSION,
+                courseTitle, context, difficulty, numberOfQuestions);
+    }
+
+    private LLMModels.QuizResponse circuitOpenQuiz(String context, int numberOfQuestions,
+                                                   DifficultyLevel difficulty, String courseTitle) {
+        LLMModels.QuizResponse mockResponse = generateMockQuiz(context, numberOfQuestions, difficulty, courseTitle);
+        mockResponse.setModelUsed("mock (provider unavailable)");
+        return mockResponse;
+    }
+
+    /**
+     * Send a prompt to a provider under the circuit breaker, within the call
+     * timeout. With hedging enabled, a second call is sent when the first one
+     * takes longer than the provider's recent latency percentile (and the rate
+     * limiter has budget to spare); the first successful answer is returned
+     * and the other call is cancelled.
+     *
+     * @throws IllegalStateException if the circuit is open or the call timed out
+     */
+    private String callProvider(LLMProvider provider, String prompt, int estimatedTokens) throws InterruptedException {
+        String name = provider.getName();
+        if (!circuitBreaker.allowRequest(name)) {
+            throw new IllegalStateException("LLM provider " + name + " is unavailable (circuit open)");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(callTimeoutSeconds);
+        long hedgeAt = -1;
+        if (hedgingEnabled) {
+            long percentileMs = circuitBreaker.latencyPercentileMs(name, hedgingPercentile);
+            if (percentileMs >= 0) {
+                hedgeAt = start + TimeUnit.MILLISECONDS.toNanos(Math.max(percentileMs, hedgingMinDelayMs));
+            }
+        }
+
+        ExecutorCompletionService<String> completion = new ExecutorCompletionService<>(callExecutor);
+        List<Future<String>> calls = new ArrayList<>();
+        calls.add(completion.submit(() -> provider.generate(prompt)));
+        int running = 1;
+        ExecutionException failure = null;
+        try {
+            while (running > 0) {
+                long now = System.nanoTime();
+                long waitUntil = hedgeAt >= 0 && hedgeAt - deadline < 0 ? hedgeAt : deadline;
+                Future<String> done = completion.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+
+                if (done == null) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        circuitBreaker.recordFailure(name);
+                        throw new IllegalStateException("LLM call to " + name + " timed out after "
+                                + callTimeoutSeconds + " seconds");
+                    }
+                    // Hedge once: the first call is slower than usual
+                    hedgeAt = -1;
+                    if (rateLimiter.tryAcquire(estimatedTokens)) {
+                        logger.info("Hedging slow call to {} after {} ms", name,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        calls.add(completion.submit(() -> provider.generate(prompt)));
+                        running++;
+                    }
+                    continue;
+                }
+
+                running--;
+                try {
+                    String result = done.get();
+                    circuitBreaker.recordSuccess(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    return result;
+                } catch (ExecutionException e) {
+                    failure = e;
+                    // A call that failed fast is not hedged
+                    hedgeAt = -1;
+                }
+            }
+        } catch (InterruptedException e) {
+            // The caller gave up on the call in flight: report it, or a half-open trial slot stays taken
+            circuitBreaker.recordFailure(name);
+            throw e;
+        } finally {
+            for (Future<String> call : calls) {
+                call.cancel(true);
+            }
+        }
+
+        circuitBreaker.recordFailure(name);
+        Throwable cause = failure.getCause();
+        throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
     /**
-     * Evaluate quiz results using Gemini.
+     * Evaluate quiz results with the default provider.
      */
     public LLMModels.EvaluationResponse evaluateQuizResults(String courseContext, 
                                                             double scorePercentage,
@@ -133,138 +733,139 @@ public class LLMService {
                                                             int totalQuestions,
                                                             List<String> incorrectTopics,
                                                             DifficultyLevel currentDifficulty) {
-        if (geminiApiKey == null || geminiApiKey.isBlank()) {
+        return evaluateQuizResults(courseContext, scorePercentage, correctAnswers, totalQuestions,
+                incorrectTopics, currentDifficulty, null);
+    }
+
+    /**
+     * Evaluate quiz results with the given provider.
+     *
+     * @param providerName provider name, or null for the default provider
+     */
+    public LLMModels.EvaluationResponse evaluateQuizResults(String courseContext, 
+                                                            double scorePercentage,
+                                                            int correctAnswers,
+                                                            int totalQuestions,
+                                                            List<String> incorrectTopics,
+                                                            DifficultyLevel currentDifficulty,
+                                                            String providerName) {
+        LLMProvider provider = getProvider(providerName);
+        if (!provider.isAvailable() || circuitBreaker.isOpen(provider.getName())) {
             return generateMockEvaluation(scorePercentage, correctAnswers, totalQuestions, currentDifficulty);
         }
 
         try {
-            String prompt = buildEvaluationPrompt(scorePercentage, correctAnswers, totalQuestions, incorrectTopics, currentDifficulty);
-            Client client = getGeminiClient();
-            GenerateContentResponse response = client.models.generateContent(GEMINI_MODEL, prompt, null);
-            return parseEvaluationResponse(response.text(), scorePercentage, correctAnswers, totalQuestions, currentDifficulty);
+            String prompt = buildEvaluationPrompt(courseContext, scorePercentage, correctAnswers, totalQuestions,
+                    incorrectTopics, currentDifficulty);
+            int estimatedTokens = TokenEstimator.estimate(prompt) + EVALUATION_RESPONSE_TOKENS;
+            rateLimiter.acquire(LLMRateLimiter.Priority.EVALUATION, estimatedTokens);
+            String responseText = callProvider(provider, prompt, estimatedTokens);
+            return parseEvaluationResponse(responseText, scorePercentage, correctAnswers, totalQuestions, currentDifficulty);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return generateMockEvaluation(scorePercentage, correctAnswers, totalQuestions, currentDifficulty);
         } catch (Exception e) {
-            logger.error("Error calling Gemini for evaluation: {}", e.getMessage());
+            String errorMsg = e.getMessage() != null ? e.getMessage() : "";
+            logger.error("Error calling {} for evaluation: {}", provider.getName(), errorMsg);
+            if (isRateLimit(errorMsg)) {
+                rateLimiter.pause(retryDelay(errorMsg, 1));
+            }
             return generateMockEvaluation(scorePercentage, correctAnswers, totalQuestions, currentDifficulty);
         }
     }
 
+    /**
+     * Evaluate quiz results without calling the LLM: feedback, validation and
+     * next difficulty are derived from the score alone.
+     */
+    public LLMModels.EvaluationResponse evaluateWithoutLLM(double scorePercentage, int correctAnswers,
+                                                           int totalQuestions, DifficultyLevel currentDifficulty) {
+        return generateMockEvaluation(scorePercentage, correctAnswers, totalQuestions, currentDifficulty);
+    }
+
+    static boolean isRateLimit(String errorMsg) {
+        return errorMsg != null && RATE_LIMIT.matcher(errorMsg).find();
+    }
+
+    /**
+     * Delay before the next call after a rate-limit error: the provider's
+     * Retry-After when the error carries one, otherwise exponential backoff.
+     */
+    static Duration retryDelay(String errorMsg, int attempt) {
+        Matcher matcher = RETRY_DELAY.matcher(errorMsg);
+        if (matcher.find()) {
+            double value = Double.parseDouble(matcher.group(1));
+            boolean millis = "ms".equalsIgnoreCase(matcher.group(2));
+            return Duration.ofMillis((long) (millis ? value : value * 1000));
+        }
+        return Duration.ofMillis(INITIAL_DELAY_MS * (long) Math.pow(2, attempt - 1));
+    }
+
     private LLMModels.QuizResponse parseQuizResponse(String responseText, int numberOfQuestions, 
                                                       DifficultyLevel difficulty, String context) {
         try {
-            String jsonContent = extractJson(responseText);
-            logger.debug("Extracted JSON: {}", jsonContent != null ? jsonContent.substring(0, Math.min(200, jsonContent.length())) : "null");
-            
-            if (jsonContent != null) {
-                JsonNode root = objectMapper.readTree(jsonContent);
-                LLMModels.QuizResponse response = parseJsonToQuizResponse(root);
-                if (response.getQuestions() != null && !response.getQuestions().isEmpty()) {
-                    // Mark as successfully parsed from Gemini
-                    response.setGeneratedByGemini(true);
-                    logger.info("Successfully parsed {} questions from Gemini response", response.getQuestions().size());
-                    return response;
-                } else {
-                    logger.warn("Parsed response has no questions, falling back to mock");
-                }
-            } else {
-                logger.warn("Could not extract JSON from response: {}", 
-                           responseText.substring(0, Math.min(500, responseText.length())));
+            List<LLMModels.QuestionData> questions = responseParser.parseQuiz(responseText);
+            if (!questions.isEmpty()) {
+                LLMModels.QuizResponse response = new LLMModels.QuizResponse();
+                response.setQuestions(questions);
+                // Mark as successfully parsed from the LLM response
+                response.setGeneratedByGemini(true);
+                logger.info("Successfully parsed {} questions from LLM response", questions.size());
+                return response;
             }
+            logger.warn("No question found in the response, falling back to mock - Response snippet: {}", 
+                       responseText.substring(0, Math.min(500, responseText.length())));
         } catch (Exception e) {
             logger.warn("Could not parse JSON response: {} - Response snippet: {}", 
                        e.getMessage(), 
                        responseText.substring(0, Math.min(500, responseText.length())));
         }
         
-        // Return mock quiz (not generated by Gemini)
+        // Return mock quiz (not generated by the LLM)
         LLMModels.QuizResponse mockResponse = generateMockQuiz(context, numberOfQuestions, difficulty, "Course");
         mockResponse.setGeneratedByGemini(false);
         mockResponse.setModelUsed("mock (parse-failed)");
         return mockResponse;
     }
 
-    private String extractJson(String text) {
-        String cleaned = text.replaceAll("```json\\s*", "").replaceAll("```\\s*", "");
-        int start = cleaned.indexOf("{");
-        int end = cleaned.lastIndexOf("}");
-        if (start >= 0 && end > start) {
-            String json = cleaned.substring(start, end + 1);
-            // Fix invalid JSON escape sequences from LaTeX math notation
-            json = fixLatexEscapes(json);
-            return json;
-        }
-        return null;
-    }
-    
     /**
-     * Fix LaTeX escape sequences that are invalid in JSON.
-     * LaTeX uses backslash-pi, backslash-alpha, etc. which need to be double-escaped for JSON.
+     * Split a batched answer into the question sets of its quizzes, keeping
+     * the questions with a text and options.
+     *
+     * @return one list per quiz, empty for quizzes missing from the answer
      */
-    private String fixLatexEscapes(String json) {
-        StringBuilder result = new StringBuilder();
-        int i = 0;
-        while (i < json.length()) {
-            char c = json.charAt(i);
-            if (c == '\\' && i + 1 < json.length()) {
-                char next = json.charAt(i + 1);
-                if (isValidJsonEscape(next)) {
-                    // Valid escape sequence, keep both the backslash and the escape character
-                    result.append(c);
-                    result.append(next);
-                    i += 2; // Skip both characters
-                } else {
-                    // Invalid escape (likely LaTeX like \m, \a, \pi, etc.)
-                    // Double-escape the backslash and keep the next character
-                    result.append("\\\\");
-                    result.append(next);
-                    i += 2; // Skip both characters
-                }
-            } else {
-                result.append(c);
-                i++;
+    private List<List<LLMModels.QuestionData>> parseQuizBatch(String responseText, int quizCount) {
+        try {
+            List<List<LLMModels.QuestionData>> questionSets = responseParser.parseQuizBatch(responseText, quizCount);
+            for (List<LLMModels.QuestionData> questions : questionSets) {
+                questions.removeIf(question -> question.getQuestionText().isBlank() || question.getOptions().isEmpty());
             }
+            return questionSets;
+        } catch (Exception e) {
+            logger.warn("Could not parse batched JSON response: {} - Response snippet: {}",
+                       e.getMessage(),
+                       responseText.substring(0, Math.min(500, responseText.length())));
+            return Collections.nCopies(quizCount, List.of());
         }
-        return result.toString();
     }
-    
+
     /**
-     * Check if a character following a backslash is a valid JSON escape character.
+     * Parse one streamed question object.
+     *
+     * @return the question, or null if the object is not a usable question
      */
-    private boolean isValidJsonEscape(char c) {
-        // Valid JSON escapes: quote, backslash, slash, b, f, n, r, t, and u for unicode
-        return c == '"' || c == '\\' || c == '/' || 
-               c == 'b' || c == 'f' || c == 'n' || c == 'r' || c == 't' ||
-               c == 'u';
-    }
-
-    private LLMModels.QuizResponse parseJsonToQuizResponse(JsonNode root) {
-        LLMModels.QuizResponse response = new LLMModels.QuizResponse();
-        List<LLMModels.QuestionData> questions = new ArrayList<>();
-
-        JsonNode questionsNode = root.path("questions");
-        if (questionsNode.isArray()) {
-            for (JsonNode qNode : questionsNode) {
-                LLMModels.QuestionData question = new LLMModels.QuestionData();
-                question.setQuestionText(qNode.path("question_text").asText());
-                question.setCorrectOptionIndex(qNode.path("correct_option_index").asInt(0));
-                question.setExplanation(qNode.path("explanation").asText(""));
-                question.setSourceContext(qNode.path("source_context").asText(""));
-
-                List<LLMModels.OptionData> options = new ArrayList<>();
-                JsonNode optionsNode = qNode.path("options");
-                if (optionsNode.isArray()) {
-                    for (JsonNode optNode : optionsNode) {
-                        LLMModels.OptionData option = new LLMModels.OptionData();
-                        option.setText(optNode.path("text").asText());
-                        option.setExplanation(optNode.path("explanation").asText(""));
-                        options.add(option);
-                    }
-                }
-                question.setOptions(options);
-                questions.add(question);
+    private LLMModels.QuestionData parseQuestion(String json) {
+        try {
+            LLMModels.QuestionData question = responseParser.parseQuestion(json);
+            if (question == null || question.getQuestionText().isBlank() || question.getOptions().isEmpty()) {
+                logger.warn("Skipping streamed question without text or options");
+                return null;
             }
+            return question;
+        } catch (Exception e) {
+            logger.warn("Could not parse streamed question: {}", e.getMessage());
+            return null;
         }
-        response.setQuestions(questions);
-        return response;
     }
 
     private String buildQuizPrompt(String context, int numberOfQuestions, 
@@ -281,60 +882,71 @@ public class LLMService {
             COURSE CONTENT:
             %s
             
-            REQUIREMENTS:
-            1. Each question must have exactly 4 answer options
-            2. Exactly ONE option must be correct
-            3. Questions must be derived ONLY from the provided content
-            4. Be dynamic and creative with question styles (conceptual, practical, analytical)
-            
-            MATHEMATICAL CONTENT GUIDELINES:
-            - When the content includes formulas, equations, or mathematical expressions, 
-              include them in your questions and options
-            - Use LaTeX notation for ALL mathematical expressions:
-              * Inline math: wrap with single dollar signs, e.g., $E = mc^2$
-              * Display math: wrap with double dollar signs, e.g., $$\\frac{a}{b}$$
-            - Common LaTeX examples:
-              * Fractions: $\\frac{numerator}{denominator}$
-              * Exponents: $x^2$, $e^{-x}$
-              * Subscripts: $x_1$, $a_{n+1}$
-              * Square roots: $\\sqrt{x}$, $\\sqrt[n]{x}$
-              * Greek letters: $\\alpha$, $\\beta$, $\\gamma$, $\\pi$, $\\theta$
-              * Summation: $\\sum_{i=1}^{n} x_i$
-              * Integrals: $\\int_{a}^{b} f(x) dx$
-              * Limits: $\\lim_{x \\to \\infty} f(x)$
-              * Vectors: $\\vec{v}$, $\\mathbf{F}$
-              * Matrices: $\\begin{pmatrix} a & b \\\\ c & d \\end{pmatrix}$
-            - For non-mathematical content, create clear conceptual questions
-            
-            QUESTION VARIETY:
-            - Include formula-based questions if the content has mathematical concepts
-            - Ask about the meaning and application of formulas, not just memorization
-            - Include "which formula applies" type questions when appropriate
-            - Ask students to identify correct transformations or simplifications
-            
+            %s
             Respond ONLY with valid JSON (escape special characters properly):
             {
               "questions": [
+            %s
+              ]
+            }
+            """, courseTitle, difficulty.name(), numberOfQuestions, context,
+            QUIZ_REQUIREMENTS, QUESTION_EXAMPLE.indent(4).stripTrailing());
+    }
+
+    /**
+     * Prompt asking for several independent quizzes on the same course
+     * content, which appears only once.
+     */
+    private String buildBatchQuizPrompt(String context, String courseTitle, List<QuizSpec> specs) {
+        StringBuilder quizzes = new StringBuilder();
+        for (int i = 0; i < specs.size(); i++) {
+            quizzes.append(String.format("- QUIZ %d: %d questions, difficulty %s\n",
+                    i + 1, specs.get(i).numberOfQuestions(), specs.get(i).difficulty().name()));
+        }
+        return String.format("""
+            You are an expert educational quiz creator specializing in creating engaging, 
+            dynamic questions. Generate %d INDEPENDENT multiple-choice quizzes based EXCLUSIVELY 
+            on the following course content. Each quiz is for a different student: do not 
+            reuse a question, or a close variant of it, in more than one quiz.
+            
+            COURSE TITLE: %s
+            QUIZZES:
+            %s
+            COURSE CONTENT:
+            %s
+            
+            %s
+            Respond ONLY with valid JSON (escape special characters properly), with one entry 
+            per quiz, in the order listed above:
+            {
+              "quizzes": [
                 {
-                  "question_text": "Question text with $inline math$ or $$display math$$",
-                  "options": [
-                    {"text": "Option A with $formula$ if needed", "explanation": "Why correct/incorrect"},
-                    {"text": "Option B", "explanation": "Why correct/incorrect"},
-                    {"text": "Option C", "explanation": "Why correct/incorrect"},
-                    {"text": "Option D", "explanation": "Why correct/incorrect"}
-                  ],
-                  "correct_option_index": 0,
-                  "explanation": "Overall explanation with $formulas$ if relevant",
-                  "source_context": "Source from content"
+                  "quiz": 1,
+                  "questions": [
+            %s
+                  ]
                 }
               ]
             }
-            """, courseTitle, difficulty.name(), numberOfQuestions, context);
+            """, specs.size(), courseTitle, quizzes, context,
+            QUIZ_REQUIREMENTS, QUESTION_EXAMPLE.indent(8).stripTrailing());
     }
 
-    private String buildEvaluationPrompt(double scorePercentage, int correctAnswers, 
+    /**
+     * Prompt of a quiz evaluation. The course context, when there is one, is
+     * the course material on the missed topics, so the feedback can point the
+     * student to what to review.
+     */
+    private String buildEvaluationPrompt(String courseContext, double scorePercentage, int correctAnswers,
                                          int totalQuestions, List<String> incorrectTopics,
                                          DifficultyLevel currentDifficulty) {
+        String material = courseContext == null || courseContext.isBlank() ? "" : String.format("""
+            COURSE MATERIAL ON THE WEAK TOPICS:
+            %s
+            
+            Base the weaknesses and recommendations on this material.
+            
+            """, courseContext);
         return String.format("""
             Evaluate quiz results and recommend the NEXT appropriate difficulty level.
             
@@ -344,7 +956,7 @@ public class LLMService {
             - Correct: %d/%d
             - Weak topics: %s
             
-            DIFFICULTY PROGRESSION RULES:
+            %sDIFFICULTY PROGRESSION RULES:
             - If score >= 90%% at current level, recommend NEXT HIGHER level
             - If score >= 70%% at current level, recommend SAME level or SLIGHTLY higher
             - If score < 70%%, recommend SAME level or LOWER level
@@ -356,7 +968,7 @@ public class LLMService {
             "recommendations": [], "recommended_difficulty": "EASY|MEDIUM|HARD|EXPERT", 
             "course_validated": true/false}
             """, currentDifficulty.name(), scorePercentage, correctAnswers, totalQuestions, 
-            incorrectTopics != null ? String.join(", ", incorrectTopics) : "none");
+            incorrectTopics != null ? String.join(", ", incorrectTopics) : "none", material);
     }
 
     private LLMModels.EvaluationResponse parseEvaluationResponse(String responseText, 
@@ -364,10 +976,10 @@ public class LLMService {
                                                                    int correctAnswers,
                                                                    int totalQuestions,
                                                                    DifficultyLevel currentDifficulty) {
-        try {
-            String jsonContent = extractJson(responseText);
-            if (jsonContent != null) {
-                JsonNode root = objectMapper.readTree(jsonContent);
+        try (JsonParser parser = responseParser.open(responseText)) {
+            // A small object: reading it as a tree is simpler than binding it token by token
+            JsonNode root = objectMapper.readTree(parser);
+            if (root != null && root.isObject()) {
                 LLMModels.EvaluationResponse response = new LLMModels.EvaluationResponse();
                 response.setFeedback(root.path("feedback").asText("Good effort!"));
                 response.setCourseValidated(root.path("course_validated").asBoolean(scorePercentage >= 70));
@@ -513,6 +1125,22 @@ public class LLMService {
     }
 
     public boolean isLLMAvailable() {
-        return geminiApiKey != null && !geminiApiKey.isBlank();
+        return isLLMAvailable(null);
+    }
+
+    /**
+     * Whether the given provider (null for the default one) is configured.
+     */
+    public boolean isLLMAvailable(String providerName) {
+        return getProvider(providerName).isAvailable();
+    }
+
+    /**
+     * Carries an exception thrown by a streaming callback out of the stream loop.
+     */
+    private static final class DeliveryException extends RuntimeException {
+        DeliveryException(RuntimeException cause) {
+            super(cause);
+        }
     }
 }
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * LLM provider calling the local stand-in server ({@link LocalLLMServer}),
+ * for benchmarks and load tests of the quiz pipeline without a real model.
+ */
+@Service
+public class LocalLLMProvider extends OpenAICompatibleProvider {
+
+    public static final String NAME = "local";
+
+    @Value("${app.llm.local.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.llm.local.port:8089}")
+    private int port;
+
+    public LocalLLMProvider(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getModel() {
+        return LocalLLMServer.MODEL;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return enabled;
+    }
+
+    @Override
+    protected String getBaseUrl() {
+        return "http://127.0.0.1:" + port + "/v1";
+    }
+
+    @Override
+    protected String getApiKey() {
+        return "";
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local stand-in for an LLM server, used to benchmark and load-test the quiz
+ * pipeline offline.
+ *
+ * When {@code app.llm.local.enabled} is set, an HTTP server bound to the
+ * loopback interface answers the OpenAI chat completions API (plain and
+ * streamed) on {@code app.llm.local.port}. Quiz prompts get well-formed
+ * quizzes with the requested number of questions (one per quiz of a batched
+ * prompt), other prompts a quiz
+ * evaluation. Every response is delayed by {@code latency-ms} plus up to
+ * {@code latency-jitter-ms}, and a configurable share of the requests fails
+ * with a 429 (with Retry-After) or a 500, so retries, rate limiting and
+ * fallbacks can be exercised. Select it with {@code app.llm.provider=local}.
+ */
+@Service
+public class LocalLLMServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalLLMServer.class);
+
+    public static final String MODEL = "local-stand-in";
+
+    private static final Pattern BATCH_QUIZ = Pattern.compile("(?m)^- QUIZ (\\d+): (\\d+) questions");
+    private static final Pattern QUESTION_COUNT = Pattern.compile("NUMBER OF QUESTIONS:\\s*(\\d+)");
+    private static final Pattern COURSE_TITLE = Pattern.compile("COURSE TITLE:\\s*(.+)");
+    private static final Pattern SCORE = Pattern.compile("Score:\\s*(\\d+(?:\\.\\d+)?)%");
+    private static final int STREAM_CHUNK_CHARS = 64;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.llm.local.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.llm.local.port:8089}")
+    private int port;
+
+    @Value("${app.llm.local.latency-ms:800}")
+    private long latencyMs;
+
+    @Value("${app.llm.local.latency-jitter-ms:400}")
+    private long latencyJitterMs;
+
+    @Value("${app.llm.local.stream-chunk-delay-ms:20}")
+    private long streamChunkDelayMs;
+
+    @Value("${app.llm.local.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${app.llm.local.rate-limit-rate:0.0}")
+    private double rateLimitRate;
+
+    @Value("${app.llm.local.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    private HttpServer server;
+
+    public LocalLLMServer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        logger.info("Local LLM stand-in listening on port {} (latency {}+{} ms, errors {}, 429s {})",
+                port, latencyMs, latencyJitterMs, errorRate, rateLimitRate);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, error("Method not allowed"));
+                return;
+            }
+
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readTree(body);
+            }
+            JsonNode messages = request.path("messages");
+            String prompt = messages.path(messages.size() - 1).path("content").asText("");
+            boolean stream = request.path("stream").asBoolean(false);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0));
+
+            double roll = random.nextDouble();
+            if (roll < rateLimitRate) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                respond(exchange, 429, error("Resource exhausted: quota exceeded, retry after "
+                        + retryAfterSeconds + "s"));
+                return;
+            }
+            if (roll < rateLimitRate + errorRate) {
+                respond(exchange, 500, error("Injected server error"));
+                return;
+            }
+
+            String content = answer(prompt);
+            if (stream) {
+                streamAnswer(exchange, content);
+            } else {
+                respond(exchange, 200, objectMapper.writeValueAsString(Map.of(
+                        "model", MODEL,
+                        "choices", List.of(Map.of(
+                                "index", 0,
+                                "message", Map.of("role", "assistant", "content", content),
+                                "finish_reason", "stop")))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send the answer as server-sent events, a few characters per event.
+     */
+    private void streamAnswer(HttpExchange exchange, String content) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (int start = 0; start < content.length(); start += STREAM_CHUNK_CHARS) {
+            String piece = content.substring(start, Math.min(content.length(), start + STREAM_CHUNK_CHARS));
+            String event = objectMapper.writeValueAsString(Map.of(
+                    "model", MODEL,
+                    "choices", List.of(Map.of("index", 0, "delta", Map.of("content", piece)))));
+            out.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(streamChunkDelayMs);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * Answer a prompt: a quiz, or several for batched quiz prompts, for quiz
+     * prompts and an evaluation otherwise.
+     */
+    private String answer(String prompt) throws IOException {
+        Matcher title = COURSE_TITLE.matcher(prompt);
+        String courseTitle = title.find() ? title.group(1).strip() : "the course";
+
+        Matcher batchQuiz = BATCH_QUIZ.matcher(prompt);
+        if (batchQuiz.find()) {
+            List<Map<String, Object>> quizzes = new ArrayList<>();
+            do {
+                quizzes.add(Map.of(
+                        "quiz", Integer.parseInt(batchQuiz.group(1)),
+                        "questions", questions(Integer.parseInt(batchQuiz.group(2)), courseTitle)));
+            } while (batchQuiz.find());
+            return objectMapper.writeValueAsString(Map.of("quizzes", quizzes));
+        }
+
+        Matcher questionCount = QUESTION_COUNT.matcher(prompt);
+        if (questionCount.find()) {
+            return objectMapper.writeValueAsString(Map.of(
+                    "questions", questions(Integer.parseInt(questionCount.group(1)), courseTitle)));
+        }
+
+        Matcher score = SCORE.matcher(prompt);
+        double percentage = score.find() ? Double.parseDouble(score.group(1)) : 0;
+        return objectMapper.writeValueAsString(Map.of(
+                "feedback", "Stand-in evaluation of a " + percentage + "% score.",
+                "strengths", List.of("Stand-in strength"),
+                "weaknesses", List.of("Stand-in weakness"),
+                "recommendations", List.of("Stand-in recommendation"),
+                "recommended_difficulty", "MEDIUM",
+                "course_validated", percentage >= 70));
+    }
+
+    private List<Map<String, Object>> questions(int numberOfQuestions, String courseTitle) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // A random tag keeps the questions of different calls distinct, as a real model's would be
+        String tag = Long.toString(random.nextLong(Long.MAX_VALUE), 36);
+
+        List<Map<String, Object>> questions = new ArrayList<>();
+        for (int i = 1; i <= numberOfQuestions; i++) {
+            List<Map<String, String>> options = new ArrayList<>();
+            for (char letter = 'A'; letter <= 'D'; letter++) {
+                options.add(Map.of("text", "Option " + letter, "explanation", "Stand-in explanation"));
+            }
+            questions.add(Map.of(
+                    "question_text", "Stand-in question " + i + " on " + courseTitle + " [" + tag + "]",
+                    "options", options,
+                    "correct_option_index", random.nextInt(options.size()),
+                    "explanation", "Stand-in explanation",
+                    "source_context", "Stand-in source"));
+        }
+        return questions;
+    }
+
+    private String error(String message) throws IOException {
+        return objectMapper.writeValueAsString(Map.of("error", Map.of("message", message)));
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
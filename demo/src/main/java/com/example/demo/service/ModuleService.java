@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.dto.ModuleDTO;
+import com.example.demo.dto.ModuleSummaryDTO;
 import com.example.demo.entity.Module;
 import com.example.demo.entity.User;
 import com.example.demo.repository.ModuleRepository;
@@ -82,6 +83,11 @@ public class ModuleService {
         return moduleRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Module> findByIdWithCreator(Long id) {
+        return moduleRepository.findWithCreatorById(id);
+    }
+
     @Transactional(readOnly = true)
     public Optional<Module> findByIdWithCourses(Long id) {
         return moduleRepository.findByIdWithCourses(id);
@@ -108,8 +114,18 @@ public class ModuleService {
     }
 
     @Transactional(readOnly = true)
-    public List<Module> findActiveModulesWithCourses() {
-        return moduleRepository.findActiveModulesWithCourses();
+    public List<ModuleSummaryDTO> findActiveSummaries() {
+        return moduleRepository.findActiveSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ModuleSummaryDTO> findAllSummaries() {
+        return moduleRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ModuleSummaryDTO> findSummariesByTeacher(Long teacherId) {
+        return moduleRepository.findSummariesByCreatedById(teacherId);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Base class of providers speaking the OpenAI chat completions API
+ * ({@code POST /chat/completions}), which most hosted and self-hosted model
+ * servers implement. Streaming uses the server-sent events variant of the API.
+ */
+public abstract class OpenAICompatibleProvider implements LLMProvider {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(120);
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+
+    protected OpenAICompatibleProvider(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Base URL of the API, e.g. {@code https://api.openai.com/v1}.
+     */
+    protected abstract String getBaseUrl();
+
+    /**
+     * API key sent as a bearer token, or blank for servers without authentication.
+     */
+    protected abstract String getApiKey();
+
+    @Override
+    public String generate(String prompt) {
+        HttpResponse<String> response = send(prompt, false, HttpResponse.BodyHandlers.ofString());
+        checkStatus(response, response.body());
+        try {
+            return objectMapper.readTree(response.body()).path("choices").path(0).path("message").path("content").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid response from " + getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void stream(String prompt, Consumer<String> onText) {
+        HttpResponse<Stream<String>> response = send(prompt, true, HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() >= 400) {
+                checkStatus(response, lines.collect(Collectors.joining("\n")));
+            }
+            Iterator<String> events = lines.iterator();
+            while (events.hasNext()) {
+                String line = events.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).strip();
+                if (data.equals("[DONE]")) {
+                    break;
+                }
+                JsonNode delta = objectMapper.readTree(data).path("choices").path(0).path("delta");
+                String text = delta.path("content").asText("");
+                if (!text.isEmpty()) {
+                    onText.accept(text);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid stream from " + getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private <T> HttpResponse<T> send(String prompt, boolean stream, HttpResponse.BodyHandler<T> bodyHandler) {
+        try {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "model", getModel(),
+                    "messages", List.of(Map.of("role", "user", "content", prompt)),
+                    "stream", stream));
+
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(getBaseUrl() + "/chat/completions"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            String apiKey = getApiKey();
+            if (apiKey != null && !apiKey.isBlank()) {
+                request.header("Authorization", "Bearer " + apiKey);
+            }
+            return httpClient.send(request.build(), bodyHandler);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not call " + getName() + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + getName(), e);
+        }
+    }
+
+    /**
+     * Turn an error status into an exception. The message keeps the status
+     * code and the Retry-After delay, which {@link LLMService} uses to
+     * recognize rate limits and to schedule the retry.
+     */
+    private void checkStatus(HttpResponse<?> response, String body) {
+        int status = response.statusCode();
+        if (status < 400) {
+            return;
+        }
+        String message = "HTTP " + status + " from " + getName() + ": " + body;
+        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+        if (retryAfter != null) {
+            message += " (retry after " + retryAfter + "s)";
+        }
+        throw new IllegalStateException(message);
+    }
+}
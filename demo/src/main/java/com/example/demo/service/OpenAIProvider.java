@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * LLM provider for an OpenAI-compatible endpoint: OpenAI itself, or a hosted
+ * or self-hosted server exposing the same API (vLLM, Ollama, LM Studio...),
+ * selected with {@code app.llm.openai.base-url}.
+ */
+@Service
+public class OpenAIProvider extends OpenAICompatibleProvider {
+
+    public static final String NAME = "openai";
+
+    @Value("${app.llm.openai.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
+    @Value("${app.llm.openai.api-key:}")
+    private String apiKey;
+
+    @Value("${app.llm.openai.model:gpt-4o-mini}")
+    private String model;
+
+    public OpenAIProvider(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Available when an API key is set, or when pointed at a server other
+     * than OpenAI's, which may not need one.
+     */
+    @Override
+    public boolean isAvailable() {
+        return (apiKey != null && !apiKey.isBlank()) || !baseUrl.contains("api.openai.com");
+    }
+
+    @Override
+    protected String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    protected String getApiKey() {
+        return apiKey;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.repository.CourseRepository;
+
+/**
+ * Scheduled refill of the question bank.
+ *
+ * During off-peak hours ({@code app.question-bank.refill-cron}), every bucket
+ * (published, indexed course and difficulty) whose number of servable
+ * questions is below the low watermark is topped up to the target size, in
+ * batches of {@code app.question-bank.batch-size} questions per LLM call.
+ * Each batch covers the next section of the course, so the bank spreads over
+ * the whole content. Calls go through the rate limiter with BACKGROUND
+ * priority, and a run makes at most {@code app.question-bank.max-batches-per-run}
+ * calls, which keeps the LLM usage of the bank steady and bounded.
+ */
+@Service
+public class QuestionBankRefiller {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionBankRefiller.class);
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final QuestionBankService questionBankService;
+    private final RAGService ragService;
+    private final LLMService llmService;
+    private final CourseRepository courseRepository;
+
+    @Value("${app.question-bank.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.question-bank.low-watermark:15}")
+    private int lowWatermark;
+
+    @Value("${app.question-bank.target-size:40}")
+    private int targetSize;
+
+    @Value("${app.question-bank.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.question-bank.context-tokens:8000}")
+    private int contextTokens;
+
+    @Value("${app.question-bank.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    /** Next course section to generate from, per bucket. */
+    private final Map<String, AtomicInteger> sectionCursors = new ConcurrentHashMap<>();
+
+    public QuestionBankRefiller(QuestionBankService questionBankService, RAGService ragService,
+                                LLMService llmService, CourseRepository courseRepository) {
+        this.questionBankService = questionBankService;
+        this.ragService = ragService;
+        this.llmService = llmService;
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * Top up every bucket below the low watermark, within the per-run budget.
+     */
+    @Scheduled(cron = "${app.question-bank.refill-cron:0 0 2-5 * * *}")
+    public void refill() {
+        if (!enabled) {
+            return;
+        }
+
+        int retired = questionBankService.deleteRetired();
+        if (retired > 0) {
+            logger.info("Retired {} bank questions", retired);
+        }
+
+        int batches = 0;
+        List<Course> courses = courseRepository.findPublishedAndIndexedCourses();
+        for (Course course : courses) {
+            if (!llmService.isLLMAvailable(course.getLlmProvider())) {
+                continue;
+            }
+            for (DifficultyLevel difficulty : DifficultyLevel.values()) {
+                long available = questionBankService.countAvailable(course.getId(), difficulty);
+                if (available >= lowWatermark) {
+                    continue;
+                }
+
+                while (available < targetSize) {
+                    if (batches >= maxBatchesPerRun) {
+                        logger.info("Question bank refill stopped after {} batches (budget reached)", batches);
+                        return;
+                    }
+                    batches++;
+                    int added = refillBatch(course, difficulty);
+                    if (added == 0) {
+                        // Nothing new came back; retry this bucket on the next run
+                        break;
+                    }
+                    available += added;
+                }
+            }
+        }
+        if (batches > 0) {
+            logger.info("Question bank refill done: {} batches", batches);
+        }
+    }
+
+    /**
+     * Generate one batch of questions for a bucket from the next section of the course.
+     *
+     * @return the number of questions added to the bank
+     */
+    private int refillBatch(Course course, DifficultyLevel difficulty) {
+        try {
+            RAGService.RAGStats stats = ragService.getRAGStats(course.getId());
+            int sections = Math.max(1, stats.totalCharacters() / CHARS_PER_TOKEN / contextTokens + 1);
+            int section = sectionCursors
+                    .computeIfAbsent(course.getId() + ":" + difficulty, key -> new AtomicInteger())
+                    .getAndIncrement();
+
+            String context = ragService.getSectionContext(course.getId(), section, sections, batchSize, contextTokens);
+            if (context.isBlank()) {
+                return 0;
+            }
+
+            LLMModels.QuizResponse response = llmService.generateQuiz(
+                    context, batchSize, difficulty, course.getTitle(), LLMRateLimiter.Priority.BACKGROUND,
+                    course.getLlmProvider());
+            if (!response.isGeneratedByGemini()) {
+                // Never bank mock questions
+                return 0;
+            }
+
+            int added = questionBankService.addQuestions(course, difficulty, response);
+            logger.info("Added {} {} questions to the bank of course {} (section {}/{})",
+                    added, difficulty, course.getId(), Math.floorMod(section, sections) + 1, sections);
+            return added;
+        } catch (Exception e) {
+            logger.error("Question bank refill failed for course {} ({}): {}",
+                    course.getId(), difficulty, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entity.BankOption;
+import com.example.demo.entity.BankQuestion;
+import com.example.demo.entity.Course;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.repository.BankQuestionRepository;
+
+/**
+ * Service for the per-course question bank.
+ *
+ * Quizzes are drawn from the bank when it holds enough questions of the
+ * requested difficulty that the student has not seen yet, so most quiz
+ * requests cost one query instead of an LLM call. A question is retired
+ * once it has been served {@code app.question-bank.max-serves} times, which
+ * keeps the bank rotating; {@link QuestionBankRefiller} tops it up.
+ */
+@Service
+@Transactional
+public class QuestionBankService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionBankService.class);
+
+    private final BankQuestionRepository bankQuestionRepository;
+
+    @Value("${app.question-bank.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.question-bank.max-serves:25}")
+    private int maxServes;
+
+    public QuestionBankService(BankQuestionRepository bankQuestionRepository) {
+        this.bankQuestionRepository = bankQuestionRepository;
+    }
+
+    /**
+     * Draw questions for a student's quiz from the bank.
+     *
+     * @return {@code count} bank questions, marked as served, or an empty list
+     *         if the bank does not hold enough questions unseen by the student
+     */
+    public List<BankQuestion> draw(Long courseId, DifficultyLevel difficulty, Long studentId, int count) {
+        if (!enabled) {
+            return List.of();
+        }
+
+        List<BankQuestion> unseen = bankQuestionRepository.findUnseen(courseId, difficulty, studentId, maxServes);
+        if (unseen.size() < count) {
+            logger.debug("Question bank miss: course {} {} has {} unseen questions for student {}, {} needed",
+                    courseId, difficulty, unseen.size(), studentId, count);
+            return List.of();
+        }
+
+        List<BankQuestion> drawn = unseen.subList(0, count);
+        // An atomic increment: the entities are not updated, as another draw may serve them concurrently
+        bankQuestionRepository.incrementTimesServed(drawn.stream().map(BankQuestion::getId).toList());
+        logger.info("Drew {} questions from the bank of course {} ({})", count, courseId, difficulty);
+        return drawn;
+    }
+
+    /**
+     * Number of questions of a bucket that can still be served.
+     */
+    @Transactional(readOnly = true)
+    public long countAvailable(Long courseId, DifficultyLevel difficulty) {
+        return bankQuestionRepository.countAvailable(courseId, difficulty, maxServes);
+    }
+
+    /**
+     * Add generated questions to a bucket, skipping questions already in it.
+     *
+     * @return the number of questions added
+     */
+    public int addQuestions(Course course, DifficultyLevel difficulty, LLMModels.QuizResponse response) {
+        Set<String> known = new HashSet<>(bankQuestionRepository.findContentHashes(course.getId(), difficulty));
+        List<BankQuestion> added = new ArrayList<>();
+
+        for (LLMModels.QuestionData questionData : response.getQuestions()) {
+            List<LLMModels.OptionData> options = questionData.getOptions();
+            if (questionData.getQuestionText() == null || questionData.getQuestionText().isBlank()
+                    || options == null || questionData.getCorrectOptionIndex() < 0
+                    || questionData.getCorrectOptionIndex() >= options.size()) {
+                continue;
+            }
+            String hash = Hashing.sha256Hex(questionData.getQuestionText().strip());
+            if (!known.add(hash)) {
+                continue;
+            }
+
+            BankQuestion bankQuestion = new BankQuestion(course, difficulty, questionData.getQuestionText(), hash);
+            bankQuestion.setSourceContext(questionData.getSourceContext());
+            bankQuestion.setCorrectOptionIndex(questionData.getCorrectOptionIndex());
+            bankQuestion.setExplanation(questionData.getExplanation());
+            bankQuestion.setModelUsed(response.getModelUsed());
+            for (LLMModels.OptionData option : options) {
+                bankQuestion.getOptions().add(new BankOption(option.getText(), option.getExplanation()));
+            }
+            added.add(bankQuestion);
+        }
+
+        bankQuestionRepository.saveAll(added);
+        return added.size();
+    }
+
+    /**
+     * Delete questions that have been served too often to be drawn again.
+     */
+    public int deleteRetired() {
+        List<BankQuestion> retired = bankQuestionRepository.findByTimesServedGreaterThanEqual(maxServes);
+        bankQuestionRepository.deleteAll(retired);
+        return retired.size();
+    }
+
+    /**
+     * Empty the bank of a course, e.g. after its content was re-indexed.
+     */
+    public void clearCourse(Long courseId) {
+        bankQuestionRepository.deleteByCourseId(courseId);
+    }
+}
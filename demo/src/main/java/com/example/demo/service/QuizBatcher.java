@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Coalesces quiz generations that start at about the same time on the same
+ * course context into one batched LLM call ({@link LLMService#generateQuizBatch}).
+ *
+ * With {@code app.llm.batching.enabled}, the first generation on a context
+ * opens a batch and waits up to {@code app.llm.batching.window-ms} for others
+ * to join, or until the batch holds {@code max-quizzes} quizzes; it then
+ * makes one call on behalf of all of them, and each generation gets its own
+ * question set. A batch is also capped at {@code max-questions} questions in
+ * total, so the answer stays within the model's output limit.
+ *
+ * A generation left alone in its batch takes the usual path, streamed if
+ * enabled, so batching costs at most the window on a quiet platform.
+ * Batched quizzes are not streamed: their questions are handed over once
+ * the whole answer is in.
+ */
+@Service
+public class QuizBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizBatcher.class);
+
+    private final LLMService llmService;
+
+    @Value("${app.llm.batching.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.llm.batching.window-ms:300}")
+    private long windowMs;
+
+    @Value("${app.llm.batching.max-quizzes:4}")
+    private int maxQuizzes;
+
+    @Value("${app.llm.batching.max-questions:40}")
+    private int maxQuestions;
+
+    /** Batches still accepting quizzes, by provider and course context. */
+    private final Map<String, Batch> openBatches = new HashMap<>();
+
+    public QuizBatcher(LLMService llmService) {
+        this.llmService = llmService;
+    }
+
+    /**
+     * Generate the questions of a pending quiz, batched with the other
+     * generations on the same course context when enabled.
+     *
+     * @param onQuestion callback receiving each question, as with
+     *                   {@link LLMService#streamQuiz}, or null for a plain request
+     */
+    public LLMModels.QuizResponse generate(AgentService.QuizGenerationInput input,
+                                           Consumer<LLMModels.QuestionData> onQuestion) throws InterruptedException {
+        if (!enabled) {
+            return generateAlone(input, onQuestion);
+        }
+
+        String key = input.llmProvider() + '\n' + input.courseTitle() + '\n' + input.context();
+        Member member = new Member(new LLMService.QuizSpec(input.numberOfQuestions(), input.difficulty(),
+                input.studentId()));
+        Batch batch;
+        boolean leader = false;
+        synchronized (openBatches) {
+            batch = openBatches.get(key);
+            if (batch != null && !batch.fits(member.spec)) {
+                // Send the open batch now and start a new one
+                openBatches.remove(key);
+                batch.closed.countDown();
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(input);
+                openBatches.put(key, batch);
+                leader = true;
+            }
+            batch.members.add(member);
+            batch.questions += member.spec.numberOfQuestions();
+            if (batch.members.size() >= maxQuizzes) {
+                openBatches.remove(key);
+                batch.closed.countDown();
+            }
+        }
+
+        if (leader) {
+            InterruptedException interrupted = null;
+            try {
+                batch.closed.await(windowMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = e;
+            }
+            synchronized (openBatches) {
+                openBatches.remove(key, batch);
+            }
+            if (interrupted != null) {
+                // Nobody else would make the call: don't leave the members waiting
+                IllegalStateException failure = new IllegalStateException("Quiz generation was interrupted");
+                batch.members.forEach(waiting -> waiting.result.completeExceptionally(failure));
+                throw interrupted;
+            }
+            if (batch.members.size() == 1) {
+                return generateAlone(input, onQuestion);
+            }
+            send(batch);
+        }
+
+        try {
+            LLMModels.QuizResponse quizResponse = member.result.get();
+            if (onQuestion != null) {
+                quizResponse.getQuestions().forEach(onQuestion);
+            }
+            return quizResponse;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        }
+    }
+
+    private LLMModels.QuizResponse generateAlone(AgentService.QuizGenerationInput input,
+                                                 Consumer<LLMModels.QuestionData> onQuestion) {
+        if (onQuestion != null) {
+            return llmService.streamQuiz(input.context(), input.numberOfQuestions(), input.difficulty(),
+                    input.courseTitle(), input.llmProvider(), input.studentId(), onQuestion);
+        }
+        return llmService.generateQuiz(input.context(), input.numberOfQuestions(), input.difficulty(),
+                input.courseTitle(), LLMRateLimiter.Priority.GENERATION, input.llmProvider(), input.studentId());
+    }
+
+    /**
+     * Make the batched call and hand each member its quiz. Runs on the
+     * leader's thread once nobody can join the batch any more.
+     */
+    private void send(Batch batch) {
+        List<LLMService.QuizSpec> specs = batch.members.stream().map(member -> member.spec).toList();
+        logger.info("Generating {} quizzes ({} questions) in one batch", specs.size(), batch.questions);
+        try {
+            List<LLMModels.QuizResponse> quizzes = llmService.generateQuizBatch(batch.input.context(),
+                    batch.input.courseTitle(), specs, LLMRateLimiter.Priority.GENERATION, batch.input.llmProvider());
+            for (int i = 0; i < batch.members.size(); i++) {
+                batch.members.get(i).result.complete(quizzes.get(i));
+            }
+        } catch (RuntimeException e) {
+            for (Member member : batch.members) {
+                member.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Generations sharing one batched call. Members are only added while the
+     * batch is in {@code openBatches}, under its lock.
+     */
+    private final class Batch {
+        private final AgentService.QuizGenerationInput input;
+        private final List<Member> members = new ArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private int questions;
+
+        Batch(AgentService.QuizGenerationInput input) {
+            this.input = input;
+        }
+
+        boolean fits(LLMService.QuizSpec spec) {
+            return questions + spec.numberOfQuestions() <= maxQuestions;
+        }
+    }
+
+    private static final class Member {
+        private final LLMService.QuizSpec spec;
+        private final CompletableFuture<LLMModels.QuizResponse> result = new CompletableFuture<>();
+
+        Member(LLMService.QuizSpec spec) {
+            this.spec = spec;
+        }
+    }
+}
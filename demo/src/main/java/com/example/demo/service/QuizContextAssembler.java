@@ -0,0 +1,151 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.ChunkTextDTO;
+
+/**
+ * Builds the course context of a quiz prompt under a token budget.
+ *
+ * The assembler:
+ * 1. Splits the document into one contiguous section per question and picks
+ *    the most relevant chunk of each section, so questions can cover the
+ *    whole course rather than its first pages
+ * 2. Fills the remaining budget with the most relevant leftover chunks
+ * 3. Emits the selection in document order, dropping the overlap that
+ *    consecutive chunks share from chunking
+ *
+ * Token counts come from {@link ChunkTextDTO#getTokenCount()}, computed at
+ * indexing time, so the prompt size is bounded and predictable.
+ */
+@Service
+public class QuizContextAssembler {
+
+    /** Shortest prefix/suffix match treated as chunking overlap. */
+    private static final int MIN_OVERLAP_MATCH = 10;
+
+    /**
+     * Assemble a context from the chunks of a course.
+     *
+     * @param chunks all chunks of the course
+     * @param relevance relevance score per chunk id (may be empty; missing chunks score 0)
+     * @param tokenBudget maximum number of tokens of context
+     * @param questionCount number of questions the context must support
+     * @param maxOverlap maximum length of the overlap between consecutive chunks
+     * @return the context, or an empty string if there are no chunks
+     */
+    public String assemble(List<ChunkTextDTO> chunks, Map<Long, Double> relevance,
+                           int tokenBudget, int questionCount, int maxOverlap) {
+        if (chunks.isEmpty()) {
+            return "";
+        }
+
+        List<ChunkTextDTO> ordered = new ArrayList<>(chunks);
+        ordered.sort(Comparator.comparingInt(ChunkTextDTO::getChunkIndex));
+
+        Comparator<Integer> byRelevance = Comparator
+                .comparingDouble((Integer i) -> relevance.getOrDefault(ordered.get(i).getId(), 0.0))
+                .reversed();
+
+        boolean[] selected = new boolean[ordered.size()];
+        int usedTokens = 0;
+
+        // Step 1: one representative per section, most relevant sections first
+        int sections = Math.max(1, Math.min(questionCount, ordered.size()));
+        List<Integer> representatives = new ArrayList<>(sections);
+        for (int s = 0; s < sections; s++) {
+            int from = s * ordered.size() / sections;
+            int to = (s + 1) * ordered.size() / sections;
+            representatives.add(pickRepresentative(ordered, relevance, from, to));
+        }
+        representatives.sort(byRelevance);
+
+        for (int i : representatives) {
+            int tokens = tokensOf(ordered.get(i));
+            if (usedTokens + tokens <= tokenBudget || usedTokens == 0) {
+                selected[i] = true;
+                usedTokens += tokens;
+            }
+        }
+
+        // Step 2: fill the remaining budget with the most relevant leftovers
+        List<Integer> leftovers = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (!selected[i]) {
+                leftovers.add(i);
+            }
+        }
+        leftovers.sort(byRelevance);
+
+        for (int i : leftovers) {
+            int tokens = tokensOf(ordered.get(i));
+            if (usedTokens + tokens <= tokenBudget) {
+                selected[i] = true;
+                usedTokens += tokens;
+            }
+        }
+
+        // Step 3: document order, without the overlap shared by consecutive chunks
+        StringBuilder context = new StringBuilder();
+        ChunkTextDTO previous = null;
+        for (int i = 0; i < ordered.size(); i++) {
+            if (!selected[i]) {
+                continue;
+            }
+            ChunkTextDTO chunk = ordered.get(i);
+            String content = chunk.getContent();
+            if (previous != null && previous.getChunkIndex() + 1 == chunk.getChunkIndex()) {
+                content = content.substring(overlapLength(previous.getContent(), content, maxOverlap)).trim();
+            }
+            if (!content.isEmpty()) {
+                if (context.length() > 0) {
+                    context.append("\n\n");
+                }
+                context.append(content);
+            }
+            previous = chunk;
+        }
+        return context.toString();
+    }
+
+    /**
+     * Most relevant chunk of a section, or its middle chunk when nothing in it is relevant.
+     */
+    private int pickRepresentative(List<ChunkTextDTO> ordered, Map<Long, Double> relevance, int from, int to) {
+        int best = (from + to - 1) / 2;
+        double bestScore = 0;
+        for (int i = from; i < to; i++) {
+            double score = relevance.getOrDefault(ordered.get(i).getId(), 0.0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int tokensOf(ChunkTextDTO chunk) {
+        Integer tokens = chunk.getTokenCount();
+        return tokens != null ? tokens : TokenEstimator.estimate(chunk.getContent());
+    }
+
+    /**
+     * Length of the longest prefix of {@code next} that is also a suffix of
+     * {@code previous}, bounded by {@code maxOverlap}; 0 if shorter than
+     * {@link #MIN_OVERLAP_MATCH} (a coincidental match, not chunking overlap).
+     */
+    private int overlapLength(String previous, String next, int maxOverlap) {
+        int limit = Math.min(maxOverlap, Math.min(previous.length(), next.length()));
+        for (int length = limit; length >= MIN_OVERLAP_MATCH; length--) {
+            if (previous.regionMatches(previous.length() - length, next, 0, length)) {
+                return length;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.repository.QuizResultRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes the LLM feedback of quiz results off the request thread.
+ *
+ * With deferred evaluation, a submission is scored and saved at once with
+ * score-based feedback; the LLM feedback is then generated on a virtual
+ * thread and replaces it when ready, while the result page polls for it.
+ */
+@Service
+public class QuizFeedbackService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizFeedbackService.class);
+
+    private final AgentService agentService;
+    private final LLMService llmService;
+    private final QuizResultRepository quizResultRepository;
+
+    @Value("${app.quiz.feedback-timeout-minutes:5}")
+    private int feedbackTimeoutMinutes;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QuizFeedbackService(AgentService agentService, LLMService llmService,
+                               QuizResultRepository quizResultRepository) {
+        this.agentService = agentService;
+        this.llmService = llmService;
+        this.quizResultRepository = quizResultRepository;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generate the feedback of a saved result in the background.
+     * When called inside a transaction, generation starts after it commits.
+     */
+    public void submit(Long resultId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(() -> generate(resultId));
+                }
+            });
+        } else {
+            executor.execute(() -> generate(resultId));
+        }
+    }
+
+    private void generate(Long resultId) {
+        long startTime = System.currentTimeMillis();
+        try {
+            AgentService.FeedbackInput input = agentService.prepareFeedback(resultId);
+
+            LLMModels.EvaluationResponse evaluation = llmService.evaluateQuizResults(
+                    input.context(), input.scorePercentage(), input.correctAnswers(), input.totalQuestions(),
+                    input.incorrectTopics(), input.difficulty(), input.llmProvider());
+
+            agentService.attachFeedback(resultId, evaluation);
+            logger.info("Feedback for quiz result {} generated in {} ms", resultId, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.error("Feedback for quiz result {} failed: {}", resultId, e.getMessage(), e);
+            try {
+                agentService.abandonFeedback(resultId);
+            } catch (Exception inner) {
+                logger.error("Could not clear pending feedback of quiz result {}: {}", resultId, inner.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stop waiting for feedback that never arrived, for example because the
+     * node restarted during the LLM call.
+     */
+    @Scheduled(fixedDelayString = "${app.quiz.stale-check-interval-ms:60000}")
+    @Transactional
+    public void clearStalePending() {
+        int cleared = quizResultRepository.clearStaleFeedbackPending(
+                LocalDateTime.now().minusMinutes(feedbackTimeoutMinutes));
+        if (cleared > 0) {
+            logger.warn("Gave up on feedback of {} quiz results", cleared);
+        }
+    }
+}
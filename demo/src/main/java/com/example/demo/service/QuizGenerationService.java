@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.repository.QuizRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs quiz generation off the request thread.
+ *
+ * A quiz request only persists a PENDING quiz and returns; the RAG lookup and
+ * the LLM call then run on a virtual thread, so a slow model no longer holds a
+ * servlet thread or a database connection. The quiz becomes READY once its
+ * questions are attached, or FAILED with the error message; the student's
+ * page polls the quiz status meanwhile.
+ *
+ * With {@code app.llm.streaming}, the Gemini response is streamed and each
+ * question is saved as soon as it has been received, so the student can start
+ * answering the first questions while the rest are still being generated.
+ *
+ * With {@code app.llm.batching.enabled}, generations starting together on the
+ * same course context share one LLM call (see {@link QuizBatcher}).
+ */
+@Service
+public class QuizGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizGenerationService.class);
+
+    private final AgentService agentService;
+    private final QuizBatcher quizBatcher;
+    private final QuizRepository quizRepository;
+
+    @Value("${app.quiz.generation-timeout-minutes:10}")
+    private int generationTimeoutMinutes;
+
+    @Value("${app.llm.streaming:true}")
+    private boolean streaming;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QuizGenerationService(AgentService agentService, QuizBatcher quizBatcher, QuizRepository quizRepository) {
+        this.agentService = agentService;
+        this.quizBatcher = quizBatcher;
+        this.quizRepository = quizRepository;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generate the questions of a pending quiz in the background.
+     * When called inside a transaction, generation starts after it commits,
+     * so the worker always sees the pending quiz.
+     */
+    public void submit(Long quizId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(() -> generate(quizId));
+                }
+            });
+        } else {
+            executor.execute(() -> generate(quizId));
+        }
+    }
+
+    /**
+     * Run the generation steps for one quiz. Only the RAG lookup and the
+     * attachment of the questions run in (short) transactions, one per
+     * question when streaming; the LLM call runs outside any transaction.
+     */
+    private void generate(Long quizId) {
+        long startTime = System.currentTimeMillis();
+        try {
+            AgentService.QuizGenerationInput input = agentService.prepareGeneration(quizId);
+
+            Consumer<LLMModels.QuestionData> onQuestion = streaming
+                    ? question -> agentService.appendQuestion(quizId, question)
+                    : null;
+            LLMModels.QuizResponse response = quizBatcher.generate(input, onQuestion);
+            if (streaming) {
+                agentService.completeGeneration(quizId, response);
+            } else {
+                agentService.attachQuestions(quizId, response);
+            }
+            logger.info("Quiz {} generated in {} ms", quizId, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.error("Quiz {} generation failed: {}", quizId, e.getMessage(), e);
+            try {
+                agentService.markGenerationFailed(quizId, e.getMessage());
+            } catch (Exception inner) {
+                logger.error("Could not mark quiz {} as failed: {}", quizId, inner.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fail quizzes left PENDING by a generation that never finished,
+     * for example because the node restarted during the LLM call.
+     */
+    @Scheduled(fixedDelayString = "${app.quiz.stale-check-interval-ms:60000}")
+    @Transactional
+    public void failStalePending() {
+        int failed = quizRepository.failStalePending(
+                LocalDateTime.now().minusMinutes(generationTimeoutMinutes),
+                "Quiz generation did not complete. Please try again.");
+        if (failed > 0) {
+            logger.warn("Marked {} stale pending quizzes as failed", failed);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * In-memory cache of quizzes generated by the LLM.
+ *
+ * Entries are keyed by the SHA-256 of everything that determines the prompt:
+ * model, prompt template version, course title and context, difficulty and
+ * number of questions, so two students asking for the same quiz on the same
+ * course share one LLM call. An entry is served at most once to each student:
+ * a student asking again for a quiz they already got (or generated) misses,
+ * so retaking a quiz gives new questions. Entries expire after {@code app.llm.quiz-cache.ttl-minutes}
+ * and the least recently used ones are evicted beyond
+ * {@code app.llm.quiz-cache.max-entries}.
+ *
+ * Callers always get their own copy; with {@code app.llm.quiz-cache.shuffle}
+ * the questions and their options are shuffled on every hit, so students
+ * served from the same entry do not see identical quizzes.
+ */
+@Service
+public class QuizResponseCache {
+
+    @Value("${app.llm.quiz-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.llm.quiz-cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${app.llm.quiz-cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${app.llm.quiz-cache.shuffle:true}")
+    private boolean shuffle;
+
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Compute the cache key of a quiz prompt.
+     */
+    public static String keyOf(String model, int promptVersion, String courseTitle, String context,
+                               DifficultyLevel difficulty, int numberOfQuestions) {
+        return Hashing.sha256Hex(model + '\n' + promptVersion + '\n' + courseTitle + '\n' + Hashing.sha256Hex(context)
+                + '\n' + difficulty.name() + '\n' + numberOfQuestions);
+    }
+
+    /**
+     * Look up a generated quiz for a student, who is recorded as served on a hit.
+     *
+     * @param studentId the student the quiz is for, or null if it is for nobody in particular
+     * @return a copy of the cached quiz, shuffled if enabled, or empty on a miss
+     *         or if the student was already served this entry
+     */
+    public Optional<LLMModels.QuizResponse> get(String key, Long studentId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        LLMModels.QuizResponse cached;
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            if (studentId != null && !entry.servedTo().add(studentId)) {
+                return Optional.empty();
+            }
+            cached = entry.response();
+        }
+
+        return Optional.of(share(cached));
+    }
+
+    /**
+     * Record that a student got the quiz cached under a key other than
+     * through {@link #get}, e.g. by joining its in-flight generation.
+     *
+     * @return false if the student was already served this entry
+     */
+    public boolean markServed(String key, Long studentId) {
+        if (!enabled || studentId == null) {
+            return true;
+        }
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            return entry == null || entry.servedTo().add(studentId);
+        }
+    }
+
+    /**
+     * Copy a quiz for another caller, as a cache hit would: a deep copy,
+     * shuffled if enabled.
+     */
+    public LLMModels.QuizResponse share(LLMModels.QuizResponse response) {
+        LLMModels.QuizResponse copy = copyOf(response);
+        if (shuffle) {
+            shuffle(copy, ThreadLocalRandom.current());
+        }
+        return copy;
+    }
+
+    /**
+     * Store a generated quiz, evicting the least recently used entries over the limit.
+     *
+     * @param studentId the student the quiz was generated for, who is not served it again, or null
+     */
+    public void put(String key, LLMModels.QuizResponse response, Long studentId) {
+        if (!enabled) {
+            return;
+        }
+
+        Set<Long> servedTo = new HashSet<>();
+        if (studentId != null) {
+            servedTo.add(studentId);
+        }
+        CacheEntry entry = new CacheEntry(copyOf(response), System.currentTimeMillis() + ttlMinutes * 60_000, servedTo);
+        synchronized (entries) {
+            entries.put(key, entry);
+            Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Shuffle the questions of a quiz and the options of each question,
+     * keeping every correct option index pointing at the same option.
+     */
+    static void shuffle(LLMModels.QuizResponse response, Random random) {
+        if (response.getQuestions() == null) {
+            return;
+        }
+        Collections.shuffle(response.getQuestions(), random);
+
+        for (LLMModels.QuestionData question : response.getQuestions()) {
+            List<LLMModels.OptionData> options = question.getOptions();
+            if (options == null || options.size() < 2) {
+                continue;
+            }
+            int correct = question.getCorrectOptionIndex();
+            LLMModels.OptionData correctOption = correct >= 0 && correct < options.size() ? options.get(correct) : null;
+
+            Collections.shuffle(options, random);
+            if (correctOption != null) {
+                question.setCorrectOptionIndex(options.indexOf(correctOption));
+            }
+        }
+    }
+
+    private static LLMModels.QuizResponse copyOf(LLMModels.QuizResponse source) {
+        LLMModels.QuizResponse copy = new LLMModels.QuizResponse();
+        copy.setGeneratedByGemini(source.isGeneratedByGemini());
+        copy.setModelUsed(source.getModelUsed());
+
+        List<LLMModels.QuestionData> questions = new ArrayList<>();
+        if (source.getQuestions() != null) {
+            for (LLMModels.QuestionData question : source.getQuestions()) {
+                LLMModels.QuestionData questionCopy = new LLMModels.QuestionData();
+                questionCopy.setQuestionText(question.getQuestionText());
+                questionCopy.setCorrectOptionIndex(question.getCorrectOptionIndex());
+                questionCopy.setExplanation(question.getExplanation());
+                questionCopy.setSourceContext(question.getSourceContext());
+
+                List<LLMModels.OptionData> options = new ArrayList<>();
+                if (question.getOptions() != null) {
+                    for (LLMModels.OptionData option : question.getOptions()) {
+                        LLMModels.OptionData optionCopy = new LLMModels.OptionData();
+                        optionCopy.setText(option.getText());
+                        optionCopy.setExplanation(option.getExplanation());
+                        options.add(optionCopy);
+                    }
+                }
+                questionCopy.setOptions(options);
+                questions.add(questionCopy);
+            }
+        }
+        copy.setQuestions(questions);
+        return copy;
+    }
+
+    /**
+     * A cached quiz; {@code servedTo} is guarded by the lock on {@code entries}.
+     */
+    private record CacheEntry(LLMModels.QuizResponse response, long expiresAt, Set<Long> servedTo) {}
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.dto.QuizRequestDTO;
+import com.example.demo.dto.QuizResultRowDTO;
 import com.example.demo.dto.QuizSubmissionDTO;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.Question;
@@ -35,6 +36,8 @@ public class QuizService {
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final AgentService agentService;
+    private final QuizGenerationService quizGenerationService;
+    private final QuizFeedbackService quizFeedbackService;
 
     public QuizService(QuizRepository quizRepository,
                        QuestionRepository questionRepository,
@@ -42,7 +45,9 @@ public class QuizService {
                        CourseRepository courseRepository,
                        UserRepository userRepository,
                        EnrollmentRepository enrollmentRepository,
-                       AgentService agentService) {
+                       AgentService agentService,
+                       QuizGenerationService quizGenerationService,
+                       QuizFeedbackService quizFeedbackService) {
         this.quizRepository = quizRepository;
         this.questionRepository = questionRepository;
         this.quizResultRepository = quizResultRepository;
@@ -50,10 +55,14 @@ public class QuizService {
         this.userRepository = userRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.agentService = agentService;
+        this.quizGenerationService = quizGenerationService;
+        this.quizFeedbackService = quizFeedbackService;
     }
 
     /**
-     * Generate a new quiz for a student using the Agentic AI.
+     * Request a new quiz for a student using the Agentic AI.
+     * The quiz is READY when drawn from the question bank, otherwise it is
+     * returned PENDING and its questions are generated in the background.
      */
     public Quiz generateQuiz(Long studentId, QuizRequestDTO request) {
         // Validate student
@@ -78,8 +87,13 @@ public class QuizService {
             throw new IllegalStateException("Course is not indexed for quiz generation. Please contact administrator.");
         }
 
-        // Use Agentic AI to generate the quiz
-        return agentService.generateQuiz(student, course, request);
+        // Use Agentic AI to build the quiz; questions not found in the bank
+        // are generated once this transaction commits
+        Quiz quiz = agentService.createQuiz(student, course, request);
+        if (quiz.isPending()) {
+            quizGenerationService.submit(quiz.getId());
+        }
+        return quiz;
     }
 
     /**
@@ -94,13 +108,22 @@ public class QuizService {
             throw new SecurityException("This quiz does not belong to the student");
         }
 
+        // Verify questions have been generated
+        if (!quiz.isReady()) {
+            throw new IllegalStateException("Quiz is not ready yet");
+        }
+
         // Verify not already submitted
         if (quiz.getResult() != null) {
             throw new IllegalStateException("Quiz has already been submitted");
         }
 
-        // Use Agentic AI to evaluate the quiz
-        return agentService.evaluateQuiz(quiz, submission);
+        // Use Agentic AI to evaluate the quiz; deferred feedback is written once this transaction commits
+        QuizResult result = agentService.evaluateQuiz(quiz, submission);
+        if (result.isFeedbackPending()) {
+            quizFeedbackService.submit(result.getId());
+        }
+        return result;
     }
 
     @Transactional(readOnly = true)
@@ -108,9 +131,12 @@ public class QuizService {
         return quizRepository.findById(id);
     }
 
+    /**
+     * A quiz with its course and result, as shown on the quiz pages.
+     */
     @Transactional(readOnly = true)
-    public Quiz findByIdWithQuestions(Long id) {
-        return quizRepository.findByIdWithQuestions(id);
+    public Optional<Quiz> findByIdWithCourse(Long id) {
+        return quizRepository.findWithCourseAndResultById(id);
     }
 
     @Transactional(readOnly = true)
@@ -128,14 +154,27 @@ public class QuizService {
         return questionRepository.findByQuizIdWithOptions(quizId);
     }
 
+    @Transactional(readOnly = true)
+    public long countQuestions(Long quizId) {
+        return questionRepository.countByQuizId(quizId);
+    }
+
     @Transactional(readOnly = true)
     public Optional<QuizResult> findResultByQuizId(Long quizId) {
         return quizResultRepository.findByQuizId(quizId);
     }
 
+    /**
+     * A quiz result with the student's answers, as shown on the result page.
+     */
+    @Transactional(readOnly = true)
+    public Optional<QuizResult> findResultWithAnswersByQuizId(Long quizId) {
+        return quizResultRepository.findWithAnswersByQuizId(quizId);
+    }
+
     @Transactional(readOnly = true)
-    public List<QuizResult> findResultsByStudent(Long studentId) {
-        return quizResultRepository.findByStudentIdOrderByCompletedAtDesc(studentId);
+    public List<QuizResultRowDTO> findResultRowsByStudent(Long studentId) {
+        return quizResultRepository.findRowsByStudentId(studentId);
     }
 
     @Transactional(readOnly = true)
@@ -143,6 +182,11 @@ public class QuizService {
         return quizResultRepository.findByCourseIdAndStudentId(courseId, studentId);
     }
 
+    @Transactional(readOnly = true)
+    public long countQuizzesByCourse(Long courseId) {
+        return quizRepository.countByCourseId(courseId);
+    }
+
     @Transactional(readOnly = true)
     public long countQuizzes() {
         return quizRepository.count();
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for the quiz JSON streamed by the LLM.
+ *
+ * Text is fed as it arrives, in chunks of any size. The parser tracks string
+ * and nesting state character by character and hands over the source text
+ * of each object of the {@code questions} array as soon as its closing brace
+ * has been received, so questions can be used before the response is complete.
+ * Anything around the JSON document (such as markdown code fences) is ignored.
+ */
+final class QuizStreamParser {
+
+    private final Consumer<String> onQuestion;
+
+    private final StringBuilder question = new StringBuilder();
+    private int depth;
+    /** Depth of the questions array, or -1 until it is opened. */
+    private int arrayDepth = -1;
+    private boolean inString;
+    private boolean escaped;
+    private boolean finished;
+
+    QuizStreamParser(Consumer<String> onQuestion) {
+        this.onQuestion = onQuestion;
+    }
+
+    /**
+     * Feed the next chunk of the response.
+     */
+    void feed(CharSequence chunk) {
+        for (int i = 0; i < chunk.length() && !finished; i++) {
+            accept(chunk.charAt(i));
+        }
+    }
+
+    private void accept(char c) {
+        boolean inQuestion = arrayDepth >= 0 && depth > arrayDepth;
+        if (inQuestion) {
+            question.append(c);
+        }
+
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return;
+        }
+
+        switch (c) {
+            case '"' -> inString = depth > 0;
+            case '{' -> {
+                if (arrayDepth >= 0 && depth == arrayDepth) {
+                    // A question object starts
+                    question.setLength(0);
+                    question.append(c);
+                }
+                depth++;
+            }
+            case '[' -> {
+                // The first array of the document (top level or in the root object) holds the questions
+                if (arrayDepth < 0 && depth <= 1) {
+                    arrayDepth = depth + 1;
+                }
+                depth++;
+            }
+            case '}', ']' -> {
+                depth--;
+                if (arrayDepth >= 0 && depth == arrayDepth && c == '}') {
+                    onQuestion.accept(question.toString());
+                    question.setLength(0);
+                } else if (depth < arrayDepth) {
+                    finished = true;
+                }
+            }
+            default -> {
+                // Values and separators need no tracking
+            }
+        }
+    }
+}
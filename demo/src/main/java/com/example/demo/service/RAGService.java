@@ -1,14 +1,26 @@
 package com.example.demo.service;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.demo.dto.ChunkTextDTO;
 import com.example.demo.entity.Course;
 import com.example.demo.entity.CourseChunk;
 import com.example.demo.repository.CourseChunkRepository;
@@ -21,11 +33,12 @@ import com.example.demo.repository.CourseChunkRepository;
  * 2. Indexing chunks for efficient retrieval
  * 3. Retrieving relevant content for quiz generation
  * 
- * Architecture Note: This v1 implementation uses text-based chunking and
- * simple keyword matching. The design is extensible to support:
- * - Vector embeddings with external vector databases
+ * Architecture Note: Chunks are embedded at indexing time through the pluggable
+ * {@link EmbeddingService} and served from the in-memory {@link VectorIndexService}
+ * for top-k semantic retrieval; keyword lookups are ranked with BM25 by the
+ * {@link KeywordIndexService} inverted index. The design is extensible to support:
+ * - External embedding models and vector databases
  * - Multi-modal content (PDF, images, video transcripts)
- * - Semantic similarity search
  */
 @Service
 @Transactional
@@ -35,41 +48,287 @@ public class RAGService {
 
     private static final int DEFAULT_CHUNK_SIZE = 500;
     private static final int CHUNK_OVERLAP = 50;
+    private static final int CHARS_PER_TOKEN = 4;
+
+    // Hybrid retrieval tuning
+    private static final int RRF_K = 60;
+    private static final double MMR_LAMBDA = 0.7;
+    private static final int HYBRID_CANDIDATE_FACTOR = 4;
+    private static final int MIN_HYBRID_CANDIDATES = 20;
+
+    /**
+     * How chunks are matched against a retrieval query.
+     */
+    public enum RetrievalMode {
+        /** Cosine similarity of embeddings. */
+        SEMANTIC,
+        /** BM25 over the inverted index. */
+        KEYWORD,
+        /** Both, fused with reciprocal rank fusion and diversified with MMR. */
+        HYBRID
+    }
 
     private final CourseChunkRepository chunkRepository;
     private final FileStorageService fileStorageService;
-
-    public RAGService(CourseChunkRepository chunkRepository, FileStorageService fileStorageService) {
+    private final EmbeddingService embeddingService;
+    private final VectorIndexService vectorIndexService;
+    private final KeywordIndexService keywordIndexService;
+    private final QuizContextAssembler contextAssembler;
+    private final CourseChunkBulkLoader bulkLoader;
+    private final StreamingChunker chunker = new StreamingChunker(DEFAULT_CHUNK_SIZE, CHUNK_OVERLAP);
+
+    @Value("${app.rag.max-chunks-per-query:5}")
+    private int maxChunksPerQuery;
+
+    @Value("${app.rag.retrieval-mode:HYBRID}")
+    private RetrievalMode retrievalMode;
+
+    /** New chunks from which a course is inserted through {@link CourseChunkBulkLoader}. */
+    @Value("${app.rag.bulk-insert-threshold:2000}")
+    private int bulkInsertThreshold;
+
+    public RAGService(CourseChunkRepository chunkRepository,
+                      FileStorageService fileStorageService,
+                      EmbeddingService embeddingService,
+                      VectorIndexService vectorIndexService,
+                      KeywordIndexService keywordIndexService,
+                      QuizContextAssembler contextAssembler,
+                      CourseChunkBulkLoader bulkLoader) {
         this.chunkRepository = chunkRepository;
         this.fileStorageService = fileStorageService;
+        this.embeddingService = embeddingService;
+        this.vectorIndexService = vectorIndexService;
+        this.keywordIndexService = keywordIndexService;
+        this.contextAssembler = contextAssembler;
+        this.bulkLoader = bulkLoader;
     }
 
     /**
      * Index a course by chunking its content.
      * This prepares the content for RAG-based retrieval.
      * Supports both text content and PDF documents.
+     *
+     * Runs the indexing pipeline stages back to back in the caller's thread;
+     * the background {@link IndexingWorker} runs the same stages one by one
+     * and reports progress between them.
+     *
+     * Re-indexing is incremental: new chunks are matched to stored ones by
+     * content hash, so unchanged chunks keep their id and embedding and only
+     * changed chunks are inserted, moved or deleted.
      */
     public void indexCourse(Course course) {
         logger.info("Starting RAG indexing for course: {}", course.getId());
 
-        // Clear existing chunks
-        chunkRepository.deleteByCourseId(course.getId());
+        String content = extractContent(course);
+        List<CourseChunk> chunks = chunk(course, content);
+        embedChunks(course.getId(), chunks);
+        persistChunks(course, chunks);
+    }
 
-        // Get the content to index - extract from PDF if needed
-        String contentToIndex = getIndexableContent(course);
-        
-        if (contentToIndex == null || contentToIndex.isBlank()) {
-            logger.warn("No content available to index for course: {}", course.getId());
+    /**
+     * Pipeline stage 1: get the text to index (extracted from the PDF if needed).
+     * Runs outside any transaction so a long PDF extraction holds no connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String extractContent(Course course) {
+        return getIndexableContent(course);
+    }
+
+    /**
+     * Pipeline stage 2: split the text into transient, not yet persisted chunks.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CourseChunk> chunk(Course course, String content) {
+        return chunkContent(course, content);
+    }
+
+    /**
+     * Pipeline stage 3: hash and embed transient chunks.
+     *
+     * Embeddings of stored chunks with the same content hash are reused,
+     * so only new or changed text goes through the embedding model.
+     */
+    @Transactional(readOnly = true)
+    public void embedChunks(Long courseId, List<CourseChunk> chunks) {
+        if (chunks.isEmpty()) {
             return;
         }
 
-        // Chunk the content
-        List<CourseChunk> chunks = chunkContent(course, contentToIndex);
+        Map<String, String> storedEmbeddings = new HashMap<>();
+        for (CourseChunk stored : chunkRepository.findByCourseIdOrderByChunkIndexAsc(courseId)) {
+            if (stored.getContentHash() != null && stored.getEmbedding() != null) {
+                storedEmbeddings.putIfAbsent(stored.getContentHash(), stored.getEmbedding());
+            }
+        }
+
+        int embedded = 0;
+        for (CourseChunk chunk : chunks) {
+            if (chunk.getContentHash() == null) {
+                chunk.setContentHash(Hashing.sha256Hex(chunk.getContent()));
+            }
+            if (chunk.getEmbedding() == null) {
+                chunk.setEmbedding(storedEmbeddings.get(chunk.getContentHash()));
+            }
+            float[] vector = VectorIndexService.decode(chunk.getEmbedding());
+            if (vector == null || vector.length != embeddingService.getDimension()) {
+                chunk.setEmbedding(VectorIndexService.encode(embeddingService.embed(chunk.getContent())));
+                embedded++;
+            }
+            if (chunk.getTokenCount() == null) {
+                chunk.setTokenCount(TokenEstimator.estimate(chunk.getContent()));
+            }
+        }
+        logger.debug("Embedded {} of {} chunks for course {}", embedded, chunks.size(), courseId);
+    }
+
+    /**
+     * Outcome of persisting the chunks of a course.
+     *
+     * @param changed whether chunks were inserted or deleted, i.e. the indexed
+     *                text changed rather than only moved
+     */
+    public record PersistedChunks(int chunkCount, boolean changed) {}
 
-        // Save chunks
-        chunkRepository.saveAll(chunks);
+    /**
+     * Pipeline stage 4: reconcile the chunks with the stored ones and publish
+     * them to the in-memory retrieval indexes. An empty list clears the course.
+     *
+     * @return the number of chunks now indexed for the course, and whether the indexed text changed
+     */
+    public PersistedChunks persistChunks(Course course, List<CourseChunk> fresh) {
+        List<CourseChunk> existing = chunkRepository.findByCourseIdOrderByChunkIndexAsc(course.getId());
+
+        if (fresh.isEmpty()) {
+            logger.warn("No content available to index for course: {}", course.getId());
+            if (!existing.isEmpty()) {
+                chunkRepository.deleteAllInBatch(existing);
+            }
+            evictCourse(course.getId());
+            return new PersistedChunks(0, !existing.isEmpty());
+        }
+
+        Set<Long> existingIds = new HashSet<>();
+        existing.forEach(chunk -> existingIds.add(chunk.getId()));
+        List<CourseChunk> chunks = reconcileChunks(existing, fresh);
+        long reused = chunks.stream().filter(chunk -> existingIds.contains(chunk.getId())).count();
+        boolean changed = reused != chunks.size() || reused != existing.size();
+
+        // Publish the chunks to the in-memory retrieval indexes once they are stored
+        Long courseId = course.getId();
+        List<Long> chunkIds = new ArrayList<>(chunks.size());
+        List<float[]> vectors = new ArrayList<>(chunks.size());
+        List<String> texts = new ArrayList<>(chunks.size());
+        for (CourseChunk chunk : chunks) {
+            chunkIds.add(chunk.getId());
+            vectors.add(VectorIndexService.decode(chunk.getEmbedding()));
+            texts.add(chunk.getContent());
+        }
+        afterCommit(() -> {
+            vectorIndexService.index(courseId, chunkIds, vectors);
+            keywordIndexService.index(courseId, chunkIds, texts);
+        });
 
         logger.info("Indexed {} chunks for course: {}", chunks.size(), course.getId());
+        return new PersistedChunks(chunks.size(), changed);
+    }
+
+    /**
+     * Run an update of the in-memory indexes after the current transaction
+     * commits, so a rollback never leaves ids of chunk rows that were not stored.
+     */
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Diff freshly chunked content against the stored chunks of the course.
+     *
+     * A fresh chunk whose content hash matches a stored chunk reuses that row
+     * (updating its index and positions if they moved); other fresh chunks are
+     * embedded and inserted; stored chunks left unmatched are deleted.
+     * Inserts of {@code app.rag.bulk-insert-threshold} chunks or more, as when
+     * a large course is first indexed, bypass JPA through {@link CourseChunkBulkLoader}.
+     *
+     * @return the persisted chunks, in document order
+     */
+    private List<CourseChunk> reconcileChunks(List<CourseChunk> existing, List<CourseChunk> fresh) {
+        Map<String, Deque<CourseChunk>> reusable = new HashMap<>();
+        for (CourseChunk chunk : existing) {
+            if (chunk.getContentHash() == null) {
+                chunk.setContentHash(Hashing.sha256Hex(chunk.getContent()));
+            }
+            reusable.computeIfAbsent(chunk.getContentHash(), h -> new ArrayDeque<>()).add(chunk);
+        }
+
+        List<CourseChunk> result = new ArrayList<>(fresh.size());
+        List<CourseChunk> inserts = new ArrayList<>();
+        int unchanged = 0;
+        int moved = 0;
+
+        for (CourseChunk chunk : fresh) {
+            String hash = chunk.getContentHash() != null
+                    ? chunk.getContentHash() : Hashing.sha256Hex(chunk.getContent());
+            Deque<CourseChunk> candidates = reusable.get(hash);
+            CourseChunk match = candidates != null ? candidates.pollFirst() : null;
+
+            if (match != null) {
+                if (match.getChunkIndex() != chunk.getChunkIndex()
+                        || match.getStartPosition() != chunk.getStartPosition()
+                        || match.getEndPosition() != chunk.getEndPosition()) {
+                    match.setChunkIndex(chunk.getChunkIndex());
+                    match.setStartPosition(chunk.getStartPosition());
+                    match.setEndPosition(chunk.getEndPosition());
+                    moved++;
+                } else {
+                    unchanged++;
+                }
+                prepareChunk(match);
+                result.add(match);
+            } else {
+                chunk.setContentHash(hash);
+                prepareChunk(chunk);
+                inserts.add(chunk);
+                result.add(chunk);
+            }
+        }
+
+        List<CourseChunk> obsolete = new ArrayList<>();
+        reusable.values().forEach(obsolete::addAll);
+        if (!obsolete.isEmpty()) {
+            chunkRepository.deleteAllInBatch(obsolete);
+        }
+        if (inserts.size() >= bulkInsertThreshold) {
+            bulkLoader.insert(inserts);
+        } else {
+            chunkRepository.saveAll(inserts);
+        }
+
+        logger.info("Chunk diff: {} unchanged, {} moved, {} inserted, {} deleted",
+                unchanged, moved, inserts.size(), obsolete.size());
+        return result;
+    }
+
+    /**
+     * Fill in the derived fields of a chunk that are missing: its token cost
+     * for prompt budgeting and its embedding for semantic retrieval.
+     */
+    private void prepareChunk(CourseChunk chunk) {
+        if (chunk.getTokenCount() == null) {
+            chunk.setTokenCount(TokenEstimator.estimate(chunk.getContent()));
+        }
+        float[] vector = VectorIndexService.decode(chunk.getEmbedding());
+        if (vector == null || vector.length != embeddingService.getDimension()) {
+            chunk.setEmbedding(VectorIndexService.encode(embeddingService.embed(chunk.getContent())));
+        }
     }
 
     /**
@@ -101,8 +360,8 @@ public class RAGService {
     }
 
     /**
-     * Chunk course content into smaller, overlapping segments.
-     * Uses a hybrid approach that works for both regular text and PDF-extracted content.
+     * Chunk course content into smaller, overlapping segments
+     * with the single-pass {@link StreamingChunker}.
      */
     private List<CourseChunk> chunkContent(Course course, String content) {
         List<CourseChunk> chunks = new ArrayList<>();
@@ -111,217 +370,312 @@ public class RAGService {
             return chunks;
         }
 
-        // Normalize the content - replace multiple whitespace with single space/newline
-        String normalizedContent = normalizeContent(content);
-        
-        // Try to split by natural boundaries (paragraphs, sections)
-        List<String> segments = splitIntoSegments(normalizedContent);
-        
-        StringBuilder currentChunk = new StringBuilder();
-        int chunkIndex = 0;
-        int startPosition = 0;
-        int currentPosition = 0;
-
-        for (String segment : segments) {
-            // If adding this segment exceeds chunk size, save current chunk
-            if (currentChunk.length() + segment.length() > DEFAULT_CHUNK_SIZE && currentChunk.length() > 0) {
-                CourseChunk chunk = new CourseChunk(
-                        course,
-                        currentChunk.toString().trim(),
-                        chunkIndex++,
-                        startPosition,
-                        currentPosition
-                );
-                chunks.add(chunk);
-
-                // Start new chunk with overlap
-                int overlapStart = Math.max(0, currentChunk.length() - CHUNK_OVERLAP);
-                currentChunk = new StringBuilder(currentChunk.substring(overlapStart));
-                startPosition = currentPosition - (currentChunk.length());
-            }
-
-            // If a single segment is too large, split it by sentences or fixed size
-            if (segment.length() > DEFAULT_CHUNK_SIZE) {
-                List<String> subSegments = splitLargeSegment(segment);
-                for (String subSegment : subSegments) {
-                    if (currentChunk.length() + subSegment.length() > DEFAULT_CHUNK_SIZE && currentChunk.length() > 0) {
-                        CourseChunk chunk = new CourseChunk(
-                                course,
-                                currentChunk.toString().trim(),
-                                chunkIndex++,
-                                startPosition,
-                                currentPosition
-                        );
-                        chunks.add(chunk);
-                        
-                        int overlapStart = Math.max(0, currentChunk.length() - CHUNK_OVERLAP);
-                        currentChunk = new StringBuilder(currentChunk.substring(overlapStart));
-                        startPosition = currentPosition - (currentChunk.length());
-                    }
-                    currentChunk.append(subSegment).append(" ");
-                    currentPosition += subSegment.length() + 1;
-                }
-            } else {
-                currentChunk.append(segment).append("\n\n");
-                currentPosition += segment.length() + 2;
-            }
-        }
-
-        // Save the last chunk
-        if (currentChunk.length() > 0) {
-            CourseChunk chunk = new CourseChunk(
-                    course,
-                    currentChunk.toString().trim(),
-                    chunkIndex,
-                    startPosition,
-                    currentPosition
-            );
-            chunks.add(chunk);
-        }
+        chunker.chunk(content, course, chunks::add);
 
         logger.info("Created {} chunks from {} characters of content", chunks.size(), content.length());
         return chunks;
     }
 
     /**
-     * Normalize content by cleaning up whitespace and improving readability.
+     * Retrieve relevant chunks for quiz generation.
+     * Returns all chunks for comprehensive coverage.
      */
-    private String normalizeContent(String content) {
-        // Replace multiple spaces with single space
-        String normalized = content.replaceAll("[ \\t]+", " ");
-        // Normalize line endings
-        normalized = normalized.replaceAll("\\r\\n", "\n");
-        // Replace 3+ newlines with double newline
-        normalized = normalized.replaceAll("\\n{3,}", "\n\n");
-        // Clean up common PDF extraction artifacts
-        normalized = normalized.replaceAll("(?m)^\\s+", ""); // Leading whitespace on lines
-        return normalized.trim();
+    @Transactional(readOnly = true)
+    public List<CourseChunk> retrieveChunks(Long courseId) {
+        return chunkRepository.findByCourseIdOrderByChunkIndexAsc(courseId);
     }
 
     /**
-     * Split content into logical segments (paragraphs, sections).
+     * Retrieve chunks matching a keyword query, best BM25 match first.
+     * Quoted text in the query is matched as a phrase.
      */
-    private List<String> splitIntoSegments(String content) {
-        List<String> segments = new ArrayList<>();
-        
-        // First try splitting by double newlines (paragraphs)
-        String[] paragraphs = content.split("\\n\\n+");
-        
-        // If we only get 1 segment and it's large, try other strategies
-        if (paragraphs.length == 1 && content.length() > DEFAULT_CHUNK_SIZE) {
-            // Try splitting by single newlines
-            paragraphs = content.split("\\n+");
+    @Transactional(readOnly = true)
+    public List<CourseChunk> retrieveChunksByKeyword(Long courseId, String keyword) {
+        return retrieveChunksByKeyword(courseId, keyword, maxChunksPerQuery);
+    }
+
+    /**
+     * Retrieve at most {@code k} chunks matching a keyword query, best BM25 match first.
+     */
+    @Transactional(readOnly = true)
+    public List<CourseChunk> retrieveChunksByKeyword(Long courseId, String keyword, int k) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
         }
-        
-        // If still only 1 segment, try splitting by sentences
-        if (paragraphs.length == 1 && content.length() > DEFAULT_CHUNK_SIZE) {
-            return splitBySentences(content);
+        ensureRetrievalIndexes(courseId);
+        return loadInOrder(keywordIndexService.search(courseId, keyword, k));
+    }
+
+    /**
+     * Get the context for quiz generation.
+     * Covers the whole document with one relevant chunk per question, then
+     * fills the token budget with the chunks most relevant to the query, as
+     * ranked by the configured retrieval mode (diversified with MMR in hybrid mode).
+     *
+     * @param courseId the course
+     * @param query what the quiz is about (may be blank)
+     * @param numberOfQuestions number of questions to generate
+     * @param tokenBudget approximate maximum number of tokens of context
+     */
+    @Transactional(readOnly = true)
+    public String getQuizContext(Long courseId, String query, int numberOfQuestions, int tokenBudget) {
+        List<ChunkTextDTO> chunks = chunkRepository.findTextsByCourseId(courseId);
+        if (chunks.isEmpty()) {
+            return "";
         }
-        
-        for (String para : paragraphs) {
-            String trimmed = para.trim();
-            if (!trimmed.isEmpty()) {
-                segments.add(trimmed);
+
+        Map<Long, Double> relevance = new HashMap<>();
+        if (query != null && !query.isBlank()) {
+            ensureRetrievalIndexes(courseId);
+            int k = Math.max(numberOfQuestions, tokenBudget / Math.max(1, DEFAULT_CHUNK_SIZE / CHARS_PER_TOKEN));
+            List<ScoredChunk> ranked = rank(courseId, query, k, retrievalMode);
+            // Scored by rank, so the assembler follows the MMR order rather than the fused scores
+            for (int rank = 0; rank < ranked.size(); rank++) {
+                relevance.put(ranked.get(rank).chunkId(), 1.0 / (rank + 1));
             }
         }
-        
-        return segments;
+
+        return contextAssembler.assemble(chunks, relevance, tokenBudget, numberOfQuestions, CHUNK_OVERLAP);
     }
 
     /**
-     * Split content by sentences.
+     * Get the context of one section of a course, for generating questions
+     * section by section rather than by relevance to a query.
+     * The course is split into {@code sections} consecutive runs of chunks.
+     *
+     * @param section the section, from 0 to {@code sections - 1}
+     * @param sections number of sections the course is split into
+     * @param numberOfQuestions number of questions to generate
+     * @param tokenBudget approximate maximum number of tokens of context
      */
-    private List<String> splitBySentences(String content) {
-        List<String> sentences = new ArrayList<>();
-        // Split by sentence endings (.!?) followed by space or newline
-        String[] parts = content.split("(?<=[.!?])\\s+");
-        
-        StringBuilder currentSentenceGroup = new StringBuilder();
-        for (String part : parts) {
-            if (currentSentenceGroup.length() + part.length() > DEFAULT_CHUNK_SIZE / 2 && currentSentenceGroup.length() > 0) {
-                sentences.add(currentSentenceGroup.toString().trim());
-                currentSentenceGroup = new StringBuilder();
-            }
-            currentSentenceGroup.append(part).append(" ");
+    @Transactional(readOnly = true)
+    public String getSectionContext(Long courseId, int section, int sections, int numberOfQuestions, int tokenBudget) {
+        List<ChunkTextDTO> chunks = chunkRepository.findTextsByCourseId(courseId);
+        if (chunks.isEmpty()) {
+            return "";
         }
-        
-        if (currentSentenceGroup.length() > 0) {
-            sentences.add(currentSentenceGroup.toString().trim());
+
+        int count = Math.max(1, Math.min(sections, chunks.size()));
+        int index = Math.floorMod(section, count);
+        List<ChunkTextDTO> sectionChunks = chunks.subList(
+                index * chunks.size() / count, (index + 1) * chunks.size() / count);
+        return contextAssembler.assemble(sectionChunks, Map.of(), tokenBudget, numberOfQuestions, CHUNK_OVERLAP);
+    }
+
+    /**
+     * Retrieve the {@code k} chunks most semantically similar to the query,
+     * best match first. Falls back to evenly sampled chunks when the query is blank.
+     */
+    @Transactional(readOnly = true)
+    public List<CourseChunk> retrieveRelevantChunks(Long courseId, String query, int k) {
+        if (query == null || query.isBlank()) {
+            return getSampledChunks(courseId, k);
         }
-        
-        return sentences.isEmpty() ? List.of(content) : sentences;
+
+        ensureRetrievalIndexes(courseId);
+        return loadInOrder(vectorIndexService.search(courseId, embeddingService.embed(query), k));
     }
 
     /**
-     * Split a large segment into smaller pieces by sentences or fixed size.
+     * Load the chunks behind ranked hits, keeping the ranking order.
      */
-    private List<String> splitLargeSegment(String segment) {
-        List<String> subSegments = new ArrayList<>();
-        
-        // First try to split by sentences
-        String[] sentences = segment.split("(?<=[.!?])\\s+");
-        
-        if (sentences.length > 1) {
-            StringBuilder current = new StringBuilder();
-            for (String sentence : sentences) {
-                if (current.length() + sentence.length() > DEFAULT_CHUNK_SIZE - 50 && current.length() > 0) {
-                    subSegments.add(current.toString().trim());
-                    current = new StringBuilder();
-                }
-                current.append(sentence).append(" ");
-            }
-            if (current.length() > 0) {
-                subSegments.add(current.toString().trim());
-            }
-        } else {
-            // Fall back to fixed-size splitting
-            int pos = 0;
-            while (pos < segment.length()) {
-                int end = Math.min(pos + DEFAULT_CHUNK_SIZE - 50, segment.length());
-                // Try to find a word boundary
-                if (end < segment.length()) {
-                    int lastSpace = segment.lastIndexOf(' ', end);
-                    if (lastSpace > pos) {
-                        end = lastSpace;
-                    }
-                }
-                subSegments.add(segment.substring(pos, end).trim());
-                pos = end;
+    private List<CourseChunk> loadInOrder(List<ScoredChunk> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, CourseChunk> chunksById = new HashMap<>();
+        chunkRepository.findAllById(hits.stream().map(ScoredChunk::chunkId).toList())
+                .forEach(chunk -> chunksById.put(chunk.getId(), chunk));
+
+        List<CourseChunk> results = new ArrayList<>(hits.size());
+        for (ScoredChunk hit : hits) {
+            CourseChunk chunk = chunksById.get(hit.chunkId());
+            if (chunk != null) {
+                results.add(chunk);
             }
         }
-        
-        return subSegments;
+        return results;
     }
 
     /**
-     * Retrieve relevant chunks for quiz generation.
-     * Returns all chunks for comprehensive coverage.
+     * Retrieve chunks for a query with the given retrieval mode, best match first.
      */
     @Transactional(readOnly = true)
-    public List<CourseChunk> retrieveChunks(Long courseId) {
-        return chunkRepository.findByCourseIdOrderByChunkIndexAsc(courseId);
+    public List<CourseChunk> retrieve(Long courseId, String query, int k, RetrievalMode mode) {
+        return switch (mode) {
+            case SEMANTIC -> retrieveRelevantChunks(courseId, query, k);
+            case KEYWORD -> retrieveChunksByKeyword(courseId, query, k);
+            case HYBRID -> retrieveHybrid(courseId, query, k);
+        };
     }
 
     /**
-     * Retrieve chunks containing specific keywords.
+     * Hybrid retrieval: BM25 keyword ranking and vector similarity are fused
+     * with reciprocal rank fusion, then a maximal-marginal-relevance pass
+     * picks {@code k} chunks that are relevant but not redundant with each other.
      */
     @Transactional(readOnly = true)
-    public List<CourseChunk> retrieveChunksByKeyword(Long courseId, String keyword) {
-        return chunkRepository.findByKeyword(courseId, keyword);
+    public List<CourseChunk> retrieveHybrid(Long courseId, String query, int k) {
+        if (query == null || query.isBlank()) {
+            return getSampledChunks(courseId, k);
+        }
+
+        ensureRetrievalIndexes(courseId);
+        return loadInOrder(rank(courseId, query, k, RetrievalMode.HYBRID));
     }
 
     /**
-     * Get the full context for quiz generation.
-     * Combines all chunks into a single context string.
+     * Rank up to {@code k} chunks for a non-blank query with the given retrieval mode, best first.
+     */
+    private List<ScoredChunk> rank(Long courseId, String query, int k, RetrievalMode mode) {
+        return switch (mode) {
+            case SEMANTIC -> vectorIndexService.search(courseId, embeddingService.embed(query), k);
+            case KEYWORD -> keywordIndexService.search(courseId, query, k);
+            case HYBRID -> {
+                int candidates = Math.max(k * HYBRID_CANDIDATE_FACTOR, MIN_HYBRID_CANDIDATES);
+                yield diversify(courseId, hybridRanking(courseId, query, candidates), k);
+            }
+        };
+    }
+
+    /**
+     * Fuse the BM25 and vector rankings of up to {@code candidates} chunks each.
+     */
+    private List<ScoredChunk> hybridRanking(Long courseId, String query, int candidates) {
+        List<ScoredChunk> lexical = keywordIndexService.search(courseId, query, candidates);
+        List<ScoredChunk> semantic = vectorIndexService.search(courseId, embeddingService.embed(query), candidates);
+        return reciprocalRankFusion(List.of(lexical, semantic));
+    }
+
+    /**
+     * Get a focused context for quiz generation or evaluation.
+     * Retrieves relevant, diverse chunks for the query until the token budget
+     * is used, then joins them in document order so the LLM reads them in sequence.
+     *
+     * @param courseId the course
+     * @param query what the context should be about (course title, weak topics...)
+     * @param tokenBudget approximate maximum number of tokens of context
      */
     @Transactional(readOnly = true)
-    public String getQuizContext(Long courseId) {
-        List<CourseChunk> chunks = retrieveChunks(courseId);
-        return chunks.stream()
+    public String getRelevantContext(Long courseId, String query, int tokenBudget) {
+        int k = Math.max(1, tokenBudget / Math.max(1, DEFAULT_CHUNK_SIZE / CHARS_PER_TOKEN));
+        List<CourseChunk> selected = new ArrayList<>();
+        int usedTokens = 0;
+
+        for (CourseChunk chunk : retrieve(courseId, query, k, retrievalMode)) {
+            int tokens = chunk.getTokenCount() != null
+                    ? chunk.getTokenCount() : TokenEstimator.estimate(chunk.getContent());
+            if (usedTokens + tokens > tokenBudget && !selected.isEmpty()) {
+                continue;
+            }
+            selected.add(chunk);
+            usedTokens += tokens;
+        }
+
+        return selected.stream()
+                .sorted(Comparator.comparingInt(CourseChunk::getChunkIndex))
                 .map(CourseChunk::getContent)
                 .collect(Collectors.joining("\n\n"));
     }
 
+    /**
+     * Reciprocal rank fusion: each ranking contributes 1 / (k + rank) per chunk,
+     * so chunks ranked well by several retrievers rise to the top without having
+     * to calibrate BM25 scores against cosine similarities.
+     */
+    private List<ScoredChunk> reciprocalRankFusion(List<List<ScoredChunk>> rankings) {
+        Map<Long, Double> fused = new HashMap<>();
+        for (List<ScoredChunk> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                fused.merge(ranking.get(rank).chunkId(), 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+        return fused.entrySet().stream()
+                .map(e -> new ScoredChunk(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingDouble(ScoredChunk::score).reversed())
+                .toList();
+    }
+
+    /**
+     * Maximal marginal relevance: greedily pick the candidate maximizing
+     * {@code lambda * relevance - (1 - lambda) * max similarity to already picked chunks}.
+     */
+    private List<ScoredChunk> diversify(Long courseId, List<ScoredChunk> candidates, int k) {
+        if (candidates.size() <= 1 || k <= 0) {
+            return candidates.stream().limit(Math.max(k, 0)).toList();
+        }
+
+        double maxScore = candidates.get(0).score();
+        double[] maxSimilarity = new double[candidates.size()];
+        boolean[] picked = new boolean[candidates.size()];
+        List<ScoredChunk> selected = new ArrayList<>(k);
+
+        while (selected.size() < k && selected.size() < candidates.size()) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (picked[i]) {
+                    continue;
+                }
+                double relevance = candidates.get(i).score() / maxScore;
+                double value = MMR_LAMBDA * relevance - (1 - MMR_LAMBDA) * maxSimilarity[i];
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+
+            picked[best] = true;
+            ScoredChunk chosen = candidates.get(best);
+            selected.add(chosen);
+
+            for (int i = 0; i < candidates.size(); i++) {
+                if (!picked[i]) {
+                    double similarity = vectorIndexService.similarity(
+                            courseId, candidates.get(i).chunkId(), chosen.chunkId());
+                    maxSimilarity[i] = Math.max(maxSimilarity[i], similarity);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Make sure the vector and keyword indexes of a course are loaded in memory.
+     * Chunks indexed before embeddings existed are embedded on the fly.
+     */
+    private void ensureRetrievalIndexes(Long courseId) {
+        if (vectorIndexService.isLoaded(courseId) && keywordIndexService.isLoaded(courseId)) {
+            return;
+        }
+
+        List<CourseChunk> chunks = retrieveChunks(courseId);
+        List<Long> ids = new ArrayList<>(chunks.size());
+        List<float[]> vectors = new ArrayList<>(chunks.size());
+        List<String> texts = new ArrayList<>(chunks.size());
+        for (CourseChunk chunk : chunks) {
+            float[] vector = VectorIndexService.decode(chunk.getEmbedding());
+            if (vector == null || vector.length != embeddingService.getDimension()) {
+                vector = embeddingService.embed(chunk.getContent());
+            }
+            ids.add(chunk.getId());
+            vectors.add(vector);
+            texts.add(chunk.getContent());
+        }
+        vectorIndexService.index(courseId, ids, vectors);
+        keywordIndexService.index(courseId, ids, texts);
+        logger.info("Loaded retrieval indexes for course {} ({} chunks)", courseId, chunks.size());
+    }
+
+    /**
+     * Drop in-memory retrieval state for a course.
+     */
+    public void evictCourse(Long courseId) {
+        vectorIndexService.evict(courseId);
+        keywordIndexService.evict(courseId);
+    }
+
     /**
      * Get sampled context for quiz generation to optimize LLM token usage.
      * Selects a subset of chunks based on the number of questions.
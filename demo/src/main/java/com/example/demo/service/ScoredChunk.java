@@ -0,0 +1,7 @@
+package com.example.demo.service;
+
+/**
+ * A course chunk id with its relevance score for a retrieval query.
+ * Higher scores are better; scores are only comparable within one retriever.
+ */
+public record ScoredChunk(long chunkId, double score) {}
@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.CourseChunk;
+
+/**
+ * Single-pass chunker for course text.
+ *
+ * The text is read once, character by character. Whitespace is normalized on
+ * the fly (runs of spaces and tabs become one space, line endings become
+ * {@code \n}, leading whitespace of a line is dropped and blank lines collapse
+ * into one paragraph break) into a window of at most {@code chunkSize} chars.
+ * When the window is full it is cut at the best boundary seen so far, in this
+ * order of preference: paragraph break, sentence end, line break, word break;
+ * the cut chunk is emitted and the last {@code overlap} chars are carried into
+ * the next window. Memory is bounded by the chunk size, whatever the input size.
+ *
+ * {@link CourseChunk#getStartPosition()} and {@link CourseChunk#getEndPosition()}
+ * are offsets of the chunk's first and last-plus-one character in the input.
+ */
+public final class StreamingChunker {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final int chunkSize;
+    private final int overlap;
+
+    public StreamingChunker(int chunkSize, int overlap) {
+        if (chunkSize <= 0 || overlap < 0 || overlap >= chunkSize / 2) {
+            throw new IllegalArgumentException("Chunk overlap must be less than half the chunk size");
+        }
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * Chunk in-memory text.
+     *
+     * @return the number of chunks emitted
+     */
+    public int chunk(CharSequence text, Course course, Consumer<CourseChunk> sink) {
+        Window window = new Window(course, sink);
+        for (int i = 0; i < text.length(); i++) {
+            window.accept(text.charAt(i), i);
+        }
+        return window.finish();
+    }
+
+    /**
+     * Chunk text read from a reader, without materializing it.
+     *
+     * @return the number of chunks emitted
+     */
+    public int chunk(Reader reader, Course course, Consumer<CourseChunk> sink) throws IOException {
+        Window window = new Window(course, sink);
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int offset = 0;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                window.accept(buffer[i], offset + i);
+            }
+            offset += read;
+        }
+        return window.finish();
+    }
+
+    /**
+     * Normalized text of the chunk being built, with the input offset of every char.
+     */
+    private final class Window {
+
+        private final Course course;
+        private final Consumer<CourseChunk> sink;
+
+        private final char[] chars = new char[chunkSize];
+        private final int[] offsets = new int[chunkSize];
+        private int length;
+        /** Chars at the start of the window already emitted as overlap of the previous chunk. */
+        private int carried;
+        private int chunkIndex;
+
+        // Latest boundary of each kind in the window (index of the separator), or -1
+        private int paragraphBreak = -1;
+        private int sentenceBreak = -1;
+        private int lineBreak = -1;
+        private int wordBreak = -1;
+
+        // Whitespace seen since the last visible char, emitted lazily as one separator
+        private boolean pendingSpace;
+        private int pendingNewlines;
+        private boolean previousWasCarriageReturn;
+
+        Window(Course course, Consumer<CourseChunk> sink) {
+            this.course = course;
+            this.sink = sink;
+        }
+
+        void accept(char c, int offset) {
+            boolean carriageReturn = c == '\r';
+            if (c == '\n' && previousWasCarriageReturn) {
+                previousWasCarriageReturn = false;
+                return;
+            }
+            previousWasCarriageReturn = carriageReturn;
+
+            if (c == '\n' || carriageReturn) {
+                pendingNewlines++;
+                pendingSpace = false;
+            } else if (Character.isWhitespace(c)) {
+                // Leading whitespace of a line is dropped
+                pendingSpace = pendingNewlines == 0;
+            } else {
+                if (length > 0) {
+                    if (pendingNewlines >= 2) {
+                        append('\n', offset);
+                        append('\n', offset);
+                    } else if (pendingNewlines == 1) {
+                        append('\n', offset);
+                    } else if (pendingSpace) {
+                        append(' ', offset);
+                    }
+                }
+                pendingNewlines = 0;
+                pendingSpace = false;
+                append(c, offset);
+            }
+        }
+
+        private void append(char c, int offset) {
+            if (length == chunkSize) {
+                cut();
+            }
+
+            if (c == '\n') {
+                if (length > 0 && chars[length - 1] == '\n') {
+                    paragraphBreak = length - 1;
+                } else {
+                    lineBreak = length;
+                }
+            }
+            if (c == ' ' || c == '\n') {
+                wordBreak = length;
+                if (length > 0 && isSentenceEnd(chars[length - 1])) {
+                    sentenceBreak = length;
+                }
+            }
+
+            chars[length] = c;
+            offsets[length] = offset;
+            length++;
+        }
+
+        /**
+         * Emit the window up to the best boundary and keep the overlap.
+         */
+        private void cut() {
+            int minCut = chunkSize / 2;
+            int end;
+            if (paragraphBreak >= minCut) {
+                end = paragraphBreak;
+            } else if (sentenceBreak >= minCut) {
+                end = sentenceBreak;
+            } else if (lineBreak >= minCut) {
+                end = lineBreak;
+            } else if (wordBreak > overlap) {
+                end = wordBreak;
+            } else {
+                end = length;
+            }
+            emit(end);
+
+            // Carry the tail into the next window, starting on a word if possible
+            int keepFrom = end - overlap;
+            for (int i = keepFrom; i < end; i++) {
+                if (chars[i] == ' ' || chars[i] == '\n') {
+                    keepFrom = i + 1;
+                    break;
+                }
+            }
+            shift(keepFrom);
+            carried = end - keepFrom;
+        }
+
+        private void shift(int from) {
+            length -= from;
+            System.arraycopy(chars, from, chars, 0, length);
+            System.arraycopy(offsets, from, offsets, 0, length);
+            paragraphBreak = Math.max(-1, paragraphBreak - from);
+            sentenceBreak = Math.max(-1, sentenceBreak - from);
+            lineBreak = Math.max(-1, lineBreak - from);
+            wordBreak = Math.max(-1, wordBreak - from);
+        }
+
+        /**
+         * Emit {@code chars[0, end)} without surrounding whitespace, if not blank.
+         */
+        private void emit(int end) {
+            int first = 0;
+            while (first < end && Character.isWhitespace(chars[first])) {
+                first++;
+            }
+            int last = end - 1;
+            while (last >= first && Character.isWhitespace(chars[last])) {
+                last--;
+            }
+            if (last < first) {
+                return;
+            }
+            sink.accept(new CourseChunk(course, new String(chars, first, last - first + 1),
+                    chunkIndex++, offsets[first], offsets[last] + 1));
+        }
+
+        int finish() {
+            if (length > carried) {
+                emit(length);
+            }
+            return chunkIndex;
+        }
+
+        private boolean isSentenceEnd(char c) {
+            return c == '.' || c == '!' || c == '?';
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Normalizes text extracted from PDF files.
+ *
+ * Produces exactly the output of the former chain of regex replacements
+ * (whitespace collapsing, line-ending normalization, broken-line joining,
+ * control-character stripping, operator spacing, trim), but in two linear
+ * passes over reusable per-thread {@code char[]} buffers instead of ten
+ * pattern compilations and ten full copies of the text:
+ *
+ * 1. Collapse runs of spaces/tabs to one space, dropping runs at the start or
+ *    end of a line; turn {@code \r\n} and {@code \r} into {@code \n}; cap runs
+ *    of newlines at two
+ * 2. Join a line break followed by a lowercase letter unless the line ends
+ *    with punctuation; drop control characters; put spaces around an operator
+ *    between a letter and a letter or digit; trim
+ *
+ * Pass 2 has to see the output of pass 1 (for example, control characters
+ * are stripped only after newline runs are capped), which is why the work
+ * is split in two passes rather than one.
+ */
+@Service
+public class TextNormalizer {
+
+    /** Buffers above this size are not kept between calls. */
+    private static final int MAX_RETAINED_BUFFER = 4 * 1024 * 1024;
+
+    private static final String OPERATORS = "=<>≤≥≠+−×÷";
+    private static final String LINE_END_PUNCTUATION = ".!?:;,-";
+
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * Normalize text extracted from a PDF.
+     *
+     * @return the normalized text, or an empty string for null or empty input
+     */
+    public String normalizePdfText(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        Buffers reusable = buffers.get();
+        char[] lines = reusable.first(text.length());
+        char[] output = reusable.second(text.length() * 2);
+
+        int linesLength = normalizeLines(text, lines);
+        int outputLength = joinAndClean(lines, linesLength, output);
+
+        int start = 0;
+        while (start < outputLength && output[start] <= ' ') {
+            start++;
+        }
+        int end = outputLength;
+        while (end > start && output[end - 1] <= ' ') {
+            end--;
+        }
+        String result = new String(output, start, end - start);
+
+        reusable.release();
+        return result;
+    }
+
+    /**
+     * Pass 1: spaces, line endings and blank lines.
+     *
+     * @return the number of chars written to {@code out}
+     */
+    private int normalizeLines(String in, char[] out) {
+        int length = in.length();
+        int written = 0;
+        int newlineRun = 0;
+        boolean lastWasCarriageReturn = false;
+
+        int i = 0;
+        while (i < length) {
+            char c = in.charAt(i);
+
+            if (c == ' ' || c == '\t') {
+                int runEnd = i + 1;
+                while (runEnd < length && (in.charAt(runEnd) == ' ' || in.charAt(runEnd) == '\t')) {
+                    runEnd++;
+                }
+                boolean atLineStart = i == 0 || isLineTerminator(in.charAt(i - 1));
+                boolean atLineEnd = runEnd == length || isLineTerminator(in.charAt(runEnd));
+                if (!atLineStart && !atLineEnd) {
+                    out[written++] = ' ';
+                    newlineRun = 0;
+                    lastWasCarriageReturn = false;
+                }
+                i = runEnd;
+                continue;
+            }
+
+            if (c == '\n' && lastWasCarriageReturn) {
+                // Second half of \r\n, already written as \n
+                lastWasCarriageReturn = false;
+            } else if (c == '\n' || c == '\r') {
+                if (newlineRun < 2) {
+                    out[written++] = '\n';
+                }
+                newlineRun++;
+                lastWasCarriageReturn = c == '\r';
+            } else {
+                out[written++] = c;
+                newlineRun = 0;
+                lastWasCarriageReturn = false;
+            }
+            i++;
+        }
+        return written;
+    }
+
+    /**
+     * Pass 2: broken lines, control characters and operator spacing.
+     *
+     * @return the number of chars written to {@code out}
+     */
+    private int joinAndClean(char[] in, int length, char[] out) {
+        int written = 0;
+
+        // Last two chars kept after control stripping, with their index in that stream
+        char previous = 0;
+        char beforePrevious = 0;
+        int kept = 0;
+        int lastOperatorMatchEnd = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = in[i];
+
+            if (c == '\n'
+                    && (i == 0 || LINE_END_PUNCTUATION.indexOf(in[i - 1]) < 0)
+                    && i + 1 < length && in[i + 1] >= 'a' && in[i + 1] <= 'z') {
+                c = ' ';
+            }
+
+            if (isStrippedControl(c)) {
+                continue;
+            }
+
+            // Operator between a letter and a letter or digit, not overlapping the previous match
+            if (kept >= 2 && kept - 2 >= lastOperatorMatchEnd
+                    && isAsciiLetterOrDigit(c) && OPERATORS.indexOf(previous) >= 0
+                    && isAsciiLetter(beforePrevious)) {
+                out[written - 1] = ' ';
+                out[written++] = previous;
+                out[written++] = ' ';
+                lastOperatorMatchEnd = kept + 1;
+            }
+
+            out[written++] = c;
+            beforePrevious = previous;
+            previous = c;
+            kept++;
+        }
+        return written;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isStrippedControl(char c) {
+        return c <= '\u0008' || c == '\u000B' || c == '\u000C' || (c >= '\u000E' && c <= '\u001F');
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Per-thread scratch arrays, grown on demand and dropped when oversized.
+     */
+    private static final class Buffers {
+        private char[] first = new char[0];
+        private char[] second = new char[0];
+
+        char[] first(int size) {
+            if (first.length < size) {
+                first = new char[size];
+            }
+            return first;
+        }
+
+        char[] second(int size) {
+            if (second.length < size) {
+                second = new char[size];
+            }
+            return second;
+        }
+
+        void release() {
+            if (first.length > MAX_RETAINED_BUFFER) {
+                first = new char[0];
+            }
+            if (second.length > MAX_RETAINED_BUFFER) {
+                second = new char[0];
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal tokenizer shared by the RAG components.
+ * Splits text into lower-cased runs of letters and digits, ignoring
+ * single-character tokens and punctuation.
+ */
+public final class TextTokenizer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private TextTokenizer() {}
+
+    /**
+     * Tokenize text into lower-cased terms.
+     */
+    public static List<String> tokenize(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(text.subSequence(start, i).toString().toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+/**
+ * Cheap, deterministic estimate of how many LLM tokens a text will cost.
+ *
+ * Subword tokenizers average roughly four characters per token on English
+ * prose, but formulas, numbers and punctuation split into many more tokens.
+ * The estimate therefore takes the larger of a character-based and a
+ * word/symbol-based count, erring on the side of overestimating.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final double TOKENS_PER_WORD = 1.3;
+
+    private TokenEstimator() {}
+
+    /**
+     * Estimate the number of tokens of a text.
+     */
+    public static int estimate(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int length = text.length();
+        int words = 0;
+        int symbols = 0;
+        boolean inWord = false;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    words++;
+                    inWord = true;
+                }
+            } else {
+                inWord = false;
+                if (!Character.isWhitespace(c)) {
+                    symbols++;
+                }
+            }
+        }
+
+        int byChars = (length + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+        int byWords = (int) Math.ceil(words * TOKENS_PER_WORD) + symbols;
+        return Math.max(byChars, byWords);
+    }
+}
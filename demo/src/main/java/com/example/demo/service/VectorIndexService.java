@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory vector index of course chunk embeddings, keyed by course.
+ *
+ * Each course is held as one contiguous, row-major float matrix so a top-k
+ * query is a single linear scan of dot products with a bounded min-heap.
+ * A course has at most a few thousand chunks, where an exact flat scan
+ * answers in well under a millisecond and needs no approximate (HNSW) graph.
+ *
+ * The index is a cache: the source of truth is the {@code embedding} column of
+ * {@code course_chunks}. {@link RAGService} rebuilds a course entry when it
+ * indexes the course and lazily loads it from the database on first query.
+ */
+@Service
+public class VectorIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorIndexService.class);
+
+    private final Map<Long, CourseVectors> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Replace the vectors stored for a course.
+     *
+     * @param courseId the course
+     * @param chunkIds ids of the chunks, in the same order as {@code vectors}
+     * @param vectors L2-normalized chunk embeddings, all of the same dimension
+     */
+    public void index(Long courseId, List<Long> chunkIds, List<float[]> vectors) {
+        if (chunkIds.size() != vectors.size()) {
+            throw new IllegalArgumentException("Chunk ids and vectors must have the same size");
+        }
+
+        if (vectors.isEmpty()) {
+            indexes.put(courseId, new CourseVectors(new long[0], new float[0], 0, Map.of()));
+            return;
+        }
+
+        int dimension = vectors.get(0).length;
+        long[] ids = new long[chunkIds.size()];
+        float[] matrix = new float[vectors.size() * dimension];
+        Map<Long, Integer> rows = new HashMap<>(chunkIds.size() * 2);
+
+        for (int row = 0; row < vectors.size(); row++) {
+            float[] vector = vectors.get(row);
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Inconsistent embedding dimension for course " + courseId);
+            }
+            ids[row] = chunkIds.get(row);
+            rows.put(chunkIds.get(row), row);
+            System.arraycopy(vector, 0, matrix, row * dimension, dimension);
+        }
+
+        indexes.put(courseId, new CourseVectors(ids, matrix, dimension, rows));
+        logger.debug("Vector index updated for course {} ({} vectors, dim={})", courseId, ids.length, dimension);
+    }
+
+    /**
+     * Check whether the vectors of a course are loaded in memory.
+     */
+    public boolean isLoaded(Long courseId) {
+        return indexes.containsKey(courseId);
+    }
+
+    /**
+     * Drop the vectors of a course (e.g. when the course is deleted).
+     */
+    public void evict(Long courseId) {
+        indexes.remove(courseId);
+    }
+
+    /**
+     * Return the ids of the {@code k} chunks most similar to the query vector,
+     * best match first. Returns an empty list if the course is not loaded.
+     */
+    public List<ScoredChunk> search(Long courseId, float[] query, int k) {
+        CourseVectors vectors = indexes.get(courseId);
+        if (vectors == null || vectors.size() == 0 || k <= 0) {
+            return List.of();
+        }
+        if (query.length != vectors.dimension()) {
+            throw new IllegalArgumentException("Query dimension " + query.length
+                    + " does not match index dimension " + vectors.dimension());
+        }
+
+        int dimension = vectors.dimension();
+        float[] matrix = vectors.matrix();
+        PriorityQueue<ScoredChunk> heap = new PriorityQueue<>(k, Comparator.comparingDouble(ScoredChunk::score));
+
+        for (int row = 0, offset = 0; row < vectors.size(); row++, offset += dimension) {
+            double score = 0;
+            for (int d = 0; d < dimension; d++) {
+                score += matrix[offset + d] * query[d];
+            }
+            if (heap.size() < k) {
+                heap.add(new ScoredChunk(vectors.ids()[row], score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new ScoredChunk(vectors.ids()[row], score));
+            }
+        }
+
+        List<ScoredChunk> results = new ArrayList<>(heap);
+        results.sort(Comparator.comparingDouble(ScoredChunk::score).reversed());
+        return results;
+    }
+
+    /**
+     * Cosine similarity between two indexed chunks of a course
+     * (vectors are normalized, so this is their dot product).
+     * Returns 0 if either chunk is unknown.
+     */
+    public double similarity(Long courseId, long chunkId, long otherChunkId) {
+        CourseVectors vectors = indexes.get(courseId);
+        if (vectors == null) {
+            return 0;
+        }
+        Integer row = vectors.rows().get(chunkId);
+        Integer otherRow = vectors.rows().get(otherChunkId);
+        if (row == null || otherRow == null) {
+            return 0;
+        }
+
+        int dimension = vectors.dimension();
+        float[] matrix = vectors.matrix();
+        double dot = 0;
+        for (int d = 0, a = row * dimension, b = otherRow * dimension; d < dimension; d++) {
+            dot += matrix[a + d] * matrix[b + d];
+        }
+        return dot;
+    }
+
+    /**
+     * Serialize an embedding for the {@code course_chunks.embedding} TEXT column
+     * (Base64 of little-endian float32 values).
+     */
+    public static String encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float v : vector) {
+            buffer.putFloat(v);
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * Deserialize an embedding written by {@link #encode(float[])}.
+     * Returns null for a missing or malformed value.
+     */
+    public static float[] decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(encoded);
+            if (bytes.length % Float.BYTES != 0) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            float[] vector = new float[bytes.length / Float.BYTES];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = buffer.getFloat();
+            }
+            return vector;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record CourseVectors(long[] ids, float[] matrix, int dimension, Map<Long, Integer> rows) {
+        int size() {
+            return ids.length;
+        }
+    }
+}
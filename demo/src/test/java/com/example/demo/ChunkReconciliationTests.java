@@ -0,0 +1,161 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.CourseChunk;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.CourseChunkRepository;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.RAGService;
+
+/**
+ * Tests of incremental re-indexing: re-chunked content is diffed against the
+ * stored chunks so unchanged chunks keep their row, moved chunks are updated
+ * in place, and only new text is inserted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ChunkReconciliationTests {
+
+    @Autowired
+    private RAGService ragService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseChunkRepository chunkRepository;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        String name = "reconcile-" + System.nanoTime();
+        User teacher = userRepository.save(new User(name, "password", name + "@example.com", "Reconcile Teacher", Role.TEACHER));
+        course = courseRepository.save(new Course("Reconcile", "Incremental indexing", "Content", teacher));
+    }
+
+    @Test
+    void reindexingSameContentKeepsEveryChunk() {
+        String content = document("alpha", "bravo", "charlie", "delta");
+        List<CourseChunk> before = index(content);
+        List<CourseChunk> after = index(content);
+
+        assertEquals(ids(before), ids(after));
+        for (int i = 0; i < after.size(); i++) {
+            assertEquals(before.get(i).getStartPosition(), after.get(i).getStartPosition());
+            assertEquals(before.get(i).getEmbedding(), after.get(i).getEmbedding());
+        }
+    }
+
+    @Test
+    void insertedParagraphOnlyRewritesTheChunksAroundIt() {
+        // Each paragraph fits one chunk, which starts with the overlap tail of the previous paragraph
+        List<CourseChunk> before = index(document("alpha", "bravo", "charlie", "delta", "echo", "foxtrot"));
+        List<CourseChunk> after = index(document("alpha", "bravo", "inserted", "charlie", "delta", "echo"));
+        assertEquals(6, before.size());
+        assertEquals(6, after.size());
+
+        Map<String, CourseChunk> previous = new HashMap<>();
+        before.forEach(chunk -> previous.put(chunk.getContent(), chunk));
+        Set<Long> previousIds = ids(before);
+
+        int unchanged = 0;
+        int moved = 0;
+        int inserted = 0;
+        for (CourseChunk chunk : after) {
+            CourseChunk old = previous.get(chunk.getContent());
+            if (old == null) {
+                assertFalse(previousIds.contains(chunk.getId()), "New text must get a new row");
+                inserted++;
+            } else {
+                assertEquals(old.getId(), chunk.getId(), "Unchanged text must keep its row");
+                assertEquals(old.getEmbedding(), chunk.getEmbedding());
+                if (old.getChunkIndex() == chunk.getChunkIndex()) {
+                    assertEquals(old.getStartPosition(), chunk.getStartPosition());
+                    unchanged++;
+                } else {
+                    assertTrue(chunk.getStartPosition() > old.getStartPosition(), "Moved chunk must get its new position");
+                    moved++;
+                }
+            }
+        }
+        Set<Long> deleted = new HashSet<>(previousIds);
+        deleted.removeAll(ids(after));
+
+        // alpha, alpha|bravo / charlie|delta, delta|echo / bravo|inserted, inserted|charlie
+        assertEquals(2, unchanged);
+        assertEquals(2, moved);
+        assertEquals(2, inserted);
+        // bravo|charlie, echo|foxtrot
+        assertEquals(2, deleted.size());
+        deleted.forEach(id -> assertFalse(chunkRepository.existsById(id)));
+        assertTrue(after.get(2).getContent().contains("insertedword0"));
+    }
+
+    @Test
+    void removedContentDeletesItsChunks() {
+        index(document("alpha", "bravo", "charlie"));
+        List<CourseChunk> after = index(document("alpha"));
+
+        assertEquals(1, after.size());
+        assertEquals(1, chunkRepository.countByCourseId(course.getId()));
+    }
+
+    private List<CourseChunk> index(String content) {
+        course.setContent(content);
+        course = courseRepository.save(course);
+        ragService.indexCourse(course);
+
+        List<CourseChunk> chunks = chunkRepository.findByCourseIdOrderByChunkIndexAsc(course.getId());
+        for (CourseChunk chunk : chunks) {
+            assertEquals(chunk.getContent(), content.substring(chunk.getStartPosition(), chunk.getEndPosition()));
+        }
+        return chunks;
+    }
+
+    private static Set<Long> ids(List<CourseChunk> chunks) {
+        Set<Long> ids = new HashSet<>();
+        chunks.forEach(chunk -> ids.add(chunk.getId()));
+        return ids;
+    }
+
+    /**
+     * Paragraphs of about 300 distinct chars: with 500-char chunks, every
+     * paragraph is cut at its paragraph break into a chunk of its own.
+     */
+    private static String document(String... names) {
+        StringBuilder text = new StringBuilder();
+        for (String name : names) {
+            if (text.length() > 0) {
+                text.append("\n\n");
+            }
+            int start = text.length();
+            for (int i = 0; text.length() - start < 300; i++) {
+                text.append(name).append("word").append(i).append(i % 8 == 7 ? ". " : " ");
+            }
+            text.setLength(text.length() - 1);
+        }
+        return text.toString();
+    }
+}
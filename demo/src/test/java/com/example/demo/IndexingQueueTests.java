@@ -0,0 +1,186 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.IndexingJob;
+import com.example.demo.entity.IndexingJobStatus;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.IndexingJobRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.IndexingJobService;
+
+/**
+ * Tests of the persisted indexing queue: which job a worker claims, and how
+ * duplicate, failed and stale jobs are handled.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndexingQueueTests {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private IndexingJobService jobService;
+
+    @Autowired
+    private IndexingJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private Course first;
+    private Course second;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository.deleteAll();
+
+        String name = "queue-" + System.nanoTime();
+        User teacher = userRepository.save(new User(name, "password", name + "@example.com", "Queue Teacher", Role.TEACHER));
+        first = courseRepository.save(new Course("First", "Queued course", "Content", teacher));
+        second = courseRepository.save(new Course("Second", "Queued course", "Content", teacher));
+    }
+
+    @Test
+    void courseWaitingInTheQueueIsNotQueuedTwice() {
+        IndexingJob job = jobService.enqueue(first);
+
+        assertEquals(job.getId(), jobService.enqueue(first).getId());
+        assertEquals(1, jobRepository.count());
+    }
+
+    @Test
+    void jobsAreClaimedOldestFirstAndOnlyOnce() {
+        IndexingJob older = jobService.enqueue(first);
+        IndexingJob newer = jobService.enqueue(second);
+
+        assertEquals(older.getId(), claim().getId());
+        assertEquals(newer.getId(), claim().getId());
+        assertTrue(jobService.claimNext("worker").isEmpty());
+        assertEquals(IndexingJobStatus.RUNNING, reload(older).getStatus());
+    }
+
+    @Test
+    void courseQueuedAgainWhileRunningWaitsForTheRunningJob() {
+        IndexingJob running = jobService.enqueue(first);
+        claim();
+        IndexingJob requeued = jobService.enqueue(first);
+        IndexingJob other = jobService.enqueue(second);
+        assertNotEquals(running.getId(), requeued.getId());
+
+        // The newer job of the other course goes first; the requeued one is held back
+        assertEquals(other.getId(), claim().getId());
+        assertTrue(jobService.claimNext("worker").isEmpty());
+
+        jobService.complete(running.getId(), first.getId(), 1, true);
+        assertEquals(requeued.getId(), claim().getId());
+    }
+
+    @Test
+    void failedJobIsRetriedAfterBackoff() {
+        IndexingJob job = jobService.enqueue(first);
+        claim();
+
+        LocalDateTime failedAt = LocalDateTime.now();
+        jobService.fail(job.getId(), "Extraction failed", MAX_ATTEMPTS, Duration.ofMinutes(10));
+
+        IndexingJob retried = reload(job);
+        assertEquals(IndexingJobStatus.QUEUED, retried.getStatus());
+        assertTrue(retried.getAvailableAt().isAfter(failedAt.plusMinutes(9)));
+        assertTrue(jobService.claimNext("worker").isEmpty());
+
+        // Once due, it is claimed again
+        retried.setAvailableAt(LocalDateTime.now().minusSeconds(1));
+        jobRepository.save(retried);
+        assertEquals(job.getId(), claim().getId());
+        assertEquals(2, reload(job).getAttempts());
+    }
+
+    @Test
+    void backoffDoublesOnEveryAttempt() {
+        IndexingJob job = jobService.enqueue(first);
+        claim();
+        jobService.fail(job.getId(), "Failed", MAX_ATTEMPTS, Duration.ofMinutes(10));
+        IndexingJob retried = reload(job);
+        retried.setAvailableAt(null);
+        jobRepository.save(retried);
+        claim();
+
+        LocalDateTime failedAt = LocalDateTime.now();
+        jobService.fail(job.getId(), "Failed again", MAX_ATTEMPTS, Duration.ofMinutes(10));
+
+        assertTrue(reload(job).getAvailableAt().isAfter(failedAt.plusMinutes(19)));
+    }
+
+    @Test
+    void jobFailsForGoodAfterMaxAttempts() {
+        IndexingJob job = jobService.enqueue(first);
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            claim();
+            jobService.fail(job.getId(), "Failed", MAX_ATTEMPTS, Duration.ZERO);
+        }
+
+        assertEquals(IndexingJobStatus.FAILED, reload(job).getStatus());
+        assertTrue(jobService.claimNext("worker").isEmpty());
+    }
+
+    @Test
+    void failedJobIsNotRetriedWhenTheCourseWasQueuedAgain() {
+        IndexingJob job = jobService.enqueue(first);
+        claim();
+        IndexingJob requeued = jobService.enqueue(first);
+
+        jobService.fail(job.getId(), "Failed", MAX_ATTEMPTS, Duration.ZERO);
+
+        assertEquals(IndexingJobStatus.FAILED, reload(job).getStatus());
+        assertEquals(requeued.getId(), claim().getId());
+    }
+
+    @Test
+    void heartbeatKeepsALongRunningJobFromBeingRequeued() {
+        IndexingJob job = jobService.enqueue(first);
+        claim();
+        IndexingJob running = reload(job);
+        running.setHeartbeatAt(LocalDateTime.now().minusHours(1));
+        jobRepository.save(running);
+
+        jobService.heartbeat(List.of(job.getId()));
+        assertEquals(0, jobService.requeueStale(LocalDateTime.now().minusMinutes(15)));
+        assertEquals(IndexingJobStatus.RUNNING, reload(job).getStatus());
+
+        running = reload(job);
+        running.setHeartbeatAt(LocalDateTime.now().minusHours(1));
+        jobRepository.save(running);
+        assertEquals(1, jobService.requeueStale(LocalDateTime.now().minusMinutes(15)));
+        assertEquals(IndexingJobStatus.QUEUED, reload(job).getStatus());
+    }
+
+    private IndexingJob claim() {
+        Optional<IndexingJob> claimed = jobService.claimNext("worker");
+        assertTrue(claimed.isPresent(), "Expected a job to claim");
+        return claimed.get();
+    }
+
+    private IndexingJob reload(IndexingJob job) {
+        return jobRepository.findById(job.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.AnswerOption;
+import com.example.demo.entity.Course;
+import com.example.demo.entity.CourseChunk;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Quiz;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.CourseChunkRepository;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CourseChunkBulkLoader;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Regression test for batched inserts: saving a generated quiz or the chunks
+ * of a course must take a handful of JDBC statements, not one per row.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InsertBatchingTests {
+
+    /** hibernate.jdbc.batch_size, and the allocationSize of the id sequences. */
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private CourseChunkRepository chunkRepository;
+
+    @Autowired
+    private CourseChunkBulkLoader bulkLoader;
+
+    private Statistics statistics;
+    private User student;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        String name = "batching-" + System.nanoTime();
+        student = userRepository.save(new User(name, "password", name + "@example.com", "Batching Student", Role.STUDENT));
+        course = courseRepository.save(new Course("Batching", "Batched inserts", "Content", student));
+    }
+
+    @Test
+    void quizWithQuestionsAndOptionsIsInsertedInBatches() {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            Quiz quiz = new Quiz(course, student, "Quiz: Batching", DifficultyLevel.MEDIUM, 20);
+            for (int i = 0; i < 20; i++) {
+                Question question = new Question("Question " + i, "Source", 0, "Explanation");
+                for (int o = 0; o < 4; o++) {
+                    question.addOption(new AnswerOption("Option " + o, "Explanation"));
+                }
+                quiz.addQuestion(question);
+            }
+            quizRepository.save(quiz);
+        });
+
+        assertEquals(1 + 20 + 80, statistics.getEntityInsertCount());
+        long maxStatements = maxStatements(1) + maxStatements(20) + maxStatements(80);
+        assertTrue(statistics.getPrepareStatementCount() <= maxStatements,
+                "Quiz insert took " + statistics.getPrepareStatementCount() + " statements, expected at most " + maxStatements);
+    }
+
+    @Test
+    void courseChunksAreInsertedInBatches() {
+        List<CourseChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            chunks.add(new CourseChunk(course, "Chunk " + i, i, i * 100, i * 100 + 99));
+        }
+
+        statistics.clear();
+        chunkRepository.saveAll(chunks);
+
+        assertEquals(200, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= maxStatements(200),
+                "Chunk insert took " + statistics.getPrepareStatementCount() + " statements, expected at most "
+                        + maxStatements(200));
+    }
+
+    @Test
+    void bulkLoadedChunksShareTheIdSequenceWithEntities() {
+        List<CourseChunk> bulk = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bulk.add(new CourseChunk(course, "Bulk chunk\t" + i + "\nwith \\LaTeX", i, i * 100, i * 100 + 99));
+        }
+        transactionTemplate.executeWithoutResult(status -> bulkLoader.insert(bulk));
+        CourseChunk saved = chunkRepository.save(new CourseChunk(course, "Entity chunk", 120, 12000, 12099));
+
+        Set<Long> ids = new HashSet<>();
+        bulk.forEach(chunk -> ids.add(chunk.getId()));
+        ids.add(saved.getId());
+        assertEquals(121, ids.size());
+
+        assertEquals(121, chunkRepository.countByCourseId(course.getId()));
+        List<CourseChunk> stored = chunkRepository.findByCourseIdOrderByChunkIndexAsc(course.getId());
+        assertEquals("Bulk chunk\t7\nwith \\LaTeX", stored.get(7).getContent());
+        assertEquals(bulk.get(7).getId(), stored.get(7).getId());
+    }
+
+    /**
+     * Statements to insert rows into one table: a sequence call per block of
+     * ids (one more on the sequence's first use) and one insert per batch.
+     */
+    private static long maxStatements(int rows) {
+        int blocks = (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+        return blocks + 1 + blocks;
+    }
+}
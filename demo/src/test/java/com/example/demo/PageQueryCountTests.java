@@ -0,0 +1,184 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entity.AnswerOption;
+import com.example.demo.entity.Course;
+import com.example.demo.entity.CourseStatus;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.entity.Enrollment;
+import com.example.demo.entity.Module;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Quiz;
+import com.example.demo.entity.QuizResult;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.StudentAnswer;
+import com.example.demo.entity.User;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.ModuleRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.QuizResultRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.CustomUserDetailsService.CustomUserDetails;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Regression test for the fetch plans of the student and teacher pages:
+ * with open-in-view off, each page must render from what its repository
+ * methods fetch (entities or list projections), in a fixed number of SQL
+ * statements however long the student's history is.
+ */
+@SpringBootTest(properties = {
+        "app.quiz.stale-check-interval-ms=3600000",
+        "app.question-bank.refill-cron=-"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PageQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizResultRepository quizResultRepository;
+
+    private Statistics statistics;
+    private User teacher;
+    private User student;
+    private Module module;
+    private Course course;
+    private Quiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        String name = "pages-" + System.nanoTime();
+        teacher = userRepository.save(new User(name + "-t", "password", name + "-t@example.com", "Page Teacher", Role.TEACHER));
+        student = userRepository.save(new User(name + "-s", "password", name + "-s@example.com", "Page Student", Role.STUDENT));
+        module = moduleRepository.save(new Module(name, "Module", teacher));
+        course = addCourse();
+        quiz = addQuiz(course);
+    }
+
+    @Test
+    void studentPagesTakeAFixedNumberOfStatements() throws Exception {
+        Map<String, Long> limits = new LinkedHashMap<>();
+        // Five statistics, the enrollments and the recent results
+        limits.put("/student/dashboard", 7L);
+        limits.put("/student/courses", 2L);
+        // Enrollment check, course, enrollment, quizzes and the results behind the recommendations
+        limits.put("/student/courses/" + course.getId(), 5L);
+        limits.put("/student/quizzes", 1L);
+        limits.put("/student/quizzes/" + quiz.getId() + "/result", 3L);
+        limits.put("/student/history", 3L);
+
+        assertFixedStatements(limits, student);
+    }
+
+    @Test
+    void teacherPagesTakeAFixedNumberOfStatements() throws Exception {
+        Map<String, Long> limits = new LinkedHashMap<>();
+        // Course summaries with their enrollment counts
+        limits.put("/teacher/courses", 1L);
+        // Course, quiz count, enrollments, students to enroll and the indexing job
+        limits.put("/teacher/courses/" + course.getId(), 5L);
+        limits.put("/teacher/modules", 1L);
+        // Module and the summaries of its courses
+        limits.put("/teacher/modules/" + module.getId(), 2L);
+
+        assertFixedStatements(limits, teacher);
+    }
+
+    /**
+     * Render each page before and after the student's history grows, and
+     * check that both take the same number of statements, within the limit.
+     */
+    private void assertFixedStatements(Map<String, Long> limits, User user) throws Exception {
+        Map<String, Long> before = new LinkedHashMap<>();
+        for (String url : limits.keySet()) {
+            before.put(url, statementsFor(url, user));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            addQuiz(course);
+            addQuiz(addCourse());
+        }
+
+        for (Map.Entry<String, Long> limit : limits.entrySet()) {
+            String url = limit.getKey();
+            long statements = statementsFor(url, user);
+            assertEquals(before.get(url), statements, url + " takes more statements as the history grows");
+            assertTrue(statements <= limit.getValue(),
+                    url + " took " + statements + " statements, expected at most " + limit.getValue());
+        }
+    }
+
+    private long statementsFor(String url, User user) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).with(user(new CustomUserDetails(user))))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Course addCourse() {
+        Course added = new Course("Course " + System.nanoTime(), "Description", "Content", teacher);
+        added.setModule(module);
+        added.setStatus(CourseStatus.PUBLISHED);
+        added = courseRepository.save(added);
+        enrollmentRepository.save(new Enrollment(student, added));
+        return added;
+    }
+
+    private Quiz addQuiz(Course quizCourse) {
+        Quiz added = new Quiz(quizCourse, student, "Quiz: " + quizCourse.getTitle(), DifficultyLevel.MEDIUM, 1);
+        Question question = new Question("Question", "Source", 0, "Explanation");
+        question.addOption(new AnswerOption("Right", "Explanation"));
+        question.addOption(new AnswerOption("Wrong", "Explanation"));
+        added.addQuestion(question);
+        added = quizRepository.save(added);
+
+        QuizResult result = new QuizResult(added, student, 1, 60);
+        result.addAnswer(new StudentAnswer(added.getQuestions().get(0).getId(), 0, 0));
+        quizResultRepository.save(result);
+        return added;
+    }
+}
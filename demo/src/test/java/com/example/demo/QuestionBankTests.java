@@ -0,0 +1,201 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.entity.BankQuestion;
+import com.example.demo.entity.Course;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.entity.IndexingJob;
+import com.example.demo.entity.Quiz;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.BankQuestionRepository;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.IndexingJobService;
+import com.example.demo.service.LLMModels;
+import com.example.demo.service.QuestionBankService;
+
+/**
+ * Tests of the question bank: a student is never drawn a question they have
+ * seen, every serve is counted even under concurrent draws, questions served
+ * too often are retired, and only a change of the indexed text empties it.
+ */
+@SpringBootTest(properties = {
+        "app.question-bank.enabled=true",
+        "app.question-bank.refill-cron=-",
+        "app.question-bank.max-serves=" + QuestionBankTests.MAX_SERVES
+})
+@ActiveProfiles("test")
+class QuestionBankTests {
+
+    static final int MAX_SERVES = 3;
+
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @Autowired
+    private IndexingJobService jobService;
+
+    @Autowired
+    private BankQuestionRepository bankQuestionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        User teacher = user(Role.TEACHER);
+        course = courseRepository.save(new Course("Optimization", "Gradient methods", "Gradient descent", teacher));
+        questionBankService.addQuestions(course, DifficultyLevel.MEDIUM,
+                quiz("Gradient?", "Learning rate?", "Momentum?", "Loss?"));
+    }
+
+    @Test
+    void studentIsNotDrawnQuestionsOfTheirPreviousQuizzes() {
+        User student = user(Role.STUDENT);
+        User other = user(Role.STUDENT);
+        List<BankQuestion> drawn = questionBankService.draw(course.getId(), DifficultyLevel.MEDIUM, student.getId(), 2);
+        Quiz quiz = new Quiz(course, student, "Quiz: Optimization", DifficultyLevel.MEDIUM, 2);
+        drawn.forEach(bankQuestion -> quiz.addQuestion(bankQuestion.toQuestion()));
+        quiz.markReady();
+        quizRepository.save(quiz);
+
+        List<Long> unseen = ids(unseen(student));
+
+        assertEquals(2, unseen.size());
+        drawn.forEach(bankQuestion -> assertFalse(unseen.contains(bankQuestion.getId())));
+        assertEquals(4, unseen(other).size());
+        assertTrue(questionBankService.draw(course.getId(), DifficultyLevel.MEDIUM, student.getId(), 3).isEmpty());
+    }
+
+    @Test
+    void drawCountsTheServesInTheDatabase() {
+        User first = user(Role.STUDENT);
+        User second = user(Role.STUDENT);
+        List<BankQuestion> drawn = questionBankService.draw(course.getId(), DifficultyLevel.MEDIUM, first.getId(), 2);
+        questionBankService.draw(course.getId(), DifficultyLevel.MEDIUM, second.getId(), 2);
+
+        // Least served first: the second draw takes the two other questions
+        for (BankQuestion bankQuestion : bankQuestionRepository.findAllById(ids(drawn))) {
+            assertEquals(1, bankQuestion.getTimesServed());
+        }
+        assertEquals(4, unseenOrRetired().stream().mapToInt(BankQuestion::getTimesServed).sum());
+    }
+
+    @Test
+    void concurrentDrawsDoNotLoseServes() throws Exception {
+        List<Long> students = new ArrayList<>();
+        for (int i = 0; i < MAX_SERVES; i++) {
+            students.add(user(Role.STUDENT).getId());
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(students.size());
+        try {
+            List<Future<List<BankQuestion>>> draws = new ArrayList<>();
+            for (Long studentId : students) {
+                draws.add(pool.submit(() -> {
+                    start.await();
+                    return questionBankService.draw(course.getId(), DifficultyLevel.MEDIUM, studentId, 4);
+                }));
+            }
+            start.countDown();
+            for (Future<List<BankQuestion>> draw : draws) {
+                assertEquals(4, draw.get().size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (BankQuestion bankQuestion : unseenOrRetired()) {
+            assertEquals(MAX_SERVES, bankQuestion.getTimesServed());
+        }
+    }
+
+    @Test
+    void questionsServedTooOftenAreRetired() {
+        BankQuestion retired = unseen(user(Role.STUDENT)).get(0);
+        retired.setTimesServed(MAX_SERVES);
+        bankQuestionRepository.save(retired);
+
+        assertFalse(ids(unseen(user(Role.STUDENT))).contains(retired.getId()));
+        assertEquals(3, questionBankService.countAvailable(course.getId(), DifficultyLevel.MEDIUM));
+
+        assertEquals(1, questionBankService.deleteRetired());
+        assertFalse(bankQuestionRepository.existsById(retired.getId()));
+        assertEquals(3, unseenOrRetired().size());
+    }
+
+    @Test
+    void reindexWithoutTextChangeKeepsTheBank() {
+        IndexingJob job = jobService.enqueue(course);
+
+        jobService.complete(job.getId(), course.getId(), 1, false);
+        assertEquals(4, unseenOrRetired().size());
+
+        jobService.complete(job.getId(), course.getId(), 1, true);
+        assertTrue(unseenOrRetired().isEmpty());
+    }
+
+    private List<BankQuestion> unseen(User student) {
+        return bankQuestionRepository.findUnseen(course.getId(), DifficultyLevel.MEDIUM, student.getId(), MAX_SERVES);
+    }
+
+    private List<BankQuestion> unseenOrRetired() {
+        return bankQuestionRepository.findUnseen(course.getId(), DifficultyLevel.MEDIUM, -1L, Integer.MAX_VALUE);
+    }
+
+    private User user(Role role) {
+        String name = "bank-" + System.nanoTime();
+        return userRepository.save(new User(name, "password", name + "@example.com", "Bank User", role));
+    }
+
+    private static List<Long> ids(List<BankQuestion> bankQuestions) {
+        return bankQuestions.stream().map(BankQuestion::getId).toList();
+    }
+
+    private static LLMModels.QuizResponse quiz(String... questionTexts) {
+        List<LLMModels.QuestionData> questions = new ArrayList<>();
+        for (String text : questionTexts) {
+            List<LLMModels.OptionData> options = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                LLMModels.OptionData option = new LLMModels.OptionData();
+                option.setText("Option " + i);
+                options.add(option);
+            }
+            LLMModels.QuestionData question = new LLMModels.QuestionData();
+            question.setQuestionText(text);
+            question.setOptions(options);
+            question.setCorrectOptionIndex(0);
+            questions.add(question);
+        }
+        LLMModels.QuizResponse response = new LLMModels.QuizResponse();
+        response.setQuestions(questions);
+        response.setModelUsed("test-model");
+        return response;
+    }
+}
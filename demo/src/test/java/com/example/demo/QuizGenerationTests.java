@@ -0,0 +1,245 @@
+package com.example.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.Course;
+import com.example.demo.entity.CourseStatus;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.entity.Quiz;
+import com.example.demo.entity.QuizStatus;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.CourseRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AgentService;
+import com.example.demo.service.LLMModels;
+import com.example.demo.service.QuizBatcher;
+import com.example.demo.service.QuizGenerationService;
+import com.example.demo.service.RAGService;
+
+/**
+ * Tests of background quiz generation: a PENDING quiz becomes READY with its
+ * questions, or FAILED with the error, and quizzes left PENDING are failed
+ * by the stale sweep.
+ */
+@SpringBootTest(properties = "app.quiz.stale-check-interval-ms=3600000")
+@ActiveProfiles("test")
+class QuizGenerationTests {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @MockBean
+    private QuizBatcher quizBatcher;
+
+    @SpyBean
+    private AgentService agentService;
+
+    @Autowired
+    private QuizGenerationService generationService;
+
+    @Autowired
+    private RAGService ragService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User student;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        String name = "generation-" + System.nanoTime();
+        student = userRepository.save(new User(name, "password", name + "@example.com", "Generation Student", Role.STUDENT));
+        course = new Course("Optimization", "Gradient methods",
+                "Gradient descent updates the weights against the gradient of the loss. "
+                        + "The learning rate scales every step.", student);
+        course.setStatus(CourseStatus.PUBLISHED);
+        course = courseRepository.save(course);
+        ragService.indexCourse(course);
+    }
+
+    @Test
+    void pendingQuizBecomesReadyWithItsQuestions() throws Exception {
+        List<LLMModels.QuestionData> questions = List.of(question("What does gradient descent update?"),
+                question("What scales every step?"));
+        when(quizBatcher.generate(any(), any())).thenAnswer(invocation -> {
+            Consumer<LLMModels.QuestionData> onQuestion = invocation.getArgument(1);
+            if (onQuestion != null) {
+                questions.forEach(onQuestion);
+            }
+            LLMModels.QuizResponse response = new LLMModels.QuizResponse();
+            response.setQuestions(questions);
+            response.setModelUsed("test-model");
+            return response;
+        });
+        Quiz quiz = pendingQuiz(2);
+
+        generationService.submit(quiz.getId());
+
+        Quiz ready = awaitStatus(quiz, QuizStatus.READY);
+        assertNull(ready.getGenerationError());
+        assertEquals("test-model", ready.getLlmModelUsed());
+        assertEquals(2, questionCount(quiz));
+    }
+
+    @Test
+    void llmErrorMarksTheQuizFailed() throws Exception {
+        when(quizBatcher.generate(any(), any())).thenThrow(new IllegalStateException("Model unavailable"));
+        Quiz quiz = pendingQuiz(2);
+
+        generationService.submit(quiz.getId());
+
+        assertEquals("Model unavailable", awaitStatus(quiz, QuizStatus.FAILED).getGenerationError());
+    }
+
+    @Test
+    void responseWithoutQuestionsMarksTheQuizFailed() throws Exception {
+        when(quizBatcher.generate(any(), any())).thenReturn(new LLMModels.QuizResponse());
+        Quiz quiz = pendingQuiz(2);
+
+        generationService.submit(quiz.getId());
+
+        awaitStatus(quiz, QuizStatus.FAILED);
+        assertEquals(0, questionCount(quiz));
+    }
+
+    @Test
+    void courseWithoutIndexedContentMarksTheQuizFailed() {
+        ragService.evictCourse(course.getId());
+        jdbcTemplate.update("DELETE FROM course_chunks WHERE course_id = ?", course.getId());
+        Quiz quiz = pendingQuiz(2);
+
+        generationService.submit(quiz.getId());
+
+        assertTrue(awaitStatus(quiz, QuizStatus.FAILED).getGenerationError().contains("No indexed content"));
+    }
+
+    @Test
+    void staleSweepFailsOnlyOldPendingQuizzes() {
+        Quiz stale = pendingQuiz(2);
+        Quiz recent = pendingQuiz(2);
+        Quiz oldReady = quizRepository.save(new Quiz(course, student, "Quiz: Ready", DifficultyLevel.MEDIUM, 2));
+        backdate(stale, LocalDateTime.now().minusHours(1));
+        backdate(oldReady, LocalDateTime.now().minusHours(1));
+
+        generationService.failStalePending();
+
+        Quiz failed = reload(stale);
+        assertEquals(QuizStatus.FAILED, failed.getStatus());
+        assertTrue(failed.getGenerationError().contains("did not complete"));
+        assertEquals(QuizStatus.PENDING, reload(recent).getStatus());
+        assertEquals(QuizStatus.READY, reload(oldReady).getStatus());
+    }
+
+    @Test
+    void lateGenerationDoesNotReviveAFailedQuiz() throws Exception {
+        when(quizBatcher.generate(any(), any())).thenAnswer(invocation -> {
+            LLMModels.QuestionData question = question("Too late?");
+            Consumer<LLMModels.QuestionData> onQuestion = invocation.getArgument(1);
+            if (onQuestion != null) {
+                onQuestion.accept(question);
+            }
+            LLMModels.QuizResponse response = new LLMModels.QuizResponse();
+            response.setQuestions(List.of(question));
+            return response;
+        });
+        Quiz quiz = pendingQuiz(1);
+        backdate(quiz, LocalDateTime.now().minusHours(1));
+        generationService.failStalePending();
+
+        generationService.submit(quiz.getId());
+
+        // The generation ran to its end, and was refused as the quiz is no longer pending
+        verify(quizBatcher, timeout(TIMEOUT_MS)).generate(any(), any());
+        verify(agentService, timeout(TIMEOUT_MS)).markGenerationFailed(eq(quiz.getId()), any());
+        assertEquals(QuizStatus.FAILED, reload(quiz).getStatus());
+        assertTrue(reload(quiz).getGenerationError().contains("did not complete"));
+        assertEquals(0, questionCount(quiz));
+    }
+
+    private Quiz pendingQuiz(int numberOfQuestions) {
+        Quiz quiz = new Quiz(course, student, "Quiz: Optimization", DifficultyLevel.MEDIUM, numberOfQuestions);
+        quiz.setStatus(QuizStatus.PENDING);
+        return quizRepository.save(quiz);
+    }
+
+    private void backdate(Quiz quiz, LocalDateTime createdAt) {
+        jdbcTemplate.update("UPDATE quizzes SET created_at = ? WHERE id = ?", createdAt, quiz.getId());
+    }
+
+    private Quiz reload(Quiz quiz) {
+        return quizRepository.findById(quiz.getId()).orElseThrow();
+    }
+
+    private int questionCount(Quiz quiz) {
+        return transactionTemplate.execute(status -> reload(quiz).getQuestions().size());
+    }
+
+    private Quiz awaitStatus(Quiz quiz, QuizStatus expected) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        Quiz current = reload(quiz);
+        while (current.getStatus() != expected && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            current = reload(quiz);
+        }
+        assertEquals(expected, current.getStatus());
+        return current;
+    }
+
+    private static LLMModels.QuestionData question(String text) {
+        List<LLMModels.OptionData> options = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            LLMModels.OptionData option = new LLMModels.OptionData();
+            option.setText("Option " + i);
+            option.setExplanation("Because " + i);
+            options.add(option);
+        }
+        LLMModels.QuestionData question = new LLMModels.QuestionData();
+        question.setQuestionText(text);
+        question.setOptions(options);
+        question.setCorrectOptionIndex(0);
+        question.setExplanation("Explanation");
+        question.setSourceContext("Gradient descent");
+        return question;
+    }
+}
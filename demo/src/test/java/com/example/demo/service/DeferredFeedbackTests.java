@@ -0,0 +1,213 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.dto.QuizSubmissionDTO;
+import com.example.demo.entity.AnswerOption;
+import com.example.demo.entity.Course;
+import com.example.demo.entity.DifficultyLevel;
+import com.example.demo.entity.Question;
+import com.example.demo.entity.Quiz;
+import com.example.demo.entity.QuizResult;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.EnrollmentRepository;
+import com.example.demo.repository.QuizRepository;
+import com.example.demo.repository.QuizResultRepository;
+
+/**
+ * Unit tests of deferred quiz feedback: a submission is saved from its score
+ * without waiting for the LLM, the LLM feedback is attached in the background
+ * with the context of the missed questions only, and results still awaiting
+ * it are given up by the stale sweep.
+ */
+class DeferredFeedbackTests {
+
+    private static final String LLM_FEEDBACK =
+            "{\"feedback\": \"Review the learning rate.\", \"course_validated\": false, \"recommended_difficulty\": \"EASY\"}";
+
+    private final RAGService ragService = mock(RAGService.class);
+    private final QuizResultRepository quizResultRepository = mock(QuizResultRepository.class);
+    private final FakeLLMProvider provider = new FakeLLMProvider("fake", true).answering(prompt -> LLM_FEEDBACK);
+    private final LLMService llmService = FakeLLMProvider.llmService(FakeLLMProvider.circuitBreaker(5, 30), provider);
+    private final AgentService agentService = agentService(AgentService.EvaluationMode.DEFERRED, llmService);
+    private final QuizFeedbackService feedbackService =
+            new QuizFeedbackService(agentService, llmService, quizResultRepository);
+
+    private final Quiz quiz = quiz();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        feedbackService.stop();
+    }
+
+    @Test
+    void deferredSubmissionIsSavedFromTheScoreWithoutCallingTheLLM() {
+        when(quizResultRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        QuizResult result = agentService.evaluateQuiz(quiz, submission(0, 1));
+
+        assertTrue(result.isFeedbackPending());
+        assertEquals(1, result.getCorrectAnswers());
+        assertEquals(50.0, result.getScorePercentage());
+        assertEquals(llmService.evaluateWithoutLLM(50.0, 1, 2, DifficultyLevel.MEDIUM).getFeedback(),
+                result.getAgentFeedback());
+        assertEquals(0, provider.calls());
+        verifyNoInteractions(ragService);
+    }
+
+    @Test
+    void inlineSubmissionWaitsForTheLLMFeedback() {
+        when(quizResultRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ragService.getRelevantContext(anyLong(), anyString(), anyInt())).thenReturn("The learning rate scales every step.");
+        AgentService inline = agentService(AgentService.EvaluationMode.INLINE, llmService);
+
+        QuizResult result = inline.evaluateQuiz(quiz, submission(0, 1));
+
+        assertFalse(result.isFeedbackPending());
+        assertEquals("Review the learning rate.", result.getAgentFeedback());
+        assertEquals(DifficultyLevel.EASY, result.getRecommendedNextDifficulty());
+        assertEquals(1, provider.calls());
+        verify(ragService).getRelevantContext(eq(7L), eq("Learning rate"), anyInt());
+    }
+
+    @Test
+    void feedbackIsNotDeferredWithoutAnLLM() {
+        when(quizResultRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        AgentService offline = agentService(AgentService.EvaluationMode.DEFERRED,
+                FakeLLMProvider.llmService(FakeLLMProvider.circuitBreaker(5, 30), new FakeLLMProvider("fake", false)));
+
+        QuizResult result = offline.evaluateQuiz(quiz, submission(0, 1));
+
+        assertFalse(result.isFeedbackPending());
+    }
+
+    @Test
+    void feedbackContextIsRetrievedForTheMissedQuestionsOnly() {
+        QuizResult result = savedResult();
+        when(ragService.getRelevantContext(anyLong(), anyString(), anyInt())).thenReturn("The learning rate scales every step.");
+
+        AgentService.FeedbackInput input = agentService.prepareFeedback(result.getId());
+
+        assertEquals(List.of("Learning rate"), input.incorrectTopics());
+        assertEquals("The learning rate scales every step.", input.context());
+        assertEquals(1, input.correctAnswers());
+        assertEquals(2, input.totalQuestions());
+    }
+
+    @Test
+    void backgroundFeedbackReplacesTheScoreFeedback() throws InterruptedException {
+        QuizResult result = savedResult();
+        when(ragService.getRelevantContext(anyLong(), anyString(), anyInt())).thenReturn("The learning rate scales every step.");
+
+        feedbackService.submit(result.getId());
+
+        awaitNotPending(result);
+        assertEquals("Review the learning rate.", result.getAgentFeedback());
+        assertEquals(1, provider.calls());
+        assertTrue(provider.prompts().get(0).contains("The learning rate scales every step."));
+    }
+
+    @Test
+    void failedBackgroundFeedbackKeepsTheScoreFeedback() throws InterruptedException {
+        QuizResult result = savedResult();
+        when(ragService.getRelevantContext(anyLong(), anyString(), anyInt()))
+                .thenThrow(new IllegalStateException("Index unavailable"));
+
+        feedbackService.submit(result.getId());
+
+        awaitNotPending(result);
+        assertEquals("Score-based feedback", result.getAgentFeedback());
+        assertEquals(0, provider.calls());
+    }
+
+    @Test
+    void staleSweepGivesUpOnFeedbackOlderThanTheTimeout() {
+        ReflectionTestUtils.setField(feedbackService, "feedbackTimeoutMinutes", 5);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        LocalDateTime before = LocalDateTime.now().minusMinutes(5);
+
+        feedbackService.clearStalePending();
+
+        verify(quizResultRepository).clearStaleFeedbackPending(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before));
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusMinutes(4)));
+    }
+
+    private AgentService agentService(AgentService.EvaluationMode mode, LLMService llmService) {
+        AgentService service = new AgentService(ragService, llmService, mock(QuizRepository.class),
+                quizResultRepository, mock(EnrollmentRepository.class), mock(QuestionBankService.class));
+        ReflectionTestUtils.setField(service, "evaluationMode", mode);
+        ReflectionTestUtils.setField(service, "evaluationContextTokens", 1000);
+        return service;
+    }
+
+    /**
+     * A result of the quiz with the first question right and the second wrong, awaiting its feedback.
+     */
+    private QuizResult savedResult() {
+        when(quizResultRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        QuizResult result = agentService.evaluateQuiz(quiz, submission(0, 1));
+        result.setId(42L);
+        result.setAgentFeedback("Score-based feedback");
+        when(quizResultRepository.findById(42L)).thenReturn(Optional.of(result));
+        return result;
+    }
+
+    private static void awaitNotPending(QuizResult result) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (result.isFeedbackPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(result.isFeedbackPending());
+    }
+
+    private static QuizSubmissionDTO submission(int firstAnswer, int secondAnswer) {
+        return new QuizSubmissionDTO(1L, Map.of(1L, firstAnswer, 2L, secondAnswer), 60);
+    }
+
+    /**
+     * A quiz of two questions whose correct option is the first.
+     */
+    private static Quiz quiz() {
+        User student = new User("student", "password", "student@example.com", "Student", Role.STUDENT);
+        student.setId(3L);
+        Course course = new Course("Optimization", "Gradient methods", "Gradient descent", student);
+        course.setId(7L);
+        Quiz quiz = new Quiz(course, student, "Quiz: Optimization", DifficultyLevel.MEDIUM, 2);
+        quiz.setId(1L);
+        quiz.addQuestion(question(1L, "Gradient descent"));
+        quiz.addQuestion(question(2L, "Learning rate"));
+        return quiz;
+    }
+
+    private static Question question(Long id, String sourceContext) {
+        Question question = new Question("What about " + sourceContext + "?", sourceContext, 0, "Because");
+        question.setId(id);
+        for (int i = 0; i < 4; i++) {
+            question.addOption(new AnswerOption("Option " + i, "Explanation " + i));
+        }
+        return question;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Scripted {@link LLMProvider} for unit tests of {@link LLMService}: it counts
+ * and records its calls, answers with a function of the prompt, and can hold
+ * its calls until released.
+ */
+final class FakeLLMProvider implements LLMProvider {
+
+    private final String name;
+    private final boolean available;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> prompts = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch started = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private volatile Function<String, String> answer = prompt -> quizJson(2);
+
+    FakeLLMProvider(String name, boolean available) {
+        this.name = name;
+        this.available = available;
+    }
+
+    /**
+     * Answer every prompt with the given function; it may throw to fail the call.
+     */
+    FakeLLMProvider answering(Function<String, String> answer) {
+        this.answer = answer;
+        return this;
+    }
+
+    /**
+     * Hold every call until {@link #release()}.
+     */
+    FakeLLMProvider holding() {
+        this.release = new CountDownLatch(1);
+        return this;
+    }
+
+    void release() {
+        release.countDown();
+    }
+
+    /**
+     * Wait until a first call has reached the provider.
+     */
+    void awaitCall() throws InterruptedException {
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The provider was never called");
+        }
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    List<String> prompts() {
+        return List.copyOf(prompts);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getModel() {
+        return name + "-model";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public String generate(String prompt) {
+        calls.incrementAndGet();
+        prompts.add(prompt);
+        started.countDown();
+        try {
+            if (!release.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The test never released the call");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Call cancelled");
+        }
+        return answer.apply(prompt);
+    }
+
+    /**
+     * A quiz response of the given number of questions, the first option of each being correct.
+     */
+    static String quizJson(int numberOfQuestions) {
+        return "{\"questions\": [" + questionsJson("Question", numberOfQuestions) + "]}";
+    }
+
+    static String questionsJson(String stem, int numberOfQuestions) {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < numberOfQuestions; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"question_text\": \"").append(stem).append(' ').append(i).append("?\", \"options\": [")
+                    .append("{\"text\": \"Right\", \"explanation\": \"Correct\"}, ")
+                    .append("{\"text\": \"Wrong A\", \"explanation\": \"No\"}, ")
+                    .append("{\"text\": \"Wrong B\", \"explanation\": \"No\"}, ")
+                    .append("{\"text\": \"Wrong C\", \"explanation\": \"No\"}], ")
+                    .append("\"correct_option_index\": 0, \"explanation\": \"Because\", \"source_context\": \"Source\"}");
+        }
+        return json.toString();
+    }
+
+    /**
+     * An LLM service over the given providers, the first being the default,
+     * with the rate limiter disabled, the quiz cache enabled and no hedging.
+     */
+    static LLMService llmService(LLMCircuitBreaker circuitBreaker, LLMProvider... providers) {
+        LLMRateLimiter rateLimiter = new LLMRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "enabled", false);
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerMinute", 60);
+        ReflectionTestUtils.setField(rateLimiter, "tokensPerMinute", 1_000_000);
+        ReflectionTestUtils.setField(rateLimiter, "nodes", 1);
+        rateLimiter.init();
+
+        QuizResponseCache cache = new QuizResponseCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(cache, "shuffle", false);
+
+        LLMService service = new LLMService(new ObjectMapper(), rateLimiter, cache, circuitBreaker, List.of(providers));
+        ReflectionTestUtils.setField(service, "defaultProvider", providers[0].getName());
+        ReflectionTestUtils.setField(service, "callTimeoutSeconds", 10L);
+        ReflectionTestUtils.setField(service, "hedgingEnabled", false);
+        ReflectionTestUtils.setField(service, "hedgingPercentile", 95);
+        ReflectionTestUtils.setField(service, "hedgingMinDelayMs", 1000L);
+        return service;
+    }
+
+    /**
+     * A circuit breaker over windows of 10 calls, opening at half of them failing.
+     */
+    static LLMCircuitBreaker circuitBreaker(int minimumCalls, long openSeconds) {
+        LLMCircuitBreaker circuitBreaker = new LLMCircuitBreaker();
+        ReflectionTestUtils.setField(circuitBreaker, "enabled", true);
+        ReflectionTestUtils.setField(circuitBreaker, "windowSize", 10);
+        ReflectionTestUtils.setField(circuitBreaker, "minimumCalls", minimumCalls);
+        ReflectionTestUtils.setField(circuitBreaker, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(circuitBreaker, "slowCallThresholdMs", 20_000L);
+        ReflectionTestUtils.setField(circuitBreaker, "slowCallRateThreshold", 80);
+        ReflectionTestUtils.setField(circuitBreaker, "openSeconds", openSeconds);
+        ReflectionTestUtils.setField(circuitBreaker, "halfOpenCalls", 1);
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of the deterministic local embedder.
+ */
+class HashingEmbeddingServiceTests {
+
+    private final HashingEmbeddingService embedder = new HashingEmbeddingService(256);
+
+    @Test
+    void sameTextGivesTheSameVector() {
+        String text = "Photosynthesis converts light energy into chemical energy.";
+
+        float[] first = embedder.embed(text);
+        float[] second = new HashingEmbeddingService(256).embed(text);
+
+        assertEquals(256, first.length);
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void vectorsAreNormalized() {
+        for (String text : new String[] {"one", "the cell membrane", "aa aa aa bb bb cc", "Mitochondria, mitochondria!"}) {
+            assertEquals(1.0, norm(embedder.embed(text)), 1e-5, text);
+        }
+    }
+
+    @Test
+    void textWithoutTokensGivesTheZeroVector() {
+        assertEquals(0.0, norm(embedder.embed("")), 0.0);
+        assertEquals(0.0, norm(embedder.embed("! ? .")), 0.0);
+    }
+
+    @Test
+    void similarTextsAreCloserThanUnrelatedOnes() {
+        float[] query = embedder.embed("cell membrane transport");
+        float[] related = embedder.embed("transport across the cell membrane");
+        float[] unrelated = embedder.embed("the french revolution of 1789");
+
+        assertTrue(dot(query, related) > dot(query, unrelated));
+    }
+
+    @Test
+    void dimensionMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new HashingEmbeddingService(0));
+    }
+
+    private static double norm(float[] vector) {
+        return Math.sqrt(dot(vector, vector));
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
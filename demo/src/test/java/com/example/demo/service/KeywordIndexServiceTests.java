@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of BM25 ranking and phrase queries in the keyword index.
+ */
+class KeywordIndexServiceTests {
+
+    private static final Long COURSE = 1L;
+
+    private final KeywordIndexService index = new KeywordIndexService();
+
+    @BeforeEach
+    void setUp() {
+        index.index(COURSE, List.of(10L, 11L, 12L, 13L), List.of(
+                "Gradient descent minimizes the loss with a learning rate.",
+                "The learning rate of stochastic gradient descent decays; descent is noisy.",
+                "Descent gradient is not the phrase, but both words appear.",
+                "Photosynthesis happens in the chloroplast."));
+    }
+
+    @Test
+    void scoreFollowsTheBm25Formula() {
+        index.index(2L, List.of(1L, 2L, 3L), List.of("alpha beta", "alpha gamma gamma", "delta"));
+
+        List<ScoredChunk> hits = index.search(2L, "gamma", 10);
+
+        // N = 3 chunks, 1 contains the term; the chunk has tf = 2 and length 3, average length 2
+        double idf = Math.log(1 + (3 - 1 + 0.5) / (1 + 0.5));
+        double norm = 1.2 * (1 - 0.75 + 0.75 * 3 / 2.0);
+        assertEquals(1, hits.size());
+        assertEquals(2L, hits.get(0).chunkId());
+        assertEquals(idf * (2 * 2.2) / (2 + norm), hits.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        index.index(2L, List.of(1L, 2L, 3L), List.of("common rare", "common filler", "common filler"));
+
+        List<ScoredChunk> hits = index.search(2L, "common rare", 3);
+
+        assertEquals(1L, hits.get(0).chunkId());
+        assertTrue(hits.get(0).score() > 2 * hits.get(1).score());
+    }
+
+    @Test
+    void shorterChunksRankHigherForTheSameFrequency() {
+        index.index(2L, List.of(1L, 2L), List.of("enzyme", "enzyme with many other words around it"));
+
+        List<ScoredChunk> hits = index.search(2L, "enzyme", 2);
+
+        assertEquals(List.of(1L, 2L), hits.stream().map(ScoredChunk::chunkId).toList());
+    }
+
+    @Test
+    void termsAreMatchedWithOrSemantics() {
+        List<Long> ids = ids(index.search(COURSE, "chloroplast stochastic", 10));
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(11L, 13L)));
+    }
+
+    @Test
+    void phraseRequiresConsecutiveTermsInOrder() {
+        List<Long> ids = ids(index.search(COURSE, "\"gradient descent\"", 10));
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(10L, 11L)));
+    }
+
+    @Test
+    void phraseFiltersTheRankedTerms() {
+        List<Long> ids = ids(index.search(COURSE, "\"learning rate\" chloroplast", 10));
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(10L, 11L)));
+    }
+
+    @Test
+    void phraseWithAnUnknownTermMatchesNothing() {
+        assertTrue(index.search(COURSE, "\"gradient ascent\"", 10).isEmpty());
+    }
+
+    @Test
+    void resultsAreLimitedToK() {
+        List<ScoredChunk> hits = index.search(COURSE, "descent", 2);
+
+        assertEquals(2, hits.size());
+        // Chunk 11 has "descent" twice
+        assertEquals(11L, hits.get(0).chunkId());
+    }
+
+    @Test
+    void unknownTermsAndCoursesMatchNothing() {
+        assertTrue(index.search(COURSE, "mitochondria", 10).isEmpty());
+        assertTrue(index.search(99L, "descent", 10).isEmpty());
+        assertTrue(index.search(COURSE, "", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<ScoredChunk> hits) {
+        return hits.stream().map(ScoredChunk::chunkId).toList();
+    }
+}
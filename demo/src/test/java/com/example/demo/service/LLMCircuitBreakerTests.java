@@ -0,0 +1,290 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Unit tests of {@link LLMCircuitBreaker} state transitions, and of how
+ * {@link LLMService} uses it: falling back while the circuit is open, timing
+ * calls out and hedging slow ones.
+ */
+class LLMCircuitBreakerTests {
+
+    private static final String PROVIDER = "fake";
+    private static final String CONTEXT = "Gradient descent updates the weights against the gradient of the loss.";
+
+    private final LLMCircuitBreaker circuitBreaker = FakeLLMProvider.circuitBreaker(5, 1);
+
+    @Test
+    void circuitStaysClosedUntilTheMinimumNumberOfCalls() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(circuitBreaker.allowRequest(PROVIDER));
+            circuitBreaker.recordFailure(PROVIDER);
+        }
+
+        assertEquals(LLMCircuitBreaker.State.CLOSED, circuitBreaker.getState(PROVIDER));
+        assertFalse(circuitBreaker.isOpen(PROVIDER));
+    }
+
+    @Test
+    void circuitOpensAtTheFailureRateThreshold() {
+        record(3, 0);
+        assertEquals(LLMCircuitBreaker.State.CLOSED, circuitBreaker.getState(PROVIDER));
+
+        record(0, 3);
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, circuitBreaker.getState(PROVIDER));
+        assertTrue(circuitBreaker.isOpen(PROVIDER));
+        assertFalse(circuitBreaker.allowRequest(PROVIDER));
+    }
+
+    @Test
+    void circuitOpensWhenMostCallsAreSlow() {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.recordSuccess(PROVIDER, 30_000);
+        }
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, circuitBreaker.getState(PROVIDER));
+    }
+
+    @Test
+    void streamedCallsAreNeitherSlowNorMeasured() {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.recordSuccess(PROVIDER, -1);
+        }
+
+        assertEquals(LLMCircuitBreaker.State.CLOSED, circuitBreaker.getState(PROVIDER));
+        assertEquals(-1, circuitBreaker.latencyPercentileMs(PROVIDER, 95));
+    }
+
+    @Test
+    void successfulTrialClosesTheCircuit() throws InterruptedException {
+        record(0, 5);
+        Thread.sleep(1100);
+
+        assertFalse(circuitBreaker.isOpen(PROVIDER));
+        assertTrue(circuitBreaker.allowRequest(PROVIDER));
+        assertEquals(LLMCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState(PROVIDER));
+        // One trial at a time
+        assertFalse(circuitBreaker.allowRequest(PROVIDER));
+
+        circuitBreaker.recordSuccess(PROVIDER, 100);
+
+        assertEquals(LLMCircuitBreaker.State.CLOSED, circuitBreaker.getState(PROVIDER));
+        // The window starts over: earlier failures do not count any more
+        record(0, 4);
+        assertEquals(LLMCircuitBreaker.State.CLOSED, circuitBreaker.getState(PROVIDER));
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() throws InterruptedException {
+        record(0, 5);
+        Thread.sleep(1100);
+        assertTrue(circuitBreaker.allowRequest(PROVIDER));
+
+        circuitBreaker.recordFailure(PROVIDER);
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, circuitBreaker.getState(PROVIDER));
+        assertFalse(circuitBreaker.allowRequest(PROVIDER));
+    }
+
+    @Test
+    void interruptedTrialReopensTheCircuitUntilTheNextTrial() throws InterruptedException {
+        record(0, 5);
+        Thread.sleep(1100);
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true).holding();
+        LLMService llmService = FakeLLMProvider.llmService(circuitBreaker, provider);
+
+        Thread caller = new Thread(() -> generate(llmService, "Optimization"));
+        caller.start();
+        provider.awaitCall();
+        assertEquals(LLMCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState(PROVIDER));
+        caller.interrupt();
+        caller.join(5000);
+
+        // The trial is reported as failed rather than left holding the half-open slot
+        assertFalse(caller.isAlive());
+        assertEquals(LLMCircuitBreaker.State.OPEN, circuitBreaker.getState(PROVIDER));
+        Thread.sleep(1100);
+        assertTrue(circuitBreaker.allowRequest(PROVIDER));
+    }
+
+    @Test
+    void circuitsAreKeptPerProvider() {
+        record(0, 5);
+
+        assertTrue(circuitBreaker.isOpen(PROVIDER));
+        assertFalse(circuitBreaker.isOpen("other"));
+    }
+
+    @Test
+    void disabledCircuitBreakerAllowsEveryCall() {
+        ReflectionTestUtils.setField(circuitBreaker, "enabled", false);
+        record(0, 10);
+
+        assertFalse(circuitBreaker.isOpen(PROVIDER));
+        assertTrue(circuitBreaker.allowRequest(PROVIDER));
+    }
+
+    @Test
+    void latencyPercentileNeedsTheMinimumNumberOfCalls() {
+        for (int latency = 10; latency <= 40; latency += 10) {
+            circuitBreaker.recordSuccess(PROVIDER, latency);
+        }
+        assertEquals(-1, circuitBreaker.latencyPercentileMs(PROVIDER, 95));
+
+        for (int latency = 50; latency <= 100; latency += 10) {
+            circuitBreaker.recordSuccess(PROVIDER, latency);
+        }
+
+        assertEquals(100, circuitBreaker.latencyPercentileMs(PROVIDER, 95));
+        assertEquals(50, circuitBreaker.latencyPercentileMs(PROVIDER, 50));
+        assertEquals(10, circuitBreaker.latencyPercentileMs(PROVIDER, 1));
+    }
+
+    @Test
+    void openCircuitGivesAMockQuizWithoutACall() {
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true);
+        LLMService llmService = FakeLLMProvider.llmService(circuitBreaker, provider);
+        record(0, 5);
+
+        LLMModels.QuizResponse quiz = generate(llmService, "Optimization");
+
+        assertEquals("mock (provider unavailable)", quiz.getModelUsed());
+        assertEquals(0, provider.calls());
+    }
+
+    @Test
+    void cachedQuizIsStillServedWhileTheCircuitIsOpen() {
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true);
+        LLMService llmService = FakeLLMProvider.llmService(circuitBreaker, provider);
+        generate(llmService, "Optimization");
+        record(0, 5);
+
+        LLMModels.QuizResponse quiz = generate(llmService, "Optimization");
+
+        assertTrue(quiz.isGeneratedByGemini());
+        assertEquals(1, provider.calls());
+    }
+
+    @Test
+    void callTimeoutIsAFailure() {
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true).answering(prompt -> {
+            sleep(5000);
+            return FakeLLMProvider.quizJson(2);
+        });
+        LLMService llmService = FakeLLMProvider.llmService(circuitBreaker, provider);
+        ReflectionTestUtils.setField(llmService, "callTimeoutSeconds", 1L);
+
+        long start = System.currentTimeMillis();
+        LLMModels.QuizResponse quiz = generate(llmService, "Optimization");
+
+        assertTrue(System.currentTimeMillis() - start < 4000);
+        assertFalse(quiz.isGeneratedByGemini());
+        assertEquals(1, provider.calls());
+    }
+
+    @Test
+    void slowCallIsHedgedAndTheFirstAnswerWins() {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean slowCallCancelled = new AtomicBoolean();
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true).answering(prompt -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    slowCallCancelled.set(true);
+                    throw new IllegalStateException("Call cancelled");
+                }
+            }
+            return FakeLLMProvider.quizJson(2);
+        });
+        LLMService llmService = hedging(provider);
+
+        long start = System.currentTimeMillis();
+        LLMModels.QuizResponse quiz = generate(llmService, "Optimization");
+
+        assertTrue(System.currentTimeMillis() - start < 4000);
+        assertTrue(quiz.isGeneratedByGemini());
+        assertEquals(2, provider.calls());
+        awaitTrue(slowCallCancelled);
+    }
+
+    @Test
+    void fastCallIsNotHedged() {
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true);
+        LLMService llmService = hedging(provider);
+
+        generate(llmService, "Optimization");
+
+        assertEquals(1, provider.calls());
+    }
+
+    @Test
+    void callsAreNotHedgedWithoutEnoughLatencySamples() {
+        FakeLLMProvider provider = new FakeLLMProvider(PROVIDER, true).answering(prompt -> {
+            sleep(300);
+            return FakeLLMProvider.quizJson(2);
+        });
+        LLMService llmService = FakeLLMProvider.llmService(circuitBreaker, provider);
+        ReflectionTestUtils.setField(llmService, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(llmService, "hedgingMinDelayMs", 50L);
+
+        generate(llmService, "Optimization");
+
+        assertEquals(1, provider.calls());
+    }
+
+    /**
+     * An LLM service hedging calls slower than 50 ms, the p95 of the recorded latencies.
+     */
+    private LLMService hedging(FakeLLMProvider provider) {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.recordSuccess(PROVIDER, 10);
+        }
+        LLMService llmService = FakeLLMProvider.llmService(circuitBreaker, provider);
+        ReflectionTestUtils.setField(llmService, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(llmService, "hedgingMinDelayMs", 50L);
+        return llmService;
+    }
+
+    private void record(int successes, int failures) {
+        for (int i = 0; i < successes; i++) {
+            circuitBreaker.recordSuccess(PROVIDER, 100);
+        }
+        for (int i = 0; i < failures; i++) {
+            circuitBreaker.recordFailure(PROVIDER);
+        }
+    }
+
+    private static LLMModels.QuizResponse generate(LLMService llmService, String courseTitle) {
+        return llmService.generateQuiz(CONTEXT, 2, DifficultyLevel.MEDIUM, courseTitle,
+                LLMRateLimiter.Priority.GENERATION, null);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Call cancelled");
+        }
+    }
+
+    private static void awaitTrue(AtomicBoolean flag) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!flag.get() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(flag.get());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Unit tests of how {@link LLMService} routes prompts to providers, and
+ * falls back to mock quizzes when a provider is not configured or fails.
+ */
+class LLMProviderSelectionTests {
+
+    private static final String CONTEXT = "Gradient descent updates the weights.\n\nThe learning rate scales every step.";
+
+    private final FakeLLMProvider gemini = new FakeLLMProvider("gemini", true);
+    private final FakeLLMProvider local = new FakeLLMProvider("local", true);
+    private final FakeLLMProvider offline = new FakeLLMProvider("offline", false);
+    private final LLMService llmService =
+            FakeLLMProvider.llmService(FakeLLMProvider.circuitBreaker(5, 30), gemini, local, offline);
+
+    @Test
+    void providersAreSelectedByName() {
+        assertEquals(List.of("gemini", "local", "offline"), llmService.getProviderNames());
+        assertSame(local, llmService.getProvider("local"));
+        assertSame(gemini, llmService.getProvider(null));
+        assertSame(gemini, llmService.getProvider(" "));
+        assertSame(gemini, llmService.getProvider("unknown"));
+    }
+
+    @Test
+    void unknownDefaultProviderIsAnError() {
+        ReflectionTestUtils.setField(llmService, "defaultProvider", "missing");
+
+        assertThrows(IllegalStateException.class, () -> llmService.getProvider(null));
+        assertSame(local, llmService.getProvider("local"));
+    }
+
+    @Test
+    void quizIsGeneratedByTheSelectedProvider() {
+        LLMModels.QuizResponse quiz = generate("local");
+
+        assertTrue(quiz.isGeneratedByGemini());
+        assertEquals("local-model", quiz.getModelUsed());
+        assertEquals(1, local.calls());
+        assertEquals(0, gemini.calls());
+    }
+
+    @Test
+    void unconfiguredProviderGivesAMockQuizWithoutACall() {
+        LLMModels.QuizResponse quiz = generate("offline");
+
+        assertFalse(quiz.isGeneratedByGemini());
+        assertEquals("mock", quiz.getModelUsed());
+        assertEquals(2, quiz.getQuestions().size());
+        assertEquals(0, offline.calls());
+        assertFalse(llmService.isLLMAvailable("offline"));
+        assertTrue(llmService.isLLMAvailable("local"));
+    }
+
+    @Test
+    void failingProviderGivesAMockQuiz() {
+        local.answering(prompt -> {
+            throw new IllegalStateException("HTTP 500 from local");
+        });
+
+        LLMModels.QuizResponse quiz = generate("local");
+
+        assertFalse(quiz.isGeneratedByGemini());
+        assertTrue(quiz.getModelUsed().startsWith("mock"), quiz.getModelUsed());
+        assertEquals(2, quiz.getQuestions().size());
+        // Not a rate limit: not retried
+        assertEquals(1, local.calls());
+    }
+
+    @Test
+    void rateLimitedCallIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        local.answering(prompt -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("HTTP 429 from local (retry after 0.01s)");
+            }
+            return FakeLLMProvider.quizJson(2);
+        });
+
+        LLMModels.QuizResponse quiz = generate("local");
+
+        assertTrue(quiz.isGeneratedByGemini());
+        assertEquals(2, local.calls());
+    }
+
+    @Test
+    void unparseableAnswerGivesAMockQuizThatIsNotCached() {
+        local.answering(prompt -> "I cannot write a quiz about this.");
+
+        LLMModels.QuizResponse quiz = generate("local");
+        generate("local");
+
+        assertFalse(quiz.isGeneratedByGemini());
+        assertEquals("mock (parse-failed)", quiz.getModelUsed());
+        assertEquals(2, local.calls());
+    }
+
+    @Test
+    void generatedQuizIsCachedPerProvider() {
+        generate("local");
+        LLMModels.QuizResponse cached = generate("local");
+        generate("gemini");
+
+        assertTrue(cached.isGeneratedByGemini());
+        assertEquals(1, local.calls());
+        assertEquals(1, gemini.calls());
+    }
+
+    @Test
+    void unconfiguredProviderGivesAMockEvaluation() {
+        LLMModels.EvaluationResponse evaluation = llmService.evaluateQuizResults("", 90.0, 9, 10, List.of(),
+                DifficultyLevel.MEDIUM, "offline");
+
+        assertEquals(llmService.evaluateWithoutLLM(90.0, 9, 10, DifficultyLevel.MEDIUM).getFeedback(),
+                evaluation.getFeedback());
+        assertEquals(0, offline.calls());
+    }
+
+    private LLMModels.QuizResponse generate(String provider) {
+        return llmService.generateQuiz(CONTEXT, 2, DifficultyLevel.MEDIUM, "Optimization",
+                LLMRateLimiter.Priority.GENERATION, provider);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JMH benchmark of {@link LLMResponseParser} against the previous parsing path
+ * of {@link LLMService}: fence stripping and LaTeX repair into new strings,
+ * then a {@link JsonNode} tree mapped to {@link LLMModels}.
+ *
+ * The responses in {@code src/test/resources/llm-responses} follow the
+ * shape of the model's answers: markdown fences, LaTeX with single
+ * backslashes, a single quiz and a batch of four. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.demo.service.LLMResponseParserBenchmark};
+ * the GC profiler reports the allocation per parse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LLMResponseParserBenchmark {
+
+    @Param({"quiz-10.txt", "quiz-batch-4x10.txt"})
+    private String response;
+
+    private String text;
+    private boolean batch;
+    private ObjectMapper objectMapper;
+    private LLMResponseParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/llm-responses/" + response)) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        batch = response.contains("batch");
+        objectMapper = new ObjectMapper();
+        parser = new LLMResponseParser(objectMapper.getFactory());
+    }
+
+    @Benchmark
+    public int streaming() throws IOException {
+        if (batch) {
+            return parser.parseQuizBatch(text, 4).size();
+        }
+        return parser.parseQuiz(text).size();
+    }
+
+    @Benchmark
+    public int tree() throws IOException {
+        JsonNode root = objectMapper.readTree(fixLatexEscapes(extractJson(text)));
+        if (batch) {
+            List<List<LLMModels.QuestionData>> questionSets = new ArrayList<>();
+            for (JsonNode quizNode : root.path("quizzes")) {
+                questionSets.add(parseQuestions(quizNode));
+            }
+            return questionSets.size();
+        }
+        return parseQuestions(root).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LLMResponseParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    // The previous parsing path of LLMService, as the baseline
+
+    private static String extractJson(String text) {
+        String cleaned = text.replaceAll("```json\\s*", "").replaceAll("```\\s*", "");
+        int start = cleaned.indexOf("{");
+        int end = cleaned.lastIndexOf("}");
+        return start >= 0 && end > start ? cleaned.substring(start, end + 1) : "{}";
+    }
+
+    private static String fixLatexEscapes(String json) {
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '\\' && i + 1 < json.length()) {
+                char next = json.charAt(i + 1);
+                result.append(isValidJsonEscape(next) ? "\\" : "\\\\");
+                result.append(next);
+                i += 2;
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isValidJsonEscape(char c) {
+        return c == '"' || c == '\\' || c == '/' ||
+               c == 'b' || c == 'f' || c == 'n' || c == 'r' || c == 't' ||
+               c == 'u';
+    }
+
+    private static List<LLMModels.QuestionData> parseQuestions(JsonNode root) {
+        List<LLMModels.QuestionData> questions = new ArrayList<>();
+        for (JsonNode qNode : root.path("questions")) {
+            LLMModels.QuestionData question = new LLMModels.QuestionData();
+            question.setQuestionText(qNode.path("question_text").asText());
+            question.setCorrectOptionIndex(qNode.path("correct_option_index").asInt(0));
+            question.setExplanation(qNode.path("explanation").asText(""));
+            question.setSourceContext(qNode.path("source_context").asText(""));
+
+            List<LLMModels.OptionData> options = new ArrayList<>();
+            for (JsonNode optNode : qNode.path("options")) {
+                LLMModels.OptionData option = new LLMModels.OptionData();
+                option.setText(optNode.path("text").asText());
+                option.setExplanation(optNode.path("explanation").asText(""));
+                options.add(option);
+            }
+            question.setOptions(options);
+            questions.add(question);
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests of {@link LLMResponseParser} and the repairs of
+ * {@link LLMJsonReader}: surrounding text, LaTeX escapes, lenient binding
+ * and the matching of batched quizzes.
+ */
+class LLMResponseParserTests {
+
+    private final LLMResponseParser parser = new LLMResponseParser(new ObjectMapper().getFactory());
+
+    @Test
+    void fencedJsonIsFoundAndTextAfterItIgnored() throws IOException {
+        String response = "Here is your quiz:\n```json\n" + quiz("What is 2 + 2?") + "\n```\n"
+                + "Let me know if you need {more} questions.";
+
+        List<LLMModels.QuestionData> questions = parser.parseQuiz(response);
+
+        assertEquals(1, questions.size());
+        assertEquals("What is 2 + 2?", questions.get(0).getQuestionText());
+    }
+
+    @Test
+    void responseWithoutJsonHasNoQuestions() throws IOException {
+        assertTrue(parser.parseQuiz("Sorry, I cannot write this quiz.").isEmpty());
+    }
+
+    @Test
+    void escapedQuotesStayInTheString() throws IOException {
+        assertEquals("Is \"f\" {convex}?", questionText("Is \\\"f\\\" {convex}?"));
+    }
+
+    @Test
+    void latexCommandsKeepTheirBackslash() throws IOException {
+        assertEquals("\\frac{1}{2} \\beta \\theta \\rho \\alpha \\sqrt{x}",
+                questionText("\\frac{1}{2} \\beta \\theta \\rho \\alpha \\sqrt{x}"));
+    }
+
+    @Test
+    void controlEscapesBeforeANonLetterStayControlCharacters() throws IOException {
+        assertEquals("a\t b\r\n\f\b/\\", questionText("a\\t b\\r\\n\\f\\b\\/\\\\"));
+        assertEquals("x\t1", questionText("x\\t1"));
+    }
+
+    @Test
+    void newlineEscapeIsANewlineUnlessItStartsAKnownLatexCommand() throws IOException {
+        assertEquals("a \\neq b, \\nabla f, \\nu", questionText("a \\neq b, \\nabla f, \\nu"));
+        assertEquals("Line one\nThe next line\n two", questionText("Line one\\nThe next line\\n two"));
+        assertEquals("end\n", questionText("end\\n"));
+        // "\neqs" is not a command: it reads as a newline before "eqs"
+        assertEquals("\neqs", questionText("\\neqs"));
+    }
+
+    @Test
+    void unicodeEscapeNeedsFourHexDigits() throws IOException {
+        assertEquals("café", questionText("caf\\u00e9"));
+        assertEquals("\\underline{x} \\u12g", questionText("\\underline{x} \\u12g"));
+    }
+
+    @Test
+    void backslashAtTheEndOfTheInputIsEscaped() throws IOException {
+        assertEquals("{\"a\": \"x\\\\", read("{\"a\": \"x\\"));
+        assertThrows(IOException.class, () -> parser.parseQuiz("{\"questions\": [{\"question_text\": \"x\\"));
+    }
+
+    @Test
+    void readerStopsAtTheEndOfTheDocument() throws IOException {
+        assertEquals("{\"a\": \"}\", \"b\": [1]}", read("Sure! {\"a\": \"}\", \"b\": [1]} and {\"c\": 2}"));
+    }
+
+    @Test
+    void bindingIsLenient() throws IOException {
+        String response = "{\"questions\": [\"not a question\", {\"question_text\": null,"
+                + " \"options\": [\"Yes\", {\"text\": \"No\", \"explanation\": \"Because\"}],"
+                + " \"correct_option_index\": [1], \"extra\": {\"skipped\": true}}]}";
+
+        List<LLMModels.QuestionData> questions = parser.parseQuiz(response);
+
+        assertEquals(1, questions.size());
+        LLMModels.QuestionData question = questions.get(0);
+        assertEquals("", question.getQuestionText());
+        assertEquals("", question.getExplanation());
+        assertEquals(0, question.getCorrectOptionIndex());
+        assertEquals("Yes", question.getOptions().get(0).getText());
+        assertEquals("No", question.getOptions().get(1).getText());
+        assertEquals("Because", question.getOptions().get(1).getExplanation());
+    }
+
+    @Test
+    void batchedQuizzesAreMatchedByNumber() throws IOException {
+        String response = "{\"quizzes\": [" + batched(2, "Second") + ", " + batched(1, "First") + "]}";
+
+        List<List<LLMModels.QuestionData>> quizzes = parser.parseQuizBatch(response, 3);
+
+        assertEquals(3, quizzes.size());
+        assertEquals("First", quizzes.get(0).get(0).getQuestionText());
+        assertEquals("Second", quizzes.get(1).get(0).getQuestionText());
+        assertTrue(quizzes.get(2).isEmpty());
+    }
+
+    @Test
+    void batchedQuizzesWithoutNumberAreMatchedByPosition() throws IOException {
+        String response = "{\"quizzes\": [" + quiz("First") + ", " + quiz("Second") + "]}";
+
+        List<List<LLMModels.QuestionData>> quizzes = parser.parseQuizBatch(response, 2);
+
+        assertEquals("First", quizzes.get(0).get(0).getQuestionText());
+        assertEquals("Second", quizzes.get(1).get(0).getQuestionText());
+    }
+
+    @Test
+    void repeatedQuizNumberKeepsTheFirstQuiz() throws IOException {
+        String response = "{\"quizzes\": [" + batched(1, "First") + ", " + batched(1, "Again") + ", "
+                + batched(7, "Out of range") + "]}";
+
+        List<List<LLMModels.QuestionData>> quizzes = parser.parseQuizBatch(response, 2);
+
+        assertEquals("First", quizzes.get(0).get(0).getQuestionText());
+        assertEquals(1, quizzes.get(0).size());
+        assertTrue(quizzes.get(1).isEmpty());
+    }
+
+    @Test
+    void sampleResponsesAreParsed() throws IOException {
+        List<LLMModels.QuestionData> questions = parser.parseQuiz(resource("quiz-10.txt"));
+        assertEquals(10, questions.size());
+
+        List<List<LLMModels.QuestionData>> quizzes = parser.parseQuizBatch(resource("quiz-batch-4x10.txt"), 4);
+        assertEquals(4, quizzes.size());
+        for (List<LLMModels.QuestionData> quiz : quizzes) {
+            assertEquals(10, quiz.size());
+        }
+        assertEquals("What is the derivative of $f(x) = x^3 \\sin(x)$?", quizzes.get(0).get(0).getQuestionText());
+    }
+
+    @Test
+    void singleQuestionIsParsed() throws IOException {
+        assertEquals("Why \\nabla?", parser.parseQuestion(question("Why \\nabla?")).getQuestionText());
+        assertNull(parser.parseQuestion("no object"));
+    }
+
+    /**
+     * The question text parsed from a quiz whose only question has the given raw JSON text.
+     */
+    private String questionText(String rawText) throws IOException {
+        List<LLMModels.QuestionData> questions = parser.parseQuiz(quiz(rawText));
+        assertEquals(1, questions.size());
+        return questions.get(0).getQuestionText();
+    }
+
+    private static String read(String text) throws IOException {
+        StringWriter out = new StringWriter();
+        try (Reader reader = new LLMJsonReader(text)) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+
+    private static String quiz(String rawText) {
+        return "{\"questions\": [" + question(rawText) + "]}";
+    }
+
+    private static String batched(int number, String rawText) {
+        return "{\"quiz\": " + number + ", \"questions\": [" + question(rawText) + "]}";
+    }
+
+    private static String question(String rawText) {
+        return "{\"question_text\": \"" + rawText + "\", \"options\": [{\"text\": \"A\", \"explanation\": \"\"}],"
+                + " \"correct_option_index\": 0, \"explanation\": \"\"}";
+    }
+
+    private String resource(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/llm-responses/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of how {@link LLMService} recognizes rate-limit errors and reads
+ * the retry delay they carry.
+ */
+class LLMRetryTests {
+
+    @Test
+    void throttlingErrorsAreRateLimits() {
+        assertTrue(LLMService.isRateLimit("HTTP 429 from openai: {\"error\": \"slow down\"}"));
+        assertTrue(LLMService.isRateLimit("429 Too Many Requests"));
+        assertTrue(LLMService.isRateLimit("{\"code\": 429, \"status\": \"RESOURCE_EXHAUSTED\"}"));
+        assertTrue(LLMService.isRateLimit("Resource exhausted: resource_exhausted"));
+        assertTrue(LLMService.isRateLimit("Rate limit reached for gpt-4o-mini"));
+        assertTrue(LLMService.isRateLimit("rate_limit_exceeded"));
+        assertTrue(LLMService.isRateLimit("Request was rate-limited"));
+        assertTrue(LLMService.isRateLimit("You exceeded your current quota"));
+    }
+
+    @Test
+    void otherErrorsAreNotRateLimits() {
+        assertFalse(LLMService.isRateLimit("Failed to generate content"));
+        assertFalse(LLMService.isRateLimit("Could not separate the response into questions"));
+        assertFalse(LLMService.isRateLimit("Invalid response from openai: unexpected character at position 14290"));
+        assertFalse(LLMService.isRateLimit("HTTP 500 from openai: accurate moderate rates"));
+        assertFalse(LLMService.isRateLimit("Connection refused"));
+        assertFalse(LLMService.isRateLimit(""));
+        assertFalse(LLMService.isRateLimit(null));
+    }
+
+    @Test
+    void providerRetryDelayIsUsed() {
+        assertEquals(Duration.ofSeconds(37), LLMService.retryDelay("HTTP 429 from openai: {} (retry after 37s)", 1));
+        assertEquals(Duration.ofSeconds(20), LLMService.retryDelay("Retry-After: 20", 1));
+        assertEquals(Duration.ofSeconds(37), LLMService.retryDelay("{\"retryDelay\": \"37s\"}", 1));
+        assertEquals(Duration.ofMillis(37500), LLMService.retryDelay("Please retry in 37.5s.", 1));
+        assertEquals(Duration.ofMillis(589), LLMService.retryDelay("Please retry in 589.67ms.", 1));
+        assertEquals(Duration.ofSeconds(12), LLMService.retryDelay("retry after 12 seconds", 3));
+    }
+
+    @Test
+    void numbersThatAreNotRetryDelaysAreIgnored() {
+        Duration firstBackoff = LLMService.retryDelay("HTTP 429 from openai: {}", 1);
+
+        assertEquals(firstBackoff, LLMService.retryDelay("Retry 3 of 5 failed after 2 s", 1));
+        assertEquals(firstBackoff, LLMService.retryDelay("Quota of 60 requests per minute exceeded", 1));
+        assertEquals(firstBackoff, LLMService.retryDelay("Retry-After: Wed, 21 Oct 2026 07:28:00 GMT", 1));
+        assertEquals(firstBackoff, LLMService.retryDelay("retryDelay unknown, limit 429", 1));
+    }
+
+    @Test
+    void backoffDoublesWithoutProviderDelay() {
+        Duration first = LLMService.retryDelay("429", 1);
+
+        assertEquals(first.multipliedBy(2), LLMService.retryDelay("429", 2));
+        assertEquals(first.multipliedBy(4), LLMService.retryDelay("429", 3));
+    }
+}
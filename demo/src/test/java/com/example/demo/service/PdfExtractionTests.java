@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Checks that extracting the sample PDFs in {@code uploads/} page batch by page
+ * batch on several threads gives the same text as extracting them in one pass.
+ */
+class PdfExtractionTests {
+
+    private static final Path UPLOADS = Paths.get("uploads");
+
+    @Test
+    void parallelExtractionMatchesSequentialExtraction() throws IOException {
+        List<String> pdfs = samplePdfs();
+        assertFalse(pdfs.isEmpty(), "No sample PDF in " + UPLOADS.toAbsolutePath());
+
+        FileStorageService sequential = extractor(1, Integer.MAX_VALUE);
+        FileStorageService parallel = extractor(4, 1);
+        try {
+            for (String pdf : pdfs) {
+                String expected = sequential.extractTextFromPdf(pdf);
+                assertFalse(expected.isBlank(), "No text extracted from " + pdf);
+                assertEquals(expected, parallel.extractTextFromPdf(pdf), "Text of " + pdf);
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void batchSizeDoesNotChangeTheText() throws IOException {
+        String pdf = samplePdfs().get(0);
+        FileStorageService whole = extractor(2, Integer.MAX_VALUE);
+        FileStorageService batched = extractor(2, 2);
+        try {
+            assertEquals(whole.extractTextFromPdf(pdf), batched.extractTextFromPdf(pdf));
+        } finally {
+            whole.shutdown();
+            batched.shutdown();
+        }
+    }
+
+    @Test
+    void extractionDoesNotWaitForHelpersQueuedBehindOtherWork() throws IOException {
+        String pdf = samplePdfs().get(0);
+        FileStorageService sequential = extractor(1, Integer.MAX_VALUE);
+        FileStorageService parallel = extractor(2, 1);
+        // Both extraction threads are held, as by other large documents
+        CountDownLatch busy = new CountDownLatch(1);
+        ExecutorService pool = (ExecutorService) ReflectionTestUtils.getField(parallel, "extractionExecutor");
+        for (int i = 0; i < 2; i++) {
+            pool.submit(() -> {
+                busy.await();
+                return null;
+            });
+        }
+        try {
+            String expected = sequential.extractTextFromPdf(pdf);
+            String text = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> parallel.extractTextFromPdf(pdf));
+            assertEquals(expected, text);
+        } finally {
+            busy.countDown();
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    static List<String> samplePdfs() throws IOException {
+        try (Stream<Path> files = Files.list(UPLOADS)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".pdf"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * A file storage service over {@code uploads/} with the text cache disabled.
+     */
+    private static FileStorageService extractor(int threads, int pagesPerBatch) {
+        ExtractedTextCache cache = new ExtractedTextCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        FileStorageService service = new FileStorageService(cache, new TextNormalizer());
+        ReflectionTestUtils.setField(service, "uploadDir", UPLOADS.toString());
+        ReflectionTestUtils.setField(service, "extractionThreads", threads);
+        ReflectionTestUtils.setField(service, "pagesPerBatch", pagesPerBatch);
+        service.init();
+        return service;
+    }
+}
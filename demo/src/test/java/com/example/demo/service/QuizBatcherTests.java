@@ -0,0 +1,263 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Unit tests of {@link QuizBatcher}: which generations share a batched call,
+ * when a batch is sent, and how the batched answer is split between them.
+ */
+class QuizBatcherTests {
+
+    private static final String CONTEXT = "Gradient descent updates the weights against the gradient of the loss.";
+    private static final Pattern BATCHED_QUIZ = Pattern.compile("QUIZ (\\d+): (\\d+) questions");
+
+    /** Quiz numbers left out of the batched answer. */
+    private final Set<Integer> missingQuizzes = Collections.synchronizedSet(new HashSet<>());
+    private int extraQuestions;
+
+    private final FakeLLMProvider provider = new FakeLLMProvider("fake", true).answering(this::answer);
+    private final LLMService llmService = FakeLLMProvider.llmService(FakeLLMProvider.circuitBreaker(5, 30), provider);
+    private final QuizBatcher batcher = batcher(true, 1000, 4, 40);
+
+    @Test
+    void disabledBatcherGeneratesEachQuizAlone() throws Exception {
+        QuizBatcher disabled = batcher(false, 1000, 4, 40);
+
+        LLMModels.QuizResponse quiz = disabled.generate(input(1L, "Optimization", 2), null);
+
+        assertEquals(2, quiz.getQuestions().size());
+        assertEquals(1, provider.calls());
+        assertFalse(isBatched(provider.prompts().get(0)));
+    }
+
+    @Test
+    void generationAloneInItsWindowTakesTheUsualPath() throws Exception {
+        QuizBatcher quiet = batcher(true, 50, 4, 40);
+        List<LLMModels.QuestionData> streamed = new ArrayList<>();
+
+        LLMModels.QuizResponse quiz = quiet.generate(input(1L, "Optimization", 2), streamed::add);
+
+        assertEquals(quiz.getQuestions(), streamed);
+        assertFalse(isBatched(provider.prompts().get(0)));
+    }
+
+    @Test
+    void concurrentGenerationsOnTheSameContextShareOneCall() throws Exception {
+        List<AtomicReference<Object>> results = generateConcurrently(batcher,
+                input(1L, "Optimization", 2), input(2L, "Optimization", 3), input(3L, "Optimization", 4));
+
+        assertEquals(1, provider.calls());
+        assertTrue(isBatched(provider.prompts().get(0)));
+        // Each generation gets its own question set, of its own size
+        for (int i = 0; i < results.size(); i++) {
+            LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, results.get(i).get());
+            assertEquals(i + 2, quiz.getQuestions().size());
+            String stem = quiz.getQuestions().get(0).getQuestionText().substring(0, "Quiz 1".length());
+            quiz.getQuestions().forEach(question -> assertTrue(question.getQuestionText().startsWith(stem)));
+            assertEquals("fake-model", quiz.getModelUsed());
+        }
+        assertEquals(3, results.stream()
+                .map(result -> ((LLMModels.QuizResponse) result.get()).getQuestions().get(0).getQuestionText())
+                .distinct().count());
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        QuizBatcher small = batcher(true, 10_000, 2, 40);
+        long start = System.currentTimeMillis();
+
+        generateConcurrently(small, input(1L, "Optimization", 2), input(2L, "Optimization", 2));
+
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(1, provider.calls());
+    }
+
+    @Test
+    void quizOverTheQuestionCapStartsANewBatch() throws Exception {
+        QuizBatcher capped = batcher(true, 300, 4, 5);
+
+        List<AtomicReference<Object>> results = generateConcurrently(capped,
+                input(1L, "Optimization", 3, DifficultyLevel.EASY), input(2L, "Optimization", 3, DifficultyLevel.HARD));
+
+        // The two quizzes do not fit in one batch
+        assertEquals(2, provider.calls());
+        provider.prompts().forEach(prompt -> assertFalse(isBatched(prompt)));
+        for (AtomicReference<Object> result : results) {
+            assertEquals(3, assertInstanceOf(LLMModels.QuizResponse.class, result.get()).getQuestions().size());
+        }
+    }
+
+    @Test
+    void generationsOnAnotherCourseAreNotBatchedTogether() throws Exception {
+        QuizBatcher quick = batcher(true, 300, 4, 40);
+
+        generateConcurrently(quick, input(1L, "Optimization", 2), input(2L, "Calculus", 2));
+
+        assertEquals(2, provider.calls());
+    }
+
+    @Test
+    void quizMissingFromTheBatchedAnswerIsRequestedAlone() throws Exception {
+        missingQuizzes.add(2);
+
+        List<AtomicReference<Object>> results = generateConcurrently(batcher,
+                input(1L, "Optimization", 2), input(2L, "Optimization", 3));
+
+        assertEquals(2, provider.calls());
+        assertTrue(isBatched(provider.prompts().get(0)));
+        assertFalse(isBatched(provider.prompts().get(1)));
+        for (AtomicReference<Object> result : results) {
+            LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, result.get());
+            assertTrue(quiz.isGeneratedByGemini());
+        }
+    }
+
+    @Test
+    void extraQuestionsOfTheBatchedAnswerAreDropped() throws Exception {
+        extraQuestions = 2;
+
+        List<AtomicReference<Object>> results = generateConcurrently(batcher,
+                input(1L, "Optimization", 2), input(2L, "Optimization", 3));
+
+        assertEquals(2, ((LLMModels.QuizResponse) results.get(0).get()).getQuestions().size());
+        assertEquals(3, ((LLMModels.QuizResponse) results.get(1).get()).getQuestions().size());
+    }
+
+    @Test
+    void batchedQuestionsAreHandedToTheCallback() throws Exception {
+        List<LLMModels.QuestionData> streamed = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<Object> streamedResult = new AtomicReference<>();
+        Thread streaming = new Thread(() -> {
+            try {
+                streamedResult.set(batcher.generate(input(1L, "Optimization", 2), streamed::add));
+            } catch (Exception e) {
+                streamedResult.set(e);
+            }
+        });
+        streaming.start();
+        generateConcurrently(batcher, input(2L, "Optimization", 2));
+        streaming.join();
+
+        assertEquals(1, provider.calls());
+        LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, streamedResult.get());
+        assertEquals(quiz.getQuestions(), streamed);
+    }
+
+    @Test
+    void providerFailureGivesEveryMemberAFallbackQuiz() throws Exception {
+        provider.answering(prompt -> {
+            throw new IllegalStateException("HTTP 500 from fake");
+        });
+
+        List<AtomicReference<Object>> results = generateConcurrently(batcher,
+                input(1L, "Optimization", 2), input(2L, "Optimization", 3));
+
+        assertEquals(1, provider.calls());
+        for (int i = 0; i < results.size(); i++) {
+            LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, results.get(i).get());
+            assertFalse(quiz.isGeneratedByGemini());
+            assertEquals(i + 2, quiz.getQuestions().size());
+        }
+    }
+
+    /**
+     * Answer a batched prompt with one question set per quiz it lists, and a single prompt with one quiz.
+     */
+    private String answer(String prompt) {
+        if (!isBatched(prompt)) {
+            return FakeLLMProvider.quizJson(numberOfQuestions(prompt));
+        }
+        StringBuilder json = new StringBuilder("{\"quizzes\": [");
+        Matcher quiz = BATCHED_QUIZ.matcher(prompt);
+        boolean first = true;
+        while (quiz.find()) {
+            int number = Integer.parseInt(quiz.group(1));
+            if (missingQuizzes.contains(number)) {
+                continue;
+            }
+            if (!first) {
+                json.append(", ");
+            }
+            first = false;
+            json.append("{\"quiz\": ").append(number).append(", \"questions\": [")
+                    .append(FakeLLMProvider.questionsJson("Quiz " + number + " question",
+                            Integer.parseInt(quiz.group(2)) + extraQuestions))
+                    .append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static int numberOfQuestions(String prompt) {
+        Matcher count = Pattern.compile("NUMBER OF QUESTIONS: (\\d+)").matcher(prompt);
+        return count.find() ? Integer.parseInt(count.group(1)) : 2;
+    }
+
+    private static boolean isBatched(String prompt) {
+        return BATCHED_QUIZ.matcher(prompt).find();
+    }
+
+    /**
+     * Run the generations on their own threads and wait for all of them.
+     *
+     * @return the quiz or exception of each generation, in order
+     */
+    private static List<AtomicReference<Object>> generateConcurrently(QuizBatcher batcher,
+                                                                      AgentService.QuizGenerationInput... inputs)
+            throws InterruptedException {
+        List<AtomicReference<Object>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (AgentService.QuizGenerationInput input : inputs) {
+            AtomicReference<Object> result = new AtomicReference<>();
+            results.add(result);
+            Thread thread = new Thread(() -> {
+                try {
+                    result.set(batcher.generate(input, null));
+                } catch (Exception e) {
+                    result.set(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return results;
+    }
+
+    private static AgentService.QuizGenerationInput input(Long studentId, String courseTitle, int numberOfQuestions) {
+        return input(studentId, courseTitle, numberOfQuestions, DifficultyLevel.MEDIUM);
+    }
+
+    private static AgentService.QuizGenerationInput input(Long studentId, String courseTitle, int numberOfQuestions,
+                                                          DifficultyLevel difficulty) {
+        return new AgentService.QuizGenerationInput(studentId, studentId, CONTEXT, numberOfQuestions,
+                difficulty, courseTitle, null);
+    }
+
+    private QuizBatcher batcher(boolean enabled, long windowMs, int maxQuizzes, int maxQuestions) {
+        QuizBatcher quizBatcher = new QuizBatcher(llmService);
+        ReflectionTestUtils.setField(quizBatcher, "enabled", enabled);
+        ReflectionTestUtils.setField(quizBatcher, "windowMs", windowMs);
+        ReflectionTestUtils.setField(quizBatcher, "maxQuizzes", maxQuizzes);
+        ReflectionTestUtils.setField(quizBatcher, "maxQuestions", maxQuestions);
+        return quizBatcher;
+    }
+}
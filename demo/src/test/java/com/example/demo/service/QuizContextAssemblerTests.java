@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.ChunkTextDTO;
+
+/**
+ * Unit tests of the token budget, coverage and overlap removal of the quiz
+ * context assembler.
+ */
+class QuizContextAssemblerTests {
+
+    private static final int OVERLAP = 50;
+
+    private final QuizContextAssembler assembler = new QuizContextAssembler();
+
+    @Test
+    void noChunksGiveAnEmptyContext() {
+        assertEquals("", assembler.assemble(List.of(), Map.of(), 100, 3, OVERLAP));
+    }
+
+    @Test
+    void selectionStaysWithinTheTokenBudget() {
+        String context = assembler.assemble(chunks(10, 10), Map.of(), 35, 1, OVERLAP);
+
+        assertEquals(3, selected(context, 10).size());
+    }
+
+    @Test
+    void firstChunkIsKeptEvenOverTheBudget() {
+        String context = assembler.assemble(chunks(3, 100), Map.of(), 10, 1, OVERLAP);
+
+        assertEquals(List.of(1), selected(context, 3));
+    }
+
+    @Test
+    void eachSectionIsCoveredWithoutRelevance() {
+        // Sections [0, 3), [3, 6) and [6, 10): their middle chunks
+        String context = assembler.assemble(chunks(10, 10), Map.of(), 30, 3, OVERLAP);
+
+        assertEquals(List.of(1, 4, 7), selected(context, 10));
+    }
+
+    @Test
+    void mostRelevantChunksFillTheBudgetInDocumentOrder() {
+        Map<Long, Double> relevance = Map.of(9L, 1.0, 2L, 0.5, 5L, 0.1);
+
+        String context = assembler.assemble(chunks(10, 10), relevance, 20, 1, OVERLAP);
+
+        assertEquals(List.of(2, 9), selected(context, 10));
+        assertTrue(context.indexOf("chunk-2 ") < context.indexOf("chunk-9 "));
+    }
+
+    @Test
+    void representativesOfRelevantSectionsComeFirst() {
+        // Two sections; the budget only fits one chunk, the one of the relevant section
+        Map<Long, Double> relevance = Map.of(8L, 1.0);
+
+        String context = assembler.assemble(chunks(10, 10), relevance, 10, 2, OVERLAP);
+
+        assertEquals(List.of(8), selected(context, 10));
+    }
+
+    @Test
+    void overlapOfConsecutiveChunksIsEmittedOnce() {
+        String shared = "the shared overlap text";
+        ChunkTextDTO first = chunk(0, "First part ends with " + shared, 10);
+        ChunkTextDTO second = chunk(1, shared + " and the second part goes on.", 10);
+
+        String context = assembler.assemble(List.of(first, second), Map.of(), 100, 1, OVERLAP);
+
+        assertEquals("First part ends with " + shared + "\n\nand the second part goes on.", context);
+    }
+
+    @Test
+    void overlapIsKeptBetweenChunksThatAreNotConsecutive() {
+        String shared = "the shared overlap text";
+        ChunkTextDTO first = chunk(0, "First part ends with " + shared, 10);
+        ChunkTextDTO gap = chunk(1, "A chunk that is not selected.", 1000);
+        ChunkTextDTO third = chunk(2, shared + " and the third part goes on.", 10);
+
+        Map<Long, Double> relevance = Map.of(0L, 1.0, 2L, 0.5);
+
+        String context = assembler.assemble(List.of(first, gap, third), relevance, 100, 1, OVERLAP);
+
+        assertFalse(context.contains("not selected"));
+        assertTrue(context.endsWith(shared + " and the third part goes on."));
+    }
+
+    @Test
+    void shortCoincidentalMatchesAreNotTreatedAsOverlap() {
+        ChunkTextDTO first = chunk(0, "It ends with cell.", 10);
+        ChunkTextDTO second = chunk(1, "cell. starts the next one", 10);
+
+        String context = assembler.assemble(List.of(first, second), Map.of(), 100, 1, OVERLAP);
+
+        assertEquals("It ends with cell.\n\ncell. starts the next one", context);
+    }
+
+    private static List<ChunkTextDTO> chunks(int count, int tokens) {
+        List<ChunkTextDTO> chunks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            chunks.add(chunk(i, "chunk-" + i + " text", tokens));
+        }
+        return chunks;
+    }
+
+    private static ChunkTextDTO chunk(int index, String content, int tokens) {
+        return new ChunkTextDTO((long) index, index, tokens, content);
+    }
+
+    /**
+     * Indexes of the numbered chunks present in a context, in the order they appear.
+     */
+    private static List<Integer> selected(String context, int count) {
+        List<Integer> indexes = new ArrayList<>();
+        for (String part : context.split("\n\n")) {
+            for (int i = 0; i < count; i++) {
+                if (part.equals("chunk-" + i + " text")) {
+                    indexes.add(i);
+                }
+            }
+        }
+        return indexes;
+    }
+}
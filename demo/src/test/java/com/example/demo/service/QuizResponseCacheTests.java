@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Unit tests of {@link QuizResponseCache}: what the key depends on, and that
+ * an entry is served at most once to each student.
+ */
+class QuizResponseCacheTests {
+
+    private static final String CONTEXT = "Gradient descent updates the weights against the gradient of the loss.";
+
+    private static final long GENERATING_STUDENT = 1L;
+    private static final long OTHER_STUDENT = 2L;
+
+    private final QuizResponseCache cache = cache();
+
+    @Test
+    void keyDependsOnEverythingInThePrompt() {
+        String key = QuizResponseCache.keyOf("openai/gpt", 3, "Optimization", CONTEXT, DifficultyLevel.MEDIUM, 5);
+
+        assertEquals(key, QuizResponseCache.keyOf("openai/gpt", 3, "Optimization", CONTEXT, DifficultyLevel.MEDIUM, 5));
+        assertNotEquals(key, QuizResponseCache.keyOf("openai/gpt", 3, "Calculus", CONTEXT, DifficultyLevel.MEDIUM, 5));
+        assertNotEquals(key, QuizResponseCache.keyOf("gemini/flash", 3, "Optimization", CONTEXT, DifficultyLevel.MEDIUM, 5));
+        assertNotEquals(key, QuizResponseCache.keyOf("openai/gpt", 4, "Optimization", CONTEXT, DifficultyLevel.MEDIUM, 5));
+        assertNotEquals(key, QuizResponseCache.keyOf("openai/gpt", 3, "Optimization", CONTEXT + ".", DifficultyLevel.MEDIUM, 5));
+        assertNotEquals(key, QuizResponseCache.keyOf("openai/gpt", 3, "Optimization", CONTEXT, DifficultyLevel.HARD, 5));
+        assertNotEquals(key, QuizResponseCache.keyOf("openai/gpt", 3, "Optimization", CONTEXT, DifficultyLevel.MEDIUM, 6));
+    }
+
+    @Test
+    void generatingStudentIsNotServedTheirOwnQuiz() {
+        cache.put("key", quiz(3), GENERATING_STUDENT);
+
+        assertTrue(cache.get("key", GENERATING_STUDENT).isEmpty());
+        assertTrue(cache.get("key", OTHER_STUDENT).isPresent());
+    }
+
+    @Test
+    void eachStudentIsServedAnEntryOnce() {
+        cache.put("key", quiz(3), GENERATING_STUDENT);
+
+        assertEquals(3, cache.get("key", OTHER_STUDENT).orElseThrow().getQuestions().size());
+        assertTrue(cache.get("key", OTHER_STUDENT).isEmpty());
+        assertTrue(cache.get("key", 3L).isPresent());
+    }
+
+    @Test
+    void entryWithoutStudentIsServedToAnyone() {
+        cache.put("key", quiz(3), null);
+
+        assertTrue(cache.get("key", null).isPresent());
+        assertTrue(cache.get("key", null).isPresent());
+        assertTrue(cache.get("key", OTHER_STUDENT).isPresent());
+    }
+
+    @Test
+    void newEntryCanBeServedAgain() {
+        cache.put("key", quiz(3), GENERATING_STUDENT);
+        assertTrue(cache.get("key", OTHER_STUDENT).isPresent());
+
+        cache.put("key", quiz(4), 3L);
+
+        assertEquals(4, cache.get("key", OTHER_STUDENT).orElseThrow().getQuestions().size());
+    }
+
+    @Test
+    void joiningAnInFlightGenerationMarksTheStudentServed() {
+        assertTrue(cache.markServed("missing", OTHER_STUDENT));
+        cache.put("key", quiz(3), GENERATING_STUDENT);
+
+        assertFalse(cache.markServed("key", GENERATING_STUDENT));
+        assertTrue(cache.markServed("key", OTHER_STUDENT));
+        assertTrue(cache.get("key", OTHER_STUDENT).isEmpty());
+    }
+
+    @Test
+    void expiredEntryIsAMiss() {
+        ReflectionTestUtils.setField(cache, "ttlMinutes", -1L);
+        cache.put("key", quiz(3), GENERATING_STUDENT);
+
+        assertTrue(cache.get("key", OTHER_STUDENT).isEmpty());
+    }
+
+    @Test
+    void hitsAreCopies() {
+        cache.put("key", quiz(3), null);
+
+        cache.get("key", null).orElseThrow().getQuestions().clear();
+
+        assertEquals(3, cache.get("key", null).orElseThrow().getQuestions().size());
+    }
+
+    @Test
+    void shuffleKeepsTheCorrectOption() {
+        LLMModels.QuizResponse response = quiz(6);
+
+        QuizResponseCache.shuffle(response, new Random(42));
+
+        for (LLMModels.QuestionData question : response.getQuestions()) {
+            String correct = question.getOptions().get(question.getCorrectOptionIndex()).getText();
+            assertEquals(question.getQuestionText() + " right", correct);
+        }
+    }
+
+    private static QuizResponseCache cache() {
+        QuizResponseCache cache = new QuizResponseCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(cache, "shuffle", true);
+        return cache;
+    }
+
+    /**
+     * A quiz whose questions have their correct option at varying indexes.
+     */
+    private static LLMModels.QuizResponse quiz(int numberOfQuestions) {
+        List<LLMModels.QuestionData> questions = new ArrayList<>();
+        for (int q = 0; q < numberOfQuestions; q++) {
+            LLMModels.QuestionData question = new LLMModels.QuestionData();
+            question.setQuestionText("Question " + q);
+            List<LLMModels.OptionData> options = new ArrayList<>();
+            for (int o = 0; o < 4; o++) {
+                LLMModels.OptionData option = new LLMModels.OptionData();
+                option.setText("Question " + q + (o == q % 4 ? " right" : " wrong " + o));
+                options.add(option);
+            }
+            question.setOptions(options);
+            question.setCorrectOptionIndex(q % 4);
+            questions.add(question);
+        }
+        LLMModels.QuizResponse response = new LLMModels.QuizResponse();
+        response.setQuestions(questions);
+        return response;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.DifficultyLevel;
+
+/**
+ * Unit tests of the single flight of {@link LLMService}: concurrent identical
+ * quiz requests share one provider call, and a leader that fails does not
+ * take the requests waiting on it down with it.
+ */
+class QuizSingleFlightTests {
+
+    private static final String CONTEXT = "Gradient descent updates the weights against the gradient of the loss.";
+
+    private final FakeLLMProvider provider = new FakeLLMProvider("fake", true).holding();
+    private final LLMService llmService = FakeLLMProvider.llmService(FakeLLMProvider.circuitBreaker(5, 30), provider);
+
+    @Test
+    void concurrentIdenticalRequestsShareOneCall() throws Exception {
+        List<AtomicReference<Object>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        Thread leader = request(results, "Optimization", null);
+        provider.awaitCall();
+        for (int i = 0; i < 3; i++) {
+            threads.add(request(results, "Optimization", null));
+        }
+        awaitWaiting(threads);
+
+        provider.release();
+        leader.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, provider.calls());
+        for (AtomicReference<Object> result : results) {
+            LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, result.get());
+            assertEquals(2, quiz.getQuestions().size());
+            assertTrue(quiz.isGeneratedByGemini());
+        }
+        // Every waiter gets its own copy
+        assertNotSame(results.get(0).get(), results.get(1).get());
+        assertNotSame(((LLMModels.QuizResponse) results.get(1).get()).getQuestions().get(0),
+                ((LLMModels.QuizResponse) results.get(2).get()).getQuestions().get(0));
+    }
+
+    @Test
+    void requestsForAnotherCourseAreNotCoalesced() throws Exception {
+        List<AtomicReference<Object>> results = new ArrayList<>();
+        Thread first = request(results, "Optimization", null);
+        provider.awaitCall();
+        Thread second = request(results, "Calculus", null);
+
+        provider.release();
+        first.join();
+        second.join();
+
+        assertEquals(2, provider.calls());
+    }
+
+    @Test
+    void leaderFailureIsNotPassedOnToWaiters() throws Exception {
+        AtomicReference<Object> leaderResult = new AtomicReference<>();
+        Thread leader = new Thread(() -> {
+            try {
+                leaderResult.set(llmService.streamQuiz(CONTEXT, 2, DifficultyLevel.MEDIUM, "Optimization", null, 1L,
+                        question -> {
+                            throw new IllegalStateException("Quiz 1 is not awaiting generation");
+                        }));
+            } catch (RuntimeException e) {
+                leaderResult.set(e);
+            }
+        });
+        leader.start();
+        provider.awaitCall();
+        List<AtomicReference<Object>> results = new ArrayList<>();
+        Thread waiter = request(results, "Optimization", 2L);
+        awaitWaiting(List.of(waiter));
+
+        provider.release();
+        leader.join();
+        waiter.join();
+
+        IllegalStateException failure = assertInstanceOf(IllegalStateException.class, leaderResult.get());
+        assertEquals("Quiz 1 is not awaiting generation", failure.getMessage());
+        LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, results.get(0).get());
+        assertEquals(2, quiz.getQuestions().size());
+        assertTrue(quiz.isGeneratedByGemini());
+        // The waiter started over with its own call
+        assertEquals(2, provider.calls());
+    }
+
+    @Test
+    void providerErrorOfTheLeaderGivesEveryoneTheFallbackQuiz() throws Exception {
+        provider.answering(prompt -> {
+            throw new IllegalStateException("HTTP 500 from fake");
+        });
+        List<AtomicReference<Object>> results = new ArrayList<>();
+        Thread leader = request(results, "Optimization", null);
+        provider.awaitCall();
+        Thread waiter = request(results, "Optimization", null);
+        awaitWaiting(List.of(waiter));
+
+        provider.release();
+        leader.join();
+        waiter.join();
+
+        assertEquals(1, provider.calls());
+        for (AtomicReference<Object> result : results) {
+            LLMModels.QuizResponse quiz = assertInstanceOf(LLMModels.QuizResponse.class, result.get());
+            assertEquals("mock (rate-limited)", quiz.getModelUsed());
+        }
+    }
+
+    /**
+     * Start a plain quiz request on its own thread, its quiz or exception stored in a new result.
+     */
+    private Thread request(List<AtomicReference<Object>> results, String courseTitle, Long studentId) {
+        AtomicReference<Object> result = new AtomicReference<>();
+        results.add(result);
+        Thread thread = new Thread(() -> {
+            try {
+                result.set(llmService.generateQuiz(CONTEXT, 2, DifficultyLevel.MEDIUM, courseTitle,
+                        LLMRateLimiter.Priority.GENERATION, null, studentId));
+            } catch (RuntimeException e) {
+                result.set(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Wait until the threads are parked, i.e. waiting on the in-flight request.
+     */
+    private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(Thread.State.WAITING, thread.getState());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link QuizStreamParser}: each question object is handed over
+ * whole, once, however the response is split into chunks.
+ */
+class QuizStreamParserTests {
+
+    private static final String FIRST = "{\"question_text\": \"What is {x}?\", \"options\": [{\"text\": \"a]\"}, {\"text\": \"b\"}], "
+            + "\"correct_option_index\": 0}";
+    private static final String SECOND = "{\"question_text\": \"Say \\\"hi\\\" \\\\\", \"options\": [], "
+            + "\"source_context\": \"$\\\\frac{a}{b}$\"}";
+    private static final String RESPONSE = "```json\n{\"questions\": [" + FIRST + ",\n  " + SECOND + "]}\n```";
+
+    @Test
+    void wholeResponseGivesEachQuestionObject() {
+        assertEquals(List.of(FIRST, SECOND), parse(RESPONSE));
+    }
+
+    @Test
+    void everyChunkSizeGivesTheSameQuestions() {
+        for (int size = 1; size <= RESPONSE.length(); size++) {
+            assertEquals(List.of(FIRST, SECOND), parse(split(RESPONSE, size)), "Chunks of " + size + " chars");
+        }
+    }
+
+    @Test
+    void chunksCutInsideEscapesGiveTheSameQuestions() {
+        // Cut right after each backslash, so an escape is completed by the next chunk
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < RESPONSE.length(); i++) {
+            if (RESPONSE.charAt(i) == '\\') {
+                chunks.add(RESPONSE.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        chunks.add(RESPONSE.substring(start));
+        assertTrue(chunks.size() > 3);
+
+        assertEquals(List.of(FIRST, SECOND), parse(chunks));
+    }
+
+    @Test
+    void questionIsHandedOverAsSoonAsItIsClosed() {
+        List<String> questions = new ArrayList<>();
+        QuizStreamParser parser = new QuizStreamParser(questions::add);
+
+        parser.feed("{\"questions\": [" + FIRST.substring(0, FIRST.length() - 1));
+        assertTrue(questions.isEmpty());
+        parser.feed("}, " + SECOND.substring(0, 10));
+
+        assertEquals(List.of(FIRST), questions);
+    }
+
+    @Test
+    void incompleteLastQuestionIsNotHandedOver() {
+        assertEquals(List.of(FIRST), parse("{\"questions\": [" + FIRST + ", " + SECOND.substring(0, SECOND.length() - 1)));
+    }
+
+    @Test
+    void topLevelArrayHoldsTheQuestions() {
+        assertEquals(List.of(FIRST, SECOND), parse("[" + FIRST + ", " + SECOND + "]"));
+    }
+
+    @Test
+    void fieldsBeforeTheQuestionsAreSkipped() {
+        assertEquals(List.of(FIRST), parse("{\"title\": \"Quiz [1] {draft}\", \"questions\": [" + FIRST + "]}"));
+    }
+
+    @Test
+    void textAfterTheQuestionsIsIgnored() {
+        assertEquals(List.of(FIRST), parse("{\"questions\": [" + FIRST + "]}\n```\nAlso: {\"questions\": [" + SECOND + "]}"));
+    }
+
+    private static List<String> parse(String response) {
+        return parse(List.of(response));
+    }
+
+    private static List<String> parse(List<String> chunks) {
+        List<String> questions = new ArrayList<>();
+        QuizStreamParser parser = new QuizStreamParser(questions::add);
+        chunks.forEach(parser::feed);
+        return questions;
+    }
+
+    private static List<String> split(String text, int size) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += size) {
+            chunks.add(text.substring(i, Math.min(text.length(), i + size)));
+        }
+        return chunks;
+    }
+}
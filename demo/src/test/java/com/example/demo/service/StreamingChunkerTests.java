@@ -0,0 +1,278 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.CourseChunk;
+
+/**
+ * Unit tests of {@link StreamingChunker}: cut boundaries, overlap, positions,
+ * and identical output whether the text is in memory or read in pieces.
+ */
+class StreamingChunkerTests {
+
+    private static final int CHUNK_SIZE = 100;
+    private static final int OVERLAP = 20;
+
+    private final StreamingChunker chunker = new StreamingChunker(CHUNK_SIZE, OVERLAP);
+
+    @Test
+    void shortTextIsOneChunk() {
+        List<CourseChunk> chunks = chunk("  Gradient descent.  ");
+
+        assertEquals(1, chunks.size());
+        assertEquals("Gradient descent.", chunks.get(0).getContent());
+        assertEquals(0, chunks.get(0).getChunkIndex());
+        assertEquals(2, chunks.get(0).getStartPosition());
+        assertEquals(19, chunks.get(0).getEndPosition());
+    }
+
+    @Test
+    void blankTextHasNoChunks() {
+        assertTrue(chunk(" \n\t\r\n ").isEmpty());
+        assertTrue(chunk("").isEmpty());
+    }
+
+    @Test
+    void whitespaceIsNormalized() {
+        List<CourseChunk> chunks = chunk("one  two\t\tthree\r\n   four\r\n\r\n\r\nfive");
+
+        assertEquals(1, chunks.size());
+        assertEquals("one two three\nfour\n\nfive", chunks.get(0).getContent());
+    }
+
+    @Test
+    void cutsAtParagraphBreak() {
+        String first = words("alpha", 10) + ". " + words("beta", 2);
+        String text = first + "\n\n" + words("gamma", 15);
+
+        List<CourseChunk> chunks = chunk(text);
+
+        assertEquals(first, chunks.get(0).getContent());
+    }
+
+    @Test
+    void cutsAtSentenceEndWhenThereIsNoParagraphBreak() {
+        String sentence = words("alpha", 11) + ".";
+        String text = sentence + " " + words("beta", 15);
+
+        List<CourseChunk> chunks = chunk(text);
+
+        assertEquals(sentence, chunks.get(0).getContent());
+    }
+
+    @Test
+    void cutsAtWordBreakInRunningText() {
+        List<CourseChunk> chunks = chunk(words("word", 40));
+
+        for (CourseChunk chunk : chunks) {
+            assertTrue(chunk.getContent().startsWith("word"), chunk.getContent());
+            assertTrue(Character.isDigit(chunk.getContent().charAt(chunk.getContent().length() - 1)), chunk.getContent());
+        }
+    }
+
+    @Test
+    void paragraphBreakTooEarlyInTheWindowIsIgnored() {
+        // A cut at the short heading would make a tiny chunk; the sentence end is used instead
+        String text = "Heading\n\n" + words("alpha", 10) + ". " + words("beta", 10);
+
+        List<CourseChunk> chunks = chunk(text);
+
+        assertTrue(chunks.get(0).getContent().startsWith("Heading\n\nalpha0"));
+        assertTrue(chunks.get(0).getContent().endsWith("alpha9."));
+    }
+
+    @Test
+    void consecutiveChunksOverlapByWholeWords() {
+        String text = words("word", 80);
+
+        List<CourseChunk> chunks = chunk(text);
+
+        assertTrue(chunks.size() > 2);
+        for (int i = 1; i < chunks.size(); i++) {
+            CourseChunk previous = chunks.get(i - 1);
+            CourseChunk current = chunks.get(i);
+            int overlap = previous.getEndPosition() - current.getStartPosition();
+            assertTrue(overlap > 0 && overlap <= OVERLAP, "Overlap of " + overlap + " chars");
+            assertEquals(' ', text.charAt(current.getStartPosition() - 1), "Overlap must start on a word");
+            assertTrue(previous.getContent().endsWith(text.substring(current.getStartPosition(), previous.getEndPosition())));
+        }
+    }
+
+    @Test
+    void oversizedWordIsSplitIntoFullChunks() {
+        String word = "x".repeat(250);
+
+        List<CourseChunk> chunks = chunk(word);
+
+        assertEquals(0, chunks.get(0).getStartPosition());
+        assertEquals(250, chunks.get(chunks.size() - 1).getEndPosition());
+        for (int i = 0; i < chunks.size(); i++) {
+            CourseChunk chunk = chunks.get(i);
+            assertTrue(chunk.getContent().length() <= CHUNK_SIZE);
+            if (i > 0) {
+                // Without a word break the overlap is carried as is
+                assertEquals(OVERLAP, chunks.get(i - 1).getEndPosition() - chunk.getStartPosition());
+            }
+        }
+    }
+
+    @Test
+    void chunksNeverExceedTheChunkSize() {
+        for (CourseChunk chunk : chunk(document(30))) {
+            assertTrue(chunk.getContent().length() <= CHUNK_SIZE, "Chunk of " + chunk.getContent().length() + " chars");
+        }
+    }
+
+    @Test
+    void positionsDelimitTheChunkInTheSource() {
+        String text = document(30);
+
+        List<CourseChunk> chunks = chunk(text);
+
+        for (CourseChunk chunk : chunks) {
+            assertEquals(chunk.getContent(), text.substring(chunk.getStartPosition(), chunk.getEndPosition()));
+        }
+    }
+
+    @Test
+    void positionsDelimitTheChunkInUnnormalizedSource() {
+        String text = document(30).replace(" ", " \t ").replace("\n\n", "\r\n  \r\n");
+
+        List<CourseChunk> chunks = chunk(text);
+
+        for (CourseChunk chunk : chunks) {
+            String source = text.substring(chunk.getStartPosition(), chunk.getEndPosition());
+            assertEquals(chunk.getContent(), source.replace(" \t ", " ").replace("\r\n  \r\n", "\n\n"));
+        }
+    }
+
+    @Test
+    void everyWordIsInSomeChunk() {
+        String text = document(30);
+        boolean[] covered = new boolean[text.length()];
+        for (CourseChunk chunk : chunk(text)) {
+            for (int i = chunk.getStartPosition(); i < chunk.getEndPosition(); i++) {
+                covered[i] = true;
+            }
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            assertTrue(covered[i] || Character.isWhitespace(text.charAt(i)), "Char " + i + " is in no chunk");
+        }
+    }
+
+    @Test
+    void chunkIndexesAreConsecutiveAndCounted() {
+        List<CourseChunk> chunks = new ArrayList<>();
+        int count = chunker.chunk(document(30), null, chunks::add);
+
+        assertEquals(chunks.size(), count);
+        for (int i = 0; i < chunks.size(); i++) {
+            assertEquals(i, chunks.get(i).getChunkIndex());
+        }
+    }
+
+    @Test
+    void readerGivesTheSameChunksAcrossReadBufferBoundaries() throws IOException {
+        // Longer than the 8 KB read buffer, with a line ending split across the boundary
+        String text = document(200);
+        text = text.substring(0, 8191) + "\r\n" + text.substring(8191);
+        assertTrue(text.length() > 3 * 8192);
+        List<CourseChunk> expected = chunk(text);
+
+        List<CourseChunk> buffered = new ArrayList<>();
+        chunker.chunk(new StringReader(text), null, buffered::add);
+        List<CourseChunk> trickled = new ArrayList<>();
+        chunker.chunk(new TrickleReader(text, 7), null, trickled::add);
+
+        assertSameChunks(expected, buffered);
+        assertSameChunks(expected, trickled);
+    }
+
+    @Test
+    void overlapMustBeLessThanHalfTheChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new StreamingChunker(100, 50));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingChunker(100, -1));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingChunker(0, 0));
+    }
+
+    private List<CourseChunk> chunk(String text) {
+        List<CourseChunk> chunks = new ArrayList<>();
+        chunker.chunk(text, null, chunks::add);
+        return chunks;
+    }
+
+    private static void assertSameChunks(List<CourseChunk> expected, List<CourseChunk> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getContent(), actual.get(i).getContent());
+            assertEquals(expected.get(i).getChunkIndex(), actual.get(i).getChunkIndex());
+            assertEquals(expected.get(i).getStartPosition(), actual.get(i).getStartPosition());
+            assertEquals(expected.get(i).getEndPosition(), actual.get(i).getEndPosition());
+        }
+    }
+
+    private static String words(String stem, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(stem).append(i);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Paragraphs of sentences of varying length, separated by blank lines.
+     */
+    private static String document(int paragraphs) {
+        StringBuilder text = new StringBuilder();
+        for (int p = 0; p < paragraphs; p++) {
+            if (p > 0) {
+                text.append("\n\n");
+            }
+            for (int s = 0; s < 2 + p % 4; s++) {
+                if (s > 0) {
+                    text.append(' ');
+                }
+                text.append(words("p" + p + "s" + s + "w", 3 + (p * 7 + s * 3) % 11)).append('.');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reader returning at most a few chars per read.
+     */
+    private static final class TrickleReader extends Reader {
+
+        private final Reader delegate;
+        private final int maxRead;
+
+        TrickleReader(String text, int maxRead) {
+            this.delegate = new StringReader(text);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return delegate.read(buffer, offset, Math.min(length, maxRead));
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
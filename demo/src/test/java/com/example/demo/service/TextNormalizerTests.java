@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link TextNormalizer} gives exactly the output of the regex
+ * chain it replaced, on the text of the sample PDFs in {@code uploads/}.
+ */
+class TextNormalizerTests {
+
+    private final TextNormalizer normalizer = new TextNormalizer();
+
+    @Test
+    void samplePdfsAreNormalizedLikeTheRegexChain() throws IOException {
+        List<String> pdfs = PdfExtractionTests.samplePdfs();
+        assertFalse(pdfs.isEmpty());
+
+        for (String pdf : pdfs) {
+            String raw = extract(Paths.get("uploads", pdf));
+            assertFalse(raw.isBlank(), "No text in " + pdf);
+            assertEquals(regexChain(raw), normalizer.normalizePdfText(raw), "Normalized text of " + pdf);
+        }
+    }
+
+    @Test
+    void samplePdfsWithWindowsLineEndingsAreNormalizedLikeTheRegexChain() throws IOException {
+        for (String pdf : PdfExtractionTests.samplePdfs()) {
+            String raw = extract(Paths.get("uploads", pdf)).replace("\n", "\r\n");
+            assertEquals(regexChain(raw), normalizer.normalizePdfText(raw), "Normalized text of " + pdf);
+        }
+    }
+
+    @Test
+    void artifactsAreCleanedUp() {
+        String raw = "  Gradient \t descent\nupdates the weights\u0000.\r\n\r\n\r\n\r\nLoss:   a=b  \n";
+
+        assertEquals("Gradient descent updates the weights.\n\nLoss: a = b", normalizer.normalizePdfText(raw));
+        assertEquals(regexChain(raw), normalizer.normalizePdfText(raw));
+    }
+
+    @Test
+    void emptyInputGivesEmptyText() {
+        assertEquals("", normalizer.normalizePdfText(null));
+        assertEquals("", normalizer.normalizePdfText(""));
+    }
+
+    /**
+     * Raw text of a PDF, extracted with the stripper settings of {@link FileStorageService}.
+     */
+    private static String extract(Path pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            stripper.setAddMoreFormatting(true);
+            stripper.setParagraphStart("\n");
+            stripper.setParagraphEnd("\n\n");
+            stripper.setPageStart("\n");
+            stripper.setPageEnd("\n\n");
+            stripper.setLineSeparator("\n");
+            return stripper.getText(document);
+        }
+    }
+
+    /**
+     * The post-processing of extracted PDF text before {@link TextNormalizer}, kept as the reference.
+     */
+    private static String regexChain(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        text = text.replaceAll("[ \\t]+", " ");
+        text = text.replaceAll("(?m)^[ \\t]+", "");
+        text = text.replaceAll("(?m)[ \\t]+$", "");
+
+        text = text.replaceAll("\\r\\n", "\n");
+        text = text.replaceAll("\\r", "\n");
+
+        text = text.replaceAll("\\n{3,}", "\n\n");
+
+        text = text.replaceAll("(?<![.!?:;,\\-])\\n(?=[a-z])", " ");
+
+        text = text.replaceAll("\\u0000", "");
+        text = text.replaceAll("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F]", "");
+
+        text = text.replaceAll("([a-zA-Z])([=<>≤≥≠+−×÷])([a-zA-Z0-9])", "$1 $2 $3");
+
+        return text.trim();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of the flat in-memory vector index.
+ */
+class VectorIndexServiceTests {
+
+    private static final Long COURSE = 1L;
+
+    private final VectorIndexService index = new VectorIndexService();
+
+    @Test
+    void searchReturnsTheTopKBestMatchFirst() {
+        // Unit vectors at growing angles from the query (1, 0)
+        List<Long> ids = new ArrayList<>();
+        List<float[]> vectors = new ArrayList<>();
+        long[] order = {5, 2, 8, 1, 9, 3, 7, 4, 6, 0};
+        for (long id : order) {
+            double angle = id * Math.PI / 20;
+            ids.add(100 + id);
+            vectors.add(new float[] {(float) Math.cos(angle), (float) Math.sin(angle)});
+        }
+        index.index(COURSE, ids, vectors);
+
+        List<ScoredChunk> hits = index.search(COURSE, new float[] {1, 0}, 4);
+
+        assertEquals(List.of(100L, 101L, 102L, 103L), hits.stream().map(ScoredChunk::chunkId).toList());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+        assertEquals(1.0, hits.get(0).score(), 1e-6);
+    }
+
+    @Test
+    void searchReturnsEveryVectorWhenKIsLarger() {
+        index.index(COURSE, List.of(1L, 2L), List.of(new float[] {0, 1}, new float[] {1, 0}));
+
+        List<ScoredChunk> hits = index.search(COURSE, new float[] {1, 0}, 10);
+
+        assertEquals(List.of(2L, 1L), hits.stream().map(ScoredChunk::chunkId).toList());
+    }
+
+    @Test
+    void searchOfAnUnknownCourseIsEmpty() {
+        assertTrue(index.search(42L, new float[] {1, 0}, 3).isEmpty());
+        assertFalse(index.isLoaded(42L));
+    }
+
+    @Test
+    void reindexingReplacesTheVectors() {
+        index.index(COURSE, List.of(1L), List.<float[]>of(new float[] {1, 0}));
+        index.index(COURSE, List.of(2L), List.<float[]>of(new float[] {1, 0}));
+
+        assertEquals(List.of(2L), index.search(COURSE, new float[] {1, 0}, 5).stream().map(ScoredChunk::chunkId).toList());
+
+        index.evict(COURSE);
+        assertFalse(index.isLoaded(COURSE));
+    }
+
+    @Test
+    void queryOfTheWrongDimensionIsRejected() {
+        index.index(COURSE, List.of(1L), List.<float[]>of(new float[] {1, 0}));
+
+        assertThrows(IllegalArgumentException.class, () -> index.search(COURSE, new float[] {1, 0, 0}, 1));
+    }
+
+    @Test
+    void similarityIsTheDotProductOfTwoChunks() {
+        index.index(COURSE, List.of(1L, 2L), List.of(new float[] {1, 0}, new float[] {0.6f, 0.8f}));
+
+        assertEquals(0.6, index.similarity(COURSE, 1L, 2L), 1e-6);
+        assertEquals(0.0, index.similarity(COURSE, 1L, 3L), 0.0);
+    }
+
+    @Test
+    void embeddingsRoundTripThroughTheirTextEncoding() {
+        float[] vector = {0.25f, -1.5f, 3.0e-7f, 0f};
+
+        assertArrayEquals(vector, VectorIndexService.decode(VectorIndexService.encode(vector)));
+        assertNull(VectorIndexService.decode("not base64!"));
+        assertNull(VectorIndexService.decode(null));
+    }
+}